@@ -0,0 +1,113 @@
+package com.noisevisionsoftware.vitema.benchmark;
+
+import com.google.cloud.firestore.encoding.CustomClassMapper;
+import com.noisevisionsoftware.vitema.model.shopping.category.ProductCategoryData;
+import com.noisevisionsoftware.vitema.service.category.CategorySnapshotFile;
+import com.noisevisionsoftware.vitema.service.category.FirestoreCategoryDataManager;
+import com.noisevisionsoftware.vitema.service.category.IngredientParseCache;
+import com.noisevisionsoftware.vitema.service.category.ProductCategorizationService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.util.ReflectionUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Czas zimnego startu słownika kategoryzacji o rozmiarze {@code dictionarySize}: wczytanie
+ * z Firestore (deserializacja dokumentów tym samym mapperem co {@code toObject}, bez kosztu
+ * sieci) oraz wczytanie z lokalnej migawki. Warianty {@code load*} kończą się zbudowaniem
+ * indeksów, warianty {@code decode*} mierzą samo odtworzenie wpisów.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CategorizationColdStartBenchmark {
+
+    @Param({"10000", "100000"})
+    public int dictionarySize;
+
+    private Map<String, Object> documents;
+    private Path snapshot;
+    private ProductCategorizationService categorizationService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Map<String, ProductCategoryData> data = IngredientCorpus.categoryData(dictionarySize, 42L);
+        documents = new LinkedHashMap<>();
+        data.forEach((key, entry) -> documents.put(key, CustomClassMapper.serialize(entry)));
+
+        snapshot = Files.createTempFile("category-snapshot", ".bin");
+        CategorySnapshotFile.write(snapshot, data);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(snapshot);
+    }
+
+    @TearDown(Level.Invocation)
+    public void stopService() {
+        if (categorizationService != null) {
+            categorizationService.flushOnShutdown();
+            categorizationService = null;
+        }
+    }
+
+    @Benchmark
+    public Map<String, ProductCategoryData> decodeFirestoreDocuments() {
+        return firestoreLikeDataManager().loadData();
+    }
+
+    @Benchmark
+    public Map<String, ProductCategoryData> decodeSnapshot() throws IOException {
+        return CategorySnapshotFile.read(snapshot);
+    }
+
+    @Benchmark
+    public ProductCategorizationService loadFromFirestore() {
+        categorizationService = new ProductCategorizationService(firestoreLikeDataManager(),
+                new CaffeineCacheManager(IngredientParseCache.CACHE_NAME));
+        categorizationService.init();
+        return categorizationService;
+    }
+
+    @Benchmark
+    public ProductCategorizationService loadFromSnapshot() {
+        // Uzgadnianie w tle dostaje pustą kolekcję i zostawia słownik z migawki bez zmian
+        categorizationService = new ProductCategorizationService(IngredientCorpus.inMemoryDataManager(Map.of()),
+                new CaffeineCacheManager(IngredientParseCache.CACHE_NAME));
+        setField(categorizationService, "snapshotEnabled", true);
+        setField(categorizationService, "snapshotPath", snapshot.toString());
+        categorizationService.init();
+        return categorizationService;
+    }
+
+    private FirestoreCategoryDataManager firestoreLikeDataManager() {
+        return new FirestoreCategoryDataManager(null) {
+            @Override
+            public Map<String, ProductCategoryData> loadData() {
+                Map<String, ProductCategoryData> result = new ConcurrentHashMap<>();
+                documents.forEach((key, document) ->
+                        result.put(key, CustomClassMapper.convertToCustomClass(document, ProductCategoryData.class, null)));
+                return result;
+            }
+
+            @Override
+            public void saveData(Map<String, ProductCategoryData> ignored) {
+            }
+        };
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
@@ -0,0 +1,61 @@
+package com.noisevisionsoftware.vitema.benchmark;
+
+import com.noisevisionsoftware.vitema.service.category.IngredientParseCache;
+import com.noisevisionsoftware.vitema.service.category.ProductCategorizationService;
+import com.noisevisionsoftware.vitema.utils.excelParser.model.ParsedProduct;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Koszt nauczenia kategoryzacji przy słowniku o rozmiarze {@code dictionarySize}: pojedyncza
+ * zmiana ({@code updateCategorization}, jedna nowa wersja słownika na składnik) oraz cała partia
+ * z uploadu ({@code updateCategorizations}, jedna wersja na partię). Koszt pojedynczej zmiany nie
+ * powinien rosnąć z rozmiarem słownika.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CategorizationUpdateBenchmark {
+
+    private static final int INGREDIENTS = 2_000;
+
+    @Param({"1000", "10000", "100000"})
+    public int dictionarySize;
+
+    private ProductCategorizationService categorizationService;
+    private List<ParsedProduct> products;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        categorizationService = new ProductCategorizationService(
+                IngredientCorpus.inMemoryDataManager(IngredientCorpus.categoryData(dictionarySize, 42L)),
+                new CaffeineCacheManager(IngredientParseCache.CACHE_NAME));
+        categorizationService.init();
+
+        products = IngredientCorpus.ingredients(INGREDIENTS, 7L).stream()
+                .map(text -> ParsedProduct.builder().name(text).original(text).categoryId("inne").build())
+                .toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        categorizationService.flushOnShutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INGREDIENTS)
+    public void updateCategorization() {
+        for (ParsedProduct product : products) {
+            categorizationService.updateCategorization(product);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INGREDIENTS)
+    public void updateCategorizations() {
+        categorizationService.updateCategorizations(products);
+    }
+}
@@ -0,0 +1,70 @@
+package com.noisevisionsoftware.vitema.benchmark;
+
+import com.noisevisionsoftware.vitema.utils.EditDistance;
+import org.apache.commons.text.similarity.LevenshteinDistance;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Porównanie odległości Levenshteina z commons-text z {@link EditDistance} przy progu
+ * podobieństwa 0.75 (jak w kategoryzacji produktów). Pary to losowe składniki z korpusu
+ * zestawione z nazwami ze słownika, więc większość z nich jest poniżej progu.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EditDistanceBenchmark {
+
+    private static final int PAIRS = 1_000;
+    private static final double THRESHOLD = 0.75;
+
+    private final LevenshteinDistance unlimited = LevenshteinDistance.getDefaultInstance();
+    private String[] left;
+    private String[] right;
+    private int[] limits;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(5L);
+        List<String> names = new ArrayList<>(IngredientCorpus.categoryData(2_000, 3L).keySet());
+        List<String> queries = IngredientCorpus.ingredients(PAIRS, 9L);
+
+        left = new String[PAIRS];
+        right = new String[PAIRS];
+        limits = new int[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            left[i] = queries.get(i).toLowerCase();
+            right[i] = names.get(random.nextInt(names.size()));
+            limits[i] = EditDistance.maxDistanceFor(THRESHOLD, Math.max(left[i].length(), right[i].length()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void commonsTextUnlimited(Blackhole blackhole) {
+        for (int i = 0; i < PAIRS; i++) {
+            blackhole.consume(unlimited.apply(left[i], right[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void commonsTextLimited(Blackhole blackhole) {
+        for (int i = 0; i < PAIRS; i++) {
+            blackhole.consume(new LevenshteinDistance(limits[i]).apply(left[i], right[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void editDistanceBanded(Blackhole blackhole) {
+        for (int i = 0; i < PAIRS; i++) {
+            blackhole.consume(EditDistance.levenshtein(left[i], right[i], limits[i]));
+        }
+    }
+}
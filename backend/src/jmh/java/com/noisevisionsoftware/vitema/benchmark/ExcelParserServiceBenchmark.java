@@ -0,0 +1,96 @@
+package com.noisevisionsoftware.vitema.benchmark;
+
+import com.noisevisionsoftware.vitema.service.category.IngredientParseCache;
+import com.noisevisionsoftware.vitema.service.category.ProductCategorizationService;
+import com.noisevisionsoftware.vitema.utils.excelParser.config.ExcelParserConfig;
+import com.noisevisionsoftware.vitema.utils.excelParser.service.ExcelParserService;
+import com.noisevisionsoftware.vitema.utils.excelParser.service.ProductParsingService;
+import com.noisevisionsoftware.vitema.utils.excelParser.service.helpers.QuantityParser;
+import com.noisevisionsoftware.vitema.utils.excelParser.service.helpers.UnitService;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Przepustowość parsowania pliku diety z 2000 składników (400 posiłków po 5 składników)
+ * przy słowniku kategoryzacji o rozmiarze {@code dictionarySize}. Przy {@code warmCache=false}
+ * cache parsowania składników jest czyszczony przed każdym wywołaniem.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ExcelParserServiceBenchmark {
+
+    private static final int MEALS = 400;
+    private static final int INGREDIENTS_PER_MEAL = 5;
+
+    @Param({"1000", "10000"})
+    public int dictionarySize;
+
+    @Param({"false", "true"})
+    public boolean warmCache;
+
+    private IngredientParseCache ingredientParseCache;
+    private ExcelParserService excelParserService;
+    private MockMultipartFile file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ProductParsingService productParsingService = new ProductParsingService(new UnitService(), new QuantityParser());
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(IngredientParseCache.CACHE_NAME);
+        ProductCategorizationService categorizationService = new ProductCategorizationService(
+                IngredientCorpus.inMemoryDataManager(IngredientCorpus.categoryData(dictionarySize, 42L)), cacheManager);
+        categorizationService.init();
+
+        ingredientParseCache = new IngredientParseCache(productParsingService, categorizationService, cacheManager);
+        excelParserService = new ExcelParserService(ingredientParseCache, categorizationService, new ExcelParserConfig());
+        file = createDietFile(IngredientCorpus.ingredients(MEALS * INGREDIENTS_PER_MEAL, 7L));
+    }
+
+    @Setup(Level.Invocation)
+    public void resetCache() {
+        if (!warmCache) {
+            ingredientParseCache.invalidateAll();
+        }
+    }
+
+    @Benchmark
+    public ExcelParserService.ParsedExcelResult parseDietFile() throws IOException {
+        return excelParserService.parseDietExcel(file);
+    }
+
+    private static MockMultipartFile createDietFile(List<String> ingredients) throws IOException {
+        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet("DietTemplate");
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("Lp.");
+            header.createCell(1).setCellValue("Nazwa posiłku");
+            header.createCell(2).setCellValue("Przygotowanie");
+            header.createCell(3).setCellValue("Składniki");
+            header.createCell(4).setCellValue("Wartości odżywcze");
+
+            for (int meal = 0; meal < MEALS; meal++) {
+                Row row = sheet.createRow(meal + 1);
+                row.createCell(0).setCellValue(meal + 1);
+                row.createCell(1).setCellValue("Posiłek " + (meal + 1));
+                row.createCell(2).setCellValue("Przygotować według przepisu");
+                row.createCell(3).setCellValue(String.join(", ", ingredients.subList(
+                        meal * INGREDIENTS_PER_MEAL, (meal + 1) * INGREDIENTS_PER_MEAL)));
+                row.createCell(4).setCellValue("450,30,15,50");
+            }
+
+            workbook.write(bos);
+            return new MockMultipartFile("diet.xlsx", "diet.xlsx",
+                    "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", bos.toByteArray());
+        }
+    }
+}
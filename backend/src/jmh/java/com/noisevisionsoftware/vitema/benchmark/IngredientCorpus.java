@@ -0,0 +1,130 @@
+package com.noisevisionsoftware.vitema.benchmark;
+
+import com.google.cloud.Timestamp;
+import com.noisevisionsoftware.vitema.model.shopping.category.ProductCategoryData;
+import com.noisevisionsoftware.vitema.service.category.FirestoreCategoryDataManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wspólne dane wejściowe dla benchmarków parsowania i kategoryzacji składników.
+ * Frazy pochodzą z rzeczywistych jadłospisów trenerów.
+ */
+public final class IngredientCorpus {
+
+    public static final List<String> PHRASES = List.of(
+            "50g płatki owsiane",
+            "100 g płatków owsianych",
+            "200ml mleko 2%",
+            "2 łyżki oliwy z oliwek",
+            "1 łyżeczka miodu",
+            "1 banan",
+            "pół szklanki jogurtu naturalnego",
+            "garść orzechów włoskich",
+            "3 jajka",
+            "120g pierś z kurczaka",
+            "1/2 awokado",
+            "2-3 liście sałaty",
+            "150 g ryżu basmati",
+            "szczypta soli",
+            "1 ząbek czosnku",
+            "250 ml bulion warzywny",
+            "1,5 kg ziemniaków",
+            "marchew 600 g",
+            "ser żółty 2 plastry",
+            "kromka chleba żytniego",
+            "jogurt naturalny 150g",
+            "2 łyżeczki masła orzechowego",
+            "• 80g makaronu pełnoziarnistego",
+            "- 1 szklanka mleka roślinnego",
+            "10 dag szynki",
+            "1 opak. serka wiejskiego",
+            "pomidor 1 szt",
+            "0,5 l kefiru",
+            "30 g twarogu półtłustego",
+            "1 łyżka siemienia lnianego",
+            "dwa jabłka",
+            "półtorej szklanki wody",
+            "100g łosoś wędzony",
+            "1 garść szpinaku",
+            "50 g fety",
+            "cebula czerwona 1 szt",
+            "1 papryka czerwona",
+            "20 g migdałów",
+            "1 kg mąki pszennej",
+            "3 łyżki jogurtu greckiego (2%)"
+    );
+
+    public static final List<String> CATEGORIES = List.of(
+            "dairy", "grains", "vegetables", "fruits", "meat", "fish", "oils", "spices", "nuts", "other"
+    );
+
+    private IngredientCorpus() {
+    }
+
+    /**
+     * Zwraca {@code size} składników z ilościami zmienionymi tak, aby część fraz się powtarzała
+     * (jak w rzeczywistych dietach), a część była unikalna.
+     */
+    public static List<String> ingredients(int size, long seed) {
+        Random random = new Random(seed);
+        List<String> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String phrase = PHRASES.get(random.nextInt(PHRASES.size()));
+            if (random.nextInt(4) == 0) {
+                phrase = (random.nextInt(400) + 1) + " g " + phrase.replaceAll("^[•\\-]?\\s*[\\d.,/\\-]+\\s*", "");
+            }
+            result.add(phrase);
+        }
+        return result;
+    }
+
+    /**
+     * Słownik kategoryzacji o zadanej wielkości: nazwy bazowe z korpusu oraz syntetyczne warianty.
+     */
+    public static Map<String, ProductCategoryData> categoryData(int size, long seed) {
+        Random random = new Random(seed);
+        Timestamp now = Timestamp.now();
+        Map<String, ProductCategoryData> data = new ConcurrentHashMap<>();
+        for (int i = 0; i < size; i++) {
+            String base = PHRASES.get(i % PHRASES.size())
+                    .replaceAll("[^a-ząćęłńóśźż ]", " ")
+                    .replaceAll("\\s+", " ")
+                    .trim();
+            String name = i < PHRASES.size() ? base : base + " " + Integer.toString(i, 36);
+            List<String> variations = new ArrayList<>();
+            variations.add(name);
+            variations.add((random.nextInt(500) + 1) + " g " + name);
+            data.put(name, ProductCategoryData.builder()
+                    .productName(name)
+                    .categoryId(CATEGORIES.get(random.nextInt(CATEGORIES.size())))
+                    .usageCount(random.nextInt(100))
+                    .variations(variations)
+                    .lastUsed(now)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+        }
+        return data;
+    }
+
+    /**
+     * Menedżer danych działający w pamięci-benchmarki nie łączą się z Firestore.
+     */
+    public static FirestoreCategoryDataManager inMemoryDataManager(Map<String, ProductCategoryData> data) {
+        return new FirestoreCategoryDataManager(null) {
+            @Override
+            public Map<String, ProductCategoryData> loadData() {
+                return new ConcurrentHashMap<>(data);
+            }
+
+            @Override
+            public void saveData(Map<String, ProductCategoryData> ignored) {
+            }
+        };
+    }
+}
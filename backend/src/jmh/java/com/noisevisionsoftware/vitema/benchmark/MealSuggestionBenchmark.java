@@ -0,0 +1,231 @@
+package com.noisevisionsoftware.vitema.benchmark;
+
+import com.google.cloud.Timestamp;
+import com.noisevisionsoftware.vitema.dto.response.diet.manual.MealSuggestionResponse;
+import com.noisevisionsoftware.vitema.mapper.recipe.RecipeJpaConverter;
+import com.noisevisionsoftware.vitema.model.meal.MealIngredient;
+import com.noisevisionsoftware.vitema.model.meal.MealTemplate;
+import com.noisevisionsoftware.vitema.model.recipe.NutritionalValues;
+import com.noisevisionsoftware.vitema.model.recipe.Recipe;
+import com.noisevisionsoftware.vitema.model.recipe.jpa.NutritionalValuesEntity;
+import com.noisevisionsoftware.vitema.model.recipe.jpa.RecipeEntity;
+import com.noisevisionsoftware.vitema.model.recipe.jpa.RecipeIngredientEntity;
+import com.noisevisionsoftware.vitema.repository.jpa.recipe.RecipeJpaRepository;
+import com.noisevisionsoftware.vitema.service.RecipeService;
+import com.noisevisionsoftware.vitema.service.diet.manual.MealSuggestionService;
+import com.noisevisionsoftware.vitema.service.diet.manual.MealTemplateService;
+import com.noisevisionsoftware.vitema.utils.MealTemplateConverter;
+import com.noisevisionsoftware.vitema.utils.SimilarityCalculator;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sugestie posiłków przy dużej tabeli przepisów, od wierszy zwróconych przez bazę do odpowiedzi.
+ * Dotychczasowa ścieżka: każdy pasujący przepis jako pełny model ze składnikami, podobieństwo
+ * i sortowanie wszystkich. Obecna: {@code limit} najlepszych wierszy projekcji uszeregowanych
+ * w bazie i wybór kopcem razem z szablonami. Czas samego zapytania nie jest mierzony - jego plan
+ * sprawdza {@code RecipeJpaRepositoryTest}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MealSuggestionBenchmark {
+
+    private static final int LIMIT = 10;
+    private static final String QUERY = "owsianka";
+
+    // Liczba przepisów pasujących do zapytania - tyle wierszy wczytywała dotychczasowa ścieżka
+    @Param({"1000", "20000"})
+    public int matchingRecipes;
+
+    private final RecipeJpaConverter recipeJpaConverter = new RecipeJpaConverter(null);
+    private final MealTemplateConverter mealTemplateConverter = new MealTemplateConverter();
+    private final SimilarityCalculator similarityCalculator = new SimilarityCalculator();
+
+    private List<RecipeEntity> matchingEntities;
+    private List<RecipeJpaRepository.RecipeSuggestionView> topViews;
+    private List<MealTemplate> templates;
+    private MealSuggestionService mealSuggestionService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42L);
+        matchingEntities = new ArrayList<>(matchingRecipes);
+        for (int i = 0; i < matchingRecipes; i++) {
+            matchingEntities.add(recipeEntity(i, random));
+        }
+        // Baza zwraca już uszeregowane najlepsze wiersze - do porównania wystarczy ich kształt
+        topViews = matchingEntities.stream().limit(LIMIT).map(SuggestionView::new)
+                .<RecipeJpaRepository.RecipeSuggestionView>map(view -> view)
+                .toList();
+        templates = new ArrayList<>(LIMIT);
+        for (int i = 0; i < LIMIT; i++) {
+            templates.add(template(i, random));
+        }
+
+        RecipeService recipeService = new RecipeService(null, null, null, null, null, null, null) {
+            @Override
+            public List<Recipe> searchRecipeSuggestions(String query, int limit) {
+                return topViews.stream().limit(limit).map(recipeJpaConverter::toSuggestionModel).toList();
+            }
+        };
+        MealTemplateService mealTemplateService = new MealTemplateService(null, null) {
+            @Override
+            public List<MealTemplate> searchAccessibleTemplates(String query, String userId, int limit) {
+                return templates.subList(0, Math.min(limit, templates.size()));
+            }
+        };
+        mealSuggestionService = new MealSuggestionService(
+                recipeService, mealTemplateService, mealTemplateConverter, similarityCalculator);
+    }
+
+    @Benchmark
+    public List<MealSuggestionResponse> projectionTopK() {
+        return mealSuggestionService.searchMealSuggestions(QUERY, LIMIT, "trainer-1");
+    }
+
+    @Benchmark
+    public List<MealSuggestionResponse> fullModelsSortAll() {
+        List<MealSuggestionResponse> suggestions = new ArrayList<>();
+        for (RecipeEntity entity : matchingEntities) {
+            Recipe recipe = recipeJpaConverter.toModel(entity);
+            suggestions.add(MealSuggestionResponse.builder()
+                    .id("recipe-" + recipe.getId())
+                    .name(recipe.getName())
+                    .instructions(recipe.getInstructions())
+                    .nutritionalValues(mealTemplateConverter.convertNutritionalValuesToResponse(recipe.getNutritionalValues()))
+                    .photos(recipe.getPhotos())
+                    .ingredients(new ArrayList<>())
+                    .similarity(similarityCalculator.calculateSimilarity(QUERY, recipe.getName()))
+                    .isExact(recipe.getName().equalsIgnoreCase(QUERY))
+                    .source("RECIPE")
+                    .build());
+        }
+        for (MealTemplate template : templates.subList(0, LIMIT / 2)) {
+            suggestions.add(MealSuggestionResponse.builder()
+                    .id(template.getId())
+                    .name(template.getName())
+                    .instructions(template.getInstructions())
+                    .nutritionalValues(mealTemplateConverter.convertNutritionalValuesToResponse(template.getNutritionalValues()))
+                    .photos(template.getPhotos())
+                    .ingredients(mealTemplateConverter.convertIngredientsToSuggestions(template.getIngredients()))
+                    .similarity(similarityCalculator.calculateSimilarity(QUERY, template.getName()))
+                    .isExact(template.getName().equalsIgnoreCase(QUERY))
+                    .source("TEMPLATE")
+                    .usageCount(template.getUsageCount())
+                    .build());
+        }
+        suggestions.sort((a, b) -> {
+            if (a.isExact() && !b.isExact()) return -1;
+            if (!a.isExact() && b.isExact()) return 1;
+            return Double.compare(b.getSimilarity(), a.getSimilarity());
+        });
+        return suggestions.subList(0, LIMIT);
+    }
+
+    private RecipeEntity recipeEntity(int i, Random random) {
+        String phrase = IngredientCorpus.PHRASES.get(i % IngredientCorpus.PHRASES.size());
+        RecipeEntity entity = RecipeEntity.builder()
+                .id((long) i)
+                .externalId("recipe-" + i)
+                .name("Owsianka " + phrase + " " + Integer.toString(i, 36))
+                .instructions("Wymieszaj składniki. ".repeat(20))
+                .createdAt(LocalDateTime.now())
+                .photos(new ArrayList<>(List.of("https://storage/recipes/" + i + "-1.jpg",
+                        "https://storage/recipes/" + i + "-2.jpg")))
+                .nutritionalValues(NutritionalValuesEntity.builder()
+                        .calories(random.nextInt(900))
+                        .protein(random.nextInt(40))
+                        .fat(random.nextInt(40))
+                        .carbs(random.nextInt(80))
+                        .build())
+                .build();
+        List<RecipeIngredientEntity> ingredients = new ArrayList<>();
+        for (int j = 0; j < 8; j++) {
+            ingredients.add(RecipeIngredientEntity.builder()
+                    .id((long) i * 8 + j)
+                    .recipe(entity)
+                    .name(IngredientCorpus.PHRASES.get((i + j) % IngredientCorpus.PHRASES.size()))
+                    .quantity(BigDecimal.valueOf(random.nextInt(500)))
+                    .unit("g")
+                    .displayOrder(j)
+                    .build());
+        }
+        entity.setIngredients(ingredients);
+        return entity;
+    }
+
+    private MealTemplate template(int i, Random random) {
+        List<MealIngredient> ingredients = new ArrayList<>();
+        for (int j = 0; j < 8; j++) {
+            ingredients.add(MealIngredient.builder()
+                    .id("ingredient-" + j)
+                    .name(IngredientCorpus.PHRASES.get((i + j) % IngredientCorpus.PHRASES.size()))
+                    .quantity((double) random.nextInt(500))
+                    .unit("g")
+                    .build());
+        }
+        return MealTemplate.builder()
+                .id("template-" + i)
+                .name("Owsianka szablon " + i)
+                .instructions("Wymieszaj składniki.")
+                .nutritionalValues(NutritionalValues.builder().calories(350.0).build())
+                .photos(new ArrayList<>())
+                .ingredients(ingredients)
+                .usageCount(random.nextInt(20))
+                .lastUsed(Timestamp.now())
+                .build();
+    }
+
+    private record SuggestionView(RecipeEntity entity) implements RecipeJpaRepository.RecipeSuggestionView {
+
+        @Override
+        public String getExternalId() {
+            return entity.getExternalId();
+        }
+
+        @Override
+        public String getName() {
+            return entity.getName();
+        }
+
+        @Override
+        public Double getCalories() {
+            return entity.getNutritionalValues().getCalories();
+        }
+
+        @Override
+        public Double getProtein() {
+            return entity.getNutritionalValues().getProtein();
+        }
+
+        @Override
+        public Double getFat() {
+            return entity.getNutritionalValues().getFat();
+        }
+
+        @Override
+        public Double getCarbs() {
+            return entity.getNutritionalValues().getCarbs();
+        }
+
+        @Override
+        public String getInstructions() {
+            return entity.getInstructions();
+        }
+
+        @Override
+        public String getPhoto() {
+            return entity.getPhotos().getFirst();
+        }
+
+        @Override
+        public LocalDateTime getCreatedAt() {
+            return entity.getCreatedAt();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.noisevisionsoftware.vitema.benchmark;
+
+import com.noisevisionsoftware.vitema.dto.product.IngredientDTO;
+import com.noisevisionsoftware.vitema.model.product.ProductType;
+import com.noisevisionsoftware.vitema.model.product.jpa.ProductEntity;
+import com.noisevisionsoftware.vitema.service.product.ProductCatalogIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Podpowiedzi z katalogu produktów w pamięci dla zapytań o różnej długości, porównane
+ * z przeszukaniem całej listy (odpowiednik {@code LIKE '%...%'} z sortowaniem po nazwie).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductCatalogBenchmark {
+
+    private static final int LIMIT = 20;
+
+    @Param({"100000"})
+    public int catalogSize;
+
+    @Param({"m", "mle", "mleko", "ser zol", "platki owsiane 1"})
+    public String query;
+
+    private List<ProductEntity> products;
+    private ProductCatalogIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42L);
+        products = new ArrayList<>(catalogSize);
+        Map<Long, Integer> popularity = new HashMap<>();
+        for (int i = 0; i < catalogSize; i++) {
+            String base = IngredientCorpus.PHRASES.get(i % IngredientCorpus.PHRASES.size())
+                    .replaceAll("[^a-ząćęłńóśźż ]", " ")
+                    .replaceAll("\\s+", " ")
+                    .trim()
+                    .replace('ż', 'z').replace('ł', 'l').replace('ó', 'o');
+            long id = i + 1L;
+            products.add(ProductEntity.builder()
+                    .id(id)
+                    .name(base + " " + Integer.toString(i, 36))
+                    .unit("g")
+                    .category(IngredientCorpus.CATEGORIES.get(random.nextInt(IngredientCorpus.CATEGORIES.size())))
+                    .kcal(random.nextInt(900))
+                    .protein(random.nextInt(40))
+                    .fat(random.nextInt(40))
+                    .carbs(random.nextInt(80))
+                    .type(ProductType.GLOBAL)
+                    .build());
+            if (random.nextInt(10) == 0) {
+                popularity.put(id, random.nextInt(500));
+            }
+        }
+        index = ProductCatalogIndex.build(products, popularity);
+    }
+
+    @Benchmark
+    public List<IngredientDTO> catalogSearch() {
+        return index.search(query, LIMIT);
+    }
+
+    @Benchmark
+    public List<ProductEntity> linearScan() {
+        String needle = query.toLowerCase(Locale.ROOT);
+        return products.stream()
+                .filter(product -> product.getName().toLowerCase(Locale.ROOT).contains(needle))
+                .sorted(Comparator.comparing(ProductEntity::getName))
+                .limit(LIMIT)
+                .toList();
+    }
+}
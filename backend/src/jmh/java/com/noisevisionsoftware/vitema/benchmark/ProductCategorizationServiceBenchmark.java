@@ -0,0 +1,59 @@
+package com.noisevisionsoftware.vitema.benchmark;
+
+import com.noisevisionsoftware.vitema.service.category.IngredientParseCache;
+import com.noisevisionsoftware.vitema.service.category.ProductCategorizationService;
+import com.noisevisionsoftware.vitema.utils.excelParser.model.ParsedProduct;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Koszt podpowiedzi kategorii dla pojedynczego składnika przy słowniku o rozmiarze
+ * {@code dictionarySize}. Większość fraz z korpusu nie ma dokładnego dopasowania, więc
+ * benchmark mierzy głównie ścieżkę dopasowania przybliżonego. {@code suggestCategories} zbiera
+ * dodatkowo kandydatów ze wszystkich etapów, także gdy istnieje dopasowanie dokładne.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductCategorizationServiceBenchmark {
+
+    private static final int INGREDIENTS = 200;
+
+    @Param({"10000", "100000"})
+    public int dictionarySize;
+
+    private ProductCategorizationService categorizationService;
+    private List<ParsedProduct> products;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        categorizationService = new ProductCategorizationService(
+                IngredientCorpus.inMemoryDataManager(IngredientCorpus.categoryData(dictionarySize, 42L)),
+                new CaffeineCacheManager(IngredientParseCache.CACHE_NAME));
+        categorizationService.init();
+
+        products = IngredientCorpus.ingredients(INGREDIENTS, 13L).stream()
+                .map(text -> ParsedProduct.builder().name(text).original(text).build())
+                .toList();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INGREDIENTS)
+    public void suggestCategory(Blackhole blackhole) {
+        for (ParsedProduct product : products) {
+            blackhole.consume(categorizationService.suggestCategory(product));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INGREDIENTS)
+    public void suggestCategories(Blackhole blackhole) {
+        for (ParsedProduct product : products) {
+            blackhole.consume(categorizationService.suggestCategories(product, 3));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.noisevisionsoftware.vitema.benchmark;
+
+import com.noisevisionsoftware.vitema.utils.excelParser.service.ProductParsingService;
+import com.noisevisionsoftware.vitema.utils.excelParser.service.helpers.QuantityParser;
+import com.noisevisionsoftware.vitema.utils.excelParser.service.helpers.UnitService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Koszt parsowania pojedynczego składnika na korpusie rzeczywistych polskich fraz.
+ * Profiler gc (build.gradle) raportuje też alokacje na składnik (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProductParsingServiceBenchmark {
+
+    private ProductParsingService productParsingService;
+    private List<String> ingredients;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        productParsingService = new ProductParsingService(new UnitService(), new QuantityParser());
+        ingredients = IngredientCorpus.ingredients(1_000, 11L);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000)
+    public void parseCorpus(Blackhole blackhole) {
+        for (String ingredient : ingredients) {
+            blackhole.consume(productParsingService.parseProduct(ingredient));
+        }
+    }
+}
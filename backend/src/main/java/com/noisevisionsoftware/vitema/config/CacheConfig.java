@@ -40,6 +40,7 @@ public class CacheConfig {
         caches.add(new CaffeineCache("categories", defaultCaffeine.build()));
         caches.add(new CaffeineCache("shoppingListCache", defaultCaffeine.build()));
         caches.add(new CaffeineCache("categorizationCache", defaultCaffeine.build()));
+        caches.add(new CaffeineCache("ingredientParseCache", ingredientParseCaffeine().build()));
         caches.add(new CaffeineCache("newsletterSubscribers", defaultCaffeine.build()));
         caches.add(new CaffeineCache("newsletterStats", defaultCaffeine.build()));
 
@@ -47,6 +48,7 @@ public class CacheConfig {
         caches.add(new CaffeineCache("recipesCache", singleRecipeCaffeine().build()));
         caches.add(new CaffeineCache("recipesBatchCache", batchRecipeCaffeine().build()));
         caches.add(new CaffeineCache("recipesPageCache", pageResultsCaffeine().build()));
+        caches.add(new CaffeineCache("recipesCountCache", defaultCaffeine.build()));
         caches.add(new CaffeineCache("recipesSearchCache", searchResultsCaffeine().build()));
 
         // Cache dla składników
@@ -103,6 +105,14 @@ public class CacheConfig {
                 .recordStats();
     }
 
+    private Caffeine<Object, Object> ingredientParseCaffeine() {
+        return Caffeine.newBuilder()
+                .initialCapacity(1_000)
+                .maximumSize(50_000)                  // Frazy składników powtarzają się między dietami
+                .expireAfterAccess(24, TimeUnit.HOURS) // Czyszczony także przy zmianie kategoryzacji
+                .recordStats();
+    }
+
     @Bean
     public Cache<String, UserRole> roleCache() {
         return Caffeine.newBuilder()
@@ -1,5 +1,6 @@
 package com.noisevisionsoftware.vitema.config;
 
+import com.noisevisionsoftware.vitema.dto.search.SearchPage;
 import com.noisevisionsoftware.vitema.security.RateLimitingFilter;
 import com.noisevisionsoftware.vitema.security.filter.FirebaseAuthenticationFilter;
 import com.noisevisionsoftware.vitema.service.auth.FirebaseAuthenticationService;
@@ -111,7 +112,8 @@ public class SecurityConfig {
                 "X-XSRF-TOKEN"
         ));
         configuration.setAllowCredentials(true);
-        configuration.setExposedHeaders(List.of("Authorization", "X-XSRF-TOKEN"));
+        configuration.setExposedHeaders(List.of("Authorization", "X-XSRF-TOKEN", SearchPage.NEXT_CURSOR_HEADER,
+                SearchPage.SKIPPED_SOURCES_HEADER));
         configuration.setMaxAge(3600L);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
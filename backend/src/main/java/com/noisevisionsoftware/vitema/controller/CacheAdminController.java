@@ -1,6 +1,7 @@
 package com.noisevisionsoftware.vitema.controller;
 
 import com.noisevisionsoftware.vitema.service.CacheMonitoringService;
+import com.noisevisionsoftware.vitema.service.category.ProductCategorizationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -13,12 +14,22 @@ import java.util.Map;
 public class CacheAdminController {
 
     private final CacheMonitoringService cacheMonitoringService;
+    private final ProductCategorizationService productCategorizationService;
 
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Map<String, Object>>> getCacheStatistics() {
         return ResponseEntity.ok(cacheMonitoringService.getCacheStatistics());
     }
 
+    /*
+     * Stan zapisu write-behind słownika kategoryzacji: niezapisane wpisy, wiek najstarszej
+     * niezapisanej zmiany, opóźnienie ostatniego zapisu i liczba nieudanych zapisów
+     * */
+    @GetMapping("/categorization/write-behind")
+    public ResponseEntity<ProductCategorizationService.WriteBehindStats> getCategorizationWriteBehindStats() {
+        return ResponseEntity.ok(productCategorizationService.getWriteBehindStats());
+    }
+
     @PostMapping("/{cacheName}/invalidate")
     public ResponseEntity<String> invalidateCache(@PathVariable String cacheName) {
         cacheMonitoringService.invalidateCache(cacheName);
@@ -30,6 +41,7 @@ public class CacheAdminController {
         cacheMonitoringService.invalidateCache("recipesCache");
         cacheMonitoringService.invalidateCache("recipesBatchCache");
         cacheMonitoringService.invalidateCache("recipesPageCache");
+        cacheMonitoringService.invalidateCache("recipesCountCache");
         cacheMonitoringService.invalidateCache("recipesSearchCache");
         return ResponseEntity.ok("All caches invalidated successfully");
     }
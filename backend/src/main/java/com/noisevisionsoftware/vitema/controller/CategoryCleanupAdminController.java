@@ -0,0 +1,34 @@
+package com.noisevisionsoftware.vitema.controller;
+
+import com.noisevisionsoftware.vitema.service.category.CategoryDataCleanupService;
+import com.noisevisionsoftware.vitema.service.category.CategoryDataCleanupService.CleanupJobStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/categories/cleanup")
+@RequiredArgsConstructor
+public class CategoryCleanupAdminController {
+
+    private final CategoryDataCleanupService cleanupService;
+
+    /*
+     * Uruchamia (lub wznawia) czyszczenie duplikatów w tle; domyślnie tylko podgląd zmian
+     * */
+    @PostMapping
+    public ResponseEntity<CleanupJobStatus> startCleanup(@RequestParam(defaultValue = "true") boolean dryRun) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(cleanupService.startCleanupJob(dryRun));
+    }
+
+    @GetMapping
+    public ResponseEntity<CleanupJobStatus> getCleanupStatus() {
+        return ResponseEntity.of(cleanupService.getCleanupJobStatus());
+    }
+
+    @PostMapping("/cancel")
+    public ResponseEntity<CleanupJobStatus> cancelCleanup() {
+        return ResponseEntity.of(cleanupService.cancelCleanupJob());
+    }
+}
@@ -0,0 +1,34 @@
+package com.noisevisionsoftware.vitema.controller;
+
+import com.noisevisionsoftware.vitema.dto.response.product.ProductImportResponse;
+import com.noisevisionsoftware.vitema.service.product.ProductImportFormat;
+import com.noisevisionsoftware.vitema.service.product.ProductImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/admin/products")
+@RequiredArgsConstructor
+public class ProductAdminController {
+
+    private final ProductImportService productImportService;
+
+    /*
+     * Import bazy produktów GLOBAL z CSV lub JSON przesłanego jako treść żądania (bez multipart,
+     * więc plik jest czytany strumieniowo). Produkty o istniejącej nazwie są aktualizowane.
+     * */
+    @PostMapping(value = "/import", consumes = {ProductImportFormat.CSV_CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<ProductImportResponse> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        return ProductImportFormat.fromContentType(contentType)
+                .map(format -> ResponseEntity.ok(productImportService.importProducts(body, format)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).build());
+    }
+}
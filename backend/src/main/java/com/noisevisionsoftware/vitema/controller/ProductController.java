@@ -2,9 +2,11 @@ package com.noisevisionsoftware.vitema.controller;
 
 import com.noisevisionsoftware.vitema.dto.product.IngredientDTO;
 import com.noisevisionsoftware.vitema.dto.response.product.ProductResponse;
+import com.noisevisionsoftware.vitema.dto.search.SearchPage;
 import com.noisevisionsoftware.vitema.model.product.Product;
 import com.noisevisionsoftware.vitema.service.product.ProductDatabaseService;
 import com.noisevisionsoftware.vitema.service.product.ProductService;
+import com.noisevisionsoftware.vitema.service.search.SearchCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -27,20 +29,30 @@ public class ProductController {
     @GetMapping("/db/search")
     public ResponseEntity<List<ProductResponse>> searchDb(
             @RequestParam String query,
-            @RequestParam(required = false) String category) {
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor) {
+        if (!SearchCursor.isValidLimit(limit) || !SearchCursor.isValid(cursor, 1)) {
+            return ResponseEntity.badRequest().build();
+        }
         if (category != null && !category.isBlank()) {
-            return ResponseEntity.ok(productDatabaseService.searchByNameAndCategory(query, category));
+            return productDatabaseService.searchByNameAndCategory(query, category, limit, cursor).toResponse();
         }
-        return ResponseEntity.ok(productDatabaseService.searchByName(query));
+        return productDatabaseService.searchByName(query, null, limit, cursor).toResponse();
     }
 
     @GetMapping("/search")
     public ResponseEntity<List<IngredientDTO>> searchProducts(
             @RequestParam String query,
-            @RequestParam(required = false) String trainerId) {
+            @RequestParam(required = false) String trainerId,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor) {
+        if (!SearchCursor.isValidLimit(limit) || !SearchCursor.isValid(cursor, 1)) {
+            return ResponseEntity.badRequest().build();
+        }
         log.info("Searching products with query: {}, trainerId: {}", query, trainerId);
-        List<IngredientDTO> results = productService.searchProducts(query, trainerId);
-        return ResponseEntity.ok(results);
+        SearchPage<IngredientDTO> results = productService.searchProducts(query, trainerId, limit, cursor);
+        return results.toResponse();
     }
 
     @GetMapping("/{id}")
@@ -4,10 +4,13 @@ import com.noisevisionsoftware.vitema.dto.request.recipe.RecipeUpdateRequest;
 import com.noisevisionsoftware.vitema.dto.response.recipe.RecipeImageResponse;
 import com.noisevisionsoftware.vitema.dto.response.recipe.RecipeResponse;
 import com.noisevisionsoftware.vitema.dto.response.recipe.RecipesPageResponse;
+import com.noisevisionsoftware.vitema.dto.search.SearchPage;
 import com.noisevisionsoftware.vitema.exception.NotFoundException;
 import com.noisevisionsoftware.vitema.mapper.recipe.RecipeMapper;
 import com.noisevisionsoftware.vitema.model.recipe.Recipe;
 import com.noisevisionsoftware.vitema.service.RecipeService;
+import com.noisevisionsoftware.vitema.service.search.SearchCursor;
+import com.noisevisionsoftware.vitema.utils.RecipeCursor;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -45,12 +48,27 @@ public class RecipeController {
         return ResponseEntity.status(HttpStatus.CREATED).body(recipeMapper.toResponse(createdRecipe));
     }
 
+    /**
+     * Lista przepisów od najnowszych (domyślny porządek) jest stronicowana kursorem - pierwsza strona
+     * zwraca {@code nextCursor}, który wskazuje kolejną. Rozmiar strony kursora jest ograniczony
+     * do {@link SearchCursor#MAX_LIMIT}. Inne porządki sortowania zostają przy numerach stron.
+     */
     @GetMapping
     public ResponseEntity<RecipesPageResponse> getAllRecipes(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "50") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean includeTotal) {
+
+        boolean hasCursor = cursor != null && !cursor.isBlank();
+        if (hasCursor || (page == 0 && isNewestFirst(sortBy, sortDir))) {
+            if (!SearchCursor.isValidLimit(size) || !RecipeCursor.isValid(cursor)) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.ok(getRecipesPage(hasCursor ? cursor : null, size, includeTotal));
+        }
 
         Sort sort = Sort.by(Sort.Direction.fromString(sortDir), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
@@ -71,6 +89,28 @@ public class RecipeController {
         return ResponseEntity.ok(response);
     }
 
+    private RecipesPageResponse getRecipesPage(String cursor, int size, boolean includeTotal) {
+        SearchPage<Recipe> recipesPage = recipeService.getRecipesPage(cursor, size);
+        RecipesPageResponse.RecipesPageResponseBuilder response = RecipesPageResponse.builder()
+                .content(recipesPage.items().stream()
+                        .map(recipeMapper::toResponse)
+                        .collect(Collectors.toList()))
+                .page(cursor == null ? 0 : null)
+                .size(size)
+                .nextCursor(recipesPage.nextCursor());
+
+        if (includeTotal) {
+            long total = recipeService.countVisibleRecipes();
+            response.totalElements(total)
+                    .totalPages((int) ((total + size - 1) / size));
+        }
+        return response.build();
+    }
+
+    private boolean isNewestFirst(String sortBy, String sortDir) {
+        return "createdAt".equals(sortBy) && "desc".equalsIgnoreCase(sortDir);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<RecipeResponse> getRecipeById(@PathVariable String id) {
         try {
@@ -141,13 +181,20 @@ public class RecipeController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<RecipeResponse>> searchRecipes(@RequestParam String query) {
-        List<Recipe> searchResults = recipeService.searchRecipes(query);
-        return ResponseEntity.ok(
-                searchResults.stream()
+    public ResponseEntity<List<RecipeResponse>> searchRecipes(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor) {
+        if (!SearchCursor.isValidLimit(limit) || !SearchCursor.isValid(cursor, 1)) {
+            return ResponseEntity.badRequest().build();
+        }
+        SearchPage<Recipe> searchResults = recipeService.searchRecipes(query, limit, cursor);
+        return new SearchPage<>(
+                searchResults.items().stream()
                         .map(recipeMapper::toResponse)
-                        .collect(Collectors.toList())
-        );
+                        .collect(Collectors.toList()),
+                searchResults.nextCursor()
+        ).toResponse();
     }
 
     @PostMapping(value = "/base64-image")
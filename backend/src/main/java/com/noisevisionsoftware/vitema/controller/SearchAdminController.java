@@ -0,0 +1,26 @@
+package com.noisevisionsoftware.vitema.controller;
+
+import com.noisevisionsoftware.vitema.service.search.UnifiedSearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/search")
+@RequiredArgsConstructor
+public class SearchAdminController {
+
+    private final UnifiedSearchService unifiedSearchService;
+
+    /*
+     * Czasy odpowiedzi, przekroczenia terminu i błędy każdego źródła wyszukiwania łączonego
+     * */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Map<String, Object>>> getSearchStatistics() {
+        return ResponseEntity.ok(unifiedSearchService.getSourceStatistics());
+    }
+}
@@ -1,23 +1,37 @@
 package com.noisevisionsoftware.vitema.controller.diet;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.noisevisionsoftware.vitema.dto.request.category.BulkCategoryRequest;
 import com.noisevisionsoftware.vitema.dto.request.category.ParseProductsRequest;
 import com.noisevisionsoftware.vitema.dto.request.category.UpdateCategoriesRequest;
 import com.noisevisionsoftware.vitema.dto.request.category.UpdateProductRequest;
 import com.noisevisionsoftware.vitema.model.shopping.category.Category;
+import com.noisevisionsoftware.vitema.model.shopping.category.CategorySuggestion;
 import com.noisevisionsoftware.vitema.service.category.FirestoreCategoryDataManager;
+import com.noisevisionsoftware.vitema.service.category.IngredientBatchParsingService;
+import com.noisevisionsoftware.vitema.service.category.IngredientParseCache;
 import com.noisevisionsoftware.vitema.service.category.ProductCategorizationService;
 import com.noisevisionsoftware.vitema.utils.excelParser.model.ParsedProduct;
-import com.noisevisionsoftware.vitema.utils.excelParser.model.ParsingResult;
-import com.noisevisionsoftware.vitema.utils.excelParser.service.ProductParsingService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.server.ServletServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
-
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.Callable;
 
 @RestController
 @RequestMapping("/api/diets/categorization")
@@ -25,9 +39,12 @@ import java.util.*;
 @Slf4j
 public class DietCategorizationController {
 
+    private static final int MAX_SUGGESTIONS = 10;
+
     private final ProductCategorizationService categorizationService;
     private final FirestoreCategoryDataManager firestoreCategoryDataManager;
-    private final ProductParsingService productParsingService;
+    private final IngredientParseCache ingredientParseCache;
+    private final IngredientBatchParsingService batchParsingService;
     private final List<Category> defaultCategories;
 
     @PostMapping("/parse")
@@ -40,27 +57,7 @@ public class DietCategorizationController {
 
         for (String productText : request.getProducts()) {
             try {
-                ParsingResult result = productParsingService.parseProduct(productText);
-                ParsedProduct product;
-
-                if (result.isSuccess() && result.getProduct() != null) {
-                    product = result.getProduct();
-                } else {
-                    product = ParsedProduct.builder()
-                            .id(UUID.randomUUID().toString())
-                            .name(productText)
-                            .quantity(1.0)
-                            .unit("szt")
-                            .original(productText)
-                            .hasCustomUnit(false)
-                            .categoryId(null)
-                            .build();
-                }
-
-                String categoryId = categorizationService.suggestCategory(product);
-                product.setCategoryId(categoryId);
-
-                parsedProducts.add(product);
+                parsedProducts.add(ingredientParseCache.parse(productText));
             } catch (Exception e) {
                 log.error("Błąd podczas parsowania produktu: {}", productText, e);
                 ParsedProduct defaultProduct = ParsedProduct.builder()
@@ -79,6 +76,57 @@ public class DietCategorizationController {
         return ResponseEntity.ok(parsedProducts);
     }
 
+    /**
+     * Wsadowe parsowanie z odpowiedzią NDJSON - każdy składnik jest wysyłany jako osobna linia
+     * {@code {"index": ..., "product": {...}}} zaraz po skategoryzowaniu, w kolejności ukończenia.
+     */
+    @PostMapping(value = "/parse/stream",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> parseProductsStream(HttpServletRequest request) throws IOException {
+        List<String> products;
+        try {
+            // Limity są sprawdzane w trakcie czytania - bez @RequestBody, który najpierw buduje całą listę
+            products = batchParsingService.readJsonLines(request.getInputStream(), request.getContentLengthLong());
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotReadableException(e.getOriginalMessage(), e, new ServletServerHttpRequest(request));
+        }
+        return streamParsedProducts(request, products);
+    }
+
+    /**
+     * Wariant przyjmujący wklejony tekst - jeden składnik w linii.
+     */
+    @PostMapping(value = "/parse/stream",
+            consumes = MediaType.TEXT_PLAIN_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> parseProductLinesStream(HttpServletRequest request) throws IOException {
+        Charset charset = request.getCharacterEncoding() != null
+                ? Charset.forName(request.getCharacterEncoding())
+                : StandardCharsets.UTF_8;
+        List<String> lines = batchParsingService.readTextLines(
+                request.getInputStream(), request.getContentLengthLong(), charset);
+        return streamParsedProducts(request, lines);
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamParsedProducts(HttpServletRequest request, List<String> lines) {
+        IngredientBatchParsingService.BatchStream stream = batchParsingService.openStream(lines);
+
+        // Zwolnienie miejsca także wtedy, gdy zapis nie wystartuje (timeout, rozłączony klient, odrzucone zadanie)
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(
+                IngredientBatchParsingService.BatchStream.class.getName(),
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                        stream.release();
+                    }
+                });
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(stream);
+    }
+
     @PutMapping("/product")
     public ResponseEntity<Map<String, Object>> updateProduct(
             @RequestBody UpdateProductRequest request
@@ -164,6 +212,19 @@ public class DietCategorizationController {
         }
     }
 
+    /**
+     * Do {@code limit} kategorii dla produktu, od najlepiej pasującej, z oceną dopasowania.
+     */
+    @PostMapping("/suggest/top")
+    public ResponseEntity<List<CategorySuggestion>> suggestTopCategories(
+            @RequestBody ParsedProduct product,
+            @RequestParam(defaultValue = "3") int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(categorizationService.suggestCategories(product, limit));
+    }
+
     @PostMapping("/suggest/bulk")
     public ResponseEntity<Map<String, String>> bulkSuggestCategories(
             @RequestBody BulkCategoryRequest request) {
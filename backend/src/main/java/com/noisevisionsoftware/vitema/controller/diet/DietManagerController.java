@@ -5,10 +5,12 @@ import com.noisevisionsoftware.vitema.dto.diet.DietHistorySummaryDto;
 import com.noisevisionsoftware.vitema.dto.request.diet.SaveDietRequest;
 import com.noisevisionsoftware.vitema.dto.request.diet.UpdateDietRequest;
 import com.noisevisionsoftware.vitema.dto.response.diet.SaveDietResponse;
+import com.noisevisionsoftware.vitema.dto.search.SearchPage;
 import com.noisevisionsoftware.vitema.dto.search.UnifiedSearchDto;
 import com.noisevisionsoftware.vitema.service.diet.DietCommandService;
 import com.noisevisionsoftware.vitema.service.diet.DietQueryService;
 import com.noisevisionsoftware.vitema.service.firebase.FileStorageService;
+import com.noisevisionsoftware.vitema.service.search.SearchCursor;
 import com.noisevisionsoftware.vitema.service.search.UnifiedSearchService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -33,14 +35,20 @@ public class DietManagerController {
 
     /**
      * Unified search: returns both recipes and products in one response.
+     * The cursor of the next page, if any, is returned in the X-Next-Cursor header.
      */
     @GetMapping("/search")
     public ResponseEntity<List<UnifiedSearchDto>> search(
             @RequestParam String query,
-            @RequestParam(required = false) String trainerId
+            @RequestParam(required = false) String trainerId,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor
     ) {
-        List<UnifiedSearchDto> results = unifiedSearchService.search(query, trainerId);
-        return ResponseEntity.ok(results);
+        if (!SearchCursor.isValidLimit(limit) || !SearchCursor.isValid(cursor, 2)) {
+            return ResponseEntity.badRequest().build();
+        }
+        SearchPage<UnifiedSearchDto> results = unifiedSearchService.search(query, trainerId, limit, cursor);
+        return results.toResponse();
     }
 
     @PostMapping("/upload")
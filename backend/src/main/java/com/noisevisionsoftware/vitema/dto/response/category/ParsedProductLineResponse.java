@@ -0,0 +1,18 @@
+package com.noisevisionsoftware.vitema.dto.response.category;
+
+import com.noisevisionsoftware.vitema.utils.excelParser.model.ParsedProduct;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Pojedyncza linia odpowiedzi NDJSON wsadowego parsowania. {@code index} wskazuje pozycję
+ * składnika w żądaniu, bo wyniki są wysyłane w kolejności ukończenia.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ParsedProductLineResponse {
+    private int index;
+    private ParsedProduct product;
+}
@@ -0,0 +1,30 @@
+package com.noisevisionsoftware.vitema.dto.response.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk product import. {@code errors} lists rejected rows up to a limit
+ * ({@code errorsTruncated} is set when more rows failed); {@code failed} counts all of them.
+ * A row repeating the name of an earlier row replaces it; only the last one is inserted or updated.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResponse {
+    private int totalRows;
+    private int inserted;
+    private int updated;
+    private int failed;
+    private long durationMs;
+    private List<RowError> errors;
+    private boolean errorsTruncated;
+
+    public record RowError(int row, String name, String message) {
+    }
+}
@@ -5,13 +5,19 @@ import lombok.Data;
 
 import java.util.List;
 
+/**
+ * Strona listy przepisów. Przy stronicowaniu kursorem kolejną stronę wskazuje {@code nextCursor}
+ * ({@code null} na ostatniej), a {@code page} jest znany tylko dla pierwszej strony.
+ * {@code totalElements} i {@code totalPages} są {@code null}, gdy klient nie prosił o liczbę przepisów.
+ */
 @Data
 @Builder
 public class RecipesPageResponse {
 
     private List<RecipeResponse> content;
-    private int page;
+    private Integer page;
     private int size;
-    private long totalElements;
-    private int totalPages;
+    private Long totalElements;
+    private Integer totalPages;
+    private String nextCursor;
 }
@@ -0,0 +1,35 @@
+package com.noisevisionsoftware.vitema.dto.search;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * Strona wyników wyszukiwania; {@code nextCursor} jest {@code null}, gdy to ostatnia strona.
+ * {@code skippedSources} to źródła, które nie odpowiedziały na czas - strona jest wtedy niepełna.
+ */
+public record SearchPage<T>(List<T> items, String nextCursor, List<String> skippedSources) {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String SKIPPED_SOURCES_HEADER = "X-Skipped-Sources";
+
+    public SearchPage(List<T> items, String nextCursor) {
+        this(items, nextCursor, List.of());
+    }
+
+    /**
+     * Odpowiedź z samą listą wyników - kursor kolejnej strony trafia do nagłówka
+     * {@value #NEXT_CURSOR_HEADER}, a pominięte źródła do {@value #SKIPPED_SOURCES_HEADER},
+     * więc ciało pozostaje tablicą jak dotychczas.
+     */
+    public ResponseEntity<List<T>> toResponse() {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        if (!skippedSources.isEmpty()) {
+            response.header(SKIPPED_SOURCES_HEADER, String.join(",", skippedSources));
+        }
+        return response.body(items);
+    }
+}
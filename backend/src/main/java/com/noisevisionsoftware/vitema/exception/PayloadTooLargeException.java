@@ -0,0 +1,7 @@
+package com.noisevisionsoftware.vitema.exception;
+
+public class PayloadTooLargeException extends RuntimeException {
+    public PayloadTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -9,6 +9,7 @@ import com.noisevisionsoftware.vitema.model.recipe.jpa.RecipeEntity;
 import com.noisevisionsoftware.vitema.model.recipe.jpa.RecipeIngredientEntity;
 import com.noisevisionsoftware.vitema.model.product.jpa.ProductEntity;
 import com.noisevisionsoftware.vitema.repository.jpa.ProductJpaRepository;
+import com.noisevisionsoftware.vitema.repository.jpa.recipe.RecipeJpaRepository;
 import org.springframework.stereotype.Component;
 
 
@@ -136,6 +137,73 @@ public class RecipeJpaConverter {
                 .build();
     }
 
+    /**
+     * Przepis z projekcji widoku listy - bez składników.
+     */
+    public Recipe toSummaryModel(RecipeJpaRepository.RecipeSummaryView view, List<String> photos) {
+        if (view == null) return null;
+
+        NutritionalValues nutritionalValues = null;
+        if (view.getCalories() != null || view.getProtein() != null
+                || view.getFat() != null || view.getCarbs() != null) {
+            nutritionalValues = NutritionalValues.builder()
+                    .calories(view.getCalories())
+                    .protein(view.getProtein())
+                    .fat(view.getFat())
+                    .carbs(view.getCarbs())
+                    .build();
+        }
+
+        Timestamp createdAt = null;
+        if (view.getCreatedAt() != null) {
+            createdAt = Timestamp.ofTimeSecondsAndNanos(
+                    view.getCreatedAt().toEpochSecond(ZoneOffset.UTC),
+                    view.getCreatedAt().getNano());
+        }
+
+        return Recipe.builder()
+                .id(view.getExternalId())
+                .name(view.getName())
+                .instructions(view.getInstructions())
+                .createdAt(createdAt)
+                .photos(photos != null ? new ArrayList<>(photos) : new ArrayList<>())
+                .ingredients(new ArrayList<>())
+                .nutritionalValues(nutritionalValues)
+                .parentRecipeId(view.getParentRecipeId())
+                .authorId(view.getAuthorId())
+                .isPublic(Boolean.TRUE.equals(view.getIsPublic()))
+                .build();
+    }
+
+    /**
+     * Przepis z projekcji podpowiedzi - bez składników i instrukcji, ze zdjęciem, jeśli jest.
+     */
+    public Recipe toSuggestionModel(RecipeJpaRepository.RecipeSuggestionView view) {
+        if (view == null) return null;
+
+        Timestamp createdAt = null;
+        if (view.getCreatedAt() != null) {
+            createdAt = Timestamp.ofTimeSecondsAndNanos(
+                    view.getCreatedAt().toEpochSecond(ZoneOffset.UTC),
+                    view.getCreatedAt().getNano());
+        }
+
+        return Recipe.builder()
+                .id(view.getExternalId())
+                .name(view.getName())
+                .instructions(view.getInstructions())
+                .createdAt(createdAt)
+                .photos(view.getPhoto() != null ? List.of(view.getPhoto()) : new ArrayList<>())
+                .ingredients(new ArrayList<>())
+                .nutritionalValues(NutritionalValues.builder()
+                        .calories(view.getCalories())
+                        .protein(view.getProtein())
+                        .fat(view.getFat())
+                        .carbs(view.getCarbs())
+                        .build())
+                .build();
+    }
+
     protected List<RecipeIngredient> convertIngredients(List<RecipeIngredientEntity> ingredientEntities) {
         if (ingredientEntities == null) return new ArrayList<>();
 
@@ -38,6 +38,7 @@ public class RecipeEntity {
     private LocalDateTime updatedAt;
 
     @ElementCollection
+    @org.hibernate.annotations.Fetch(org.hibernate.annotations.FetchMode.SUBSELECT)
     @CollectionTable(name = "recipe_photos", joinColumns = @JoinColumn(name = "recipe_id"))
     @Column(name = "photo_url")
     @Builder.Default
@@ -0,0 +1,14 @@
+package com.noisevisionsoftware.vitema.model.shopping.category;
+
+/**
+ * Podpowiedź kategorii dla składnika. {@code confidence} (0-1) opisuje, jak dokładnie składnik
+ * pasuje do wpisu słownika: 1.0 dla dokładnej nazwy, mniej dla wariantu i dopasowania przybliżonego.
+ */
+public record CategorySuggestion(String categoryId, double confidence, MatchType matchType) {
+
+    public enum MatchType {
+        EXACT,
+        VARIATION,
+        SIMILAR
+    }
+}
@@ -9,6 +9,7 @@ import com.noisevisionsoftware.vitema.model.recipe.jpa.RecipeReferenceEntity;
 import com.noisevisionsoftware.vitema.repository.recipe.RecipeRepository;
 import com.noisevisionsoftware.vitema.repository.jpa.recipe.RecipeJpaRepository;
 import com.noisevisionsoftware.vitema.repository.jpa.recipe.RecipeReferenceJpaRepository;
+import com.noisevisionsoftware.vitema.utils.FullTextQuery;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -123,9 +124,13 @@ public class PostgresRecipeRepositoryImpl implements RecipeRepository {
     }
 
     @Override
-    public List<Recipe> search(String query) {
+    public List<Recipe> search(String query, int limit, int offset) {
+        String tsQuery = FullTextQuery.prefixQuery(query);
+        if (tsQuery.isEmpty()) {
+            return List.of();
+        }
         try {
-            List<RecipeEntity> entities = recipeJpaRepository.search(query);
+            List<RecipeEntity> entities = recipeJpaRepository.search(tsQuery, limit, offset);
             return entities.stream()
                     .map(recipeJpaConverter::toModel)
                     .collect(Collectors.toList());
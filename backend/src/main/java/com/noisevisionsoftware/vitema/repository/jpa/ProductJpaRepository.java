@@ -9,20 +9,69 @@ import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
+/**
+ * Wyszukiwanie po fragmencie nazwy korzysta z indeksu trigramowego {@code idx_products_name_trgm}
+ * na {@code lower(name)} (V15) - warunek musi mieć dokładnie postać {@code lower(p.name) LIKE ...}.
+ * Wyniki wyszukiwania są uszeregowane ({@link #SEARCH_RANKING}) i ograniczone w samym zapytaniu.
+ */
 @Repository
 public interface ProductJpaRepository extends JpaRepository<ProductEntity, Long> {
 
-    List<ProductEntity> findByNameContainingIgnoreCase(String name);
+    /**
+     * Nazwa równa zapytaniu, zaczynająca się od niego, zawierająca je; dalej liczba użyć produktu
+     * w dietach i przepisach ({@code product_usage}), podobieństwo nazwy i alfabetycznie.
+     */
+    String SEARCH_RANKING = "ORDER BY CASE WHEN lower(p.name) = lower(:name) THEN 0 " +
+            "WHEN lower(p.name) LIKE lower(:name) || '%' THEN 1 ELSE 2 END, " +
+            "coalesce((SELECT pu.usage_count FROM product_usage pu WHERE pu.product_id = p.id), 0) DESC, " +
+            "similarity(lower(p.name), lower(:name)) DESC, p.name, p.id " +
+            "LIMIT :limit OFFSET :offset";
 
-    List<ProductEntity> findByNameContainingIgnoreCaseAndType(String name, ProductType type);
+    interface ProductUsage {
+        Long getProductId();
 
-    List<ProductEntity> findByNameContainingIgnoreCaseAndCategory(String name, String category);
+        long getUsageCount();
+    }
 
-    @Query("SELECT p FROM ProductEntity p WHERE " +
-            "lower(p.name) LIKE lower(concat('%', :name, '%')) AND " +
-            "(p.type = 'GLOBAL' OR (p.type = 'CUSTOM' AND p.authorId = :trainerId))")
+    List<ProductEntity> findByType(ProductType type);
+
+    List<ProductEntity> findByTypeAndAuthorId(ProductType type, String authorId);
+
+    /**
+     * Zapisane liczniki użyć produktów (bez użyć czekających jeszcze w {@code ProductUsageCounter}).
+     */
+    @Query(value = "SELECT pu.product_id AS productId, pu.usage_count AS usageCount FROM product_usage pu " +
+            "WHERE pu.usage_count > 0",
+            nativeQuery = true)
+    List<ProductUsage> findUsageCounts();
+
+    @Query(value = "SELECT p.* FROM products p " +
+            "WHERE lower(p.name) LIKE '%' || lower(:name) || '%' AND p.type = :#{#type.name()} " +
+            SEARCH_RANKING,
+            nativeQuery = true)
+    List<ProductEntity> findByNameContainingIgnoreCaseAndType(@Param("name") String name,
+                                                              @Param("type") ProductType type,
+                                                              @Param("limit") int limit,
+                                                              @Param("offset") int offset);
+
+    @Query(value = "SELECT p.* FROM products p " +
+            "WHERE lower(p.name) LIKE '%' || lower(:name) || '%' AND p.category = :category AND p.type = 'GLOBAL' " +
+            SEARCH_RANKING,
+            nativeQuery = true)
+    List<ProductEntity> findByNameContainingIgnoreCaseAndCategory(@Param("name") String name,
+                                                                  @Param("category") String category,
+                                                                  @Param("limit") int limit,
+                                                                  @Param("offset") int offset);
+
+    @Query(value = "SELECT p.* FROM products p WHERE " +
+            "lower(p.name) LIKE '%' || lower(:name) || '%' AND " +
+            "(p.type = 'GLOBAL' OR (p.type = 'CUSTOM' AND p.author_id = :trainerId)) " +
+            SEARCH_RANKING,
+            nativeQuery = true)
     List<ProductEntity> searchProductsForTrainer(
             @Param("name") String name,
-            @Param("trainerId") String trainerId
+            @Param("trainerId") String trainerId,
+            @Param("limit") int limit,
+            @Param("offset") int offset
     );
 }
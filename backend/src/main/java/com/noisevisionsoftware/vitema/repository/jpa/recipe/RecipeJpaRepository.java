@@ -4,33 +4,186 @@ import com.noisevisionsoftware.vitema.model.recipe.jpa.RecipeEntity;
 import lombok.NonNull;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RecipeJpaRepository extends JpaRepository<RecipeEntity, Long> {
 
+    /**
+     * Kolumny {@link RecipeSummaryView} w zapytaniach natywnych.
+     */
+    String SUMMARY_COLUMNS = "r.id AS id, r.external_id AS \"externalId\", r.name AS name, " +
+            "r.instructions AS instructions, r.created_at AS \"createdAt\", r.updated_at AS \"updatedAt\", " +
+            "r.calories AS calories, r.protein AS protein, r.fat AS fat, r.carbs AS carbs, " +
+            "r.parent_recipe_id AS \"parentRecipeId\", r.author_id AS \"authorId\", r.is_public AS \"isPublic\"";
+
+    /**
+     * Przepis w widokach listy (strona przepisów, wyszukiwanie) - bez składników; zdjęcia są
+     * doczytywane jednym zapytaniem dla całej strony ({@link #findPhotosByRecipeIds}).
+     */
+    interface RecipeSummaryView {
+        Long getId();
+
+        String getExternalId();
+
+        String getName();
+
+        String getInstructions();
+
+        LocalDateTime getCreatedAt();
+
+        LocalDateTime getUpdatedAt();
+
+        Double getCalories();
+
+        Double getProtein();
+
+        Double getFat();
+
+        Double getCarbs();
+
+        String getParentRecipeId();
+
+        String getAuthorId();
+
+        Boolean getIsPublic();
+    }
+
+    interface RecipePhotoView {
+        Long getRecipeId();
+
+        String getPhotoUrl();
+    }
+
+    /**
+     * Lekka projekcja przepisu do podpowiedzi posiłków - bez składników, z jednym zdjęciem.
+     */
+    interface RecipeSuggestionView {
+        String getExternalId();
+
+        String getName();
+
+        Double getCalories();
+
+        Double getProtein();
+
+        Double getFat();
+
+        Double getCarbs();
+
+        String getInstructions();
+
+        String getPhoto();
+
+        LocalDateTime getCreatedAt();
+    }
+
+    /**
+     * Widoki szczegółów wczytują składniki razem z przepisem; zdjęcia doczytuje jedno zapytanie
+     * dla wszystkich wczytanych przepisów ({@code FetchMode.SUBSELECT}).
+     */
+    @EntityGraph(attributePaths = "ingredients")
     Optional<RecipeEntity> findByExternalId(String externalId);
 
+    @EntityGraph(attributePaths = "ingredients")
     List<RecipeEntity> findAllByExternalIdIn(List<String> externalIds);
 
     List<RecipeEntity> findByParentRecipeId(String parentRecipeId);
 
-    @Query("SELECT r FROM RecipeEntity r WHERE " +
-            "LOWER(r.name) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(r.instructions) LIKE LOWER(CONCAT('%', :query, '%'))")
-    List<RecipeEntity> search(@Param("query") String query);
+    /**
+     * Wyszukiwanie pełnotekstowe po nazwie i instrukcjach z indeksem GIN na {@code search_vector} (V16).
+     *
+     * @param tsQuery zapytanie w składni tsquery, zob. {@link com.noisevisionsoftware.vitema.utils.FullTextQuery}
+     */
+    @Query(value = "SELECT r.* FROM recipes r " +
+            "WHERE r.search_vector @@ to_tsquery('vitema_pl', :tsQuery) " +
+            "ORDER BY ts_rank(r.search_vector, to_tsquery('vitema_pl', :tsQuery)) DESC, r.id " +
+            "LIMIT :limit OFFSET :offset",
+            nativeQuery = true)
+    List<RecipeEntity> search(@Param("tsQuery") String tsQuery,
+                              @Param("limit") int limit,
+                              @Param("offset") int offset);
+
+    @Query(value = "SELECT r.id AS id, r.externalId AS externalId, r.name AS name, r.instructions AS instructions, " +
+            "r.createdAt AS createdAt, r.updatedAt AS updatedAt, r.nutritionalValues.calories AS calories, " +
+            "r.nutritionalValues.protein AS protein, r.nutritionalValues.fat AS fat, r.nutritionalValues.carbs AS carbs, " +
+            "r.parentRecipeId AS parentRecipeId, r.authorId AS authorId, r.isPublic AS isPublic " +
+            "FROM RecipeEntity r WHERE r.isPublic = true OR r.authorId = :userId",
+            countQuery = "SELECT count(r) FROM RecipeEntity r WHERE r.isPublic = true OR r.authorId = :userId")
+    Page<RecipeSummaryView> findAllVisible(@Param("userId") String userId, Pageable pageable);
+
+    @Query("SELECT count(r) FROM RecipeEntity r WHERE r.isPublic = true OR r.authorId = :userId")
+    long countVisible(@Param("userId") String userId);
+
+    /**
+     * Pierwsza strona listy przepisów od najnowszych. Kolejne pobiera {@link #findVisibleBefore}
+     * po kluczu ostatniego wiersza - obie korzystają z indeksu {@code idx_recipes_created_at_id} (V17).
+     */
+    @Query(value = "SELECT " + SUMMARY_COLUMNS + " FROM recipes r " +
+            "WHERE (r.is_public = true OR r.author_id = :userId) " +
+            "ORDER BY r.created_at DESC, r.id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<RecipeSummaryView> findFirstVisible(@Param("userId") String userId,
+                                             @Param("limit") int limit);
+
+    @Query(value = "SELECT " + SUMMARY_COLUMNS + " FROM recipes r " +
+            "WHERE (r.is_public = true OR r.author_id = :userId) " +
+            "AND (r.created_at, r.id) < (:createdAt, :id) " +
+            "ORDER BY r.created_at DESC, r.id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<RecipeSummaryView> findVisibleBefore(@Param("userId") String userId,
+                                              @Param("createdAt") LocalDateTime createdAt,
+                                              @Param("id") long id,
+                                              @Param("limit") int limit);
+
+    @Query("SELECT r.id AS recipeId, photo AS photoUrl FROM RecipeEntity r JOIN r.photos photo WHERE r.id IN :recipeIds")
+    List<RecipePhotoView> findPhotosByRecipeIds(@Param("recipeIds") Collection<Long> recipeIds);
 
-    @Query("SELECT r FROM RecipeEntity r WHERE r.isPublic = true OR r.authorId = :userId")
-    Page<RecipeEntity> findAllVisible(@Param("userId") String userId, Pageable pageable);
+    /**
+     * Nazwa równa zapytaniu, zaczynająca się od niego, zawierająca je; dalej liczba użyć przepisu
+     * w dietach i alfabetycznie. Limit jest częścią zapytania. Liczba użyć pochodzi z licznika
+     * {@code recipe_usage} (V19, utrzymywany triggerem na {@code recipe_references}) - jedno wyszukanie
+     * po kluczu na dopasowany wiersz zamiast zliczania referencji.
+     */
+    @Query(value = "SELECT " + SUMMARY_COLUMNS + " FROM recipes r " +
+            "LEFT JOIN recipe_usage u ON u.recipe_id = r.external_id " +
+            "WHERE (r.is_public = true OR r.author_id = :userId) AND lower(r.name) LIKE '%' || lower(:query) || '%' " +
+            "ORDER BY CASE WHEN lower(r.name) = lower(:query) THEN 0 " +
+            "WHEN lower(r.name) LIKE lower(:query) || '%' THEN 1 ELSE 2 END, " +
+            "coalesce(u.reference_count, 0) DESC, r.name, r.id " +
+            "LIMIT :limit OFFSET :offset",
+            nativeQuery = true)
+    List<RecipeSummaryView> searchVisible(@Param("query") String query,
+                                     @Param("userId") String userId,
+                                     @Param("limit") int limit,
+                                     @Param("offset") int offset);
 
-    @Query("SELECT r FROM RecipeEntity r WHERE (r.isPublic = true OR r.authorId = :userId) AND LOWER(r.name) LIKE LOWER(CONCAT('%', :query, '%'))")
-    List<RecipeEntity> searchVisible(@Param("query") String query, @Param("userId") String userId);
+    /**
+     * Najlepiej pasujące przepisy do podpowiedzi: nazwa równa zapytaniu, zaczynająca się od niego,
+     * zawierająca je, dalej podobieństwo trigramowe nazwy. Pobierane są tylko kolumny projekcji.
+     */
+    @Query(value = "SELECT r.external_id AS \"externalId\", r.name AS name, r.calories AS calories, " +
+            "r.protein AS protein, r.fat AS fat, r.carbs AS carbs, r.instructions AS instructions, " +
+            "(SELECT min(rp.photo_url) FROM recipe_photos rp WHERE rp.recipe_id = r.id) AS photo, " +
+            "r.created_at AS \"createdAt\" FROM recipes r " +
+            "WHERE (r.is_public = true OR r.author_id = :userId) AND lower(r.name) LIKE '%' || lower(:query) || '%' " +
+            "ORDER BY CASE WHEN lower(r.name) = lower(:query) THEN 0 " +
+            "WHEN lower(r.name) LIKE lower(:query) || '%' THEN 1 ELSE 2 END, " +
+            "similarity(lower(r.name), lower(:query)) DESC, r.name, r.id " +
+            "LIMIT :limit",
+            nativeQuery = true)
+    List<RecipeSuggestionView> findSuggestions(@Param("query") String query,
+                                               @Param("userId") String userId,
+                                               @Param("limit") int limit);
 
     @Query("SELECT r FROM RecipeEntity r WHERE r.externalId = :id AND (r.isPublic = true OR r.authorId = :userId)")
     Optional<RecipeEntity> findByIdAndVisible(@Param("id") String id, @Param("userId") String userId);
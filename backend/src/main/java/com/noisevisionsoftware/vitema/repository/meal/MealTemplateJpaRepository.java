@@ -16,11 +16,17 @@ public interface MealTemplateJpaRepository extends JpaRepository<MealTemplateEnt
 
     Optional<MealTemplateEntity> findByExternalId(String externalId);
 
-    @Query("SELECT m FROM MealTemplateEntity m WHERE " +
-            "LOWER(m.name) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(m.instructions) LIKE LOWER(CONCAT('%', :query, '%')) " +
-            "ORDER BY m.usageCount DESC, m.lastUsed DESC NULLS LAST")
-    List<MealTemplateEntity> searchByNameOrInstructions(@Param("query") String query, Pageable pageable);
+    /**
+     * Wyszukiwanie pełnotekstowe po nazwie i instrukcjach z indeksem GIN na {@code search_vector} (V16).
+     *
+     * @param tsQuery zapytanie w składni tsquery, zob. {@link com.noisevisionsoftware.vitema.utils.FullTextQuery}
+     */
+    @Query(value = "SELECT m.* FROM meal_templates m " +
+            "WHERE m.search_vector @@ to_tsquery('vitema_pl', :tsQuery) " +
+            "ORDER BY ts_rank(m.search_vector, to_tsquery('vitema_pl', :tsQuery)) DESC, " +
+            "m.usage_count DESC, m.last_used DESC NULLS LAST, m.id",
+            nativeQuery = true)
+    List<MealTemplateEntity> searchByNameOrInstructions(@Param("tsQuery") String tsQuery, Pageable pageable);
 
     @Query("SELECT m FROM MealTemplateEntity m WHERE m.nameLower LIKE LOWER(CONCAT(:query, '%')) " +
             "ORDER BY LENGTH(m.name), m.usageCount DESC")
@@ -46,16 +52,13 @@ public interface MealTemplateJpaRepository extends JpaRepository<MealTemplateEnt
     @Query("SELECT COUNT(m) FROM MealTemplateEntity m WHERE m.createdBy = :createdBy")
     long countByCreatedBy(@Param("createdBy") String createdBy);
 
-    @Query("SELECT m FROM MealTemplateEntity m WHERE " +
-            "(m.isPublic = true OR m.createdBy = :userId) AND " +
-            "(LOWER(m.name) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(m.instructions) LIKE LOWER(CONCAT('%', :query, '%'))) " +
-            "ORDER BY " +
-            "CASE WHEN LOWER(m.name) = LOWER(:query) THEN 1 " +
-            "     WHEN LOWER(m.name) LIKE LOWER(CONCAT(:query, '%')) THEN 2 " +
-            "     ELSE 3 END, " +
-            "m.usageCount DESC, m.lastUsed DESC NULLS LAST")
-    List<MealTemplateEntity> searchAccessibleTemplates(@Param("query") String query,
+    @Query(value = "SELECT m.* FROM meal_templates m " +
+            "WHERE (m.is_public = true OR m.created_by = :userId) " +
+            "AND m.search_vector @@ to_tsquery('vitema_pl', :tsQuery) " +
+            "ORDER BY ts_rank(m.search_vector, to_tsquery('vitema_pl', :tsQuery)) DESC, " +
+            "m.usage_count DESC, m.last_used DESC NULLS LAST, m.id",
+            nativeQuery = true)
+    List<MealTemplateEntity> searchAccessibleTemplates(@Param("tsQuery") String tsQuery,
                                                        @Param("userId") String userId,
                                                        Pageable pageable);
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.noisevisionsoftware.vitema.exception.NotFoundException;
 import com.noisevisionsoftware.vitema.mapper.meal.MealTemplateJpaConverter;
 import com.noisevisionsoftware.vitema.model.meal.MealTemplate;
 import com.noisevisionsoftware.vitema.model.meal.jpa.MealTemplateEntity;
+import com.noisevisionsoftware.vitema.utils.FullTextQuery;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
@@ -37,9 +38,13 @@ public class PostgresMealTemplateRepository implements MealTemplateRepository {
 
     @Override
     public List<MealTemplate> searchByName(String query, int limit) {
+        String tsQuery = FullTextQuery.prefixQuery(query);
+        if (tsQuery.isEmpty()) {
+            return new ArrayList<>();
+        }
         try {
-            Pageable pageable = PageRequest.of(1, limit);
-            List<MealTemplateEntity> entities = jpaRepository.searchByNameOrInstructions(query, pageable);
+            Pageable pageable = PageRequest.of(0, limit);
+            List<MealTemplateEntity> entities = jpaRepository.searchByNameOrInstructions(tsQuery, pageable);
 
             return entities.stream()
                     .map(converter::toModel)
@@ -53,7 +58,7 @@ public class PostgresMealTemplateRepository implements MealTemplateRepository {
     @Override
     public List<MealTemplate> findTopByUsageCount(int limit) {
         try {
-            Pageable pageable = PageRequest.of(1, limit);
+            Pageable pageable = PageRequest.of(0, limit);
             return jpaRepository.findTopByOrderByUsageCountDescLastUsedDesc(pageable).stream()
                     .map(converter::toModel)
                     .collect(Collectors.toList());
@@ -66,7 +71,7 @@ public class PostgresMealTemplateRepository implements MealTemplateRepository {
     @Override
     public List<MealTemplate> findRecentlyUsed(int limit) {
         try {
-            Pageable pageable = PageRequest.of(1, limit);
+            Pageable pageable = PageRequest.of(0, limit);
             return jpaRepository.findRecentlyUsed(pageable).stream()
                     .map(converter::toModel)
                     .collect(Collectors.toList());
@@ -112,9 +117,13 @@ public class PostgresMealTemplateRepository implements MealTemplateRepository {
     }
 
     public List<MealTemplate> searchAccessibleTemplates(String query, String userId, int limit) {
+        String tsQuery = FullTextQuery.prefixQuery(query);
+        if (tsQuery.isEmpty()) {
+            return new ArrayList<>();
+        }
         try {
-            Pageable pageable = PageRequest.of(1, limit);
-            return jpaRepository.searchAccessibleTemplates(query, userId, pageable).stream()
+            Pageable pageable = PageRequest.of(0, limit);
+            return jpaRepository.searchAccessibleTemplates(tsQuery, userId != null ? userId : "", pageable).stream()
                     .map(converter::toModel)
                     .collect(Collectors.toList());
         } catch (Exception e) {
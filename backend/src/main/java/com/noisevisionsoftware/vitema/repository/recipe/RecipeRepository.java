@@ -23,7 +23,7 @@ public interface RecipeRepository {
 
     Recipe update(String id, Recipe recipe);
 
-    List<Recipe> search(String query);
+    List<Recipe> search(String query, int limit, int offset);
 
     void delete(String id);
 
@@ -1,30 +1,25 @@
 package com.noisevisionsoftware.vitema.seeder;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.noisevisionsoftware.vitema.dto.request.product.ProductRequest;
-import com.noisevisionsoftware.vitema.dto.seed.ProductCategoryDTO;
-import com.noisevisionsoftware.vitema.dto.seed.ProductItemDTO;
-import com.noisevisionsoftware.vitema.model.product.ProductType;
+import com.noisevisionsoftware.vitema.dto.response.product.ProductImportResponse;
 import com.noisevisionsoftware.vitema.repository.jpa.ProductJpaRepository;
-import com.noisevisionsoftware.vitema.service.product.ProductDatabaseService;
+import com.noisevisionsoftware.vitema.service.product.ProductImportFormat;
+import com.noisevisionsoftware.vitema.service.product.ProductImportService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.List;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class JsonProductSeeder implements CommandLineRunner {
 
-    private final ProductDatabaseService productDatabaseService;
+    private final ProductImportService productImportService;
     private final ProductJpaRepository productJpaRepository;
-    private final ObjectMapper objectMapper;
 
     @Override
     public void run(String... args) {
@@ -44,57 +39,18 @@ public class JsonProductSeeder implements CommandLineRunner {
     }
 
     private void seedProductsFromJson() {
-        try {
-            ClassPathResource resource = new ClassPathResource("products_seed.json");
-            InputStream inputStream = resource.getInputStream();
-
-            List<ProductCategoryDTO> categories = objectMapper.readValue(
-                    inputStream,
-                    new TypeReference<>() {
-                    }
-            );
-
-            log.info("Loaded {} categories from JSON", categories.size());
-
-            int totalProducts = 0;
-            int successfulProducts = 0;
-
-            for (ProductCategoryDTO category : categories) {
-                String categoryName = category.getCategory();
-
-                for (ProductItemDTO item : category.getItems()) {
-                    totalProducts++;
-                    try {
-                        ProductRequest request = mapToProductRequest(item, categoryName);
+        try (InputStream inputStream = new ClassPathResource("products_seed.json").getInputStream()) {
+            ProductImportResponse result = productImportService.importProducts(inputStream, ProductImportFormat.JSON);
 
-                        productDatabaseService.create(request, null, ProductType.GLOBAL);
-
-                        successfulProducts++;
-                        log.debug("Seeded product: {}", item.getName());
-                    } catch (Exception e) {
-                        log.error("Failed to seed product: {}", item.getName(), e);
-                    }
-                }
+            for (ProductImportResponse.RowError error : result.getErrors()) {
+                log.error("Failed to seed product {} (row {}): {}", error.name(), error.row(), error.message());
             }
+            log.info("Successfully seeded {}/{} products into PostgreSQL in {} ms",
+                    result.getInserted() + result.getUpdated(), result.getTotalRows(), result.getDurationMs());
 
-            log.info("Successfully seeded {}/{} products into PostgreSQL", successfulProducts, totalProducts);
-
-        } catch (Exception e) {
-            log.error("Error reading or parsing products_seed.json", e);
+        } catch (IOException e) {
+            log.error("Error reading products_seed.json", e);
             throw new RuntimeException("Failed to seed products from JSON", e);
         }
     }
-
-    private ProductRequest mapToProductRequest(ProductItemDTO item, String category) {
-        return ProductRequest.builder()
-                .name(item.getName())
-                .category(category)
-                .unit(item.getUnit())
-                .kcal(item.getKcal())
-                .protein(item.getProtein())
-                .fat(item.getFat())
-                .carbs(item.getCarbs())
-                .isVerified(true)
-                .build();
-    }
-}
\ No newline at end of file
+}
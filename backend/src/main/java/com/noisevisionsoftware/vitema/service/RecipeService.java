@@ -2,14 +2,18 @@ package com.noisevisionsoftware.vitema.service;
 
 import com.google.cloud.Timestamp;
 import com.google.cloud.storage.*;
+import com.noisevisionsoftware.vitema.dto.search.SearchPage;
 import com.noisevisionsoftware.vitema.exception.NotFoundException;
 import com.noisevisionsoftware.vitema.mapper.recipe.RecipeJpaConverter;
 import com.noisevisionsoftware.vitema.model.recipe.Recipe;
 import com.noisevisionsoftware.vitema.model.recipe.RecipeImageReference;
-import com.noisevisionsoftware.vitema.model.recipe.jpa.RecipeEntity;
+import com.noisevisionsoftware.vitema.model.recipe.RecipeIngredient;
 import com.noisevisionsoftware.vitema.repository.jpa.recipe.RecipeJpaRepository;
 import com.noisevisionsoftware.vitema.repository.recipe.RecipeImageRepository;
 import com.noisevisionsoftware.vitema.repository.recipe.RecipeRepository;
+import com.noisevisionsoftware.vitema.service.product.ProductUsageCounter;
+import com.noisevisionsoftware.vitema.service.search.SearchCursor;
+import com.noisevisionsoftware.vitema.utils.RecipeCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.coyote.BadRequestException;
@@ -41,6 +45,7 @@ public class RecipeService {
     private final RecipeJpaRepository recipeJpaRepository;
     private final RecipeJpaConverter recipeJpaConverter;
     private final UserService userService;
+    private final ProductUsageCounter productUsageCounter;
 
     @Value("${firebase.storage.bucket-name}")
     private String storageBucket;
@@ -48,6 +53,7 @@ public class RecipeService {
     private static final String RECIPES_CACHE = "recipesCache";
     private static final String RECIPES_BATCH_CACHE = "recipesBatchCache";
     private static final String RECIPES_PAGE_CACHE = "recipesPageCache";
+    private static final String RECIPES_COUNT_CACHE = "recipesCountCache";
 
     private void verifyOwnership(Recipe recipe) {
         String currentUserId = userService.getCurrentUserId();
@@ -87,15 +93,60 @@ public class RecipeService {
     @Cacheable(value = RECIPES_PAGE_CACHE, key = "{#pageable.pageNumber, #pageable.pageSize, #pageable.sort, @userService.getCurrentUserId()}")
     public Page<Recipe> getAllRecipes(Pageable pageable) {
         String currentUserId = userService.getCurrentUserId();
-        Page<RecipeEntity> entitiesPage = recipeJpaRepository.findAllVisible(currentUserId, pageable);
+        Page<RecipeJpaRepository.RecipeSummaryView> summariesPage = recipeJpaRepository.findAllVisible(currentUserId, pageable);
 
-        return entitiesPage.map(recipeJpaConverter::toModel);
+        Map<Long, List<String>> photos = loadPhotos(summariesPage.getContent());
+        return summariesPage.map(view -> recipeJpaConverter.toSummaryModel(view, photos.get(view.getId())));
+    }
+
+    /**
+     * Przepisy publiczne i własne użytkownika od najnowszych, stronicowane po kluczu
+     * {@code (createdAt, id)} zamiast OFFSET, więc koszt strony nie rośnie z głębokością przewijania.
+     * W cache trafia tylko pierwsza strona - kolejne wskazuje kursor z poprzedniej.
+     *
+     * @param cursor {@code nextCursor} poprzedniej strony; {@code null} dla pierwszej
+     * @param size   rozmiar strony, przycinany do {@link SearchCursor#MAX_LIMIT}
+     * @throws IllegalArgumentException gdy kursor jest nieprawidłowy
+     */
+    @Cacheable(value = RECIPES_PAGE_CACHE, key = "{'keyset', #size, @userService.getCurrentUserId()}",
+            condition = "#cursor == null")
+    public SearchPage<Recipe> getRecipesPage(String cursor, int size) {
+        RecipeCursor position = RecipeCursor.decode(cursor);
+        int pageSize = SearchCursor.clampLimit(size);
+        String currentUserId = userService.getCurrentUserId();
+        String userId = currentUserId != null ? currentUserId : "";
+
+        List<RecipeJpaRepository.RecipeSummaryView> fetched = position == null
+                ? recipeJpaRepository.findFirstVisible(userId, pageSize + 1)
+                : recipeJpaRepository.findVisibleBefore(userId, position.createdAt(), position.id(), pageSize + 1);
+        List<RecipeJpaRepository.RecipeSummaryView> summaries = fetched.size() > pageSize ? fetched.subList(0, pageSize) : fetched;
+
+        Map<Long, List<String>> photos = loadPhotos(summaries);
+        List<Recipe> recipes = summaries.stream()
+                .map(view -> recipeJpaConverter.toSummaryModel(view, photos.get(view.getId())))
+                .collect(Collectors.toList());
+        if (fetched.size() <= pageSize) {
+            return new SearchPage<>(recipes, null);
+        }
+        RecipeJpaRepository.RecipeSummaryView last = summaries.getLast();
+        return new SearchPage<>(recipes, new RecipeCursor(last.getCreatedAt(), last.getId()).encode());
+    }
+
+    /**
+     * Liczba przepisów widocznych dla użytkownika. Liczona tylko na żądanie (nie przy każdej
+     * stronie) i trzymana w cache do najbliższego dodania, zmiany lub usunięcia przepisu.
+     */
+    @Cacheable(value = RECIPES_COUNT_CACHE, key = "{@userService.getCurrentUserId()}")
+    public long countVisibleRecipes() {
+        String currentUserId = userService.getCurrentUserId();
+        return recipeJpaRepository.countVisible(currentUserId != null ? currentUserId : "");
     }
 
     @Caching(evict = {
             @CacheEvict(value = RECIPES_CACHE, key = "#id"),
             @CacheEvict(value = RECIPES_BATCH_CACHE, allEntries = true),
-            @CacheEvict(value = RECIPES_PAGE_CACHE, allEntries = true)
+            @CacheEvict(value = RECIPES_PAGE_CACHE, allEntries = true),
+            @CacheEvict(value = RECIPES_COUNT_CACHE, allEntries = true)
     })
     public Recipe updateRecipe(String id, Recipe recipe) {
         Recipe existingRecipe = getRecipeById(id);
@@ -108,13 +159,21 @@ public class RecipeService {
             recipe.setAuthorId(existingRecipe.getAuthorId());
         }
 
-        return recipeRepository.update(id, recipe);
+        Recipe updatedRecipe = recipeRepository.update(id, recipe);
+
+        // Liczą się tylko produkty dodane w tej edycji - ponowny zapis przepisu nie podbija popularności
+        Set<Long> addedProductIds = productIds(recipe);
+        addedProductIds.removeAll(productIds(existingRecipe));
+        productUsageCounter.recordUsage(addedProductIds);
+
+        return updatedRecipe;
     }
 
     @Caching(evict = {
             @CacheEvict(value = RECIPES_CACHE, key = "#id"),
             @CacheEvict(value = RECIPES_BATCH_CACHE, allEntries = true),
-            @CacheEvict(value = RECIPES_PAGE_CACHE, allEntries = true)
+            @CacheEvict(value = RECIPES_PAGE_CACHE, allEntries = true),
+            @CacheEvict(value = RECIPES_COUNT_CACHE, allEntries = true)
     })
     public void deleteRecipe(String id) {
         Recipe recipe = getRecipeById(id);
@@ -154,7 +213,8 @@ public class RecipeService {
 
     @Caching(evict = {
             @CacheEvict(value = RECIPES_BATCH_CACHE, allEntries = true),
-            @CacheEvict(value = RECIPES_PAGE_CACHE, allEntries = true)
+            @CacheEvict(value = RECIPES_PAGE_CACHE, allEntries = true),
+            @CacheEvict(value = RECIPES_COUNT_CACHE, allEntries = true)
     })
     public Recipe createRecipe(Recipe recipe) {
         if (recipe.getCreatedAt() == null) {
@@ -170,7 +230,19 @@ public class RecipeService {
             recipe.setPublic(false);
         }
 
-        return recipeRepository.save(recipe);
+        Recipe savedRecipe = recipeRepository.save(recipe);
+        productUsageCounter.recordUsage(productIds(savedRecipe));
+        return savedRecipe;
+    }
+
+    private Set<Long> productIds(Recipe recipe) {
+        if (recipe == null || recipe.getIngredients() == null) {
+            return new HashSet<>();
+        }
+        return recipe.getIngredients().stream()
+                .map(RecipeIngredient::getProductId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(HashSet::new));
     }
 
     public Recipe findOrCreateRecipe(Recipe recipe) {
@@ -318,14 +390,56 @@ public class RecipeService {
         recipeRepository.update(id, recipe);
     }
 
+    /**
+     * Przepisy publiczne i własne użytkownika, uszeregowane i ograniczone w zapytaniu.
+     */
+    public SearchPage<Recipe> searchRecipes(String query, int limit, String cursor) {
+        if (query == null || query.isBlank()) {
+            return new SearchPage<>(List.of(), null);
+        }
+        int pageSize = SearchCursor.clampLimit(limit);
+        int offset = SearchCursor.decode(cursor, 1)[0];
+        String currentUserId = userService.getCurrentUserId();
+        List<RecipeJpaRepository.RecipeSummaryView> summaries = recipeJpaRepository.searchVisible(query.trim(),
+                currentUserId != null ? currentUserId : "", pageSize + 1, offset);
+        Map<Long, List<String>> photos = loadPhotos(summaries);
+        return SearchCursor.page(summaries.stream()
+                .map(view -> recipeJpaConverter.toSummaryModel(view, photos.get(view.getId())))
+                .collect(Collectors.toList()), pageSize, offset);
+    }
+
     public List<Recipe> searchRecipes(String query) {
+        return searchRecipes(query, SearchCursor.DEFAULT_LIMIT, null).items();
+    }
+
+    /**
+     * Najlepiej pasujące przepisy do podpowiedzi posiłków, uszeregowane w bazie. Przepisy nie mają
+     * składników, a ze zdjęć jest tylko jedno.
+     */
+    public List<Recipe> searchRecipeSuggestions(String query, int limit) {
+        if (query == null || query.isBlank() || limit <= 0) {
+            return List.of();
+        }
         String currentUserId = userService.getCurrentUserId();
-        List<RecipeEntity> entities = recipeJpaRepository.searchVisible(query, currentUserId);
-        return entities.stream()
-                .map(recipeJpaConverter::toModel)
+        return recipeJpaRepository.findSuggestions(query.trim(),
+                        currentUserId != null ? currentUserId : "", SearchCursor.clampLimit(limit)).stream()
+                .map(recipeJpaConverter::toSuggestionModel)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Zdjęcia wszystkich przepisów z listy jednym zapytaniem, zamiast osobnego dla każdego przepisu.
+     */
+    private Map<Long, List<String>> loadPhotos(List<RecipeJpaRepository.RecipeSummaryView> summaries) {
+        if (summaries.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> recipeIds = summaries.stream().map(RecipeJpaRepository.RecipeSummaryView::getId).toList();
+        return recipeJpaRepository.findPhotosByRecipeIds(recipeIds).stream()
+                .collect(Collectors.groupingBy(RecipeJpaRepository.RecipePhotoView::getRecipeId,
+                        Collectors.mapping(RecipeJpaRepository.RecipePhotoView::getPhotoUrl, Collectors.toList())));
+    }
+
     public String uploadBase64Image(String base64Image) throws BadRequestException {
         try {
             if (base64Image == null || !base64Image.startsWith("data:image/")) {
@@ -1,131 +1,293 @@
 package com.noisevisionsoftware.vitema.service.category;
 
 import com.google.cloud.Timestamp;
-import com.google.cloud.firestore.DocumentSnapshot;
-import com.google.cloud.firestore.Firestore;
-import com.google.cloud.firestore.QuerySnapshot;
-import com.google.cloud.firestore.WriteBatch;
+import com.google.cloud.firestore.*;
+import com.noisevisionsoftware.vitema.utils.TrigramIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+/**
+ * Czyszczenie duplikatów w kolekcji {@code product_categories}.
+ * <p>
+ * Kolekcja jest czytana stronami (kursor po identyfikatorze dokumentu), a z każdego dokumentu
+ * zostaje tylko podsumowanie grupy - nie trzeba trzymać w pamięci całej kolekcji. Duplikaty to
+ * dokumenty o tej samej znormalizowanej nazwie; dodatkowo indeks trigramowy wskazuje prawie
+ * duplikaty (np. "jogurt naturalny" i "jogurt naturalne"), łączone tylko przy tej samej kategorii.
+ * <p>
+ * Czyszczenie może działać jako zadanie w tle, także w trybie podglądu (bez zapisów, z raportem
+ * zmian). Anulowane lub przerwane błędem zadanie można wznowić - kontynuuje od ostatniej strony
+ * albo ostatniej zatwierdzonej partii zapisów.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CategoryDataCleanupService {
 
     private final Firestore firestore;
+    private final IngredientParseCache ingredientParseCache;
     private static final String COLLECTION_NAME = "product_categories";
+    private static final int PAGE_SIZE = 500;
+    private static final int MAX_BATCH_SIZE = 450;
+    private static final double NEAR_DUPLICATE_SIMILARITY = 0.9;
+    private static final int NEAR_DUPLICATE_MIN_LENGTH = 5;
+
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "category-cleanup");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile CleanupJob currentJob;
+
+    public enum JobState {RUNNING, CANCELLED, FAILED, COMPLETED}
+
+    public record MergeDiff(String productName, String keptDocumentId, List<String> removedDocumentIds,
+                            int usageCount, List<String> addedVariations) {
+    }
+
+    public record NearDuplicate(String productName, String similarTo, double similarity, boolean merged) {
+    }
+
+    public record CleanupReport(boolean dryRun, int scannedDocuments, int documentsRemoved,
+                                List<MergeDiff> merges, List<NearDuplicate> nearDuplicates) {
+    }
+
+    public record CleanupJobStatus(JobState state, boolean dryRun, int scannedDocuments,
+                                   int processedGroups, CleanupReport report, String error) {
+    }
 
     /*
      * Clean product duplicates from Firestore
      * Leaves document with the newest update date
      * */
-    public void cleanupDuplicates() {
-        try {
-            log.info("Rozpoczynanie czyszczenia duplikatów produktów...");
-
-            Map<String, List<DocumentSnapshot>> productGroups = groupProductsByName();
-            int duplicatesRemoved = 0;
-
-            WriteBatch batch = firestore.batch();
-            int batchSize = 0;
-
-            for (Map.Entry<String, List<DocumentSnapshot>> entry : productGroups.entrySet()) {
-                String productName = entry.getKey();
-                List<DocumentSnapshot> documents = entry.getValue();
-
-                if (documents.size() > 1) {
-                    log.info("Znaleziono {} duplikatów dla produktu: {}", documents.size(), productName);
-
-                    // Sortuj według daty aktualizacji (najnowsze na początku)
-                    documents.sort((a, b) -> {
-                        Timestamp timeA = a.getTimestamp("updatedAt");
-                        Timestamp timeB = b.getTimestamp("updatedAt");
-                        if (timeA == null && timeB == null) return 0;
-                        if (timeA == null) return 1;
-                        if (timeB == null) return -1;
-                        return timeB.compareTo(timeA);
-                    });
-
-                    // Zachowaj pierwszy (najnowszy), usuń pozostałe
-                    DocumentSnapshot toKeep = documents.getFirst();
-                    List<String> allVariations = new ArrayList<>();
-                    int totalUsageCount = 0;
-
-                    // Zbierz wszystkie wariacje i usage count z duplikatów
-                    for (DocumentSnapshot doc : documents) {
-                        List<String> variations = getVariationsFromDocument(doc);
-                        for (String variation : variations) {
-                            if (!allVariations.contains(variation)) {
-                                allVariations.add(variation);
-                            }
-                        }
-
-                        Long usageCount = doc.getLong("usageCount");
-                        if (usageCount != null) {
-                            totalUsageCount += usageCount.intValue();
-                        }
-                    }
+    public CleanupReport cleanupDuplicates() {
+        return runNow(false);
+    }
 
-                    // Aktualizuj dokument do zachowania
-                    Map<String, Object> updates = new HashMap<>();
-                    updates.put("variations", allVariations);
-                    updates.put("usageCount", totalUsageCount);
-                    updates.put("updatedAt", Timestamp.now());
+    /**
+     * Raport zmian, które wykonałoby {@link #cleanupDuplicates()}, bez zapisów.
+     */
+    public CleanupReport previewDuplicates() {
+        return runNow(true);
+    }
 
-                    batch.update(toKeep.getReference(), updates);
-                    batchSize++;
+    /**
+     * Uruchamia czyszczenie w tle. Trwające zadanie nie jest uruchamiane drugi raz, a anulowane
+     * lub przerwane zadanie w tym samym trybie jest wznawiane.
+     */
+    public synchronized CleanupJobStatus startCleanupJob(boolean dryRun) {
+        CleanupJob job = currentJob;
+        if (job != null && job.state == JobState.RUNNING) {
+            return job.status();
+        }
 
-                    // Usuń duplikaty
-                    for (int i = 1; i < documents.size(); i++) {
-                        batch.delete(documents.get(i).getReference());
-                        batchSize++;
-                        duplicatesRemoved++;
-
-                        if (batchSize >= 450) {
-                            batch.commit().get();
-                            batch = firestore.batch();
-                            batchSize = 0;
-                        }
-                    }
-                }
-            }
+        if (job == null || job.dryRun != dryRun || job.state == JobState.COMPLETED) {
+            job = new CleanupJob(dryRun);
+            currentJob = job;
+        } else {
+            log.info("Wznawianie czyszczenia duplikatów od dokumentu {}", job.lastDocumentId);
+        }
 
-            if (batchSize > 0) {
-                batch.commit().get();
+        CleanupJob started = job;
+        started.state = JobState.RUNNING;
+        started.cancelRequested = false;
+        started.error = null;
+        jobExecutor.execute(() -> {
+            try {
+                run(started);
+                started.state = started.cancelRequested ? JobState.CANCELLED : JobState.COMPLETED;
+            } catch (Exception e) {
+                log.error("Błąd podczas czyszczenia duplikatów", e);
+                started.error = e.getMessage();
+                started.state = JobState.FAILED;
             }
+        });
+        return started.status();
+    }
 
-            log.info("Czyszczenie duplikatów zakończone. Usunięto {} dokumentów.", duplicatesRemoved);
+    public Optional<CleanupJobStatus> getCleanupJobStatus() {
+        CleanupJob job = currentJob;
+        return job == null ? Optional.empty() : Optional.of(job.status());
+    }
+
+    /**
+     * Zatrzymuje zadanie po bieżącej stronie lub partii zapisów.
+     */
+    public Optional<CleanupJobStatus> cancelCleanupJob() {
+        CleanupJob job = currentJob;
+        if (job == null) {
+            return Optional.empty();
+        }
+        job.cancelRequested = true;
+        return Optional.of(job.status());
+    }
 
+    private CleanupReport runNow(boolean dryRun) {
+        try {
+            log.info("Rozpoczynanie czyszczenia duplikatów produktów{}...", dryRun ? " (podgląd)" : "");
+            CleanupJob job = new CleanupJob(dryRun);
+            run(job);
+            CleanupReport report = job.report();
+            log.info("Czyszczenie duplikatów zakończone. Usunięto {} dokumentów.", report.documentsRemoved());
+            return report;
         } catch (Exception e) {
             log.error("Błąd podczas czyszczenia duplikatów", e);
             throw new RuntimeException("Nie udało się wyczyścić duplikatów", e);
         }
     }
 
-    private Map<String, List<DocumentSnapshot>> groupProductsByName() throws Exception {
-        Map<String, List<DocumentSnapshot>> groups = new HashMap<>();
+    private void run(CleanupJob job) throws Exception {
+        if (!job.scanCompleted) {
+            scanCollection(job);
+            if (job.cancelRequested) {
+                return;
+            }
+            mergeNearDuplicates(job);
+            job.scanCompleted = true;
+        }
+        if (!job.dryRun) {
+            writeMerges(job);
+        }
+    }
 
-        QuerySnapshot allDocs = firestore.collection(COLLECTION_NAME).get().get();
+    /**
+     * Czyta kolekcję stronami i buduje podsumowania grup o tej samej znormalizowanej nazwie.
+     * Strona trafia do grup dopiero po odczytaniu wszystkich jej dokumentów - błąd w połowie
+     * strony nie zostawia w grupach części dokumentów, które wznowienie dodałoby drugi raz.
+     */
+    private void scanCollection(CleanupJob job) throws Exception {
+        while (!job.cancelRequested) {
+            Query page = firestore.collection(COLLECTION_NAME)
+                    .orderBy(FieldPath.documentId())
+                    .limit(PAGE_SIZE);
+            if (job.lastDocumentId != null) {
+                page = page.startAfter(job.lastDocumentId);
+            }
 
-        for (DocumentSnapshot doc : allDocs.getDocuments()) {
-            String productName = doc.getString("productName");
-            if (productName != null) {
-                String normalizedName = normalizeProductName(productName);
-                groups.computeIfAbsent(normalizedName, k -> new ArrayList<>()).add(doc);
+            List<QueryDocumentSnapshot> documents = page.get().get().getDocuments();
+            List<ScannedDocument> scanned = new ArrayList<>(documents.size());
+            for (DocumentSnapshot doc : documents) {
+                String productName = doc.getString("productName");
+                if (productName != null) {
+                    scanned.add(ScannedDocument.of(normalizeProductName(productName), doc));
+                }
+            }
+
+            for (ScannedDocument doc : scanned) {
+                job.groups.computeIfAbsent(doc.normalizedName(), DuplicateGroup::new).add(doc);
             }
+            job.scannedDocuments += documents.size();
+            if (documents.size() < PAGE_SIZE) {
+                return;
+            }
+            job.lastDocumentId = documents.getLast().getId();
         }
+    }
+
+    /**
+     * Łączy grupy o bardzo podobnych nazwach. Grupa częściej używana wchłania rzadziej używaną,
+     * o ile obie mają tę samą kategorię; pozostałe pary trafiają tylko do raportu.
+     */
+    private void mergeNearDuplicates(CleanupJob job) {
+        Map<String, String> indexedNames = new HashMap<>();
+        job.groups.keySet().forEach(name -> {
+            if (name.length() >= NEAR_DUPLICATE_MIN_LENGTH) {
+                indexedNames.put(name, name);
+            }
+        });
+        TrigramIndex names = new TrigramIndex();
+        names.update(indexedNames);
+
+        List<DuplicateGroup> byUsage = new ArrayList<>(job.groups.values());
+        byUsage.sort(Comparator.comparingLong(DuplicateGroup::usageCount).reversed()
+                .thenComparing(DuplicateGroup::normalizedName));
+
+        // Grupy już sprawdzone jako docelowe - para jest raportowana tylko raz
+        Set<String> visited = new HashSet<>();
+        for (DuplicateGroup target : byUsage) {
+            if (!job.groups.containsKey(target.normalizedName) || target.normalizedName.length() < NEAR_DUPLICATE_MIN_LENGTH) {
+                continue;
+            }
+            visited.add(target.normalizedName);
 
-        return groups;
+            for (TrigramIndex.Match match : names.searchSimilar(target.normalizedName, NEAR_DUPLICATE_SIMILARITY, 10)) {
+                DuplicateGroup similar = job.groups.get(match.id());
+                if (similar == null || visited.contains(match.id())) {
+                    continue;
+                }
+
+                boolean sameCategory = target.categoryId != null && target.categoryId.equals(similar.categoryId);
+                job.nearDuplicates.add(new NearDuplicate(similar.normalizedName, target.normalizedName,
+                        match.similarity(), sameCategory));
+                if (sameCategory) {
+                    target.absorb(similar);
+                    job.groups.remove(similar.normalizedName);
+                    names.remove(similar.normalizedName);
+                }
+            }
+        }
     }
 
-    private List<String> getVariationsFromDocument(DocumentSnapshot doc) {
+    private void writeMerges(CleanupJob job) throws Exception {
+        WriteBatch batch = firestore.batch();
+        int batchSize = 0;
+        List<String> groupsInBatch = new ArrayList<>();
+        boolean committed = false;
+
+        try {
+            for (DuplicateGroup group : job.groups.values()) {
+                if (!group.hasDuplicates() || job.processedGroups.contains(group.normalizedName)) {
+                    continue;
+                }
+                if (job.cancelRequested) {
+                    break;
+                }
+
+                log.info("Znaleziono {} duplikatów dla produktu: {}", group.duplicates.size() + 1, group.normalizedName);
+
+                Map<String, Object> updates = new HashMap<>();
+                updates.put("variations", new ArrayList<>(group.variations));
+                updates.put("usageCount", (int) group.usageCount);
+                updates.put("updatedAt", Timestamp.now());
+
+                batch.update(group.kept, updates);
+                batchSize++;
+                groupsInBatch.add(group.normalizedName);
+
+                for (DocumentReference duplicate : group.duplicates) {
+                    batch.delete(duplicate);
+                    batchSize++;
+
+                    if (batchSize >= MAX_BATCH_SIZE) {
+                        batch.commit().get();
+                        committed = true;
+                        job.processedGroups.addAll(groupsInBatch.subList(0, groupsInBatch.size() - 1));
+                        groupsInBatch.subList(0, groupsInBatch.size() - 1).clear();
+                        batch = firestore.batch();
+                        batchSize = 0;
+                    }
+                }
+            }
+
+            if (batchSize > 0) {
+                batch.commit().get();
+                committed = true;
+            }
+            job.processedGroups.addAll(groupsInBatch);
+        } finally {
+            if (committed) {
+                // Połączone wpisy zmieniają warianty i liczniki użyć, na których opierają się zapamiętane wyniki parsowania
+                ingredientParseCache.invalidateAll();
+            }
+        }
+    }
+
+    private static List<String> getVariationsFromDocument(DocumentSnapshot doc) {
         Object variationsObj = doc.get("variations");
         List<String> variations = new ArrayList<>();
 
@@ -150,4 +312,129 @@ public class CategoryDataCleanupService {
                 .replaceAll("\\s+", " ")
                 .trim();
     }
-}
\ No newline at end of file
+
+    /**
+     * Pola dokumentu potrzebne do grupowania, odczytane przed zmianą stanu zadania.
+     */
+    private record ScannedDocument(String normalizedName, DocumentReference reference, List<String> variations,
+                                   long usageCount, Timestamp updatedAt, String categoryId) {
+
+        static ScannedDocument of(String normalizedName, DocumentSnapshot doc) {
+            Long usageCount = doc.getLong("usageCount");
+            return new ScannedDocument(normalizedName, doc.getReference(), getVariationsFromDocument(doc),
+                    usageCount != null ? usageCount : 0, doc.getTimestamp("updatedAt"), doc.getString("categoryId"));
+        }
+    }
+
+    /**
+     * Podsumowanie dokumentów o tej samej znormalizowanej nazwie: referencja dokumentu do zachowania
+     * (najnowszego), referencje pozostałych do usunięcia oraz scalone warianty i liczba użyć.
+     */
+    private static final class DuplicateGroup {
+        private final String normalizedName;
+        private final Set<String> variations = new LinkedHashSet<>();
+        private final List<DocumentReference> duplicates = new ArrayList<>();
+        // Zachowany dokument i duplikaty - ten sam dokument nie może trafić do grupy dwa razy
+        private final Set<DocumentReference> members = new HashSet<>();
+        private DocumentReference kept;
+        private Timestamp keptUpdatedAt;
+        private Set<String> keptVariations = Set.of();
+        private String categoryId;
+        private long usageCount;
+
+        DuplicateGroup(String normalizedName) {
+            this.normalizedName = normalizedName;
+        }
+
+        void add(ScannedDocument doc) {
+            if (!members.add(doc.reference())) {
+                return;
+            }
+            variations.addAll(doc.variations());
+            usageCount += doc.usageCount();
+
+            if (kept == null || isNewer(doc.updatedAt(), keptUpdatedAt)) {
+                if (kept != null) {
+                    duplicates.add(kept);
+                }
+                kept = doc.reference();
+                keptUpdatedAt = doc.updatedAt();
+                keptVariations = new HashSet<>(doc.variations());
+                categoryId = doc.categoryId();
+            } else {
+                duplicates.add(doc.reference());
+            }
+        }
+
+        void absorb(DuplicateGroup other) {
+            variations.add(other.normalizedName);
+            variations.addAll(other.variations);
+            usageCount += other.usageCount;
+            members.addAll(other.members);
+            duplicates.add(other.kept);
+            duplicates.addAll(other.duplicates);
+        }
+
+        boolean hasDuplicates() {
+            return !duplicates.isEmpty();
+        }
+
+        String normalizedName() {
+            return normalizedName;
+        }
+
+        long usageCount() {
+            return usageCount;
+        }
+
+        MergeDiff diff() {
+            List<String> removedIds = duplicates.stream().map(DocumentReference::getId).toList();
+            List<String> added = variations.stream().filter(v -> !keptVariations.contains(v)).toList();
+            return new MergeDiff(normalizedName, kept.getId(), removedIds, (int) usageCount, added);
+        }
+
+        // Nowsza data wygrywa, dokumenty bez daty są traktowane jako najstarsze
+        private static boolean isNewer(Timestamp candidate, Timestamp current) {
+            if (candidate == null) return false;
+            if (current == null) return true;
+            return candidate.compareTo(current) > 0;
+        }
+    }
+
+    /**
+     * Stan zadania czyszczenia - wystarczający do wznowienia od miejsca przerwania.
+     */
+    private static final class CleanupJob {
+        private final boolean dryRun;
+        private final Map<String, DuplicateGroup> groups = new LinkedHashMap<>();
+        private final List<NearDuplicate> nearDuplicates = new ArrayList<>();
+        private final Set<String> processedGroups = ConcurrentHashMap.newKeySet();
+        private volatile JobState state = JobState.RUNNING;
+        private volatile boolean cancelRequested;
+        private volatile String error;
+        private String lastDocumentId;
+        private boolean scanCompleted;
+        private volatile int scannedDocuments;
+
+        CleanupJob(boolean dryRun) {
+            this.dryRun = dryRun;
+        }
+
+        CleanupReport report() {
+            List<MergeDiff> merges = groups.values().stream()
+                    .filter(DuplicateGroup::hasDuplicates)
+                    .map(DuplicateGroup::diff)
+                    .toList();
+            int removed = dryRun ? 0 : merges.stream()
+                    .filter(merge -> processedGroups.contains(merge.productName()))
+                    .mapToInt(merge -> merge.removedDocumentIds().size())
+                    .sum();
+            return new CleanupReport(dryRun, scannedDocuments, removed, merges, List.copyOf(nearDuplicates));
+        }
+
+        CleanupJobStatus status() {
+            CleanupReport report = state == JobState.RUNNING ? null : report();
+            return new CleanupJobStatus(state, dryRun, scannedDocuments, processedGroups.size(), report, error);
+        }
+    }
+}
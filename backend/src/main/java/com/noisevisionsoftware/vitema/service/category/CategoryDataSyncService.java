@@ -0,0 +1,136 @@
+package com.noisevisionsoftware.vitema.service.category;
+
+import com.google.cloud.firestore.ListenerRegistration;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Synchronizacja słownika kategoryzacji między węzłami. Nasłuchuje zmian kolekcji
+ * {@code product_categories} i nanosi je na lokalny indeks bez ponownego czytania całej kolekcji.
+ * <p>
+ * Zmiany są zbierane przez {@code debounce-ms} od pierwszej z nich i nanoszone razem (kolejne
+ * zmiany tego samego produktu łączą się w jedną). Pierwsze zdarzenie po rejestracji nasłuchu
+ * zawiera całą kolekcję i jest traktowane jako pełna resynchronizacja - chyba że kolekcja nie
+ * zmieniła się od wczytania słownika, wtedy nie jest w ogóle przekazywane. Po błędzie nasłuchu
+ * rejestracja jest ponawiana po {@code retry-delay-ms}, więc węzeł, który zgubił zdarzenia,
+ * dogania stan kolekcji przy ponownym połączeniu.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryDataSyncService {
+
+    private final FirestoreCategoryDataManager dataManager;
+    private final ProductCategorizationService categorizationService;
+
+    @Value("${product.categorization.sync.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${product.categorization.sync.debounce-ms:500}")
+    private long debounceMillis = 500;
+
+    @Value("${product.categorization.sync.retry-delay-ms:5000}")
+    private long retryDelayMillis = 5000;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "categorization-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Zmiany czekające na naniesienie, po kluczu produktu - chronione przez this
+    private final Map<String, FirestoreCategoryDataManager.CategoryChange> pendingChanges = new LinkedHashMap<>();
+    private boolean applyScheduled;
+    private boolean pendingFullSnapshot;
+    private ListenerRegistration registration;
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            scheduler.execute(this::register);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        scheduler.shutdownNow();
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+    }
+
+    private synchronized void register() {
+        if (scheduler.isShutdown()) {
+            return;
+        }
+        try {
+            registration = dataManager.listenForChanges(this::onChanges, this::onError);
+            log.info("Listening for categorization dictionary changes");
+        } catch (Exception e) {
+            log.warn("Could not listen for categorization changes, retrying in {} ms", retryDelayMillis, e);
+            scheduleRetry();
+        }
+    }
+
+    synchronized void onChanges(FirestoreCategoryDataManager.CategoryChanges changes) {
+        if (changes.fullSnapshot()) {
+            // Pełny obraz kolekcji zastępuje wszystko, co czekało z poprzedniego nasłuchu
+            pendingFullSnapshot = true;
+            pendingChanges.clear();
+        }
+        changes.changes().forEach(change -> pendingChanges.put(change.key(), change));
+
+        if (!applyScheduled && !scheduler.isShutdown()) {
+            applyScheduled = true;
+            scheduler.schedule(this::applyPendingChanges, debounceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    synchronized void onError(Exception error) {
+        log.warn("Categorization listener failed, re-registering in {} ms", retryDelayMillis, error);
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+        scheduleRetry();
+    }
+
+    private void applyPendingChanges() {
+        List<FirestoreCategoryDataManager.CategoryChange> changes;
+        boolean fullSnapshot;
+        synchronized (this) {
+            changes = List.copyOf(pendingChanges.values());
+            fullSnapshot = pendingFullSnapshot;
+            pendingChanges.clear();
+            pendingFullSnapshot = false;
+            applyScheduled = false;
+        }
+
+        try {
+            int applied = categorizationService.applyRemoteChanges(changes, fullSnapshot);
+            if (applied > 0) {
+                log.info("Applied {} remote categorization changes{}", applied, fullSnapshot ? " (full resync)" : "");
+            }
+        } catch (Exception e) {
+            log.error("Error applying remote categorization changes", e);
+        }
+    }
+
+    private void scheduleRetry() {
+        if (!scheduler.isShutdown()) {
+            scheduler.schedule(this::register, retryDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+}
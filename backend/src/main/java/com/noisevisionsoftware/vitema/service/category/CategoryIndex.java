@@ -0,0 +1,293 @@
+package com.noisevisionsoftware.vitema.service.category;
+
+import com.noisevisionsoftware.vitema.model.shopping.category.CategorySuggestion.MatchType;
+import com.noisevisionsoftware.vitema.model.shopping.category.ProductCategoryData;
+import com.noisevisionsoftware.vitema.utils.PersistentHashMap;
+import com.noisevisionsoftware.vitema.utils.TrigramIndex;
+
+import java.util.*;
+
+/**
+ * Indeksy słownika kategoryzacji, zastępujące przeglądanie całej mapy przy każdym składniku:
+ * <ul>
+ *     <li>nazwa produktu -> klucze wpisów (dopasowanie dokładne),</li>
+ *     <li>znormalizowany wariant -> klucze wpisów (dopasowanie przez warianty),</li>
+ *     <li>indeks trigramowy znormalizowanych nazw (dopasowanie przybliżone).</li>
+ * </ul>
+ * Opublikowana wersja indeksu jest niezmienna. Zmiany tworzą nową wersję ({@link #withChanges}).
+ * Mapy są trwałe ({@link PersistentHashMap}), a zbiory kluczy i listy trigramów kopiowane tylko
+ * wtedy, gdy zmiana ich dotyczy, więc nowa wersja współdzieli z poprzednią wszystko poza ścieżkami
+ * do zmienionych kluczy - zmiana kosztuje O(liczba zmienionych wpisów), a nie O(rozmiar słownika).
+ * Czytelnik trzymający referencję do wersji widzi spójny stan mapy i wszystkich indeksów naraz -
+ * nie ma okna, w którym wpis jest już w mapie, a jeszcze nie w indeksach. Odczyty nie blokują,
+ * zmiany wykonuje jeden pisarz.
+ */
+class CategoryIndex {
+
+    private static final CategoryIndex EMPTY = new CategoryIndex(PersistentHashMap.empty(), PersistentHashMap.empty(),
+            PersistentHashMap.empty(), PersistentHashMap.empty(), new TrigramIndex());
+
+    private final PersistentHashMap<String, ProductCategoryData> data;
+    private final PersistentHashMap<String, IndexedEntry> entriesByKey;
+    // Zbiory kluczy są niezmienne - zmiana zawsze wstawia nowy zbiór
+    private final PersistentHashMap<String, Set<String>> keysByName;
+    private final PersistentHashMap<String, Set<String>> keysByVariation;
+    // Zmieniany tylko przed publikacją wersji (w Draft)
+    private final TrigramIndex normalizedNames;
+
+    private CategoryIndex(PersistentHashMap<String, ProductCategoryData> data,
+                          PersistentHashMap<String, IndexedEntry> entriesByKey,
+                          PersistentHashMap<String, Set<String>> keysByName,
+                          PersistentHashMap<String, Set<String>> keysByVariation,
+                          TrigramIndex normalizedNames) {
+        this.data = data;
+        this.entriesByKey = entriesByKey;
+        this.keysByName = keysByName;
+        this.keysByVariation = keysByVariation;
+        this.normalizedNames = normalizedNames;
+    }
+
+    static CategoryIndex build(Map<String, ProductCategoryData> data) {
+        Draft draft = new Draft(EMPTY);
+        data.forEach(draft::apply);
+        return draft.publish();
+    }
+
+    /**
+     * Nowa wersja indeksu z podanymi zmianami (wartość {@code null} usuwa wpis). Bieżąca wersja
+     * zostaje nietknięta dla wątków, które właśnie z niej czytają.
+     */
+    CategoryIndex withChanges(Map<String, ProductCategoryData> changes) {
+        if (changes.isEmpty()) {
+            return this;
+        }
+        Draft draft = new Draft(this);
+        changes.forEach(draft::apply);
+        return draft.publish();
+    }
+
+    /**
+     * Wersja w przygotowaniu - niewidoczna dla czytelników, dopóki {@link #publish()} jej nie zwróci.
+     */
+    private static final class Draft {
+        private PersistentHashMap<String, ProductCategoryData> data;
+        private PersistentHashMap<String, IndexedEntry> entriesByKey;
+        private PersistentHashMap<String, Set<String>> keysByName;
+        private PersistentHashMap<String, Set<String>> keysByVariation;
+        private final TrigramIndex baseNames;
+        // Zmiany indeksu trigramowego (null usuwa), wprowadzane jednym update przy publikacji
+        private final Map<String, String> nameChanges = new HashMap<>();
+
+        Draft(CategoryIndex base) {
+            data = base.data;
+            entriesByKey = base.entriesByKey;
+            keysByName = base.keysByName;
+            keysByVariation = base.keysByVariation;
+            baseNames = base.normalizedNames;
+        }
+
+        void apply(String key, ProductCategoryData entry) {
+            unindex(key);
+            if (entry == null) {
+                data = data.minus(key);
+                return;
+            }
+            data = data.plus(key, entry);
+
+            String productName = entry.getProductName();
+            String normalizedName = normalize(productName);
+            Set<String> variations = new HashSet<>();
+            if (entry.getVariations() != null) {
+                for (String variation : entry.getVariations()) {
+                    variations.add(normalize(variation));
+                }
+            }
+
+            entriesByKey = entriesByKey.plus(key, new IndexedEntry(productName, variations));
+            if (productName != null) {
+                keysByName = addToBucket(keysByName, productName, key);
+            }
+            for (String variation : variations) {
+                keysByVariation = addToBucket(keysByVariation, variation, key);
+            }
+            nameChanges.put(key, normalizedName);
+        }
+
+        private void unindex(String key) {
+            IndexedEntry indexed = entriesByKey.get(key);
+            if (indexed == null) {
+                return;
+            }
+            entriesByKey = entriesByKey.minus(key);
+
+            if (indexed.productName() != null) {
+                keysByName = removeFromBucket(keysByName, indexed.productName(), key);
+            }
+            for (String variation : indexed.variations()) {
+                keysByVariation = removeFromBucket(keysByVariation, variation, key);
+            }
+            nameChanges.put(key, null);
+        }
+
+        CategoryIndex publish() {
+            TrigramIndex normalizedNames = baseNames.copy();
+            normalizedNames.update(nameChanges);
+            return new CategoryIndex(data, entriesByKey, keysByName, keysByVariation, normalizedNames);
+        }
+    }
+
+    Set<String> keys() {
+        return data.asMap().keySet();
+    }
+
+    Map<String, ProductCategoryData> entries() {
+        return data.asMap();
+    }
+
+    ProductCategoryData get(String key) {
+        return data.get(key);
+    }
+
+    Optional<ProductCategoryData> findByName(String productName) {
+        return mostUsed(keysByName.get(productName));
+    }
+
+    Optional<ProductCategoryData> findByVariation(String normalizedVariation) {
+        return mostUsed(keysByVariation.get(normalizedVariation));
+    }
+
+    /**
+     * Wszystkie wpisy pasujące do nazwy, zebrane w jednym przejściu po indeksach: po nazwie
+     * ({@code productName}), po wariancie i przez podobieństwo ({@code normalizedName}, tylko dla
+     * nazw o co najmniej {@code minLength} znakach). Wpis może wystąpić kilka razy, z różnym typem.
+     */
+    List<Candidate> findCandidates(String productName, String normalizedName, double minSimilarity, int minLength) {
+        List<Candidate> candidates = new ArrayList<>();
+        addCandidates(candidates, keysByName.get(productName), MatchType.EXACT);
+        addCandidates(candidates, keysByVariation.get(normalizedName), MatchType.VARIATION);
+
+        if (normalizedName.length() >= minLength) {
+            for (TrigramIndex.Match match : normalizedNames.searchSimilar(normalizedName, minSimilarity, Integer.MAX_VALUE)) {
+                ProductCategoryData entry = match.text().length() >= minLength ? data.get(match.id()) : null;
+                if (entry != null) {
+                    candidates.add(new Candidate(entry, MatchType.SIMILAR, match.similarity()));
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private void addCandidates(List<Candidate> candidates, Set<String> keys, MatchType type) {
+        if (keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            ProductCategoryData entry = data.get(key);
+            if (entry != null) {
+                candidates.add(new Candidate(entry, type, 1.0));
+            }
+        }
+    }
+
+    /**
+     * Zwraca najczęściej używany wpis, którego znormalizowana nazwa ma co najmniej
+     * {@code minLength} znaków i podobieństwo do podanej nazwy nie mniejsze niż {@code minSimilarity}.
+     */
+    Optional<ProductCategoryData> findMostUsedSimilar(String normalizedName, double minSimilarity, int minLength) {
+        ProductCategoryData best = null;
+        for (TrigramIndex.Match match : normalizedNames.searchSimilar(normalizedName, minSimilarity, Integer.MAX_VALUE)) {
+            if (match.text().length() < minLength) {
+                continue;
+            }
+            ProductCategoryData entry = data.get(match.id());
+            if (entry != null && (best == null || entry.getUsageCount() > best.getUsageCount())) {
+                best = entry;
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    int size() {
+        return entriesByKey.size();
+    }
+
+    private Optional<ProductCategoryData> mostUsed(Set<String> keys) {
+        if (keys == null) {
+            return Optional.empty();
+        }
+        ProductCategoryData best = null;
+        for (String key : keys) {
+            ProductCategoryData entry = data.get(key);
+            if (entry != null && (best == null || entry.getUsageCount() > best.getUsageCount())) {
+                best = entry;
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    private static PersistentHashMap<String, Set<String>> addToBucket(PersistentHashMap<String, Set<String>> index,
+                                                                      String bucket, String key) {
+        Set<String> keys = index.get(bucket);
+        if (keys == null) {
+            return index.plus(bucket, Set.of(key));
+        }
+        if (keys.contains(key)) {
+            return index;
+        }
+        Set<String> extended = new HashSet<>(keys);
+        extended.add(key);
+        return index.plus(bucket, Collections.unmodifiableSet(extended));
+    }
+
+    private static PersistentHashMap<String, Set<String>> removeFromBucket(PersistentHashMap<String, Set<String>> index,
+                                                                           String bucket, String key) {
+        Set<String> keys = index.get(bucket);
+        if (keys == null || !keys.contains(key)) {
+            return index;
+        }
+        if (keys.size() == 1) {
+            return index.minus(bucket);
+        }
+        Set<String> reduced = new HashSet<>(keys);
+        reduced.remove(key);
+        return index.plus(bucket, Collections.unmodifiableSet(reduced));
+    }
+
+    /**
+     * Normalizacja nazw produktów: małe litery, znaki spoza [a-z0-9] i polskich liter zamienione
+     * na spacje, pojedyncze spacje, bez spacji na końcach. Jeden przebieg zamiast dwóch
+     * {@code replaceAll}.
+     */
+    static String normalize(String name) {
+        if (name == null) return "";
+
+        String lower = name.toLowerCase();
+        StringBuilder result = new StringBuilder(lower.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (isNameChar(c)) {
+                if (pendingSpace && !result.isEmpty()) {
+                    result.append(' ');
+                }
+                pendingSpace = false;
+                result.append(c);
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return result.toString();
+    }
+
+    private static boolean isNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                || c == 'ą' || c == 'ć' || c == 'ę' || c == 'ł' || c == 'ń'
+                || c == 'ó' || c == 'ś' || c == 'ź' || c == 'ż';
+    }
+
+    record Candidate(ProductCategoryData entry, MatchType type, double similarity) {
+    }
+
+    private record IndexedEntry(String productName, Set<String> variations) {
+    }
+}
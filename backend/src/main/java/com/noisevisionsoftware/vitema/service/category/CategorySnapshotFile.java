@@ -0,0 +1,197 @@
+package com.noisevisionsoftware.vitema.service.category;
+
+import com.google.cloud.Timestamp;
+import com.noisevisionsoftware.vitema.model.shopping.category.ProductCategoryData;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Lokalna migawka słownika kategoryzacji w zwartym formacie binarnym, czytana przez mapowanie
+ * pliku w pamięć - start bez czekania na odczyt i deserializację całej kolekcji z Firestore.
+ * <p>
+ * Układ pliku: nagłówek (magic, wersja), tablica napisów (każdy napis zapisany raz, UTF-8),
+ * tablica wpisów o stałej budowie, w której napisy są indeksami do tablicy napisów
+ * (-1 = null), i na końcu suma kontrolna CRC32. Plik jest zapisywany do pliku tymczasowego
+ * i podmieniany atomowo, więc czytelnik nie zobaczy połowy zapisu.
+ */
+public final class CategorySnapshotFile {
+
+    private static final int MAGIC = 0x56434154; // "VCAT"
+    private static final int VERSION = 1;
+    private static final int NULL_REF = -1;
+    private static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+
+    private CategorySnapshotFile() {
+    }
+
+    public static void write(Path path, Map<String, ProductCategoryData> data) throws IOException {
+        Map<String, Integer> stringIds = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        ByteArrayOutputStream entriesBytes = new ByteArrayOutputStream(data.size() * 64);
+        DataOutputStream entries = new DataOutputStream(entriesBytes);
+
+        entries.writeInt(data.size());
+        for (Map.Entry<String, ProductCategoryData> entry : data.entrySet()) {
+            ProductCategoryData value = entry.getValue();
+            entries.writeInt(intern(entry.getKey(), stringIds, strings));
+            entries.writeInt(intern(value.getProductName(), stringIds, strings));
+            entries.writeInt(intern(value.getCategoryId(), stringIds, strings));
+            entries.writeInt(value.getUsageCount());
+            writeTimestamp(entries, value.getLastUsed());
+            writeTimestamp(entries, value.getCreatedAt());
+            writeTimestamp(entries, value.getUpdatedAt());
+
+            List<String> variations = value.getVariations() != null ? value.getVariations() : List.of();
+            entries.writeInt(variations.size());
+            for (String variation : variations) {
+                entries.writeInt(intern(variation, stringIds, strings));
+            }
+        }
+        entries.flush();
+
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            CRC32 crc = new CRC32();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new CheckedOutput(Files.newOutputStream(temp), crc), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(strings.size());
+                for (String string : strings) {
+                    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+                entriesBytes.writeTo(out);
+                out.flush();
+                // Suma kontrolna obejmuje wszystko przed nią
+                long checksum = crc.getValue();
+                out.writeLong(checksum);
+            }
+            moveAtomically(temp, path);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * @throws IOException gdy pliku nie ma, ma nieznaną wersję lub jest uszkodzony
+     */
+    public static Map<String, ProductCategoryData> read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 3 * Integer.BYTES + Long.BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid snapshot size: " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, (int) size - Long.BYTES));
+            if (crc.getValue() != buffer.getLong((int) size - Long.BYTES)) {
+                throw new IOException("Snapshot checksum mismatch");
+            }
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Unsupported snapshot format");
+            }
+
+            String[] strings = new String[buffer.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                int length = buffer.getInt();
+                strings[i] = new String(bytes(buffer, length), StandardCharsets.UTF_8);
+            }
+
+            int entryCount = buffer.getInt();
+            Map<String, ProductCategoryData> result = new ConcurrentHashMap<>(entryCount * 4 / 3 + 1);
+            for (int i = 0; i < entryCount; i++) {
+                String key = string(strings, buffer.getInt());
+                ProductCategoryData.ProductCategoryDataBuilder entry = ProductCategoryData.builder()
+                        .productName(string(strings, buffer.getInt()))
+                        .categoryId(string(strings, buffer.getInt()))
+                        .usageCount(buffer.getInt())
+                        .lastUsed(readTimestamp(buffer))
+                        .createdAt(readTimestamp(buffer))
+                        .updatedAt(readTimestamp(buffer));
+
+                String[] variations = new String[buffer.getInt()];
+                for (int v = 0; v < variations.length; v++) {
+                    variations[v] = string(strings, buffer.getInt());
+                }
+                result.put(key, entry.variations(List.of(variations)).build());
+            }
+            return result;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NullPointerException e) {
+            throw new IOException("Corrupted snapshot", e);
+        }
+    }
+
+    private static int intern(String value, Map<String, Integer> ids, List<String> strings) {
+        if (value == null) {
+            return NULL_REF;
+        }
+        return ids.computeIfAbsent(value, v -> {
+            strings.add(v);
+            return strings.size() - 1;
+        });
+    }
+
+    private static String string(String[] strings, int ref) {
+        return ref == NULL_REF ? null : strings[ref];
+    }
+
+    private static byte[] bytes(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static void writeTimestamp(DataOutputStream out, Timestamp timestamp) throws IOException {
+        out.writeLong(timestamp == null ? NULL_TIMESTAMP : timestamp.getSeconds());
+        out.writeInt(timestamp == null ? 0 : timestamp.getNanos());
+    }
+
+    private static Timestamp readTimestamp(ByteBuffer buffer) {
+        long seconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        return seconds == NULL_TIMESTAMP ? null : Timestamp.ofTimeSecondsAndNanos(seconds, nanos);
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static final class CheckedOutput extends FilterOutputStream {
+        private final CRC32 crc;
+
+        CheckedOutput(OutputStream out, CRC32 crc) {
+            super(out);
+            this.crc = crc;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            crc.update(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            crc.update(b, off, len);
+        }
+    }
+}
@@ -11,6 +11,8 @@ import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
@@ -18,10 +20,51 @@ import java.util.concurrent.ConcurrentHashMap;
 public class FirestoreCategoryDataManager {
     private final Firestore firestore;
     private static final String COLLECTION_NAME = "product_categories";
+    private static final int MAX_BATCH_SIZE = 500;
+
+    // Znormalizowana nazwa produktu -> identyfikator dokumentu, wypełniane przy loadData
+    private final Map<String, String> documentIds = new ConcurrentHashMap<>();
+    private volatile boolean documentIdsLoaded;
+    // Wersja kolekcji z ostatniego udanego loadData
+    private volatile CollectionVersion loadedVersion;
+
+    /**
+     * Zmiana dokumentu słownika: nowa wersja wpisu albo {@code data == null} dla usuniętego.
+     */
+    public record CategoryChange(String key, ProductCategoryData data) {
+        public boolean removed() {
+            return data == null;
+        }
+    }
+
+    /**
+     * Zmiany z jednego zdarzenia nasłuchu. {@code fullSnapshot} oznacza pełny obraz kolekcji
+     * (pierwsze zdarzenie po rejestracji) - wpisów, których w nim nie ma, już nie ma w kolekcji.
+     */
+    public record CategoryChanges(List<CategoryChange> changes, boolean fullSnapshot) {
+    }
+
+    /*
+     * Liczba dokumentów i czas ostatniej zmiany. Każdy zapis przesuwa czas ostatniej zmiany, a samo
+     * usunięcie zmniejsza liczbę dokumentów, więc równe wersje oznaczają kolekcję bez zmian.
+     * */
+    record CollectionVersion(int documents, Timestamp lastUpdate) {
+        static CollectionVersion of(List<? extends DocumentSnapshot> documents) {
+            Timestamp lastUpdate = null;
+            for (DocumentSnapshot document : documents) {
+                Timestamp updateTime = document.getUpdateTime();
+                if (updateTime != null && (lastUpdate == null || updateTime.compareTo(lastUpdate) > 0)) {
+                    lastUpdate = updateTime;
+                }
+            }
+            return new CollectionVersion(documents.size(), lastUpdate);
+        }
+    }
 
     public Map<String, ProductCategoryData> loadData() {
         try {
             Map<String, ProductCategoryData> result = new ConcurrentHashMap<>();
+            Map<String, String> loadedIds = new ConcurrentHashMap<>();
             CollectionReference categoriesRef = firestore.collection(COLLECTION_NAME);
             ApiFuture<QuerySnapshot> future = categoriesRef.get();
 
@@ -31,8 +74,15 @@ public class FirestoreCategoryDataManager {
 
                 String normalizedKey = normalizeProductName(data.getProductName());
                 result.put(normalizedKey, data);
+                if (document.getId() != null) {
+                    loadedIds.put(normalizedKey, document.getId());
+                }
             }
 
+            documentIds.clear();
+            documentIds.putAll(loadedIds);
+            documentIdsLoaded = true;
+            loadedVersion = CollectionVersion.of(documents);
             return result;
         } catch (Exception e) {
             log.error("Error loading category data from Firestore", e);
@@ -40,61 +90,101 @@ public class FirestoreCategoryDataManager {
         }
     }
 
+    /**
+     * Zapisuje podane wpisy (zwykle tylko zmienione od ostatniego zapisu). Po {@link #loadData()}
+     * identyfikatory dokumentów są brane z mapy w pamięci, więc zapis nie wykonuje żadnych odczytów.
+     * Partie po 500 operacji są wysyłane równolegle, a metoda czeka na zatwierdzenie wszystkich.
+     */
     public void saveData(Map<String, ProductCategoryData> data) {
+        if (data.isEmpty()) {
+            return;
+        }
+
         try {
+            List<ApiFuture<List<WriteResult>>> commits = new ArrayList<>();
             WriteBatch batch = firestore.batch();
             int batchSize = 0;
-            final int MAX_BATCH_SIZE = 500;
 
             for (Map.Entry<String, ProductCategoryData> entry : data.entrySet()) {
                 String normalizedName = entry.getKey();
-                ProductCategoryData productData = entry.getValue();
-
-                // Check if document already exists
-                String existingDocId = findExistingDocumentId(normalizedName);
-
-                DocumentReference docRef;
-                if (existingDocId != null) {
-                    // Update current document
-                    docRef = firestore.collection(COLLECTION_NAME).document(existingDocId);
-                } else {
-                    // Create new document with determined ID
-                    String docId = createDeterministicDocumentId(normalizedName);
-                    docRef = firestore.collection(COLLECTION_NAME).document(docId);
-                }
+                String docId = resolveDocumentId(normalizedName);
+                DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(docId);
 
-                batch.set(docRef, productData, SetOptions.merge());
+                batch.set(docRef, entry.getValue(), SetOptions.merge());
                 batchSize++;
 
                 if (batchSize >= MAX_BATCH_SIZE) {
-                    batch.commit().get();
+                    commits.add(batch.commit());
                     batch = firestore.batch();
                     batchSize = 0;
                 }
             }
 
             if (batchSize > 0) {
-                batch.commit().get();
+                commits.add(batch.commit());
             }
 
+            for (ApiFuture<List<WriteResult>> commit : commits) {
+                commit.get();
+            }
         } catch (Exception e) {
             log.error("Error saving category data to Firestore", e);
             throw new RuntimeException("Could not save category data", e);
         }
     }
 
+    /**
+     * Nasłuchuje zmian w kolekcji. Pierwsze zdarzenie po rejestracji zawiera wszystkie dokumenty
+     * ({@link CategoryChanges#fullSnapshot()}), kolejne tylko zmienione. Pełny obraz kolekcji, która
+     * nie zmieniła się od ostatniego {@link #loadData()}, nie jest przekazywany - słownik ma już te dane.
+     * Po błędzie nasłuch jest zakończony - trzeba zarejestrować go ponownie.
+     */
+    public ListenerRegistration listenForChanges(Consumer<CategoryChanges> onChanges,
+                                                 Consumer<Exception> onError) {
+        AtomicBoolean awaitingFullSnapshot = new AtomicBoolean(true);
+        return firestore.collection(COLLECTION_NAME).addSnapshotListener((snapshot, error) -> {
+            if (error != null) {
+                onError.accept(error);
+                return;
+            }
+            if (snapshot == null) {
+                return;
+            }
+
+            boolean fullSnapshot = awaitingFullSnapshot.getAndSet(false);
+            if (fullSnapshot && CollectionVersion.of(snapshot.getDocuments()).equals(loadedVersion)) {
+                log.debug("Initial categorization snapshot matches loaded data, skipping");
+                return;
+            }
+
+            List<CategoryChange> changes = new ArrayList<>();
+            for (DocumentChange change : snapshot.getDocumentChanges()) {
+                QueryDocumentSnapshot document = change.getDocument();
+                ProductCategoryData data = document.toObject(ProductCategoryData.class);
+                String normalizedKey = normalizeProductName(data.getProductName());
+
+                if (change.getType() == DocumentChange.Type.REMOVED) {
+                    documentIds.remove(normalizedKey, document.getId());
+                    changes.add(new CategoryChange(normalizedKey, null));
+                } else {
+                    if (document.getId() != null) {
+                        documentIds.put(normalizedKey, document.getId());
+                    }
+                    changes.add(new CategoryChange(normalizedKey, data));
+                }
+            }
+            onChanges.accept(new CategoryChanges(changes, fullSnapshot));
+        });
+    }
+
     public ParsedProduct updateProduct(ParsedProduct newProduct) {
         try {
             String normalizedName = normalizeProductName(newProduct.getName());
             String existingDocId = findExistingDocumentId(normalizedName);
 
-            DocumentReference docRef;
-            if (existingDocId != null) {
-                docRef = firestore.collection(COLLECTION_NAME).document(existingDocId);
-            } else {
-                String docId = createDeterministicDocumentId(normalizedName);
-                docRef = firestore.collection(COLLECTION_NAME).document(docId);
-            }
+            String docId = existingDocId != null ? existingDocId : createDeterministicDocumentId(normalizedName);
+            DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(docId);
+            documentIds.put(normalizedName, docId);
 
             DocumentSnapshot doc = docRef.get().get();
             List<String> variations = new ArrayList<>();
@@ -128,6 +218,26 @@ public class FirestoreCategoryDataManager {
         }
     }
 
+    /**
+     * Identyfikator dokumentu dla wpisu. Po załadowaniu danych korzysta tylko z mapy w pamięci
+     * (nowe wpisy dostają identyfikator deterministyczny); bez niej pyta Firestore jak dotąd.
+     */
+    private String resolveDocumentId(String normalizedName) {
+        String docId = documentIds.get(normalizedName);
+        if (docId != null) {
+            return docId;
+        }
+
+        if (!documentIdsLoaded) {
+            docId = findExistingDocumentId(normalizedName);
+        }
+        if (docId == null) {
+            docId = createDeterministicDocumentId(normalizedName);
+        }
+        documentIds.put(normalizedName, docId);
+        return docId;
+    }
+
     /*
      * Finds ID of existing document for given normalized product name
      * */
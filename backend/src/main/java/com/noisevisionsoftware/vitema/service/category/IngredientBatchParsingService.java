@@ -0,0 +1,289 @@
+package com.noisevisionsoftware.vitema.service.category;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.noisevisionsoftware.vitema.dto.response.category.ParsedProductLineResponse;
+import com.noisevisionsoftware.vitema.exception.PayloadTooLargeException;
+import com.noisevisionsoftware.vitema.exception.TooManyRequestsException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Wsadowe parsowanie składników ze strumieniowaniem wyników jako NDJSON.
+ * <p>
+ * Składniki są parsowane równolegle (przez {@link IngredientParseCache}), a wyniki zapisywane
+ * w kolejności ukończenia. Naraz parsowanych jest co najwyżej {@code inFlightLimit} składników -
+ * kolejne są zlecane dopiero po zapisaniu wyniku, więc wolny klient spowalnia parsowanie zamiast
+ * gromadzić wyniki w pamięci. Liczba równoczesnych strumieni na węzeł jest ograniczona.
+ * <p>
+ * Treść żądania jest czytana strumieniowo z limitem bajtów ({@code max-request-bytes}), a limity
+ * liczby i długości składników są sprawdzane w trakcie czytania - zbyt duże żądanie jest
+ * odrzucane, zanim trafi w całości do pamięci.
+ */
+@Service
+@Slf4j
+public class IngredientBatchParsingService {
+
+    private static final byte NEWLINE = '\n';
+
+    private final IngredientParseCache ingredientParseCache;
+    private final ObjectMapper objectMapper;
+    private final int maxLines;
+    private final int maxLineLength;
+    private final int inFlightLimit;
+    private final long maxRequestBytes;
+    private final Semaphore batchSlots;
+
+    public IngredientBatchParsingService(
+            IngredientParseCache ingredientParseCache,
+            ObjectMapper objectMapper,
+            @Value("${product.parsing.batch.max-lines:5000}") int maxLines,
+            @Value("${product.parsing.batch.max-line-length:500}") int maxLineLength,
+            @Value("${product.parsing.batch.max-concurrent-batches:4}") int maxConcurrentBatches,
+            @Value("${product.parsing.batch.in-flight-limit:64}") int inFlightLimit,
+            @Value("${product.parsing.batch.max-request-bytes:1048576}") long maxRequestBytes) {
+        this.ingredientParseCache = ingredientParseCache;
+        this.objectMapper = objectMapper;
+        this.maxLines = maxLines;
+        this.maxLineLength = maxLineLength;
+        this.inFlightLimit = Math.max(1, inFlightLimit);
+        this.maxRequestBytes = maxRequestBytes;
+        this.batchSlots = new Semaphore(Math.max(1, maxConcurrentBatches));
+    }
+
+    /**
+     * Czyta składniki z treści JSON {@code {"products": ["...", ...]}} bez budowania całej listy
+     * przed sprawdzeniem limitów.
+     *
+     * @param contentLength nagłówek Content-Length lub -1, gdy nieznany
+     * @throws PayloadTooLargeException gdy żądanie przekracza limit bajtów, linii lub długości linii
+     */
+    public List<String> readJsonLines(InputStream body, long contentLength) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(limitedBody(body, contentLength))) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return lines;
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw JsonMappingException.from(parser, "Oczekiwano obiektu z listą products");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (!"products".equals(field) || value == JsonToken.VALUE_NULL) {
+                    parser.skipChildren();
+                    continue;
+                }
+                if (value != JsonToken.START_ARRAY) {
+                    throw JsonMappingException.from(parser, "Pole products musi być listą");
+                }
+                while ((value = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                        throw JsonMappingException.from(parser, "Składnik musi być tekstem");
+                    }
+                    addLine(lines, value == JsonToken.VALUE_NULL ? null : parser.getValueAsString());
+                }
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Czyta składniki z wklejonego tekstu - jeden składnik w linii.
+     *
+     * @param contentLength nagłówek Content-Length lub -1, gdy nieznany
+     * @throws PayloadTooLargeException gdy żądanie przekracza limit bajtów, linii lub długości linii
+     */
+    public List<String> readTextLines(InputStream body, long contentLength, Charset charset) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(limitedBody(body, contentLength), charset))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                addLine(lines, line);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Sprawdza limity żądania i rezerwuje miejsce dla strumienia. Rezerwację zwalnia zakończenie
+     * zapisu albo {@link BatchStream#release()} - wywoływane także wtedy, gdy zapis w ogóle nie
+     * wystartuje (rozłączony klient, timeout przetwarzania asynchronicznego).
+     *
+     * @throws PayloadTooLargeException gdy żądanie przekracza limit linii lub długości linii
+     * @throws TooManyRequestsException gdy węzeł obsługuje już maksymalną liczbę strumieni
+     */
+    public BatchStream openStream(List<String> lines) {
+        validateLimits(lines);
+
+        if (!batchSlots.tryAcquire()) {
+            throw new TooManyRequestsException("Zbyt wiele równoczesnych żądań parsowania. Spróbuj ponownie za chwilę.");
+        }
+
+        return new BatchStream(lines);
+    }
+
+    /**
+     * Ciało odpowiedzi NDJSON trzymające miejsce w limicie równoczesnych strumieni.
+     */
+    public final class BatchStream implements StreamingResponseBody {
+
+        private final List<String> lines;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private BatchStream(List<String> lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public void writeTo(OutputStream outputStream) throws IOException {
+            try {
+                writeResults(lines, outputStream);
+            } finally {
+                release();
+            }
+        }
+
+        /**
+         * Zwalnia miejsce strumienia; kolejne wywołania nic nie robią.
+         */
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                batchSlots.release();
+            }
+        }
+    }
+
+    /**
+     * Parsuje niepuste linie i zapisuje każdy wynik jako osobną linię JSON. Bufor jest opróżniany
+     * za każdym razem, gdy żaden kolejny wynik nie jest jeszcze gotowy.
+     */
+    void writeResults(List<String> lines, OutputStream outputStream) throws IOException {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletionService<ParsedProductLineResponse> completionService = new ExecutorCompletionService<>(executor);
+            int nextIndex = 0;
+            int inFlight = 0;
+
+            while (true) {
+                while (inFlight < inFlightLimit && nextIndex < lines.size()) {
+                    int index = nextIndex++;
+                    String line = lines.get(index);
+                    if (line == null || line.isBlank()) {
+                        continue;
+                    }
+                    completionService.submit(() -> new ParsedProductLineResponse(index, ingredientParseCache.parse(line)));
+                    inFlight++;
+                }
+
+                if (inFlight == 0) {
+                    break;
+                }
+
+                Future<ParsedProductLineResponse> completed = completionService.poll();
+                if (completed == null) {
+                    outputStream.flush();
+                    completed = completionService.take();
+                }
+                inFlight--;
+
+                outputStream.write(objectMapper.writeValueAsBytes(completed.get()));
+                outputStream.write(NEWLINE);
+            }
+
+            outputStream.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Przerwano wsadowe parsowanie składników", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Błąd podczas wsadowego parsowania składników", e.getCause());
+        }
+    }
+
+    public int getAvailableBatchSlots() {
+        return batchSlots.availablePermits();
+    }
+
+    private InputStream limitedBody(InputStream body, long contentLength) {
+        if (contentLength > maxRequestBytes) {
+            throw requestTooLarge();
+        }
+        return new LimitedInputStream(body);
+    }
+
+    private void addLine(List<String> lines, String line) {
+        if (lines.size() >= maxLines) {
+            throw new PayloadTooLargeException("Maksymalna liczba składników w jednym żądaniu to " + maxLines);
+        }
+        if (line != null && line.length() > maxLineLength) {
+            throw new PayloadTooLargeException(
+                    "Składnik nr " + (lines.size() + 1) + " przekracza maksymalną długość " + maxLineLength + " znaków");
+        }
+        lines.add(line);
+    }
+
+    private PayloadTooLargeException requestTooLarge() {
+        return new PayloadTooLargeException("Maksymalny rozmiar żądania parsowania to " + maxRequestBytes + " bajtów");
+    }
+
+    private void validateLimits(List<String> lines) {
+        if (lines.size() > maxLines) {
+            throw new PayloadTooLargeException(
+                    "Maksymalna liczba składników w jednym żądaniu to " + maxLines + " (otrzymano " + lines.size() + ")");
+        }
+
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line != null && line.length() > maxLineLength) {
+                throw new PayloadTooLargeException(
+                        "Składnik nr " + (i + 1) + " przekracza maksymalną długość " + maxLineLength + " znaków");
+            }
+        }
+    }
+
+    // Przerywa czytanie po przekroczeniu limitu bajtów, także bez nagłówka Content-Length
+    private class LimitedInputStream extends FilterInputStream {
+
+        private long remaining = maxRequestBytes;
+
+        private LimitedInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                consume(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                consume(read);
+            }
+            return read;
+        }
+
+        private void consume(long bytes) {
+            remaining -= bytes;
+            if (remaining < 0) {
+                throw requestTooLarge();
+            }
+        }
+    }
+}
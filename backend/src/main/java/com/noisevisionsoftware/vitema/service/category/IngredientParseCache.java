@@ -0,0 +1,136 @@
+package com.noisevisionsoftware.vitema.service.category;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.noisevisionsoftware.vitema.model.shopping.category.CategorySuggestion;
+import com.noisevisionsoftware.vitema.utils.excelParser.model.ParsedProduct;
+import com.noisevisionsoftware.vitema.utils.excelParser.model.ParsingResult;
+import com.noisevisionsoftware.vitema.utils.excelParser.service.ProductParsingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Wspólny (dla uploadu Excela i endpointu /parse) cache wyników parsowania i kategoryzacji
+ * składników, kluczowany znormalizowanym tekstem składnika. Trenerzy wielokrotnie używają tych
+ * samych fraz ("2 łyżki oliwy"), więc większość składników nie wymaga ponownego parsowania.
+ * Cache jest czyszczony przy każdej zmianie danych kategoryzacji: zatwierdzeniu kategorii
+ * ({@link ProductCategorizationService#updateCategoriesInTransaction}), naniesieniu zmian z innych
+ * węzłów ({@link ProductCategorizationService#applyRemoteChanges}) i łączeniu duplikatów
+ * ({@link CategoryDataCleanupService}).
+ * <p>
+ * Wynik zawiera też do {@value #MAX_CATEGORY_SUGGESTIONS} alternatywnych kategorii, wyznaczonych
+ * tym samym wyszukiwaniem co kategoria główna.
+ * <p>
+ * Produkt domyślny (składnik, którego nie udało się sparsować) dostaje przy każdym wywołaniu nowy
+ * identyfikator; wartość w cache nie ma identyfikatora.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IngredientParseCache {
+
+    public static final String CACHE_NAME = "ingredientParseCache";
+    static final int MAX_CATEGORY_SUGGESTIONS = 3;
+
+    private final ProductParsingService productParsingService;
+    private final ProductCategorizationService categorizationService;
+    private final CacheManager cacheManager;
+
+    /**
+     * Zwraca sparsowany i skategoryzowany składnik. Każde wywołanie dostaje własną kopię,
+     * z polem original ustawionym na przekazany tekst.
+     */
+    public ParsedProduct parse(String input) {
+        if (input == null) {
+            return withNewId(createFallbackProduct(null));
+        }
+
+        try {
+            CachedProduct cached = getCache().get(normalizeKey(input), () -> parseAndCategorize(input));
+            if (cached == null) {
+                return withNewId(createFallbackProduct(input));
+            }
+            ParsedProduct copy = cached.product().toBuilder().original(input).build();
+            return cached.fallback() ? withNewId(copy) : copy;
+        } catch (Cache.ValueRetrievalException e) {
+            log.error("Error parsing product: {}", input, e.getCause());
+            return withNewId(createFallbackProduct(input));
+        }
+    }
+
+    public void invalidateAll() {
+        getCache().clear();
+    }
+
+    public CacheStats getStats() {
+        Cache cache = getCache();
+        if (cache instanceof CaffeineCache caffeineCache) {
+            return caffeineCache.getNativeCache().stats();
+        }
+        return CacheStats.empty();
+    }
+
+    private CachedProduct parseAndCategorize(String input) {
+        ParsingResult result = productParsingService.parseProduct(input);
+
+        boolean parsed = result != null && result.isSuccess() && result.getProduct() != null;
+        ParsedProduct product = parsed ? result.getProduct().toBuilder().build() : createFallbackProduct(input);
+
+        List<CategorySuggestion> suggestions = categorizationService.suggestCategories(product, MAX_CATEGORY_SUGGESTIONS);
+        product.setCategoryId(suggestions.isEmpty() ? null : suggestions.getFirst().categoryId());
+        product.setCategorySuggestions(suggestions);
+        return new CachedProduct(product, !parsed);
+    }
+
+    private static ParsedProduct withNewId(ParsedProduct product) {
+        product.setId(UUID.randomUUID().toString());
+        return product;
+    }
+
+    private ParsedProduct createFallbackProduct(String input) {
+        return ParsedProduct.builder()
+                .name(input)
+                .quantity(1.0)
+                .unit("szt")
+                .original(input)
+                .hasCustomUnit(false)
+                .categoryId(null)
+                .build();
+    }
+
+    private Cache getCache() {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            throw new IllegalStateException("Cache '" + CACHE_NAME + "' is not configured");
+        }
+        return cache;
+    }
+
+    private record CachedProduct(ParsedProduct product, boolean fallback) {
+    }
+
+    // Wielkość liter i białe znaki nie wpływają na wynik parsowania ani kategoryzacji
+    static String normalizeKey(String input) {
+        StringBuilder key = new StringBuilder(input.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = !key.isEmpty();
+            } else {
+                if (pendingSpace) {
+                    key.append(' ');
+                    pendingSpace = false;
+                }
+                key.append(Character.toLowerCase(c));
+            }
+        }
+        return key.toString();
+    }
+}
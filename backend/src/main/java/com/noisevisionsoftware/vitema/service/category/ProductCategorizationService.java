@@ -1,169 +1,494 @@
 package com.noisevisionsoftware.vitema.service.category;
 
 import com.google.cloud.Timestamp;
+import com.noisevisionsoftware.vitema.model.shopping.category.CategorySuggestion;
 import com.noisevisionsoftware.vitema.model.shopping.category.ProductCategoryData;
+import com.noisevisionsoftware.vitema.utils.EditDistance;
 import com.noisevisionsoftware.vitema.utils.StringUtils;
 import com.noisevisionsoftware.vitema.utils.excelParser.model.ParsedProduct;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.text.similarity.LevenshteinDistance;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Kategoryzacja produktów na podstawie słownika uczonego z potwierdzonych kategoryzacji.
+ * <p>
+ * Zmiany słownika są zapisywane do Firestore w trybie write-behind: aktualizacje trafiają
+ * od razu do pamięci (i do podpowiedzi), a klucze zmienionych wpisów czekają w kolejce, w której
+ * kolejne zmiany tego samego produktu łączą się w jeden zapis. Kolejka jest opróżniana co
+ * {@code flush-interval-ms}, po przekroczeniu {@code max-pending} wpisów (w tle) oraz przy
+ * zamykaniu aplikacji.
+ * <p>
+ * Gwarancje trwałości: przy normalnym zamknięciu (i działającym Firestore) zapisywane są wszystkie
+ * zmiany. Nieudany zapis wraca do kolejki i jest ponawiany przy następnym opróżnieniu, więc przy
+ * awarii procesu tracone są wszystkie zmiany od ostatniego udanego zapisu - przy sprawnym Firestore
+ * to najwyżej jeden interwał (lub {@code max-pending} wpisów), przy utrzymujących się błędach
+ * zapisu dowolnie wiele. Wiek najstarszej niezapisanej zmiany i liczba nieudanych zapisów są
+ * dostępne w {@link #getWriteBehindStats()} ({@code GET /api/admin/cache/categorization/write-behind}).
+ * Zapisywany jest pełny stan wpisu, a nie przyrost, więc ponowienie nie liczy użyć podwójnie.
+ * <p>
+ * Opcjonalnie ({@code snapshot.enabled}) słownik jest zapisywany po każdym udanym wczytaniu
+ * i zapisie do lokalnej migawki ({@link CategorySnapshotFile}). Przy starcie z migawką serwis
+ * jest gotowy od razu, a uzgodnienie z Firestore odbywa się w tle.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ProductCategorizationService {
     private static final double SIMILARITY_THRESHOLD = 0.75;
+    private static final int MIN_SIMILARITY_LENGTH = 3;
+    private static final double VARIATION_CONFIDENCE = 0.9;
+    private static final double SIMILAR_CONFIDENCE = 0.8;
+
+    // Kolejność etapów jak w suggestCategory, w obrębie etapu najczęściej używany wpis
+    private static final Comparator<CategoryIndex.Candidate> CANDIDATE_RANKING =
+            Comparator.comparing(CategoryIndex.Candidate::type)
+                    .thenComparingInt(candidate -> -candidate.entry().getUsageCount())
+                    .thenComparingDouble(candidate -> -candidate.similarity());
 
     private final FirestoreCategoryDataManager dataManager;
-    private Map<String, ProductCategoryData> categoryData = new ConcurrentHashMap<>();
+    private final CacheManager cacheManager;
+    // Aktualna, niezmienna wersja słownika razem z indeksami. Odczyty biorą referencję raz na
+    // zapytanie, zmiany budują nową wersję (CategoryIndex.withChanges) i podmieniają referencję
+    // pod writeLock - jedna podmiana na partię zmian
+    private volatile CategoryIndex index = CategoryIndex.build(Map.of());
+    private final Object writeLock = new Object();
+    // Klucze wpisów zmienionych od ostatniego zapisu - zapisywane są tylko one
+    private final Set<String> dirtyKeys = ConcurrentHashMap.newKeySet();
+
+    @Value("${product.categorization.write-behind.max-pending:200}")
+    private int maxPendingEntries = 200;
+
+    @Value("${product.categorization.snapshot.enabled:false}")
+    private boolean snapshotEnabled = false;
+
+    @Value("${product.categorization.snapshot.path:data/category-snapshot.bin}")
+    private String snapshotPath = "data/category-snapshot.bin";
+
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "categorization-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    // Czas (System.nanoTime) najstarszej niezapisanej zmiany, 0 gdy kolejka jest pusta
+    private final AtomicLong pendingSinceNanos = new AtomicLong();
+    private final AtomicLong lastFlushLagMillis = new AtomicLong();
+    private final AtomicLong flushedEntries = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+
+    public record WriteBehindStats(int pendingEntries, long currentLagMillis, long lastFlushLagMillis,
+                                   long flushedEntries, long failedFlushes) {
+    }
 
     @PostConstruct
     public void init() {
-        categoryData = dataManager.loadData();
+        Optional<Map<String, ProductCategoryData>> snapshot = readSnapshot();
+        if (snapshot.isPresent()) {
+            replaceIndex(snapshot.get());
+            log.info("Loaded {} categorization entries from local snapshot", snapshot.get().size());
+            flushExecutor.execute(this::reconcileWithFirestore);
+            return;
+        }
+
+        Map<String, ProductCategoryData> loaded = dataManager.loadData();
+        replaceIndex(loaded);
+        log.info("Loaded {} categorization entries", loaded.size());
+        if (!loaded.isEmpty()) {
+            writeSnapshot();
+        }
     }
 
-    protected void saveDataIfChanged() {
+    /**
+     * Uzgadnia słownik wczytany z migawki z aktualnym stanem Firestore. Wczytanie kolekcji
+     * wypełnia też identyfikatory dokumentów, dzięki którym zapisy nie wykonują odczytów.
+     */
+    void reconcileWithFirestore() {
+        Map<String, ProductCategoryData> loaded = dataManager.loadData();
+        if (loaded.isEmpty() && index.size() > 0) {
+            // loadData zwraca pustą mapę także po błędzie - nie czyścimy słownika z migawki
+            log.warn("Firestore returned no categorization entries, keeping local snapshot");
+            return;
+        }
+
+        List<FirestoreCategoryDataManager.CategoryChange> changes = new ArrayList<>(loaded.size());
+        loaded.forEach((key, data) -> changes.add(new FirestoreCategoryDataManager.CategoryChange(key, data)));
+        int applied = applyRemoteChanges(changes, true);
+        log.info("Reconciled categorization snapshot with Firestore, {} entries changed", applied);
+        if (applied > 0) {
+            writeSnapshot();
+        }
+    }
+
+    private void replaceIndex(Map<String, ProductCategoryData> data) {
+        CategoryIndex loadedIndex = CategoryIndex.build(data);
+        synchronized (writeLock) {
+            index = loadedIndex;
+            dirtyKeys.clear();
+            pendingSinceNanos.set(0);
+        }
+    }
+
+    private Optional<Map<String, ProductCategoryData>> readSnapshot() {
+        if (!snapshotEnabled || !Files.exists(Path.of(snapshotPath))) {
+            return Optional.empty();
+        }
         try {
-            dataManager.saveData(categoryData);
+            return Optional.of(CategorySnapshotFile.read(Path.of(snapshotPath)));
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable categorization snapshot {}", snapshotPath, e);
+            return Optional.empty();
+        }
+    }
+
+    private void writeSnapshot() {
+        if (!snapshotEnabled) {
+            return;
+        }
+        try {
+            CategorySnapshotFile.write(Path.of(snapshotPath), index.entries());
+        } catch (IOException e) {
+            log.warn("Could not write categorization snapshot {}", snapshotPath, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${product.categorization.write-behind.flush-interval-ms:5000}")
+    public void flushPendingUpdates() {
+        saveDataIfChanged();
+    }
+
+    /**
+     * Zapisuje wpisy zmienione od ostatniego zapisu. Wywoływane z harmonogramu, po przekroczeniu
+     * limitu kolejki i przy zamykaniu - nigdy na ścieżce żądania.
+     */
+    protected synchronized void saveDataIfChanged() {
+        long pendingSince = pendingSinceNanos.getAndSet(0);
+        CategoryIndex current = index;
+        Map<String, ProductCategoryData> changed = new HashMap<>();
+        for (String key : dirtyKeys) {
+            dirtyKeys.remove(key);
+            ProductCategoryData data = current.get(key);
+            if (data != null) {
+                changed.put(key, data);
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        try {
+            dataManager.saveData(changed);
+            long lagMillis = pendingSince == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pendingSince);
+            lastFlushLagMillis.set(lagMillis);
+            flushedEntries.addAndGet(changed.size());
+            log.debug("Saved {} categorization entries, flush lag {} ms", changed.size(), lagMillis);
+            writeSnapshot();
         } catch (Exception e) {
+            // Niezapisane wpisy wracają do kolejki - trafią do następnego zapisu
+            dirtyKeys.addAll(changed.keySet());
+            if (pendingSince != 0) {
+                pendingSinceNanos.accumulateAndGet(pendingSince,
+                        (oldest, failed) -> oldest == 0 ? failed : Math.min(oldest, failed));
+            }
+            failedFlushes.incrementAndGet();
             log.error("Error during save of categorization data", e);
         }
     }
 
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushExecutor.shutdown();
+        saveDataIfChanged();
+        if (!dirtyKeys.isEmpty()) {
+            log.error("{} categorization entries could not be saved before shutdown", dirtyKeys.size());
+        }
+    }
+
+    public WriteBehindStats getWriteBehindStats() {
+        long pendingSince = pendingSinceNanos.get();
+        long currentLag = pendingSince == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pendingSince);
+        return new WriteBehindStats(dirtyKeys.size(), currentLag, lastFlushLagMillis.get(),
+                flushedEntries.get(), failedFlushes.get());
+    }
+
+    /**
+     * Nanosi zmiany słownika zapisane przez inne węzły. Wpisy zmienione lokalnie i jeszcze
+     * niezapisane są pomijane - lokalny zapis i tak je nadpisze (ostatni zapis wygrywa).
+     * Przy pełnym obrazie kolekcji ({@code fullSnapshot}) usuwane są też wpisy, których w nim nie ma.
+     * Jeśli cokolwiek się zmieniło, czyszczony jest cache {@link IngredientParseCache}.
+     *
+     * @return liczba wpisów, które faktycznie się zmieniły
+     */
+    public int applyRemoteChanges(Collection<FirestoreCategoryDataManager.CategoryChange> changes, boolean fullSnapshot) {
+        synchronized (writeLock) {
+            CategoryIndex current = index;
+            Set<String> remoteKeys = new HashSet<>();
+            Map<String, ProductCategoryData> updates = new HashMap<>();
+
+            for (FirestoreCategoryDataManager.CategoryChange change : changes) {
+                String key = change.key();
+                remoteKeys.add(key);
+                if (dirtyKeys.contains(key)) {
+                    continue;
+                }
+
+                ProductCategoryData local = current.get(key);
+                if (change.removed()) {
+                    if (local != null) {
+                        updates.put(key, null);
+                    }
+                } else if (!change.data().equals(local)) {
+                    updates.put(key, change.data());
+                } else {
+                    updates.remove(key);
+                }
+            }
+
+            if (fullSnapshot) {
+                for (String key : current.keys()) {
+                    if (!remoteKeys.contains(key) && !dirtyKeys.contains(key)) {
+                        updates.put(key, null);
+                    }
+                }
+            }
+
+            index = current.withChanges(updates);
+            if (!updates.isEmpty()) {
+                // Zapamiętane wyniki parsowania mogą wskazywać kategorie sprzed zmiany
+                evictParseCache();
+            }
+            return updates.size();
+        }
+    }
+
+    private void evictParseCache() {
+        Cache cache = cacheManager.getCache(IngredientParseCache.CACHE_NAME);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
     public String suggestCategory(ParsedProduct product) {
         String normalizedName = cleanProductName(product.getOriginal());
+        // Wszystkie etapy dopasowania korzystają z tej samej wersji słownika
+        CategoryIndex snapshot = index;
 
         // 1. Dokładne dopasowanie
-        Optional<ProductCategoryData> exactMatch = findExactMatch(normalizedName);
+        Optional<ProductCategoryData> exactMatch = findExactMatch(snapshot, normalizedName);
         if (exactMatch.isPresent()) {
             return exactMatch.get().getCategoryId();
         }
 
         // 2. Dopasowanie przez warianty
-        Optional<ProductCategoryData> variationMatch = findVariationMatch(normalizedName);
+        Optional<ProductCategoryData> variationMatch = snapshot.findByVariation(normalizedName);
         if (variationMatch.isPresent()) {
             return variationMatch.get().getCategoryId();
         }
 
         // 3. Dopasowanie przez podobieństwo
-        Optional<ProductCategoryData> similarMatch = findSimilarMatch(normalizedName);
+        Optional<ProductCategoryData> similarMatch = findSimilarMatch(snapshot, normalizedName);
         return similarMatch.map(ProductCategoryData::getCategoryId).orElse(null);
 
     }
 
-    public void updateCategorization(ParsedProduct product) {
-        if (product == null || product.getName() == null) {
-            return;
+    /**
+     * Do {@code limit} różnych kategorii pasujących do składnika, wyznaczonych w jednym przejściu
+     * po indeksach (nazwa, warianty, podobieństwo). Kategorie są uszeregowane tak jak etapy
+     * {@link #suggestCategory}, więc pierwsza podpowiedź to kategoria, którą zwróciłaby ta metoda.
+     */
+    public List<CategorySuggestion> suggestCategories(ParsedProduct product, int limit) {
+        if (limit <= 0) {
+            return List.of();
         }
+        String normalizedName = cleanProductName(product.getOriginal());
+        List<CategoryIndex.Candidate> candidates = index.findCandidates(
+                StringUtils.removeUnits(normalizedName), normalizedName, SIMILARITY_THRESHOLD, MIN_SIMILARITY_LENGTH);
 
-        String originalName = product.getOriginal();
-        String normalizedName = cleanProductName(product.getName());
-        Timestamp now = Timestamp.now();
-
-        String productKey = null;
-        for (Map.Entry<String, ProductCategoryData> entry : categoryData.entrySet()) {
-            if (entry.getKey().equals("mleko") &&
-                    normalizedName.contains("mleko")) {
-                productKey = entry.getKey();
-                break;
+        // Każda kategoria raz, z najlepszym pasującym do niej wpisem
+        Map<String, CategoryIndex.Candidate> bestByCategory = new HashMap<>();
+        for (CategoryIndex.Candidate candidate : candidates) {
+            String categoryId = candidate.entry().getCategoryId();
+            if (categoryId != null) {
+                bestByCategory.merge(categoryId, candidate,
+                        (best, next) -> CANDIDATE_RANKING.compare(next, best) < 0 ? next : best);
             }
         }
 
-        if (productKey != null) {
-            // Aktualizacja istniejącego produktu
-            ProductCategoryData data = categoryData.get(productKey);
-            data.setUsageCount(data.getUsageCount() + 1);
-
-            // ZMIANA TUTAJ: Tworzenie nowej modyfikowalnej listy
-            List<String> newVariations = new ArrayList<>(data.getVariations());
-            if (!newVariations.contains(originalName)) {
-                newVariations.add(originalName);
-            }
-            data.setVariations(newVariations);
+        return bestByCategory.values().stream()
+                .sorted(CANDIDATE_RANKING)
+                .limit(limit)
+                .map(candidate -> new CategorySuggestion(
+                        candidate.entry().getCategoryId(), confidence(candidate), candidate.type()))
+                .toList();
+    }
 
-            data.setLastUsed(now);
-            data.setUpdatedAt(now);
-            data.setCategoryId(product.getCategoryId());
-        } else {
-            // Dodanie nowego produktu
-            String newKey = StringUtils.removeUnits(normalizedName);
-            List<String> variations = new ArrayList<>();
-            variations.add(originalName);
+    private static double confidence(CategoryIndex.Candidate candidate) {
+        return switch (candidate.type()) {
+            case EXACT -> 1.0;
+            case VARIATION -> VARIATION_CONFIDENCE;
+            case SIMILAR -> SIMILAR_CONFIDENCE * candidate.similarity();
+        };
+    }
 
-            categoryData.put(newKey, ProductCategoryData.builder()
-                    .productName(newKey)
-                    .categoryId(product.getCategoryId())
-                    .usageCount(1)
-                    .variations(variations)
-                    .lastUsed(now)
-                    .createdAt(now)
-                    .updatedAt(now)
-                    .build());
-        }
+    public void updateCategorization(ParsedProduct product) {
+        updateCategorizations(Collections.singletonList(product));
     }
 
+    @CacheEvict(value = IngredientParseCache.CACHE_NAME, allEntries = true)
     public void updateCategoriesInTransaction(Map<String, List<ParsedProduct>> categorizedProducts) {
         if (categorizedProducts == null || categorizedProducts.isEmpty()) {
             log.warn("No categorized products to update");
             return;
         }
 
-        categorizedProducts.forEach((categoryId, products) -> products.forEach(product -> {
+        List<ParsedProduct> products = new ArrayList<>();
+        categorizedProducts.forEach((categoryId, categoryProducts) -> categoryProducts.forEach(product -> {
             product.setCategoryId(categoryId);
-            updateCategorization(product);
+            products.add(product);
         }));
+        updateCategorizations(products);
 
-        saveDataIfChanged();
+        if (dirtyKeys.size() >= maxPendingEntries) {
+            requestFlush();
+        }
+    }
+
+    /**
+     * Nanosi potwierdzone kategoryzacje jako jedną nową wersję słownika, w kolejności listy -
+     * tak jak kolejne wywołania {@link #updateCategorization}, ale z jedną publikacją na partię.
+     */
+    public void updateCategorizations(List<ParsedProduct> products) {
+        Timestamp now = Timestamp.now();
+
+        synchronized (writeLock) {
+            CategoryIndex current = index;
+            // Zmiany tej partii - kolejne produkty widzą wpisy zmienione przez wcześniejsze
+            Map<String, ProductCategoryData> updates = new LinkedHashMap<>();
+
+            for (ParsedProduct product : products) {
+                if (product == null || product.getName() == null) {
+                    continue;
+                }
+                String originalName = product.getOriginal();
+                String normalizedName = cleanProductName(product.getName());
+                String productKey = latest(current, updates, "mleko") != null && normalizedName.contains("mleko")
+                        ? "mleko"
+                        : null;
+
+                if (productKey != null) {
+                    // Aktualizacja istniejącego produktu - nowa wersja wpisu, poprzednia zostaje
+                    // nietknięta dla wątków, które właśnie ją czytają
+                    ProductCategoryData existing = latest(current, updates, productKey);
+                    List<String> variations = existing.getVariations() != null ? existing.getVariations() : List.of();
+                    if (!variations.contains(originalName)) {
+                        List<String> newVariations = new ArrayList<>(variations.size() + 1);
+                        newVariations.addAll(variations);
+                        newVariations.add(originalName);
+                        variations = Collections.unmodifiableList(newVariations);
+                    }
+
+                    updates.put(productKey, existing.toBuilder()
+                            .usageCount(existing.getUsageCount() + 1)
+                            .variations(variations)
+                            .lastUsed(now)
+                            .updatedAt(now)
+                            .categoryId(product.getCategoryId())
+                            .build());
+                } else {
+                    // Dodanie nowego produktu
+                    String newKey = StringUtils.removeUnits(normalizedName);
+
+                    updates.put(newKey, ProductCategoryData.builder()
+                            .productName(newKey)
+                            .categoryId(product.getCategoryId())
+                            .usageCount(1)
+                            .variations(List.of(originalName))
+                            .lastUsed(now)
+                            .createdAt(now)
+                            .updatedAt(now)
+                            .build());
+                }
+            }
+
+            index = current.withChanges(updates);
+            // Po publikacji - zapis write-behind czyta wpisy z bieżącej wersji
+            updates.keySet().forEach(this::markDirty);
+        }
+    }
+
+    private static ProductCategoryData latest(CategoryIndex current, Map<String, ProductCategoryData> updates, String key) {
+        return updates.containsKey(key) ? updates.get(key) : current.get(key);
+    }
+
+    private void markDirty(String key) {
+        dirtyKeys.add(key);
+        pendingSinceNanos.compareAndSet(0, System.nanoTime());
+    }
+
+    /**
+     * Zleca zapis w tle; kolejne zlecenia przed jego rozpoczęciem są łączone w jedno.
+     */
+    private void requestFlush() {
+        if (flushExecutor.isShutdown() || !flushRequested.compareAndSet(false, true)) {
+            return;
+        }
+        flushExecutor.execute(() -> {
+            flushRequested.set(false);
+            saveDataIfChanged();
+        });
     }
 
     Optional<ProductCategoryData> findExactMatch(String normalizedName) {
-        String nameWithoutUnits = StringUtils.removeUnits(normalizedName);
-        return categoryData.values().stream()
-                .filter(data -> data.getProductName().equals(nameWithoutUnits))
-                .max(Comparator.comparing(ProductCategoryData::getUsageCount));
+        return findExactMatch(index, normalizedName);
     }
 
     Optional<ProductCategoryData> findVariationMatch(String normalizedName) {
-        return categoryData.values().stream()
-                .filter(data -> data.getVariations() != null &&
-                        data.getVariations().stream()
-                                .map(this::cleanProductName)
-                                .anyMatch(v -> v.equals(normalizedName)))
-                .max(Comparator.comparing(ProductCategoryData::getUsageCount));
+        return index.findByVariation(normalizedName);
     }
 
     Optional<ProductCategoryData> findSimilarMatch(String normalizedName) {
-        return categoryData.values().stream()
-                .filter(data -> {
-                    double similarity = calculateSimilarity(
-                            normalizedName,
-                            cleanProductName(data.getProductName())
-                    );
-                    return similarity >= SIMILARITY_THRESHOLD;
-                })
-                .max(Comparator.comparing(ProductCategoryData::getUsageCount));
+        return findSimilarMatch(index, normalizedName);
+    }
+
+    private Optional<ProductCategoryData> findExactMatch(CategoryIndex snapshot, String normalizedName) {
+        return snapshot.findByName(StringUtils.removeUnits(normalizedName));
+    }
+
+    private Optional<ProductCategoryData> findSimilarMatch(CategoryIndex snapshot, String normalizedName) {
+        if (normalizedName.length() < MIN_SIMILARITY_LENGTH) {
+            return Optional.empty();
+        }
+        return snapshot.findMostUsedSimilar(normalizedName, SIMILARITY_THRESHOLD, MIN_SIMILARITY_LENGTH);
     }
 
     double calculateSimilarity(String s1, String s2) {
-        if (s1.length() < 3 || s2.length() < 3) return 0.0;
+        if (s1.length() < MIN_SIMILARITY_LENGTH || s2.length() < MIN_SIMILARITY_LENGTH) return 0.0;
 
         int maxLength = Math.max(s1.length(), s2.length());
 
-        int levenshteinDistance = LevenshteinDistance.getDefaultInstance().apply(s1, s2);
+        int levenshteinDistance = EditDistance.levenshtein(s1, s2);
         return 1.0 - ((double) levenshteinDistance / maxLength);
     }
 
     protected String cleanProductName(String name) {
-        if (name == null) return "";
-
-        return name.toLowerCase()
-                .replaceAll("[^a-z0-9ąćęłńóśźż]", " ")
-                .replaceAll("\\s+", " ")
-                .trim();
+        return CategoryIndex.normalize(name);
     }
 }
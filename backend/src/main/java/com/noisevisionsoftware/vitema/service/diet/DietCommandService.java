@@ -15,6 +15,7 @@ import com.noisevisionsoftware.vitema.model.shopping.ShoppingList;
 import com.noisevisionsoftware.vitema.repository.ShoppingListRepository;
 import com.noisevisionsoftware.vitema.repository.recipe.RecipeRepository;
 import com.noisevisionsoftware.vitema.service.RecipeService;
+import com.noisevisionsoftware.vitema.service.product.ProductUsageCounter;
 import com.noisevisionsoftware.vitema.service.shoppingList.ShoppingListGeneratorService;
 import com.noisevisionsoftware.vitema.utils.excelParser.model.ParsedDay;
 import com.noisevisionsoftware.vitema.utils.excelParser.model.ParsedDietData;
@@ -40,6 +41,7 @@ public class DietCommandService {
     private final ObjectMapper objectMapper;
     private final ShoppingListGeneratorService shoppingListGenerator;
     private final ShoppingListRepository shoppingListRepository;
+    private final ProductUsageCounter productUsageCounter;
 
     public String saveDietWithShoppingList(
             ParsedDietData parsedData,
@@ -80,6 +82,9 @@ public class DietCommandService {
             // 5. Generate and Save Shopping List using the NEW Service
             saveShoppingList(diet, userId, dietDocRef.getId());
 
+            // 6. Product popularity - counted in memory, flushed to Postgres in batches
+            productUsageCounter.recordUsage(collectProductIds(diet));
+
             // Cache refresh
             recipeService.refreshRecipesCache();
 
@@ -266,6 +271,24 @@ public class DietCommandService {
                 .collect(Collectors.toList());
     }
 
+    private Set<Long> collectProductIds(Diet diet) {
+        Set<Long> productIds = new HashSet<>();
+        if (diet.getDays() == null) return productIds;
+
+        for (Day day : diet.getDays()) {
+            if (day.getMeals() == null) continue;
+            for (DayMeal meal : day.getMeals()) {
+                if (meal.getIngredients() == null) continue;
+                for (RecipeIngredient ingredient : meal.getIngredients()) {
+                    if (ingredient.getProductId() != null) {
+                        productIds.add(ingredient.getProductId());
+                    }
+                }
+            }
+        }
+        return productIds;
+    }
+
     /**
      * Converts the DTO-like ParsedDietData into the rich Domain Model (Diet -> Day -> DayMeal).
      */
@@ -1,6 +1,7 @@
 package com.noisevisionsoftware.vitema.service.diet.manual;
 
 import com.noisevisionsoftware.vitema.dto.product.IngredientDTO;
+import com.noisevisionsoftware.vitema.service.product.ProductCatalogService;
 import com.noisevisionsoftware.vitema.service.product.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -18,19 +19,19 @@ import java.util.List;
 public class IngredientManagementService {
 
     private final ProductService productService;
+    private final ProductCatalogService productCatalogService;
 
     /**
-     * Search ingredients from PostgreSQL via ProductService
+     * Search ingredients in the in-memory product catalog (GLOBAL + trainer's CUSTOM products).
+     * Falls back to PostgreSQL via ProductService until the catalog is loaded.
      */
     public List<IngredientDTO> searchIngredientsNew(String query, String trainerId, int limit) {
         try {
-            List<IngredientDTO> results = productService.searchProducts(query, trainerId);
-
-            if (results.size() > limit) {
-                return results.subList(0, limit);
+            if (productCatalogService.isReady()) {
+                return productCatalogService.search(query, trainerId, limit);
             }
 
-            return results;
+            return productService.searchProducts(query, trainerId, limit, null).items();
         } catch (Exception e) {
             log.error("Error while searching ingredients", e);
             return List.of();
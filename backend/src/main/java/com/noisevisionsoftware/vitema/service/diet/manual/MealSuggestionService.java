@@ -4,6 +4,7 @@ import com.noisevisionsoftware.vitema.dto.response.diet.manual.MealSuggestionRes
 import com.noisevisionsoftware.vitema.model.meal.MealTemplate;
 import com.noisevisionsoftware.vitema.model.recipe.Recipe;
 import com.noisevisionsoftware.vitema.service.RecipeService;
+import com.noisevisionsoftware.vitema.service.search.SearchCursor;
 import com.noisevisionsoftware.vitema.utils.MealTemplateConverter;
 import com.noisevisionsoftware.vitema.utils.SimilarityCalculator;
 import lombok.RequiredArgsConstructor;
@@ -12,7 +13,10 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -29,44 +33,44 @@ public class MealSuggestionService {
     private final SimilarityCalculator similarityCalculator;
 
     /**
-     * Wyszukuje sugestie posiłków na podstawie zapytania
+     * Wyszukuje sugestie posiłków na podstawie zapytania. Z każdego źródła pobierane jest najwyżej
+     * {@code limit} najlepszych kandydatów (przepisy jako lekka projekcja uszeregowana w bazie),
+     * podobieństwo jest liczone raz na kandydata, a {@code limit} najlepszych wybiera kopiec.
+     * Limit jest ograniczony do {@link SearchCursor#MAX_LIMIT}, jak w pozostałych wyszukiwaniach.
      */
     @Cacheable(value = "mealSuggestionCache", key = "{#query, #limit, #userId}")
     public List<MealSuggestionResponse> searchMealSuggestions(String query, int limit, String userId) {
-        List<MealSuggestionResponse> suggestions = new ArrayList<>();
-
         try {
             // Walidacja parametrów wejściowych
             if (query == null || query.trim().isEmpty()) {
                 log.warn("Puste zapytanie wyszukiwania");
-                return suggestions;
+                return new ArrayList<>();
             }
 
             if (limit <= 0) {
                 log.warn("Nieprawidłowy limit: {}, używam domyślnej wartości 10", limit);
                 limit = 10;
             }
+            limit = SearchCursor.clampLimit(limit);
 
-            int recipeLimit = Math.max(1, limit / 2);
-            int templateLimit = Math.max(1, limit / 2);
-
-            // Wyszukuj przepisy
-            List<Recipe> recipes = recipeService.searchRecipes(query);
-            suggestions.addAll(convertRecipesToSuggestions(recipes, query, recipeLimit));
+            // Kopiec z najsłabszym kandydatem na szczycie - wypychany, gdy przyjdzie lepszy
+            PriorityQueue<Candidate> topCandidates = new PriorityQueue<>(limit + 1, CANDIDATE_RANKING);
 
-            // Wyszukuj szablony posiłków
-            List<MealTemplate> templates = mealTemplateService.searchAccessibleTemplates(query, userId, templateLimit);
-            suggestions.addAll(convertTemplatesToSuggestions(templates, query));
+            for (Recipe recipe : recipeService.searchRecipeSuggestions(query, limit)) {
+                offer(topCandidates, limit, candidate(query, recipe.getName(), 0,
+                        () -> convertRecipeToSuggestion(recipe)));
+            }
 
-            // Sortuj wyniki według trafności
-            suggestions.sort((a, b) -> {
-                if (a.isExact() && !b.isExact()) return -1;
-                if (!a.isExact() && b.isExact()) return 1;
-                return Double.compare(b.getSimilarity(), a.getSimilarity());
-            });
+            for (MealTemplate template : mealTemplateService.searchAccessibleTemplates(query, userId, limit)) {
+                offer(topCandidates, limit, candidate(query, template.getName(), template.getUsageCount(),
+                        () -> convertTemplateToSuggestion(template)));
+            }
 
-            return suggestions.stream()
-                    .limit(limit)
+            // Od najlepszego: dokładne dopasowania, dalej podobieństwo i liczba użyć
+            List<Candidate> ranked = new ArrayList<>(topCandidates);
+            ranked.sort(CANDIDATE_RANKING.reversed());
+            return ranked.stream()
+                    .map(candidate -> candidate.suggestion().get())
                     .collect(Collectors.toList());
         } catch (Exception e) {
             log.error("Błąd podczas wyszukiwania sugestii posiłków", e);
@@ -101,50 +105,63 @@ public class MealSuggestionService {
     }
 
 
-    private List<MealSuggestionResponse> convertRecipesToSuggestions(List<Recipe> recipes, String query, int limit) {
-        return recipes.stream()
-                .limit(limit)
-                .map(recipe -> {
-                    double similarity = similarityCalculator.calculateSimilarity(query, recipe.getName());
-                    boolean isExact = recipe.getName().equalsIgnoreCase(query.trim());
-
-                    return MealSuggestionResponse.builder()
-                            .id("recipe-" + recipe.getId())
-                            .name(recipe.getName())
-                            .instructions(recipe.getInstructions())
-                            .nutritionalValues(mealTemplateConverter.convertNutritionalValuesToResponse(recipe.getNutritionalValues()))
-                            .photos(recipe.getPhotos() != null ? recipe.getPhotos() : new ArrayList<>())
-                            .ingredients(new ArrayList<>())
-                            .similarity(similarity)
-                            .isExact(isExact)
-                            .source("RECIPE")
-                            .usageCount(0)
-                            .lastUsed(recipe.getCreatedAt() != null ? recipe.getCreatedAt().toString() : null)
-                            .build();
-                })
-                .collect(Collectors.toList());
+    /**
+     * Kandydat na sugestię - odpowiedź jest budowana dopiero, gdy znajdzie się wśród najlepszych.
+     */
+    private record Candidate(boolean exact, double similarity, int usageCount,
+                             Supplier<MealSuggestionResponse> suggestion) {
     }
 
-    private List<MealSuggestionResponse> convertTemplatesToSuggestions(List<MealTemplate> templates, String query) {
-        return templates.stream()
-                .map(template -> {
-                    double similarity = similarityCalculator.calculateSimilarity(query, template.getName());
-                    boolean isExact = template.getName().equalsIgnoreCase(query.trim());
-
-                    return MealSuggestionResponse.builder()
-                            .id(template.getId())
-                            .name(template.getName())
-                            .instructions(template.getInstructions())
-                            .nutritionalValues(mealTemplateConverter.convertNutritionalValuesToResponse(template.getNutritionalValues()))
-                            .photos(template.getPhotos() != null ? template.getPhotos() : new ArrayList<>())
-                            .ingredients(mealTemplateConverter.convertIngredientsToSuggestions(template.getIngredients()))
-                            .similarity(similarity)
-                            .isExact(isExact)
-                            .source("TEMPLATE")
-                            .usageCount(template.getUsageCount())
-                            .lastUsed(template.getLastUsed() != null ? template.getLastUsed().toString() : null)
-                            .build();
-                })
-                .collect(Collectors.toList());
+    private static final Comparator<Candidate> CANDIDATE_RANKING = Comparator
+            .comparing(Candidate::exact)
+            .thenComparingDouble(Candidate::similarity)
+            .thenComparingInt(Candidate::usageCount);
+
+    private Candidate candidate(String query, String name, int usageCount, Supplier<MealSuggestionResponse> suggestion) {
+        boolean isExact = name != null && name.equalsIgnoreCase(query.trim());
+        double similarity = similarityCalculator.calculateSimilarity(query, name);
+        return new Candidate(isExact, similarity, usageCount, () -> {
+            MealSuggestionResponse response = suggestion.get();
+            response.setSimilarity(similarity);
+            response.setExact(isExact);
+            return response;
+        });
+    }
+
+    private static void offer(PriorityQueue<Candidate> topCandidates, int limit, Candidate candidate) {
+        if (topCandidates.size() < limit) {
+            topCandidates.add(candidate);
+        } else if (CANDIDATE_RANKING.compare(candidate, topCandidates.peek()) > 0) {
+            topCandidates.poll();
+            topCandidates.add(candidate);
+        }
+    }
+
+    private MealSuggestionResponse convertRecipeToSuggestion(Recipe recipe) {
+        return MealSuggestionResponse.builder()
+                .id("recipe-" + recipe.getId())
+                .name(recipe.getName())
+                .instructions(recipe.getInstructions())
+                .nutritionalValues(mealTemplateConverter.convertNutritionalValuesToResponse(recipe.getNutritionalValues()))
+                .photos(recipe.getPhotos() != null ? recipe.getPhotos() : new ArrayList<>())
+                .ingredients(new ArrayList<>())
+                .source("RECIPE")
+                .usageCount(0)
+                .lastUsed(recipe.getCreatedAt() != null ? recipe.getCreatedAt().toString() : null)
+                .build();
+    }
+
+    private MealSuggestionResponse convertTemplateToSuggestion(MealTemplate template) {
+        return MealSuggestionResponse.builder()
+                .id(template.getId())
+                .name(template.getName())
+                .instructions(template.getInstructions())
+                .nutritionalValues(mealTemplateConverter.convertNutritionalValuesToResponse(template.getNutritionalValues()))
+                .photos(template.getPhotos() != null ? template.getPhotos() : new ArrayList<>())
+                .ingredients(mealTemplateConverter.convertIngredientsToSuggestions(template.getIngredients()))
+                .source("TEMPLATE")
+                .usageCount(template.getUsageCount())
+                .lastUsed(template.getLastUsed() != null ? template.getLastUsed().toString() : null)
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,380 @@
+package com.noisevisionsoftware.vitema.service.product;
+
+import com.noisevisionsoftware.vitema.dto.product.IngredientDTO;
+import com.noisevisionsoftware.vitema.model.product.ProductType;
+import com.noisevisionsoftware.vitema.model.product.jpa.ProductEntity;
+import com.noisevisionsoftware.vitema.model.recipe.NutritionalValues;
+
+import java.util.*;
+
+/**
+ * Niemodyfikowalny katalog produktów w pamięci do podpowiedzi w wyborze składników.
+ * <p>
+ * Produkty są trzymane w tablicach kolumnowych (makroskładniki jako {@code double[]}), posortowane
+ * po znormalizowanej nazwie. Słowa nazw tworzą posortowany słownik tokenów - wszystkie tokeny
+ * zaczynające się od danego prefiksu zajmują ciągły zakres, znajdowany wyszukiwaniem binarnym
+ * (płaski odpowiednik drzewa prefiksowego). Dla każdego tokenu lista produktów, które go zawierają,
+ * tworzy indeks odwrócony.
+ * <p>
+ * Każde słowo zapytania musi być prefiksem któregoś słowa nazwy. Kolejność: nazwa równa zapytaniu,
+ * nazwa zaczynająca się od zapytania, pozostałe dopasowania; dalej popularność, krótsza nazwa
+ * i alfabetycznie.
+ */
+public final class ProductCatalogIndex {
+
+    public static final ProductCatalogIndex EMPTY = build(List.of(), Map.of());
+
+    // Klucz rankingu (mniejszy = lepszy): 2 bity poziomu dopasowania, 31 bitów odwróconej
+    // popularności, 8 bitów długości nazwy i 22 bity pozycji produktu w katalogu
+    private static final int POSITION_BITS = 22;
+    private static final int LENGTH_BITS = 8;
+    private static final int POPULARITY_BITS = 31;
+    private static final long POSITION_MASK = (1L << POSITION_BITS) - 1;
+    private static final int MAX_PRODUCTS = 1 << POSITION_BITS;
+    private static final int MAX_LENGTH = (1 << LENGTH_BITS) - 1;
+
+    private static final int TIER_EXACT = 0;
+    private static final int TIER_NAME_PREFIX = 1;
+    private static final int TIER_TOKEN_PREFIX = 2;
+
+    private final long[] ids;
+    private final String[] names;
+    private final String[] normalizedNames;
+    private final String[] units;
+    private final String[] categories;
+    private final ProductType[] types;
+    private final double[] kcal;
+    private final double[] protein;
+    private final double[] fat;
+    private final double[] carbs;
+    private final int[] popularity;
+    private final int[][] productTokens;
+
+    private final String[] tokens;
+    private final int[][] postings;
+
+    /**
+     * Produkt z kluczem rankingu, który pozwala połączyć wyniki z kilku katalogów.
+     */
+    public record Hit(long rank, IngredientDTO product) {
+    }
+
+    private ProductCatalogIndex(int size, int tokenCount) {
+        ids = new long[size];
+        names = new String[size];
+        normalizedNames = new String[size];
+        units = new String[size];
+        categories = new String[size];
+        types = new ProductType[size];
+        kcal = new double[size];
+        protein = new double[size];
+        fat = new double[size];
+        carbs = new double[size];
+        popularity = new int[size];
+        productTokens = new int[size][];
+        tokens = new String[tokenCount];
+        postings = new int[tokenCount][];
+    }
+
+    /**
+     * @param popularity liczba użyć produktu po identyfikatorze; brak wpisu oznacza 0
+     */
+    public static ProductCatalogIndex build(Collection<ProductEntity> products, Map<Long, ? extends Number> popularity) {
+        if (products.size() > MAX_PRODUCTS) {
+            throw new IllegalArgumentException("Catalog supports at most " + MAX_PRODUCTS + " products");
+        }
+
+        List<ProductEntity> sorted = new ArrayList<>(products.size());
+        List<String> sortedNames = new ArrayList<>(products.size());
+        Map<ProductEntity, String> normalized = new IdentityHashMap<>(products.size());
+        for (ProductEntity product : products) {
+            if (product.getName() != null) {
+                sorted.add(product);
+                normalized.put(product, normalize(product.getName()));
+            }
+        }
+        sorted.sort(Comparator.comparing((ProductEntity product) -> normalized.get(product))
+                .thenComparing(ProductEntity::getName));
+
+        TreeMap<String, List<Integer>> tokenPostings = new TreeMap<>();
+        for (int position = 0; position < sorted.size(); position++) {
+            String name = normalized.get(sorted.get(position));
+            sortedNames.add(name);
+            for (String token : tokenize(name)) {
+                List<Integer> positions = tokenPostings.computeIfAbsent(token, t -> new ArrayList<>());
+                if (positions.isEmpty() || positions.getLast() != position) {
+                    positions.add(position);
+                }
+            }
+        }
+
+        ProductCatalogIndex index = new ProductCatalogIndex(sorted.size(), tokenPostings.size());
+        Map<String, Integer> tokenIds = new HashMap<>(tokenPostings.size() * 2);
+        int tokenId = 0;
+        for (Map.Entry<String, List<Integer>> entry : tokenPostings.entrySet()) {
+            index.tokens[tokenId] = entry.getKey();
+            index.postings[tokenId] = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+            tokenIds.put(entry.getKey(), tokenId++);
+        }
+
+        for (int position = 0; position < sorted.size(); position++) {
+            ProductEntity product = sorted.get(position);
+            Number uses = product.getId() != null ? popularity.get(product.getId()) : null;
+            index.ids[position] = product.getId() != null ? product.getId() : 0;
+            index.names[position] = product.getName();
+            index.normalizedNames[position] = sortedNames.get(position);
+            index.units[position] = product.getUnit();
+            index.categories[position] = product.getCategory();
+            index.types[position] = product.getType() != null ? product.getType() : ProductType.GLOBAL;
+            index.kcal[position] = product.getKcal();
+            index.protein[position] = product.getProtein();
+            index.fat[position] = product.getFat();
+            index.carbs[position] = product.getCarbs();
+            index.popularity[position] = uses != null ? (int) Math.min(Integer.MAX_VALUE, Math.max(0, uses.longValue())) : 0;
+            index.productTokens[position] = tokenize(sortedNames.get(position)).stream()
+                    .mapToInt(tokenIds::get)
+                    .distinct()
+                    .toArray();
+        }
+        return index;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public List<IngredientDTO> search(String query, int limit) {
+        return searchHits(query, limit).stream().map(Hit::product).toList();
+    }
+
+    /**
+     * Do {@code limit} najlepszych produktów, od najlepszego.
+     */
+    public List<Hit> searchHits(String query, int limit) {
+        String normalizedQuery = normalize(query);
+        if (limit <= 0 || normalizedQuery.isEmpty() || ids.length == 0) {
+            return List.of();
+        }
+
+        List<String> queryTokens = tokenize(normalizedQuery);
+        int[] rangeStart = new int[queryTokens.size()];
+        int[] rangeEnd = new int[queryTokens.size()];
+        int driver = -1;
+        long driverCandidates = Long.MAX_VALUE;
+        for (int i = 0; i < queryTokens.size(); i++) {
+            rangeStart[i] = lowerBound(queryTokens.get(i));
+            rangeEnd[i] = prefixEnd(queryTokens.get(i), rangeStart[i]);
+            if (rangeStart[i] == rangeEnd[i]) {
+                return List.of();
+            }
+            long candidates = 0;
+            for (int t = rangeStart[i]; t < rangeEnd[i]; t++) {
+                candidates += postings[t].length;
+            }
+            if (candidates < driverCandidates) {
+                driverCandidates = candidates;
+                driver = i;
+            }
+        }
+
+        // Kandydaci z najrzadszego słowa zapytania, pozostałe słowa sprawdzane na tokenach produktu.
+        // Pamięć zapytania zależy od liczby kandydatów, nie od wielkości katalogu
+        TopK top = new TopK((int) Math.min(limit, driverCandidates));
+        for (int t = rangeStart[driver]; t < rangeEnd[driver]; t++) {
+            for (int position : postings[t]) {
+                // Produkt z kilkoma słowami o tym prefiksie liczy się tylko przy pierwszym z nich
+                if (hasTokenInRange(position, rangeStart[driver], t)) {
+                    continue;
+                }
+                if (matchesAll(position, rangeStart, rangeEnd, driver)) {
+                    top.offer(rankKey(position, normalizedQuery));
+                }
+            }
+        }
+
+        long[] keys = top.sorted();
+        List<Hit> hits = new ArrayList<>(keys.length);
+        for (long key : keys) {
+            hits.add(new Hit(key >>> POSITION_BITS, toDto((int) (key & POSITION_MASK))));
+        }
+        return hits;
+    }
+
+    private boolean hasTokenInRange(int position, int fromTokenId, int toTokenId) {
+        for (int tokenId : productTokens[position]) {
+            if (tokenId >= fromTokenId && tokenId < toTokenId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matchesAll(int position, int[] rangeStart, int[] rangeEnd, int skip) {
+        int[] productTokenIds = productTokens[position];
+        for (int i = 0; i < rangeStart.length; i++) {
+            if (i == skip) {
+                continue;
+            }
+            boolean matched = false;
+            for (int tokenId : productTokenIds) {
+                if (tokenId >= rangeStart[i] && tokenId < rangeEnd[i]) {
+                    matched = true;
+                    break;
+                }
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long rankKey(int position, String normalizedQuery) {
+        String name = normalizedNames[position];
+        int tier = name.equals(normalizedQuery) ? TIER_EXACT
+                : name.startsWith(normalizedQuery) ? TIER_NAME_PREFIX
+                : TIER_TOKEN_PREFIX;
+        long inversePopularity = Integer.MAX_VALUE - popularity[position];
+        long length = Math.min(name.length(), MAX_LENGTH);
+        return ((long) tier << (POPULARITY_BITS + LENGTH_BITS + POSITION_BITS))
+                | (inversePopularity << (LENGTH_BITS + POSITION_BITS))
+                | (length << POSITION_BITS)
+                | position;
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = tokens.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (tokens[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int prefixEnd(String prefix, int start) {
+        int low = start;
+        int high = tokens.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (tokens[mid].startsWith(prefix)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private IngredientDTO toDto(int position) {
+        return IngredientDTO.builder()
+                .id(String.valueOf(ids[position]))
+                .name(names[position])
+                .defaultUnit(units[position])
+                .nutritionalValues(NutritionalValues.builder()
+                        .calories(kcal[position])
+                        .protein(protein[position])
+                        .fat(fat[position])
+                        .carbs(carbs[position])
+                        .build())
+                .categoryId(categories[position])
+                .type(types[position].name())
+                .build();
+    }
+
+    /**
+     * Małe litery, znaki inne niż litery i cyfry zamienione na pojedyncze spacje.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder result = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && !result.isEmpty()) {
+                    result.append(' ');
+                }
+                pendingSpace = false;
+                result.append(c);
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return result.toString();
+    }
+
+    private static List<String> tokenize(String normalized) {
+        return normalized.isEmpty() ? List.of() : List.of(normalized.split(" "));
+    }
+
+    /**
+     * Kopiec maksymalny na kluczach rankingu - trzyma {@code limit} najmniejszych kluczy.
+     */
+    private static final class TopK {
+        private final long[] heap;
+        private int size;
+
+        TopK(int limit) {
+            heap = new long[limit];
+        }
+
+        void offer(long key) {
+            if (size < heap.length) {
+                heap[size] = key;
+                siftUp(size++);
+            } else if (key < heap[0]) {
+                heap[0] = key;
+                siftDown(0);
+            }
+        }
+
+        long[] sorted() {
+            long[] result = Arrays.copyOf(heap, size);
+            Arrays.sort(result);
+            return result;
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (heap[parent] >= heap[index]) {
+                    return;
+                }
+                swap(parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int largest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < size && heap[left] > heap[largest]) {
+                    largest = left;
+                }
+                if (right < size && heap[right] > heap[largest]) {
+                    largest = right;
+                }
+                if (largest == index) {
+                    return;
+                }
+                swap(index, largest);
+                index = largest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long tmp = heap[a];
+            heap[a] = heap[b];
+            heap[b] = tmp;
+        }
+    }
+}
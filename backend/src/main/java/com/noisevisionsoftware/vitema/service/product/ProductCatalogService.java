@@ -0,0 +1,149 @@
+package com.noisevisionsoftware.vitema.service.product;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.noisevisionsoftware.vitema.dto.product.IngredientDTO;
+import com.noisevisionsoftware.vitema.model.product.ProductType;
+import com.noisevisionsoftware.vitema.repository.jpa.ProductJpaRepository;
+import com.noisevisionsoftware.vitema.service.search.SearchCursor;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Podpowiedzi produktów z katalogu w pamięci ({@link ProductCatalogIndex}) zamiast zapytania
+ * do bazy przy każdym wpisanym znaku.
+ * <p>
+ * Katalog produktów GLOBAL jest budowany po starcie aplikacji, przebudowywany w tle po zmianie
+ * produktu GLOBAL (po zatwierdzeniu transakcji) i okresowo, co wyłapuje zmiany z innych węzłów.
+ * Produkty CUSTOM trenera trafiają do osobnego, małego katalogu w cache, unieważnianego przy
+ * zmianie jego produktów, i są łączone z wynikami katalogu globalnego.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductCatalogService {
+
+    private final ProductJpaRepository productJpaRepository;
+
+    private volatile ProductCatalogIndex globalCatalog = ProductCatalogIndex.EMPTY;
+    // Popularność z ostatniej przebudowy, używana też dla katalogów CUSTOM
+    private volatile Map<Long, Long> popularity = Map.of();
+    private volatile boolean ready;
+
+    private final Cache<String, ProductCatalogIndex> customCatalogs = Caffeine.newBuilder()
+            .maximumSize(1_000)
+            .expireAfterAccess(30, TimeUnit.MINUTES)
+            .build();
+
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-catalog-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean refreshRequested = new AtomicBoolean();
+
+    /**
+     * Czy katalog globalny został już wczytany - do tego czasu wyszukiwanie idzie do bazy.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<IngredientDTO> search(String query, String trainerId, int limit) {
+        int pageSize = SearchCursor.clampLimit(limit);
+        List<ProductCatalogIndex.Hit> hits = new ArrayList<>(globalCatalog.searchHits(query, pageSize));
+        if (trainerId != null && !trainerId.isBlank()) {
+            hits.addAll(customCatalogs.get(trainerId, this::loadCustomCatalog).searchHits(query, pageSize));
+            hits.sort(Comparator.comparingLong(ProductCatalogIndex.Hit::rank)
+                    .thenComparing(hit -> hit.product().getName()));
+        }
+        return hits.stream()
+                .limit(pageSize)
+                .map(ProductCatalogIndex.Hit::product)
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        requestRefresh();
+    }
+
+    @Scheduled(initialDelayString = "${product.catalog.refresh-interval-ms:600000}",
+            fixedDelayString = "${product.catalog.refresh-interval-ms:600000}")
+    public void scheduledRefresh() {
+        requestRefresh();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        if (event.type() == ProductType.CUSTOM) {
+            if (event.authorId() != null) {
+                customCatalogs.invalidate(event.authorId());
+            }
+        } else {
+            requestRefresh();
+        }
+    }
+
+    /**
+     * Wczytuje produkty GLOBAL z bazy i podmienia katalog.
+     */
+    public void refresh() {
+        try {
+            long start = System.nanoTime();
+            Map<Long, Long> usage = loadPopularity();
+            ProductCatalogIndex catalog = ProductCatalogIndex.build(
+                    productJpaRepository.findByType(ProductType.GLOBAL), usage);
+            popularity = usage;
+            globalCatalog = catalog;
+            ready = true;
+            log.info("Product catalog refreshed: {} products in {} ms", catalog.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            log.error("Error refreshing product catalog", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Zleca przebudowę w tle; zlecenia przed jej rozpoczęciem są łączone w jedno.
+     */
+    private void requestRefresh() {
+        if (refreshExecutor.isShutdown() || !refreshRequested.compareAndSet(false, true)) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            refreshRequested.set(false);
+            refresh();
+        });
+    }
+
+    private ProductCatalogIndex loadCustomCatalog(String trainerId) {
+        return ProductCatalogIndex.build(
+                productJpaRepository.findByTypeAndAuthorId(ProductType.CUSTOM, trainerId), popularity);
+    }
+
+    private Map<Long, Long> loadPopularity() {
+        Map<Long, Long> counts = new HashMap<>();
+        for (ProductJpaRepository.ProductUsage usage : productJpaRepository.findUsageCounts()) {
+            counts.put(usage.getProductId(), usage.getUsageCount());
+        }
+        return counts;
+    }
+}
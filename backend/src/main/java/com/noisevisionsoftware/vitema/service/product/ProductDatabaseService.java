@@ -2,22 +2,25 @@ package com.noisevisionsoftware.vitema.service.product;
 
 import com.noisevisionsoftware.vitema.dto.request.product.ProductRequest;
 import com.noisevisionsoftware.vitema.dto.response.product.ProductResponse;
+import com.noisevisionsoftware.vitema.dto.search.SearchPage;
 import com.noisevisionsoftware.vitema.model.product.ProductType;
 import com.noisevisionsoftware.vitema.model.product.jpa.ProductEntity;
 import com.noisevisionsoftware.vitema.repository.jpa.ProductJpaRepository;
+import com.noisevisionsoftware.vitema.service.search.SearchCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ProductDatabaseService {
 
     private final ProductJpaRepository productJpaRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public Optional<ProductResponse> findById(Long id) {
@@ -27,28 +30,32 @@ public class ProductDatabaseService {
 
     /**
      * Search by Name (with Trainer Context).
-     * Returns Global products + Custom products for that specific trainer.
+     * Returns Global products + Custom products for that specific trainer,
+     * ranked and limited in the query.
      */
     @Transactional(readOnly = true)
-    public List<ProductResponse> searchByName(String name, String trainerId) {
+    public SearchPage<ProductResponse> searchByName(String name, String trainerId, int limit, String cursor) {
         if (name == null || name.isBlank()) {
-            return List.of();
+            return new SearchPage<>(List.of(), null);
         }
         String trimmedName = name.trim();
+        int pageSize = SearchCursor.clampLimit(limit);
+        int offset = SearchCursor.decode(cursor, 1)[0];
 
-        // If no trainerId, return only GLOBAL products
-        if (trainerId == null || trainerId.isBlank()) {
-            return productJpaRepository.findByNameContainingIgnoreCaseAndType(trimmedName, ProductType.GLOBAL)
-                    .stream()
-                    .map(this::toResponse)
-                    .collect(Collectors.toList());
-        }
+        // If no trainerId, return only GLOBAL products; otherwise GLOBAL + their CUSTOM products
+        List<ProductEntity> entities = trainerId == null || trainerId.isBlank()
+                ? productJpaRepository.findByNameContainingIgnoreCaseAndType(trimmedName, ProductType.GLOBAL, pageSize + 1, offset)
+                : productJpaRepository.searchProductsForTrainer(trimmedName, trainerId, pageSize + 1, offset);
+
+        return SearchCursor.page(entities.stream().map(this::toResponse).toList(), pageSize, offset);
+    }
 
-        // If trainerId exists, return GLOBAL + their CUSTOM products
-        return productJpaRepository.searchProductsForTrainer(trimmedName, trainerId)
-                .stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+    /**
+     * First page of {@link #searchByName(String, String, int, String)}.
+     */
+    @Transactional(readOnly = true)
+    public List<ProductResponse> searchByName(String name, String trainerId) {
+        return searchByName(name, trainerId, SearchCursor.DEFAULT_LIMIT, null).items();
     }
 
     /**
@@ -61,19 +68,24 @@ public class ProductDatabaseService {
 
     /**
      * Search by Name AND Category (Global only).
-     * Added safety filter to ensure we don't leak private custom products here.
+     * The GLOBAL filter is part of the query so we don't leak private custom products here.
      */
     @Transactional(readOnly = true)
-    public List<ProductResponse> searchByNameAndCategory(String name, String category) {
+    public SearchPage<ProductResponse> searchByNameAndCategory(String name, String category, int limit, String cursor) {
         if (name == null || name.isBlank()) {
-            return List.of();
+            return new SearchPage<>(List.of(), null);
         }
+        int pageSize = SearchCursor.clampLimit(limit);
+        int offset = SearchCursor.decode(cursor, 1)[0];
 
-        return productJpaRepository.findByNameContainingIgnoreCaseAndCategory(name.trim(), category.trim())
-                .stream()
-                .filter(entity -> entity.getType() == ProductType.GLOBAL)
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        List<ProductEntity> entities = productJpaRepository.findByNameContainingIgnoreCaseAndCategory(
+                name.trim(), category.trim(), pageSize + 1, offset);
+        return SearchCursor.page(entities.stream().map(this::toResponse).toList(), pageSize, offset);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductResponse> searchByNameAndCategory(String name, String category) {
+        return searchByNameAndCategory(name, category, SearchCursor.DEFAULT_LIMIT, null).items();
     }
 
     @Transactional
@@ -95,15 +107,16 @@ public class ProductDatabaseService {
                 .build();
 
         entity = productJpaRepository.save(entity);
+        eventPublisher.publishEvent(new ProductsChangedEvent(type, authorId));
         return toResponse(entity);
     }
 
     @Transactional
     public void delete(Long id) {
-        if (!productJpaRepository.existsById(id)) {
-            throw new IllegalArgumentException("Product not found: " + id);
-        }
+        ProductEntity entity = productJpaRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Product not found: " + id));
         productJpaRepository.deleteById(id);
+        eventPublisher.publishEvent(new ProductsChangedEvent(entity.getType(), entity.getAuthorId()));
     }
 
     private ProductResponse toResponse(ProductEntity e) {
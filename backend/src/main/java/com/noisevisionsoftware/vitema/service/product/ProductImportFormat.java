@@ -0,0 +1,31 @@
+package com.noisevisionsoftware.vitema.service.product;
+
+import org.springframework.http.MediaType;
+
+import java.util.Optional;
+
+public enum ProductImportFormat {
+    CSV,
+    JSON;
+
+    public static final String CSV_CONTENT_TYPE = "text/csv";
+
+    public static Optional<ProductImportFormat> fromContentType(String contentType) {
+        if (contentType == null || contentType.isBlank()) {
+            return Optional.empty();
+        }
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(contentType);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (mediaType.isCompatibleWith(MediaType.parseMediaType(CSV_CONTENT_TYPE))) {
+            return Optional.of(CSV);
+        }
+        if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+            return Optional.of(JSON);
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,220 @@
+package com.noisevisionsoftware.vitema.service.product;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.noisevisionsoftware.vitema.dto.request.product.ProductRequest;
+import com.noisevisionsoftware.vitema.dto.seed.ProductItemDTO;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Streams product rows out of an uploaded product database, one row at a time.
+ * <p>
+ * CSV: a header row naming the columns ({@code name} is required; {@code category, unit, kcal,
+ * protein, fat, carbs} are optional, in any order), separated by {@code ,} or {@code ;} as detected
+ * from the header. With {@code ;} decimal commas are accepted. Quoted fields may contain separators
+ * but not line breaks.
+ * <p>
+ * JSON: an array of products, or of categories in the seed format
+ * ({@code {"category": ..., "items": [...]}}). Only one array element is held in memory at a time.
+ */
+@Component
+public class ProductImportReader {
+
+    private static final List<String> CSV_COLUMNS = List.of("name", "category", "unit", "kcal", "protein", "fat", "carbs");
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader itemReader;
+
+    public ProductImportReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.itemReader = objectMapper.readerFor(ProductItemDTO.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    /**
+     * Receives rows in input order. Rows are numbered by CSV line or by position of the product
+     * in the JSON input, both starting at 1.
+     */
+    public interface RowHandler {
+        void row(int rowNumber, ProductRequest request);
+
+        void error(int rowNumber, String name, String message);
+    }
+
+    /**
+     * @throws IllegalArgumentException when the input does not have the expected structure
+     * @throws IOException              when the input cannot be read or is not well-formed; rows
+     *                                  before the failure have already been handed over
+     */
+    public void read(InputStream input, ProductImportFormat format, RowHandler handler) throws IOException {
+        switch (format) {
+            case CSV -> readCsv(input, handler);
+            case JSON -> readJson(input, handler);
+        }
+    }
+
+    private void readCsv(InputStream input, RowHandler handler) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        if (header == null) {
+            return;
+        }
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+        char separator = header.indexOf(';') >= 0 && header.indexOf(',') < 0 ? ';' : ',';
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> headerFields = splitCsvLine(header, separator);
+        for (int i = 0; i < headerFields.size(); i++) {
+            String column = headerFields.get(i).trim().toLowerCase(Locale.ROOT);
+            if (CSV_COLUMNS.contains(column)) {
+                columns.putIfAbsent(column, i);
+            }
+        }
+        if (!columns.containsKey("name")) {
+            throw new IllegalArgumentException("CSV header must contain a 'name' column");
+        }
+
+        String line;
+        int lineNumber = 1;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> fields = splitCsvLine(line, separator);
+            String name = field(fields, columns, "name");
+            ProductRequest request;
+            try {
+                request = ProductRequest.builder()
+                        .name(name)
+                        .category(field(fields, columns, "category"))
+                        .unit(field(fields, columns, "unit"))
+                        .kcal(number(fields, columns, "kcal", separator))
+                        .protein(number(fields, columns, "protein", separator))
+                        .fat(number(fields, columns, "fat", separator))
+                        .carbs(number(fields, columns, "carbs", separator))
+                        .isVerified(true)
+                        .build();
+            } catch (IllegalArgumentException e) {
+                handler.error(lineNumber, name, e.getMessage());
+                continue;
+            }
+            handler.row(lineNumber, request);
+        }
+    }
+
+    private void readJson(InputStream input, RowHandler handler) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of products");
+            }
+            int rowNumber = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new IOException("Unexpected end of JSON input");
+                }
+                JsonNode element = objectMapper.readTree(parser);
+                if (element.has("items")) {
+                    String category = text(element.get("category"));
+                    for (JsonNode item : element.path("items")) {
+                        readJsonProduct(++rowNumber, item, category, handler);
+                    }
+                } else {
+                    readJsonProduct(++rowNumber, element, text(element.get("category")), handler);
+                }
+            }
+        }
+    }
+
+    private void readJsonProduct(int rowNumber, JsonNode node, String category, RowHandler handler) {
+        String name = text(node.get("name"));
+        if (!node.isObject()) {
+            handler.error(rowNumber, null, "Expected a product object");
+            return;
+        }
+        ProductItemDTO item;
+        try {
+            item = itemReader.treeToValue(node, ProductItemDTO.class);
+        } catch (JsonProcessingException e) {
+            handler.error(rowNumber, name, "Invalid product: " + e.getOriginalMessage());
+            return;
+        }
+        handler.row(rowNumber, ProductRequest.builder()
+                .name(item.getName())
+                .category(category)
+                .unit(item.getUnit())
+                .kcal(item.getKcal())
+                .protein(item.getProtein())
+                .fat(item.getFat())
+                .carbs(item.getCarbs())
+                .isVerified(true)
+                .build());
+    }
+
+    private String text(JsonNode node) {
+        return node != null && node.isValueNode() && !node.isNull() ? node.asText() : null;
+    }
+
+    private String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private Double number(List<String> fields, Map<String, Integer> columns, String column, char separator) {
+        String value = field(fields, columns, column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(separator == ';' ? value.replace(',', '.') : value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + column + ": " + value);
+        }
+    }
+
+    static List<String> splitCsvLine(String line, char separator) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == separator) {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+}
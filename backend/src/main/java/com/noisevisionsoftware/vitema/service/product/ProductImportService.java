@@ -0,0 +1,228 @@
+package com.noisevisionsoftware.vitema.service.product;
+
+import com.noisevisionsoftware.vitema.dto.request.product.ProductRequest;
+import com.noisevisionsoftware.vitema.dto.response.product.ProductImportResponse;
+import com.noisevisionsoftware.vitema.model.product.ProductType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk import of GLOBAL products (admin upload, initial seed).
+ * <p>
+ * Rows are streamed from the input and upserted on {@code name} in chunks of {@value #CHUNK_SIZE}
+ * with a JDBC batch (rewritten into multi-row inserts by the driver, see
+ * {@code reWriteBatchedInserts}), so a large file costs a few hundred statements instead of
+ * one transaction per product. Invalid rows are reported and skipped; they never fail the import.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductImportService {
+
+    static final int CHUNK_SIZE = 1_000;
+    static final int MAX_REPORTED_ERRORS = 1_000;
+
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final int MAX_CATEGORY_LENGTH = 255;
+    private static final int MAX_UNIT_LENGTH = 100;
+
+    static final String EXISTING_SQL = "SELECT name, type FROM products WHERE name IN (:names)";
+
+    static final String UPSERT_SQL = "INSERT INTO products " +
+            "(name, category, unit, kcal, protein, fat, carbs, is_verified, type, author_id) " +
+            "VALUES (:name, :category, :unit, :kcal, :protein, :fat, :carbs, :isVerified, 'GLOBAL', NULL) " +
+            "ON CONFLICT (name) DO UPDATE SET category = EXCLUDED.category, unit = EXCLUDED.unit, " +
+            "kcal = EXCLUDED.kcal, protein = EXCLUDED.protein, fat = EXCLUDED.fat, carbs = EXCLUDED.carbs, " +
+            "is_verified = EXCLUDED.is_verified " +
+            "WHERE products.type = 'GLOBAL'";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ProductImportReader productImportReader;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Imports every valid row of the input. A file that cannot be read to the end keeps the rows
+     * imported before the failure and reports the failure as the last error.
+     */
+    public ProductImportResponse importProducts(InputStream input, ProductImportFormat format) {
+        long start = System.nanoTime();
+        ImportRun run = new ImportRun();
+        try {
+            productImportReader.read(input, format, run);
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Product import stopped after row {}: {}", run.lastRow, e.getMessage());
+            run.error(run.lastRow + 1, null, "Input could not be read: " + e.getMessage());
+        }
+        run.flush();
+
+        if (run.inserted + run.updated > 0) {
+            eventPublisher.publishEvent(new ProductsChangedEvent(ProductType.GLOBAL, null));
+        }
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("Imported products: {} rows, {} inserted, {} updated, {} failed in {} ms",
+                run.totalRows, run.inserted, run.updated, run.failed, durationMs);
+
+        return ProductImportResponse.builder()
+                .totalRows(run.totalRows)
+                .inserted(run.inserted)
+                .updated(run.updated)
+                .failed(run.failed)
+                .durationMs(durationMs)
+                .errors(run.errors)
+                .errorsTruncated(run.failed > run.errors.size())
+                .build();
+    }
+
+    private record PendingRow(int row, ProductRequest request) {
+    }
+
+    private class ImportRun implements ProductImportReader.RowHandler {
+
+        // Later rows with the same name replace earlier ones - one chunk may not upsert a name twice
+        private final Map<String, PendingRow> pending = new LinkedHashMap<>();
+        private final List<ProductImportResponse.RowError> errors = new ArrayList<>();
+        private int totalRows;
+        private int lastRow;
+        private int inserted;
+        private int updated;
+        private int failed;
+
+        @Override
+        public void row(int rowNumber, ProductRequest request) {
+            totalRows++;
+            lastRow = rowNumber;
+            String problem = validate(request);
+            if (problem != null) {
+                failed++;
+                report(rowNumber, request.getName(), problem);
+                return;
+            }
+            String name = request.getName().trim();
+            pending.remove(name);
+            pending.put(name, new PendingRow(rowNumber, request));
+            if (pending.size() >= CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        @Override
+        public void error(int rowNumber, String name, String message) {
+            totalRows++;
+            lastRow = rowNumber;
+            failed++;
+            report(rowNumber, name, message);
+        }
+
+        private void report(int rowNumber, String name, String message) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ProductImportResponse.RowError(rowNumber, name, message));
+            }
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            Map<String, String> existingTypes = new HashMap<>();
+            jdbcTemplate.query(EXISTING_SQL, Map.of("names", pending.keySet()),
+                    (RowCallbackHandler) rs -> existingTypes.put(rs.getString("name"), rs.getString("type")));
+
+            List<PendingRow> upserts = new ArrayList<>(pending.size());
+            for (Map.Entry<String, PendingRow> entry : pending.entrySet()) {
+                String type = existingTypes.get(entry.getKey());
+                if (type != null && !ProductType.GLOBAL.name().equals(type)) {
+                    failed++;
+                    report(entry.getValue().row(), entry.getKey(), "Name is already used by a custom product");
+                } else {
+                    upserts.add(entry.getValue());
+                }
+            }
+            pending.clear();
+
+            try {
+                jdbcTemplate.batchUpdate(UPSERT_SQL, upserts.stream().map(this::parameters).toArray(SqlParameterSource[]::new));
+                upserts.forEach(row -> count(row, existingTypes));
+            } catch (DataAccessException e) {
+                // The upsert is idempotent - retrying the chunk row by row pinpoints the failing rows
+                log.warn("Product import batch failed, retrying {} rows one by one", upserts.size(), e);
+                for (PendingRow row : upserts) {
+                    try {
+                        jdbcTemplate.update(UPSERT_SQL, parameters(row));
+                        count(row, existingTypes);
+                    } catch (DataAccessException rowError) {
+                        failed++;
+                        report(row.row(), row.request().getName().trim(), rowError.getMostSpecificCause().getMessage());
+                    }
+                }
+            }
+        }
+
+        private void count(PendingRow row, Map<String, String> existingTypes) {
+            if (existingTypes.containsKey(row.request().getName().trim())) {
+                updated++;
+            } else {
+                inserted++;
+            }
+        }
+
+        private SqlParameterSource parameters(PendingRow row) {
+            ProductRequest request = row.request();
+            return new MapSqlParameterSource()
+                    .addValue("name", request.getName().trim())
+                    .addValue("category", trimToNull(request.getCategory()))
+                    .addValue("unit", trimToNull(request.getUnit()))
+                    .addValue("kcal", request.getKcal() != null ? request.getKcal() : 0.0)
+                    .addValue("protein", request.getProtein() != null ? request.getProtein() : 0.0)
+                    .addValue("fat", request.getFat() != null ? request.getFat() : 0.0)
+                    .addValue("carbs", request.getCarbs() != null ? request.getCarbs() : 0.0)
+                    .addValue("isVerified", request.isVerified());
+        }
+    }
+
+    private static String validate(ProductRequest request) {
+        if (request.getName() == null || request.getName().isBlank()) {
+            return "Product name is required";
+        }
+        if (request.getName().trim().length() > MAX_NAME_LENGTH) {
+            return "Product name is longer than " + MAX_NAME_LENGTH + " characters";
+        }
+        if (request.getCategory() != null && request.getCategory().trim().length() > MAX_CATEGORY_LENGTH) {
+            return "Category is longer than " + MAX_CATEGORY_LENGTH + " characters";
+        }
+        if (request.getUnit() != null && request.getUnit().trim().length() > MAX_UNIT_LENGTH) {
+            return "Unit is longer than " + MAX_UNIT_LENGTH + " characters";
+        }
+        Map<String, Double> macros = new LinkedHashMap<>();
+        macros.put("kcal", request.getKcal());
+        macros.put("protein", request.getProtein());
+        macros.put("fat", request.getFat());
+        macros.put("carbs", request.getCarbs());
+        for (Map.Entry<String, Double> macro : macros.entrySet()) {
+            Double value = macro.getValue();
+            if (value != null && (value < 0 || !Double.isFinite(value))) {
+                return "Invalid value for " + macro.getKey() + ": " + value;
+            }
+        }
+        return null;
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+}
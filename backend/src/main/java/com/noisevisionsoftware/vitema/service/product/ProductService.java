@@ -3,9 +3,11 @@ package com.noisevisionsoftware.vitema.service.product;
 import com.noisevisionsoftware.vitema.dto.product.IngredientDTO;
 import com.noisevisionsoftware.vitema.dto.request.product.ProductRequest;
 import com.noisevisionsoftware.vitema.dto.response.product.ProductResponse;
+import com.noisevisionsoftware.vitema.dto.search.SearchPage;
 import com.noisevisionsoftware.vitema.model.product.Product;
 import com.noisevisionsoftware.vitema.model.product.ProductType;
 import com.noisevisionsoftware.vitema.model.recipe.NutritionalValues;
+import com.noisevisionsoftware.vitema.service.search.SearchCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -28,17 +30,21 @@ public class ProductService {
     /**
      * Returns GLOBAL products + CUSTOM products belonging to the specific trainer.
      */
-    public List<IngredientDTO> searchProducts(String query, String trainerId) {
+    public SearchPage<IngredientDTO> searchProducts(String query, String trainerId, int limit, String cursor) {
         if (query == null || query.trim().isEmpty()) {
-            return List.of();
+            return new SearchPage<>(List.of(), null);
         }
 
         // Using database service to search by name
-        List<ProductResponse> products = productDatabaseService.searchByName(query, trainerId);
+        SearchPage<ProductResponse> products = productDatabaseService.searchByName(query, trainerId, limit, cursor);
 
-        return products.stream()
+        return new SearchPage<>(products.items().stream()
                 .map(this::mapResponseToIngredientDTO)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()), products.nextCursor());
+    }
+
+    public List<IngredientDTO> searchProducts(String query, String trainerId) {
+        return searchProducts(query, trainerId, SearchCursor.DEFAULT_LIMIT, null).items();
     }
 
     /**
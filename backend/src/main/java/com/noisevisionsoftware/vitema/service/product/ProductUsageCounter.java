@@ -0,0 +1,96 @@
+package com.noisevisionsoftware.vitema.service.product;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Licznik użyć produktów (składniki zapisanych diet i przepisów), z którego korzysta
+ * szeregowanie wyników wyszukiwania produktów.
+ * <p>
+ * Zapis diety czy przepisu tylko dolicza użycia w pamięci - do bazy ({@code product_usage})
+ * trafiają one zbiorczo, jednym wsadem co {@code product.usage.flush-interval-ms} i przy
+ * zamykaniu aplikacji. Nieudany zapis wraca do puli i jest ponawiany przy kolejnym opróżnieniu.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductUsageCounter {
+
+    static final String INCREMENT_SQL = "INSERT INTO product_usage (product_id, usage_count, updated_at) " +
+            "SELECT :productId, :count, now() WHERE EXISTS (SELECT 1 FROM products p WHERE p.id = :productId) " +
+            "ON CONFLICT (product_id) DO UPDATE SET usage_count = product_usage.usage_count + EXCLUDED.usage_count, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final ConcurrentHashMap<Long, Long> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Dolicza jedno użycie każdemu z produktów - produkt występujący kilka razy w tej samej
+     * diecie lub przepisie liczy się raz. Nie wykonuje zapytań do bazy.
+     */
+    public void recordUsage(Collection<Long> productIds) {
+        if (productIds == null) {
+            return;
+        }
+        for (Long productId : new HashSet<>(productIds)) {
+            if (productId != null) {
+                pending.merge(productId, 1L, Long::sum);
+            }
+        }
+    }
+
+    /**
+     * Liczba produktów z użyciami czekającymi na zapis.
+     */
+    public int pendingProducts() {
+        return pending.size();
+    }
+
+    @Scheduled(initialDelayString = "${product.usage.flush-interval-ms:30000}",
+            fixedDelayString = "${product.usage.flush-interval-ms:30000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        // remove() odbiera licznik atomowo - użycia doliczone w trakcie trafią do kolejnego wsadu
+        Map<Long, Long> increments = new TreeMap<>();
+        for (Long productId : pending.keySet()) {
+            Long count = pending.remove(productId);
+            if (count != null) {
+                increments.put(productId, count);
+            }
+        }
+        if (increments.isEmpty()) {
+            return;
+        }
+
+        SqlParameterSource[] batch = increments.entrySet().stream()
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("productId", entry.getKey())
+                        .addValue("count", entry.getValue()))
+                .toArray(SqlParameterSource[]::new);
+        try {
+            jdbcTemplate.batchUpdate(INCREMENT_SQL, batch);
+            log.debug("Flushed usage counters of {} products", increments.size());
+        } catch (DataAccessException e) {
+            log.warn("Could not flush usage counters of {} products, will retry", increments.size(), e);
+            increments.forEach((productId, count) -> pending.merge(productId, count, Long::sum));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,9 @@
+package com.noisevisionsoftware.vitema.service.product;
+
+import com.noisevisionsoftware.vitema.model.product.ProductType;
+
+/**
+ * Publikowane po dodaniu lub usunięciu produktu. {@code authorId} jest ustawione dla produktów CUSTOM.
+ */
+public record ProductsChangedEvent(ProductType type, String authorId) {
+}
@@ -0,0 +1,98 @@
+package com.noisevisionsoftware.vitema.service.search;
+
+import com.noisevisionsoftware.vitema.dto.search.SearchPage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Limity wyników wyszukiwania i nieprzezroczysty kursor kolejnej strony.
+ * <p>
+ * Kursor to przesunięcia w każdym źródle wyników (np. produkty i przepisy w wyszukiwaniu
+ * łączonym) zakodowane w Base64 URL. Zapytania pobierają {@code limit + 1} wierszy, więc o tym,
+ * czy jest kolejna strona, wiadomo bez osobnego zliczania.
+ */
+public final class SearchCursor {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+    // Wyniki są uszeregowane od najlepszych - dalsze strony nie są potrzebne, a OFFSET kosztuje liniowo
+    public static final int MAX_OFFSET = 1_000;
+
+    private static final String SEPARATOR = ":";
+
+    private SearchCursor() {
+    }
+
+    public static boolean isValidLimit(int limit) {
+        return limit >= 1 && limit <= MAX_LIMIT;
+    }
+
+    public static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    public static boolean isValid(String cursor, int sources) {
+        try {
+            decode(cursor, sources);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    public static String encode(int... offsets) {
+        StringBuilder value = new StringBuilder();
+        for (int offset : offsets) {
+            if (!value.isEmpty()) {
+                value.append(SEPARATOR);
+            }
+            value.append(offset);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(value.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @return przesunięcia dla {@code sources} źródeł; same zera dla pustego kursora
+     * @throws IllegalArgumentException gdy kursor jest nieprawidłowy lub sięga za {@link #MAX_OFFSET}
+     */
+    public static int[] decode(String cursor, int sources) {
+        int[] offsets = new int[sources];
+        if (cursor == null || cursor.isBlank()) {
+            return offsets;
+        }
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII).split(SEPARATOR);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid search cursor", e);
+        }
+        if (parts.length != sources) {
+            throw new IllegalArgumentException("Invalid search cursor");
+        }
+        for (int i = 0; i < sources; i++) {
+            try {
+                offsets[i] = Integer.parseInt(parts[i]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid search cursor", e);
+            }
+            if (offsets[i] < 0 || offsets[i] > MAX_OFFSET) {
+                throw new IllegalArgumentException("Invalid search cursor");
+            }
+        }
+        return offsets;
+    }
+
+    /**
+     * Strona z {@code limit} pierwszych wierszy spośród pobranych {@code limit + 1}.
+     */
+    public static <T> SearchPage<T> page(List<T> fetched, int limit, int offset) {
+        if (fetched.size() <= limit) {
+            return new SearchPage<>(fetched, null);
+        }
+        int nextOffset = offset + limit;
+        return new SearchPage<>(List.copyOf(fetched.subList(0, limit)), nextOffset <= MAX_OFFSET ? encode(nextOffset) : null);
+    }
+}
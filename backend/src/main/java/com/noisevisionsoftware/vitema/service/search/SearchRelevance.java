@@ -0,0 +1,76 @@
+package com.noisevisionsoftware.vitema.service.search;
+
+import java.util.Locale;
+
+/**
+ * Wspólna ocena trafności nazwy względem zapytania - pozwala porównywać wyniki z różnych źródeł
+ * (produkty, przepisy) w jednej liście.
+ * <p>
+ * Poziomy jak w zapytaniach źródeł: nazwa równa zapytaniu, zaczynająca się od niego, z wyrazem
+ * zaczynającym się od niego, zawierająca je. W obrębie poziomu wyżej jest nazwa krótsza, czyli
+ * w większej części pokryta zapytaniem.
+ * <p>
+ * Źródła szeregują wyniki najpierw po {@link #tier}, a w jego obrębie każde po własnych kryteriach
+ * (np. liczbie użyć), więc tylko {@link #tier} jest kluczem, po którym są posortowane obie listy.
+ */
+public final class SearchRelevance {
+
+    private SearchRelevance() {
+    }
+
+    /**
+     * @return wynik z przedziału [0, 1]; 0, gdy nazwa nie zawiera zapytania (np. trafienie tylko w opisie)
+     */
+    public static double score(String name, String query) {
+        if (name == null || query == null) {
+            return 0;
+        }
+        String normalizedName = name.trim().toLowerCase(Locale.ROOT);
+        String normalizedQuery = query.trim().toLowerCase(Locale.ROOT);
+        if (normalizedName.isEmpty() || normalizedQuery.isEmpty()) {
+            return 0;
+        }
+        if (normalizedName.equals(normalizedQuery)) {
+            return 1;
+        }
+
+        int position = normalizedName.indexOf(normalizedQuery);
+        if (position < 0) {
+            return 0;
+        }
+        double coverage = 0.25 * normalizedQuery.length() / normalizedName.length();
+        if (position == 0) {
+            return 0.75 + coverage;
+        }
+        if (startsWord(normalizedName, normalizedQuery)) {
+            return 0.5 + coverage;
+        }
+        return 0.25 + coverage;
+    }
+
+    /**
+     * Poziom dopasowania jak w {@code ORDER BY} zapytań wyszukujących produkty i przepisy:
+     * 0 - nazwa równa zapytaniu, 1 - zaczynająca się od niego, 2 - pozostałe.
+     */
+    public static int tier(String name, String query) {
+        if (name == null || query == null) {
+            return 2;
+        }
+        // Jak lower(name) w zapytaniu - nazwa bez przycinania, zapytanie przycina serwis źródła
+        String normalizedName = name.toLowerCase(Locale.ROOT);
+        String normalizedQuery = query.trim().toLowerCase(Locale.ROOT);
+        if (normalizedName.equals(normalizedQuery)) {
+            return 0;
+        }
+        return normalizedName.startsWith(normalizedQuery) ? 1 : 2;
+    }
+
+    private static boolean startsWord(String name, String query) {
+        for (int position = name.indexOf(query); position >= 0; position = name.indexOf(query, position + 1)) {
+            if (!Character.isLetterOrDigit(name.charAt(position - 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,66 @@
+package com.noisevisionsoftware.vitema.service.search;
+
+import com.noisevisionsoftware.vitema.dto.search.UnifiedSearchDto.SearchResultType;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Czasy odpowiedzi i przekroczenia limitu czasu każdego źródła wyszukiwania łączonego.
+ * <p>
+ * Czas jest mierzony do faktycznego zakończenia zapytania, także gdy wynik przyszedł już po
+ * terminie - widać wtedy, o ile źródło się spóźnia.
+ */
+public class UnifiedSearchMetrics {
+
+    private final Map<SearchResultType, SourceStats> stats = new EnumMap<>(SearchResultType.class);
+
+    public UnifiedSearchMetrics() {
+        for (SearchResultType source : SearchResultType.values()) {
+            stats.put(source, new SourceStats());
+        }
+    }
+
+    void recordLatency(SearchResultType source, long nanos) {
+        SourceStats sourceStats = stats.get(source);
+        sourceStats.requests.increment();
+        sourceStats.totalNanos.add(nanos);
+        sourceStats.maxNanos.accumulate(nanos);
+    }
+
+    void recordTimeout(SearchResultType source) {
+        stats.get(source).timeouts.increment();
+    }
+
+    void recordError(SearchResultType source) {
+        stats.get(source).errors.increment();
+    }
+
+    public Map<String, Map<String, Object>> getStatistics() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        stats.forEach((source, sourceStats) -> {
+            long requests = sourceStats.requests.sum();
+            Map<String, Object> sourceResult = new LinkedHashMap<>();
+            sourceResult.put("requests", requests);
+            sourceResult.put("timeouts", sourceStats.timeouts.sum());
+            sourceResult.put("errors", sourceStats.errors.sum());
+            sourceResult.put("averageLatencyMs", requests == 0 ? 0.0
+                    : sourceStats.totalNanos.sum() / (double) requests / TimeUnit.MILLISECONDS.toNanos(1));
+            sourceResult.put("maxLatencyMs", TimeUnit.NANOSECONDS.toMillis(sourceStats.maxNanos.get()));
+            result.put(source.name(), sourceResult);
+        });
+        return result;
+    }
+
+    private static final class SourceStats {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    }
+}
@@ -1,61 +1,202 @@
 package com.noisevisionsoftware.vitema.service.search;
 
 import com.noisevisionsoftware.vitema.dto.response.product.ProductResponse;
+import com.noisevisionsoftware.vitema.dto.search.SearchPage;
 import com.noisevisionsoftware.vitema.dto.search.UnifiedSearchDto;
+import com.noisevisionsoftware.vitema.dto.search.UnifiedSearchDto.SearchResultType;
 import com.noisevisionsoftware.vitema.model.recipe.NutritionalValues;
 import com.noisevisionsoftware.vitema.model.recipe.Recipe;
 import com.noisevisionsoftware.vitema.service.RecipeService;
 import com.noisevisionsoftware.vitema.service.product.ProductDatabaseService;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class UnifiedSearchService {
 
     private final RecipeService recipeService;
     private final ProductDatabaseService productDatabaseService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final long productsTimeoutMs;
+    private final long recipesTimeoutMs;
+    private final int productsMaxResults;
+    private final int recipesMaxResults;
+
+    private final UnifiedSearchMetrics metrics = new UnifiedSearchMetrics();
+    // Source queries run on virtual threads with the caller's security context (current user)
+    private final ExecutorService searchExecutor =
+            new DelegatingSecurityContextExecutorService(Executors.newVirtualThreadPerTaskExecutor());
+
+    public UnifiedSearchService(
+            RecipeService recipeService,
+            ProductDatabaseService productDatabaseService,
+            PlatformTransactionManager transactionManager,
+            NamedParameterJdbcTemplate jdbcTemplate,
+            @Value("${search.unified.products.timeout-ms:400}") long productsTimeoutMs,
+            @Value("${search.unified.recipes.timeout-ms:400}") long recipesTimeoutMs,
+            @Value("${search.unified.products.max-results:50}") int productsMaxResults,
+            @Value("${search.unified.recipes.max-results:50}") int recipesMaxResults) {
+        this.recipeService = recipeService;
+        this.productDatabaseService = productDatabaseService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.jdbcTemplate = jdbcTemplate;
+        this.productsTimeoutMs = productsTimeoutMs;
+        this.recipesTimeoutMs = recipesTimeoutMs;
+        this.productsMaxResults = productsMaxResults;
+        this.recipesMaxResults = recipesMaxResults;
+    }
 
     /**
      * Performs a combined search for recipes and products.
-     * Updated to include trainer-specific custom products from PostgreSQL.
+     * Both sources are queried concurrently, each with its own deadline and result cap, and return
+     * an already ranked, limited page. Both sources rank by the match tier first ({@link SearchRelevance#tier})
+     * and then by their own criteria, so the pages are merged by tier - within a tier the head with the
+     * higher {@link SearchRelevance#score} goes first, products on ties - and cut to {@code limit}.
+     * Every merged item is the next one of its source, so each source's offset stays a position in its
+     * own ranking. A source that misses its deadline or fails is skipped:
+     * the page holds the other source's results and the cursor keeps the skipped source's offset,
+     * so the next page asks it again. The cursor holds the offset reached in each source.
      */
-    public List<UnifiedSearchDto> search(String query, String trainerId) {
-        try {
-            // 1. Search recipes (PostgreSQL)
-            List<UnifiedSearchDto> recipes = recipeService.searchRecipes(query).stream()
-                    .map(this::mapRecipeToDto)
-                    .toList();
-
-            // 2. Search products (PostgreSQL) - Now passing trainerId for ownership filtering
-            List<UnifiedSearchDto> products = productDatabaseService.searchByName(query, trainerId).stream()
-                    .map(this::mapProductToDto)
-                    .toList();
-
-            List<UnifiedSearchDto> combined = new ArrayList<>();
-            combined.addAll(products);
-            combined.addAll(recipes);
-
-            log.info("Unified search for query '{}' found {} recipes and {} products",
-                    query, recipes.size(), products.size());
-            return combined;
-        } catch (Exception e) {
-            log.error("Error in Unified Search for query: {}", query, e);
-            return Collections.emptyList();
+    public SearchPage<UnifiedSearchDto> search(String query, String trainerId, int limit, String cursor) {
+        int pageSize = SearchCursor.clampLimit(limit);
+        int[] offsets = SearchCursor.decode(cursor, 2);
+
+        // 1. Products (PostgreSQL) - GLOBAL + trainer's CUSTOM products
+        CompletableFuture<SearchPage<ProductResponse>> productsFuture = querySource(
+                SearchResultType.PRODUCT, productsTimeoutMs,
+                () -> productDatabaseService.searchByName(query, trainerId,
+                        Math.min(pageSize, productsMaxResults), SearchCursor.encode(offsets[0])));
+        // 2. Recipes (PostgreSQL)
+        CompletableFuture<SearchPage<Recipe>> recipesFuture = querySource(
+                SearchResultType.RECIPE, recipesTimeoutMs,
+                () -> recipeService.searchRecipes(query,
+                        Math.min(pageSize, recipesMaxResults), SearchCursor.encode(offsets[1])));
+
+        SearchPage<ProductResponse> products = productsFuture.join();
+        SearchPage<Recipe> recipes = recipesFuture.join();
+        List<String> skippedSources = new ArrayList<>(2);
+        if (products == null) {
+            skippedSources.add(SearchResultType.PRODUCT.name());
+        }
+        if (recipes == null) {
+            skippedSources.add(SearchResultType.RECIPE.name());
         }
+        if (skippedSources.size() == 2) {
+            log.error("Unified search for query '{}' failed: no source answered in time", query);
+            return new SearchPage<>(Collections.emptyList(), null, skippedSources);
+        }
+
+        List<ProductResponse> productItems = products != null ? products.items() : List.of();
+        List<Recipe> recipeItems = recipes != null ? recipes.items() : List.of();
+        List<UnifiedSearchDto> combined = new ArrayList<>(pageSize);
+        int productIndex = 0;
+        int recipeIndex = 0;
+        while (combined.size() < pageSize
+                && (productIndex < productItems.size() || recipeIndex < recipeItems.size())) {
+            boolean takeProduct = recipeIndex >= recipeItems.size()
+                    || (productIndex < productItems.size()
+                    && compareHeads(productItems.get(productIndex).getName(),
+                    recipeItems.get(recipeIndex).getName(), query) <= 0);
+            if (takeProduct) {
+                combined.add(mapProductToDto(productItems.get(productIndex++)));
+            } else {
+                combined.add(mapRecipeToDto(recipeItems.get(recipeIndex++)));
+            }
+        }
+
+        boolean moreProducts = products != null
+                && (productIndex < productItems.size() || products.nextCursor() != null);
+        boolean moreRecipes = recipes != null
+                && (recipeIndex < recipeItems.size() || recipes.nextCursor() != null);
+        // A skipped source may still have results - the next page asks it again from the same offset,
+        // unless this page is empty (the client would otherwise retry an empty page forever)
+        boolean retrySkipped = !skippedSources.isEmpty() && !combined.isEmpty();
+        int nextProductOffset = offsets[0] + productIndex;
+        int nextRecipeOffset = offsets[1] + recipeIndex;
+        String nextCursor = (moreProducts || moreRecipes || retrySkipped)
+                && Math.max(nextProductOffset, nextRecipeOffset) <= SearchCursor.MAX_OFFSET
+                ? SearchCursor.encode(nextProductOffset, nextRecipeOffset)
+                : null;
+
+        log.info("Unified search for query '{}' returned {} products and {} recipes{}",
+                query, productIndex, recipeIndex,
+                skippedSources.isEmpty() ? "" : " (skipped: " + skippedSources + ")");
+        return new SearchPage<>(combined, nextCursor, List.copyOf(skippedSources));
+    }
+
+    /**
+     * Latency, timeouts and errors of each source since startup.
+     */
+    public Map<String, Map<String, Object>> getSourceStatistics() {
+        return metrics.getStatistics();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        searchExecutor.shutdownNow();
+    }
+
+    /**
+     * Runs a source query in the background; completes with {@code null} when the source fails or
+     * misses its deadline. The query runs in a read-only transaction with the deadline as the
+     * Postgres {@code statement_timeout}, so the database cancels a late statement instead of
+     * running it for a result that would be discarded.
+     */
+    private <T> CompletableFuture<SearchPage<T>> querySource(SearchResultType source, long timeoutMs,
+                                                              Supplier<SearchPage<T>> query) {
+        long start = System.nanoTime();
+        CompletableFuture<SearchPage<T>> future = CompletableFuture.supplyAsync(
+                () -> readOnlyTransaction.execute(status -> {
+                    // SET LOCAL - the timeout ends with the transaction, before the connection returns to the pool
+                    jdbcTemplate.queryForObject("SELECT set_config('statement_timeout', :timeout, true)",
+                            Map.of("timeout", timeoutMs + "ms"), String.class);
+                    return query.get();
+                }), searchExecutor);
+        future.whenComplete((page, error) -> metrics.recordLatency(source, System.nanoTime() - start));
+        return future.copy()
+                .orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionally(error -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    if (cause instanceof TimeoutException) {
+                        metrics.recordTimeout(source);
+                        log.warn("Unified search source {} missed its {} ms deadline", source, timeoutMs);
+                    } else {
+                        metrics.recordError(source);
+                        log.error("Unified search source {} failed", source, cause);
+                    }
+                    return null;
+                });
+    }
+
+    // Negative when the product should go before the recipe
+    private static int compareHeads(String productName, String recipeName, String query) {
+        int byTier = Integer.compare(SearchRelevance.tier(productName, query), SearchRelevance.tier(recipeName, query));
+        return byTier != 0 ? byTier
+                : -Double.compare(SearchRelevance.score(productName, query), SearchRelevance.score(recipeName, query));
     }
 
     private UnifiedSearchDto mapRecipeToDto(Recipe recipe) {
         return UnifiedSearchDto.builder()
                 .id(recipe.getId())
                 .name(recipe.getName())
-                .type(UnifiedSearchDto.SearchResultType.RECIPE)
+                .type(SearchResultType.RECIPE)
                 .nutritionalValues(recipe.getNutritionalValues())
                 .photos(recipe.getPhotos())
                 .build();
@@ -65,7 +206,7 @@ public class UnifiedSearchService {
         return UnifiedSearchDto.builder()
                 .id(String.valueOf(product.getId()))
                 .name(product.getName())
-                .type(UnifiedSearchDto.SearchResultType.PRODUCT)
+                .type(SearchResultType.PRODUCT)
                 .unit(product.getUnit())
                 .nutritionalValues(NutritionalValues.builder()
                         .calories(product.getKcal())
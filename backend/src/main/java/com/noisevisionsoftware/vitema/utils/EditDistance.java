@@ -0,0 +1,134 @@
+package com.noisevisionsoftware.vitema.utils;
+
+/**
+ * Odległość Levenshteina z limitem. Liczone są tylko komórki w pasie wokół przekątnej,
+ * przez który może przejść ścieżka o koszcie w limicie, a obliczenia kończą się, gdy cały
+ * wiersz przekroczy limit. Pary, których długości różnią się o więcej niż limit, są odrzucane
+ * bez liczenia.
+ */
+public final class EditDistance {
+
+    private static final double THRESHOLD_EPSILON = 1e-9;
+
+    private EditDistance() {
+    }
+
+    /**
+     * @return odległość edycyjna albo -1, gdy przekracza {@code maxDistance}
+     */
+    public static int levenshtein(CharSequence left, CharSequence right, int maxDistance) {
+        if (maxDistance < 0) {
+            return -1;
+        }
+
+        // Krótszy tekst wyznacza długość wierszy
+        CharSequence a = left.length() <= right.length() ? left : right;
+        CharSequence b = a == left ? right : left;
+        int n = a.length();
+        int m = b.length();
+
+        if (m - n > maxDistance) {
+            return -1;
+        }
+        if (n == 0) {
+            return m;
+        }
+
+        // Ścieżka przez komórkę (i, j) kosztuje co najmniej |j - i| + |(m - j) - (n - i)|, więc przy
+        // różnicy długości d komórki poza przekątnymi [-(limit - d) / 2, (limit + d) / 2] nie mogą
+        // dać wyniku w limicie - pas ma szerokość limit + 1 zamiast 2 * limit + 1
+        int lengthDifference = m - n;
+        int belowDiagonal = (maxDistance - lengthDifference) / 2;
+        int aboveDiagonal = (maxDistance + lengthDifference) / 2;
+
+        // Wartość "poza pasem" - każda liczba większa od limitu działa jak nieskończoność.
+        // Wystarczy jedna komórka za prawą granicą pasa, bo kolejne wiersze przesuwają się o 1.
+        int outside = maxDistance + 1;
+        int[] previous = new int[n + 1];
+        int[] current = new int[n + 1];
+        int firstBoundary = Math.min(n, belowDiagonal);
+        for (int i = 0; i <= firstBoundary; i++) {
+            previous[i] = i;
+        }
+        if (firstBoundary < n) {
+            previous[firstBoundary + 1] = outside;
+        }
+
+        for (int j = 1; j <= m; j++) {
+            char bj = b.charAt(j - 1);
+            int from = Math.max(1, j - aboveDiagonal);
+            int to = (int) Math.min(n, (long) j + belowDiagonal);
+
+            current[0] = j;
+            if (from > 1) {
+                current[from - 1] = outside;
+            }
+
+            int rowMin = from == 1 ? j : outside;
+            int leftCell = current[from - 1];
+            for (int i = from; i <= to; i++) {
+                int value = a.charAt(i - 1) == bj
+                        ? previous[i - 1]
+                        : 1 + Math.min(previous[i - 1], Math.min(previous[i], leftCell));
+                if (value > outside) {
+                    value = outside;
+                }
+                current[i] = value;
+                leftCell = value;
+                if (value < rowMin) {
+                    rowMin = value;
+                }
+            }
+            if (to < n) {
+                current[to + 1] = outside;
+            }
+
+            if (rowMin > maxDistance) {
+                return -1;
+            }
+
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        return previous[n] <= maxDistance ? previous[n] : -1;
+    }
+
+    /**
+     * Pełna odległość edycyjna (bez limitu).
+     */
+    public static int levenshtein(CharSequence left, CharSequence right) {
+        return levenshtein(left, right, Math.max(left.length(), right.length()));
+    }
+
+    /**
+     * Największa odległość, przy której podobieństwo {@code 1 - d / maxLength} nie spada
+     * poniżej {@code minSimilarity}.
+     */
+    public static int maxDistanceFor(double minSimilarity, int maxLength) {
+        if (minSimilarity <= 0.0) {
+            return maxLength;
+        }
+        return (int) Math.floor((1.0 - minSimilarity) * maxLength + THRESHOLD_EPSILON);
+    }
+
+    /**
+     * Podobieństwo {@code 1 - d / max(długości)} albo -1, gdy jest mniejsze niż {@code minSimilarity}.
+     * Wynik jest dokładnie taki sam jak przy pełnym obliczeniu odległości.
+     */
+    public static double similarityAtLeast(String left, String right, double minSimilarity) {
+        int maxLength = Math.max(left.length(), right.length());
+        if (maxLength == 0) {
+            return 1.0;
+        }
+
+        int distance = levenshtein(left, right, maxDistanceFor(minSimilarity, maxLength));
+        if (distance < 0) {
+            return -1;
+        }
+
+        double similarity = 1.0 - ((double) distance / maxLength);
+        return similarity >= minSimilarity ? similarity : -1;
+    }
+}
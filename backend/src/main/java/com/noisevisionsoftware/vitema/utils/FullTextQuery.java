@@ -0,0 +1,42 @@
+package com.noisevisionsoftware.vitema.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Zamiana tekstu wpisanego przez użytkownika na zapytanie {@code to_tsquery} dla konfiguracji
+ * {@value #CONFIGURATION} (V16).
+ * <p>
+ * PostgreSQL nie ma stemmera dla polskiego, więc każde słowo jest dopasowywane jako prefiks
+ * ({@code owsiank:*} znajdzie „owsianka” i „owsianki”), a słowa są łączone operatorem AND.
+ * Znaki specjalne składni tsquery są usuwane, więc wynik można bezpiecznie przekazać jako parametr.
+ */
+public final class FullTextQuery {
+
+    public static final String CONFIGURATION = "vitema_pl";
+
+    private FullTextQuery() {
+    }
+
+    /**
+     * @return zapytanie tsquery albo pusty napis, gdy tekst nie zawiera żadnego słowa
+     */
+    public static String prefixQuery(String text) {
+        if (text == null) {
+            return "";
+        }
+        List<String> terms = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(c);
+            } else if (!word.isEmpty()) {
+                terms.add(word.toString().toLowerCase(Locale.ROOT) + ":*");
+                word.setLength(0);
+            }
+        }
+        return String.join(" & ", terms);
+    }
+}
@@ -0,0 +1,390 @@
+package com.noisevisionsoftware.vitema.utils;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Niezmienna mapa haszująca (HAMT - drzewo o 32-krotnym rozgałęzieniu, indeksowane kolejnymi
+ * 5 bitami hasza klucza). {@link #plus} i {@link #minus} zwracają nową mapę, która współdzieli
+ * z poprzednią wszystkie węzły poza ścieżką do zmienionego klucza - zmiana kosztuje
+ * O(log<sub>32</sub> n), a nie O(n) jak kopia {@code HashMap}.
+ * <p>
+ * Mapa nie przyjmuje kluczy {@code null}. Instancje są niezmienne, więc można je bez blokad
+ * czytać z wielu wątków.
+ */
+public final class PersistentHashMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(null, 0);
+    private static final Object NOT_FOUND = new Object();
+
+    private final Node root;
+    private final int size;
+
+    private PersistentHashMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public V get(Object key) {
+        return getOrDefault(key, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(Object key, V defaultValue) {
+        if (root == null || key == null) {
+            return defaultValue;
+        }
+        Object value = root.find(0, hash(key), key, NOT_FOUND);
+        return value == NOT_FOUND ? defaultValue : (V) value;
+    }
+
+    public boolean containsKey(Object key) {
+        return root != null && key != null && root.find(0, hash(key), key, NOT_FOUND) != NOT_FOUND;
+    }
+
+    /**
+     * Mapa z kluczem ustawionym na {@code value}; ta sama instancja, gdy klucz ma już tę wartość.
+     */
+    public PersistentHashMap<K, V> plus(K key, V value) {
+        Objects.requireNonNull(key, "key");
+        boolean[] added = new boolean[1];
+        Node newRoot = (root == null ? BitmapNode.EMPTY : root).put(0, hash(key), key, value, added);
+        return newRoot == root ? this : new PersistentHashMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Mapa bez klucza; ta sama instancja, gdy klucza nie było.
+     */
+    public PersistentHashMap<K, V> minus(Object key) {
+        if (root == null || key == null) {
+            return this;
+        }
+        Node newRoot = root.remove(0, hash(key), key);
+        if (newRoot == root) {
+            return this;
+        }
+        return newRoot == null ? empty() : new PersistentHashMap<>(newRoot, size - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (root != null) {
+            root.forEach((BiConsumer<Object, Object>) action);
+        }
+    }
+
+    /**
+     * Niemodyfikowalny widok mapy jako {@link Map}; {@code get} i {@code containsKey} nie przeglądają całej mapy.
+     */
+    public Map<K, V> asMap() {
+        return new MapView();
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    /**
+     * Węzeł trzyma pary w jednej tablicy: [klucz, wartość, klucz, wartość, ...]. W węźle
+     * bitmapowym klucz {@code null} oznacza, że na drugiej pozycji jest poddrzewo.
+     */
+    private abstract static sealed class Node permits BitmapNode, CollisionNode {
+        final Object[] array;
+
+        Node(Object[] array) {
+            this.array = array;
+        }
+
+        abstract Object find(int shift, int hash, Object key, Object notFound);
+
+        abstract Node put(int shift, int hash, Object key, Object value, boolean[] added);
+
+        // null, gdy węzeł po usunięciu jest pusty
+        abstract Node remove(int shift, int hash, Object key);
+
+        void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] == null) {
+                    ((Node) array[i + 1]).forEach(action);
+                } else {
+                    action.accept(array[i], array[i + 1]);
+                }
+            }
+        }
+    }
+
+    private static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        final int bitmap;
+
+        BitmapNode(int bitmap, Object[] array) {
+            super(array);
+            this.bitmap = bitmap;
+        }
+
+        private int index(int bit) {
+            return 2 * Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key, Object notFound) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return notFound;
+            }
+            int i = index(bit);
+            Object keyOrNull = array[i];
+            if (keyOrNull == null) {
+                return ((Node) array[i + 1]).find(shift + BITS, hash, key, notFound);
+            }
+            return key.equals(keyOrNull) ? array[i + 1] : notFound;
+        }
+
+        @Override
+        Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+            int bit = bit(hash, shift);
+            int i = index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] extended = new Object[array.length + 2];
+                System.arraycopy(array, 0, extended, 0, i);
+                extended[i] = key;
+                extended[i + 1] = value;
+                System.arraycopy(array, i, extended, i + 2, array.length - i);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, extended);
+            }
+
+            Object keyOrNull = array[i];
+            Object valueOrNode = array[i + 1];
+            if (keyOrNull == null) {
+                Node child = ((Node) valueOrNode).put(shift + BITS, hash, key, value, added);
+                return child == valueOrNode ? this : new BitmapNode(bitmap, with(array, i + 1, child));
+            }
+            if (key.equals(keyOrNull)) {
+                return valueOrNode == value ? this : new BitmapNode(bitmap, with(array, i + 1, value));
+            }
+            added[0] = true;
+            Object[] changed = with(array, i + 1, split(shift + BITS, keyOrNull, valueOrNode, hash, key, value));
+            changed[i] = null;
+            return new BitmapNode(bitmap, changed);
+        }
+
+        @Override
+        Node remove(int shift, int hash, Object key) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int i = index(bit);
+            Object keyOrNull = array[i];
+            if (keyOrNull == null) {
+                Node child = (Node) array[i + 1];
+                Node newChild = child.remove(shift + BITS, hash, key);
+                if (newChild == child) {
+                    return this;
+                }
+                if (newChild != null) {
+                    return new BitmapNode(bitmap, with(array, i + 1, newChild));
+                }
+            } else if (!key.equals(keyOrNull)) {
+                return this;
+            }
+
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] reduced = new Object[array.length - 2];
+            System.arraycopy(array, 0, reduced, 0, i);
+            System.arraycopy(array, i + 2, reduced, i, array.length - i - 2);
+            return new BitmapNode(bitmap ^ bit, reduced);
+        }
+
+        // Dwa klucze, które na tym poziomie trafiły w to samo miejsce
+        private static Node split(int shift, Object key1, Object value1, int hash2, Object key2, Object value2) {
+            int hash1 = hash(key1);
+            if (hash1 == hash2) {
+                return new CollisionNode(hash1, new Object[]{key1, value1, key2, value2});
+            }
+            boolean[] ignored = new boolean[1];
+            return EMPTY.put(shift, hash1, key1, value1, ignored).put(shift, hash2, key2, value2, ignored);
+        }
+    }
+
+    /**
+     * Klucze o identycznym haszu - przeglądane liniowo.
+     */
+    private static final class CollisionNode extends Node {
+        final int hash;
+
+        CollisionNode(int hash, Object[] array) {
+            super(array);
+            this.hash = hash;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key, Object notFound) {
+            int i = hash == this.hash ? indexOf(key) : -1;
+            return i < 0 ? notFound : array[i + 1];
+        }
+
+        @Override
+        Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+            if (hash != this.hash) {
+                // Inny hasz - węzeł schodzi poziom niżej pod węzłem bitmapowym
+                return new BitmapNode(bit(this.hash, shift), new Object[]{null, this})
+                        .put(shift, hash, key, value, added);
+            }
+            int i = indexOf(key);
+            if (i >= 0) {
+                return array[i + 1] == value ? this : new CollisionNode(hash, with(array, i + 1, value));
+            }
+            Object[] extended = Arrays.copyOf(array, array.length + 2);
+            extended[array.length] = key;
+            extended[array.length + 1] = value;
+            added[0] = true;
+            return new CollisionNode(hash, extended);
+        }
+
+        @Override
+        Node remove(int shift, int hash, Object key) {
+            int i = hash == this.hash ? indexOf(key) : -1;
+            if (i < 0) {
+                return this;
+            }
+            if (array.length == 2) {
+                return null;
+            }
+            Object[] reduced = new Object[array.length - 2];
+            System.arraycopy(array, 0, reduced, 0, i);
+            System.arraycopy(array, i + 2, reduced, i, array.length - i - 2);
+            return new CollisionNode(hash, reduced);
+        }
+    }
+
+    private static Object[] with(Object[] array, int index, Object value) {
+        Object[] copy = array.clone();
+        copy[index] = value;
+        return copy;
+    }
+
+    private final class MapView extends AbstractMap<K, V> {
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public V get(Object key) {
+            return PersistentHashMap.this.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return PersistentHashMap.this.containsKey(key);
+        }
+
+        @Override
+        public void forEach(BiConsumer<? super K, ? super V> action) {
+            PersistentHashMap.this.forEach(action);
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+    }
+
+    /**
+     * Przejście w głąb ze stosem węzłów, bez kopiowania par do osobnej listy.
+     */
+    private final class EntryIterator implements Iterator<Map.Entry<K, V>> {
+        private final Deque<Object[]> arrays = new ArrayDeque<>();
+        private final Deque<Integer> positions = new ArrayDeque<>();
+        private Map.Entry<K, V> next;
+
+        EntryIterator() {
+            if (root != null) {
+                arrays.push(root.array);
+                positions.push(0);
+            }
+            advance();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            next = null;
+            while (next == null && !arrays.isEmpty()) {
+                Object[] array = arrays.peek();
+                int position = positions.pop();
+                if (position >= array.length) {
+                    arrays.pop();
+                    continue;
+                }
+                positions.push(position + 2);
+                if (array[position] == null) {
+                    arrays.push(((Node) array[position + 1]).array);
+                    positions.push(0);
+                } else {
+                    next = new AbstractMap.SimpleImmutableEntry<>((K) array[position], (V) array[position + 1]);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<K, V> current = next;
+            advance();
+            return current;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.noisevisionsoftware.vitema.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Nieprzezroczysty kursor listy przepisów: data utworzenia i id ostatniego przepisu strony
+ * zakodowane w Base64 URL. Kolejna strona zaczyna się od pierwszego przepisu za nim
+ * w porządku {@code (created_at DESC, id DESC)}.
+ */
+public record RecipeCursor(LocalDateTime createdAt, long id) {
+
+    private static final String SEPARATOR = "_";
+
+    public String encode() {
+        String value = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(value.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static boolean isValid(String cursor) {
+        try {
+            decode(cursor);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return pozycja zapisana w kursorze; {@code null} dla pustego kursora (pierwsza strona)
+     * @throws IllegalArgumentException gdy kursor jest nieprawidłowy
+     */
+    public static RecipeCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII)
+                    .split(SEPARATOR);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid recipe cursor");
+            }
+            return new RecipeCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid recipe cursor", e);
+        }
+    }
+}
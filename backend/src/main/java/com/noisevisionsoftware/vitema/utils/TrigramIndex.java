@@ -0,0 +1,454 @@
+package com.noisevisionsoftware.vitema.utils;
+
+import java.util.*;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Indeks trigramowy do wyszukiwania przybliżonego (odległość Levenshteina) po nazwach
+ * trzymanych w pamięci - słownik kategoryzacji, katalogi produktów i posiłków.
+ * <p>
+ * Tekst w odległości {@code k} od zapytania dzieli z nim co najmniej
+ * {@code max(|G(q)|, |G(t)|) - 3k} różnych trigramów (każda edycja psuje najwyżej 3), więc
+ * odległość jest liczona tylko dla tekstów, które mają wystarczająco dużo wspólnych trigramów
+ * - zamiast dla całego zbioru. Filtr nie odrzuca żadnego poprawnego wyniku.
+ * <p>
+ * Indeks nie normalizuje tekstów (wielkość liter, znaki) - robi to wywołujący.
+ * <p>
+ * Stan indeksu jest niezmienny ({@link PersistentHashMap} wpisów i list trigramów) i podmieniany
+ * w całości przy każdej zmianie. Zmiana kopiuje tylko ścieżki do zmienionych kluczy i fragmenty
+ * list trigramów zmienianego tekstu (długie listy, np. częstych końcówek, są dzielone na części
+ * według numeru wpisu), więc jej koszt nie zależy od liczby wpisów, a {@link #copy()} nic nie kopiuje. Wiele tekstów
+ * naraz (np. budowanie całego indeksu) dodaje {@link #update}, kopiując każdą listę trigramu raz.
+ * Odczyty nie blokują i widzą stan sprzed albo po zmianie, zmiany są wykonywane na wyłączność.
+ */
+public class TrigramIndex {
+
+    private static final char PADDING = '\u0002';
+    private static final int GRAM_SIZE = 3;
+    // Do tylu wpisów lista trigramu jest jedną tablicą kopiowaną przy zmianie, powyżej - tablicami
+    // dla kolejnych zakresów 2^CHUNK_BITS numerów wpisów, więc zmiana kopiuje najwyżej jeden zakres
+    private static final int MAX_ARRAY_POSTINGS = 32;
+    private static final int CHUNK_BITS = 10;
+
+    private static final Comparator<Match> BY_DISTANCE = Comparator
+            .comparingInt(Match::distance)
+            .thenComparing(Comparator.comparingDouble(Match::similarity).reversed())
+            .thenComparing(Match::id);
+
+    private static final Comparator<Match> BY_SIMILARITY = Comparator
+            .comparingDouble(Match::similarity).reversed()
+            .thenComparingInt(Match::distance)
+            .thenComparing(Match::id);
+
+    private volatile State state = State.EMPTY;
+
+    public record Match(String id, String text, int distance, double similarity) {
+    }
+
+    /**
+     * Dodaje wpis lub zastępuje tekst istniejącego wpisu o tym samym identyfikatorze.
+     */
+    public synchronized void put(String id, String text) {
+        Objects.requireNonNull(id, "id");
+        Objects.requireNonNull(text, "text");
+
+        update(Collections.singletonMap(id, text));
+    }
+
+    /**
+     * Dodaje, zastępuje lub usuwa (tekst {@code null}) wpisy jedną zmianą stanu. Lista trigramu
+     * wspólnego dla wielu nowych tekstów jest kopiowana raz na wywołanie, a nie raz na tekst -
+     * budowanie indeksu z całego zbioru powinno iść tą drogą.
+     */
+    public synchronized void update(Map<String, String> changes) {
+        state = state.updated(changes);
+    }
+
+    /**
+     * Kopia indeksu, którą można zmieniać niezależnie od oryginału. Obie strony współdzielą
+     * niezmienny stan, więc kopia kosztuje O(1).
+     */
+    public TrigramIndex copy() {
+        TrigramIndex copy = new TrigramIndex();
+        copy.state = state;
+        return copy;
+    }
+
+    public synchronized boolean remove(String id) {
+        State current = state;
+        Entry entry = current.entriesById.get(id);
+        if (entry == null) {
+            return false;
+        }
+        state = current.without(entry);
+        return true;
+    }
+
+    public synchronized void clear() {
+        state = State.EMPTY;
+    }
+
+    public int size() {
+        return state.entriesById.size();
+    }
+
+    /**
+     * Zwraca co najwyżej {@code limit} wpisów w odległości nie większej niż {@code maxDistance},
+     * od najbliższych.
+     */
+    public List<Match> search(String query, int maxDistance, int limit) {
+        if (maxDistance < 0) {
+            return List.of();
+        }
+        return search(query, maxDistance, length -> maxDistance, -1, BY_DISTANCE, limit);
+    }
+
+    /**
+     * Zwraca co najwyżej {@code limit} wpisów o podobieństwie {@code 1 - d / max(długości)}
+     * nie mniejszym niż {@code minSimilarity}, od najbardziej podobnych.
+     */
+    public List<Match> searchSimilar(String query, double minSimilarity, int limit) {
+        int queryLength = query.length();
+        // Najdłuższy tekst, który może osiągnąć próg, ma długość queryLength / minSimilarity
+        int maxDistance = minSimilarity > 0.0
+                ? EditDistance.maxDistanceFor(minSimilarity, (int) Math.floor(queryLength / minSimilarity + 1e-9))
+                : Integer.MAX_VALUE;
+        return search(query, maxDistance,
+                length -> EditDistance.maxDistanceFor(minSimilarity, Math.max(queryLength, length)),
+                minSimilarity, BY_SIMILARITY, limit);
+    }
+
+    private List<Match> search(String query, int maxDistance, IntUnaryOperator maxDistanceForLength,
+                               double minSimilarity, Comparator<Match> order, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+
+        long[] queryGrams = grams(query);
+        PriorityQueue<Match> best = new PriorityQueue<>(order.reversed());
+        // Cały odczyt z jednej wersji stanu
+        State snapshot = state;
+
+        long requiredSharedGrams = queryGrams.length - (long) GRAM_SIZE * maxDistance;
+        if (requiredSharedGrams <= 0) {
+            // Filtr trigramowy nic nie wykluczy (krótkie zapytanie lub duży limit)
+            snapshot.entriesById.forEach((id, entry) -> verify(entry, Integer.MAX_VALUE, query, queryGrams.length,
+                    maxDistanceForLength, minSimilarity, best, limit));
+        } else {
+            // Liczniki tylko dla wpisów z list trigramów zapytania - koszt zależy od liczby
+            // trafień, a nie od rozmiaru słownika
+            int touchedPostings = 0;
+            Postings[] queryPostings = new Postings[queryGrams.length];
+            for (int g = 0; g < queryGrams.length; g++) {
+                queryPostings[g] = snapshot.postings.get(queryGrams[g]);
+                if (queryPostings[g] != null) {
+                    touchedPostings += queryPostings[g].size();
+                }
+            }
+
+            SlotCounter sharedGrams = new SlotCounter(Math.min(touchedPostings, snapshot.entriesById.size()));
+            for (Postings postingList : queryPostings) {
+                if (postingList != null) {
+                    postingList.forEach(sharedGrams);
+                }
+            }
+
+            for (int i = 0; i < sharedGrams.entries.length; i++) {
+                Entry entry = sharedGrams.entries[i];
+                if (entry != null) {
+                    verify(entry, sharedGrams.counts[i], query, queryGrams.length, maxDistanceForLength,
+                            minSimilarity, best, limit);
+                }
+            }
+        }
+
+        List<Match> result = new ArrayList<>(best);
+        result.sort(order);
+        return result;
+    }
+
+    private static void verify(Entry entry, int sharedGrams, String query, int queryGramCount,
+                               IntUnaryOperator maxDistanceForLength, double minSimilarity,
+                               PriorityQueue<Match> best, int limit) {
+        String text = entry.text();
+        int maxDistance = maxDistanceForLength.applyAsInt(text.length());
+        if (Math.abs(text.length() - query.length()) > maxDistance) {
+            return;
+        }
+        if (sharedGrams < Math.max(queryGramCount, entry.grams().length) - (long) GRAM_SIZE * maxDistance) {
+            return;
+        }
+
+        int distance = EditDistance.levenshtein(query, text, maxDistance);
+        if (distance < 0) {
+            return;
+        }
+
+        int maxLength = Math.max(query.length(), text.length());
+        double similarity = maxLength == 0 ? 1.0 : 1.0 - ((double) distance / maxLength);
+        if (similarity < minSimilarity) {
+            return;
+        }
+
+        best.add(new Match(entry.id(), text, distance, similarity));
+        if (best.size() > limit) {
+            best.poll();
+        }
+    }
+
+    /**
+     * Niezmienny stan indeksu. Każdy wpis dostaje nowy numer, którego nie dzieli z żadnym innym
+     * wpisem w tym stanie - po nim liczone są wspólne trigramy przy wyszukiwaniu.
+     */
+    private record State(PersistentHashMap<String, Entry> entriesById,
+                         PersistentHashMap<Long, Postings> postings,
+                         int nextSlot) {
+
+        static final State EMPTY = new State(PersistentHashMap.empty(), PersistentHashMap.empty(), 0);
+
+        State updated(Map<String, String> changes) {
+            State current = this;
+            List<Map.Entry<String, String>> added = new ArrayList<>();
+            for (Map.Entry<String, String> change : changes.entrySet()) {
+                Objects.requireNonNull(change.getKey(), "id");
+                Entry existing = current.entriesById.get(change.getKey());
+                if (existing != null && existing.text().equals(change.getValue())) {
+                    continue;
+                }
+                if (existing != null) {
+                    current = current.without(existing);
+                }
+                if (change.getValue() != null) {
+                    added.add(change);
+                }
+            }
+            return added.isEmpty() ? current : current.with(added);
+        }
+
+        private State with(List<Map.Entry<String, String>> added) {
+            if (nextSlot > Integer.MAX_VALUE - added.size()) {
+                return renumbered().with(added);
+            }
+            PersistentHashMap<String, Entry> changedEntries = entriesById;
+            // Nowe wpisy zebrane po trigramach, w kolejności numerów
+            Map<Long, List<Entry>> addedByGram = new HashMap<>();
+            int slot = nextSlot;
+            for (Map.Entry<String, String> text : added) {
+                Entry entry = new Entry(text.getKey(), text.getValue(), grams(text.getValue()), slot++);
+                changedEntries = changedEntries.plus(entry.id(), entry);
+                for (long gram : entry.grams()) {
+                    addedByGram.computeIfAbsent(gram, g -> new ArrayList<>()).add(entry);
+                }
+            }
+
+            PersistentHashMap<Long, Postings> changedPostings = postings;
+            for (Map.Entry<Long, List<Entry>> gram : addedByGram.entrySet()) {
+                // Nowa lista trigramu z wpisami - poprzedni stan zachowuje swoją
+                Postings postingList = changedPostings.get(gram.getKey());
+                changedPostings = changedPostings.plus(gram.getKey(),
+                        (postingList == null ? ArrayPostings.EMPTY : postingList).plusAll(gram.getValue()));
+            }
+            return new State(changedEntries, changedPostings, slot);
+        }
+
+        State without(Entry entry) {
+            PersistentHashMap<Long, Postings> changedPostings = postings;
+            for (long gram : entry.grams()) {
+                Postings postingList = changedPostings.get(gram);
+                changedPostings = postingList.size() == 1
+                        ? changedPostings.minus(gram)
+                        : changedPostings.plus(gram, postingList.minus(entry));
+            }
+            return new State(entriesById.minus(entry.id()), changedPostings, nextSlot);
+        }
+
+        // Po wyczerpaniu zakresu int numery są nadawane od nowa (raz na ~2 mld zmian)
+        private State renumbered() {
+            List<Map.Entry<String, String>> texts = new ArrayList<>(entriesById.size());
+            entriesById.forEach((id, entry) -> texts.add(Map.entry(id, entry.text())));
+            return EMPTY.with(texts);
+        }
+    }
+
+    /**
+     * Różne trigramy tekstu uzupełnionego o dwa znaki dopełnienia z każdej strony
+     * (tak, aby początek i koniec tekstu też tworzyły trigramy).
+     */
+    static long[] grams(String text) {
+        int paddedLength = text.length() + 2 * (GRAM_SIZE - 1);
+        long[] grams = new long[paddedLength - GRAM_SIZE + 1];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) paddedCharAt(text, i) << 32)
+                    | ((long) paddedCharAt(text, i + 1) << 16)
+                    | paddedCharAt(text, i + 2);
+        }
+
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return distinct == grams.length ? grams : Arrays.copyOf(grams, distinct);
+    }
+
+    private static char paddedCharAt(String text, int paddedIndex) {
+        int index = paddedIndex - (GRAM_SIZE - 1);
+        return index >= 0 && index < text.length() ? text.charAt(index) : PADDING;
+    }
+
+    private record Entry(String id, String text, long[] grams, int slot) {
+    }
+
+    /**
+     * Niezmienna lista wpisów zawierających trigram.
+     */
+    private sealed interface Postings permits ArrayPostings, ChunkedPostings {
+        int size();
+
+        Postings plusAll(List<Entry> added);
+
+        Postings minus(Entry entry);
+
+        void forEach(SlotCounter counter);
+    }
+
+    /**
+     * Wpisy i ich numery w równoległych tablicach - liczenie wspólnych trigramów nie sięga do wpisów.
+     */
+    private record ArrayPostings(int[] slots, Entry[] entries) implements Postings {
+
+        static final ArrayPostings EMPTY = new ArrayPostings(new int[0], new Entry[0]);
+
+        @Override
+        public int size() {
+            return entries.length;
+        }
+
+        @Override
+        public Postings plusAll(List<Entry> added) {
+            if (entries.length + added.size() > MAX_ARRAY_POSTINGS) {
+                List<Entry> all = new ArrayList<>(entries.length + added.size());
+                Collections.addAll(all, entries);
+                all.addAll(added);
+                return ChunkedPostings.EMPTY.plusAll(all);
+            }
+            return appended(added);
+        }
+
+        ArrayPostings appended(List<Entry> added) {
+            int[] extendedSlots = Arrays.copyOf(slots, slots.length + added.size());
+            Entry[] extendedEntries = Arrays.copyOf(entries, entries.length + added.size());
+            for (int i = 0; i < added.size(); i++) {
+                extendedSlots[slots.length + i] = added.get(i).slot();
+                extendedEntries[entries.length + i] = added.get(i);
+            }
+            return new ArrayPostings(extendedSlots, extendedEntries);
+        }
+
+        @Override
+        public ArrayPostings minus(Entry entry) {
+            int[] reducedSlots = new int[slots.length - 1];
+            Entry[] reducedEntries = new Entry[entries.length - 1];
+            int size = 0;
+            for (int i = 0; i < entries.length; i++) {
+                if (entries[i] != entry) {
+                    reducedSlots[size] = slots[i];
+                    reducedEntries[size++] = entries[i];
+                }
+            }
+            return new ArrayPostings(reducedSlots, reducedEntries);
+        }
+
+        @Override
+        public void forEach(SlotCounter counter) {
+            for (int i = 0; i < slots.length; i++) {
+                counter.increment(slots[i], entries[i]);
+            }
+        }
+    }
+
+    private record ChunkedPostings(PersistentHashMap<Integer, ArrayPostings> chunks, int size) implements Postings {
+
+        static final ChunkedPostings EMPTY = new ChunkedPostings(PersistentHashMap.empty(), 0);
+
+        @Override
+        public Postings plusAll(List<Entry> added) {
+            PersistentHashMap<Integer, ArrayPostings> changed = chunks;
+            // Kolejne wpisy z tego samego zakresu numerów trafiają do zakresu jedną kopią
+            int from = 0;
+            while (from < added.size()) {
+                int chunk = added.get(from).slot() >>> CHUNK_BITS;
+                int to = from + 1;
+                while (to < added.size() && added.get(to).slot() >>> CHUNK_BITS == chunk) {
+                    to++;
+                }
+                changed = changed.plus(chunk, changed.getOrDefault(chunk, ArrayPostings.EMPTY)
+                        .appended(added.subList(from, to)));
+                from = to;
+            }
+            return new ChunkedPostings(changed, size + added.size());
+        }
+
+        @Override
+        public Postings minus(Entry entry) {
+            if (size - 1 <= MAX_ARRAY_POSTINGS / 2) {
+                // Krótka lista wraca do jednej tablicy
+                List<Entry> remaining = new ArrayList<>(size - 1);
+                chunks.forEach((chunk, entries) -> {
+                    for (Entry posted : entries.entries()) {
+                        if (posted != entry) {
+                            remaining.add(posted);
+                        }
+                    }
+                });
+                return ArrayPostings.EMPTY.appended(remaining);
+            }
+            int chunk = entry.slot() >>> CHUNK_BITS;
+            ArrayPostings entries = chunks.get(chunk);
+            return new ChunkedPostings(entries.size() == 1 ? chunks.minus(chunk) : chunks.plus(chunk, entries.minus(entry)),
+                    size - 1);
+        }
+
+        @Override
+        public void forEach(SlotCounter counter) {
+            chunks.forEach((chunk, entries) -> entries.forEach(counter));
+        }
+    }
+
+    /**
+     * Licznik wspólnych trigramów wpis -> liczba, z adresowaniem otwartym po numerze wpisu;
+     * rozmiar tablic zależy od liczby kandydatów.
+     */
+    private static final class SlotCounter {
+        private static final int EMPTY = -1;
+
+        private final int[] keys;
+        private final Entry[] entries;
+        private final int[] counts;
+        private final int mask;
+        private final int shift;
+
+        SlotCounter(int expectedSlots) {
+            int capacity = Integer.highestOneBit(Math.max(4, expectedSlots) * 2 - 1) << 1;
+            keys = new int[capacity];
+            entries = new Entry[capacity];
+            counts = new int[capacity];
+            mask = capacity - 1;
+            shift = Integer.numberOfLeadingZeros(mask);
+            Arrays.fill(keys, EMPTY);
+        }
+
+        void increment(int slot, Entry entry) {
+            // Haszowanie Fibonacciego - kolejne numery wpisów rozkładają się po całej tablicy
+            int i = (slot * 0x9E3779B9) >>> shift;
+            while (keys[i] != EMPTY && keys[i] != slot) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = slot;
+            entries[i] = entry;
+            counts[i]++;
+        }
+    }
+}
@@ -1,15 +1,19 @@
 package com.noisevisionsoftware.vitema.utils.excelParser.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.noisevisionsoftware.vitema.model.shopping.category.CategorySuggestion;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class ParsedProduct {
     private String id;
@@ -20,6 +24,10 @@ public class ParsedProduct {
     private boolean hasCustomUnit;
     private String categoryId;
 
+    // Alternatywne kategorie z parsowania - tylko w odpowiedziach, nie są zapisywane z dietą
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<CategorySuggestion> categorySuggestions;
+
     public ParsedProduct(String name, double quantity, String unit, String original, boolean hasCustomUnit) {
         this.name = name;
         this.quantity = quantity;
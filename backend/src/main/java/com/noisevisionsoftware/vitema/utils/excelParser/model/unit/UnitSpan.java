@@ -0,0 +1,34 @@
+package com.noisevisionsoftware.vitema.utils.excelParser.model.unit;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Fragment tekstu rozpoznany jako jednostka (opcjonalnie poprzedzona liczbą), np. "2 łyżki".
+ * Zawiera znormalizowaną jednostkę oraz współczynnik konwersji do jednostki bazowej z {@link ProductUnit}.
+ */
+@Data
+@AllArgsConstructor
+public class UnitSpan {
+    private int start;
+    private int end;
+    private Double quantity;
+    private String unit;
+    private String type;
+    private String baseUnit;
+    private Double conversionFactor;
+
+    public boolean hasQuantity() {
+        return quantity != null;
+    }
+
+    /**
+     * Ilość przeliczona na jednostkę bazową (np. 2 łyżki -> 30 ml) lub null, gdy nie da się jej przeliczyć
+     */
+    public Double getBaseQuantity() {
+        if (quantity == null || conversionFactor == null || baseUnit == null) {
+            return null;
+        }
+        return quantity * conversionFactor;
+    }
+}
@@ -5,21 +5,22 @@ import com.alibaba.excel.context.AnalysisContext;
 import com.alibaba.excel.event.AnalysisEventListener;
 import com.noisevisionsoftware.vitema.model.meal.MealType;
 import com.noisevisionsoftware.vitema.model.recipe.NutritionalValues;
+import com.noisevisionsoftware.vitema.service.category.IngredientParseCache;
 import com.noisevisionsoftware.vitema.service.category.ProductCategorizationService;
 import com.noisevisionsoftware.vitema.utils.excelParser.config.ExcelParserConfig;
 import com.noisevisionsoftware.vitema.utils.excelParser.model.ParsedMeal;
 import com.noisevisionsoftware.vitema.utils.excelParser.model.ParsedProduct;
-import com.noisevisionsoftware.vitema.utils.excelParser.model.ParsingResult;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -29,7 +30,12 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ExcelParserService {
 
-    private final ProductParsingService productParsingService;
+    /*
+     * Poniżej tej liczby unikalnych składników koszt uruchomienia wątków przewyższa zysk
+     * */
+    private static final int PARALLEL_PARSING_THRESHOLD = 32;
+
+    private final IngredientParseCache ingredientParseCache;
     private final ProductCategorizationService categorizationService;
     private final ExcelParserConfig excelParserConfig;
 
@@ -75,7 +81,8 @@ public class ExcelParserService {
                 .doRead();
 
         List<ParsedMeal> meals = new ArrayList<>();
-        Map<String, ParsedProduct> uniqueItems = new HashMap<>();
+        List<List<String>> mealIngredientTexts = new ArrayList<>();
+        Set<String> distinctIngredients = new LinkedHashSet<>();
 
         // Pomijamy pierwszy wiersz (nagłówki)
         for (int i = 1; i < rows.size(); i++) {
@@ -99,46 +106,14 @@ public class ExcelParserService {
             }
             meal.setInstructions(instructions);
 
-            // Parsowanie składników-trzecia kolumna po pominiętych
-            List<ParsedProduct> mealIngredients = new ArrayList<>();
+            // Zbieranie składników-trzecia kolumna po pominiętych (parsowanie odbywa się później, równolegle)
+            List<String> ingredientTexts = new ArrayList<>();
             if (row.size() > skipColumnsCount + 2 && !row.get(skipColumnsCount + 2).trim().isEmpty()) {
-                List<String> shoppingItems = splitIngredientsList(row.get(skipColumnsCount + 2));
-                for (String item : shoppingItems) {
+                for (String item : splitIngredientsList(row.get(skipColumnsCount + 2))) {
                     item = item.trim();
                     if (!item.isEmpty()) {
-                        try {
-                            ParsedProduct product = parseProduct(item);
-                            
-                            // Dodawanie do składników posiłku
-                            mealIngredients.add(product);
-
-                            // Dodawanie bezpośrednio do listy zakupów
-                            String key = product.getOriginal().toLowerCase().trim();
-                            uniqueItems.merge(key, product, (existing, newProduct) -> {
-                                if (existing.getUnit().equals(newProduct.getUnit())) {
-                                    existing.setQuantity(existing.getQuantity() + newProduct.getQuantity());
-                                    return existing;
-                                }
-                                return newProduct;
-                            });
-                        } catch (Exception e) {
-                            log.error("Błąd podczas parsowania produktu: {}", item, e);
-                            // Tworzymy podstawowy produkt, gdy parsowanie się nie powiedzie
-                            ParsedProduct fallbackProduct = ParsedProduct.builder()
-                                    .name(item)
-                                    .quantity(1.0)
-                                    .unit("szt")
-                                    .original(item)
-                                    .hasCustomUnit(false)
-                                    .build();
-
-                            // Dodawanie do składników posiłku
-                            mealIngredients.add(fallbackProduct);
-
-                            // Dodawanie do listy zakupów
-                            String key = item.toLowerCase().trim();
-                            uniqueItems.put(key, fallbackProduct);
-                        }
+                        ingredientTexts.add(item);
+                        distinctIngredients.add(item);
                     }
                 }
             }
@@ -155,9 +130,65 @@ public class ExcelParserService {
             meal.setMealType(MealType.BREAKFAST);
             meal.setTime("");
 
-            meal.setIngredients(mealIngredients);
-
             meals.add(meal);
+            mealIngredientTexts.add(ingredientTexts);
+        }
+
+        // Każdy unikalny składnik parsowany i kategoryzowany jest tylko raz
+        Map<String, ParsedProduct> parsedIngredients = parseIngredients(distinctIngredients);
+
+        Map<String, ParsedProduct> uniqueItems = new LinkedHashMap<>();
+        // Kategoryzacje do nauczenia - nanoszone na słownik jedną zmianą po złożeniu wyników
+        List<ParsedProduct> learnedProducts = new ArrayList<>();
+
+        // Składanie wyników w kolejności z pliku-wynik nie zależy od kolejności zakończenia zadań
+        for (int i = 0; i < meals.size(); i++) {
+            List<ParsedProduct> mealIngredients = new ArrayList<>();
+
+            for (String item : mealIngredientTexts.get(i)) {
+                try {
+                    ParsedProduct product = copyOf(parsedIngredients.get(item));
+
+                    // Uczenie kategoryzacji w kolejności wystąpień
+                    if (product.getCategoryId() != null) {
+                        learnedProducts.add(product);
+                    }
+
+                    // Dodawanie do składników posiłku
+                    mealIngredients.add(product);
+
+                    // Dodawanie bezpośrednio do listy zakupów
+                    String key = product.getOriginal().toLowerCase().trim();
+                    uniqueItems.merge(key, copyOf(product), (existing, newProduct) -> {
+                        if (existing.getUnit().equals(newProduct.getUnit())) {
+                            existing.setQuantity(existing.getQuantity() + newProduct.getQuantity());
+                            return existing;
+                        }
+                        return newProduct;
+                    });
+                } catch (Exception e) {
+                    log.error("Błąd podczas parsowania produktu: {}", item, e);
+                    // Tworzymy podstawowy produkt, gdy parsowanie się nie powiedzie
+                    ParsedProduct fallbackProduct = createFallbackProduct(item);
+
+                    // Dodawanie do składników posiłku
+                    mealIngredients.add(fallbackProduct);
+
+                    // Dodawanie do listy zakupów
+                    String key = item.toLowerCase().trim();
+                    uniqueItems.put(key, copyOf(fallbackProduct));
+                }
+            }
+
+            meals.get(i).setIngredients(mealIngredients);
+        }
+
+        if (!learnedProducts.isEmpty()) {
+            try {
+                categorizationService.updateCategorizations(learnedProducts);
+            } catch (Exception e) {
+                log.error("Błąd podczas aktualizacji kategoryzacji {} produktów", learnedProducts.size(), e);
+            }
         }
 
 //        List<ParsedProduct> allProducts = new ArrayList<>(uniqueItems.values());
@@ -176,48 +207,62 @@ public class ExcelParserService {
 
     private ParsedProduct parseProduct(String ingredient) {
         try {
-            ParsingResult result = productParsingService.parseProduct(ingredient);
+            return ingredientParseCache.parse(ingredient);
+        } catch (Exception e) {
+            log.error("Error parsing product: {}", ingredient, e);
+            return createFallbackProduct(ingredient);
+        }
+    }
 
-            if (result.isSuccess() && result.getProduct() != null) {
-                ParsedProduct originalProduct = result.getProduct();
+    /**
+     * Parsuje i kategoryzuje unikalne składniki. Powyżej progu zadania rozdzielane są
+     * na wirtualne wątki; wynik zawsze zachowuje kolejność wejścia.
+     */
+    private Map<String, ParsedProduct> parseIngredients(Collection<String> ingredients) {
+        Map<String, ParsedProduct> result = new LinkedHashMap<>();
 
-                String suggestedCategory = categorizationService.suggestCategory(originalProduct);
+        if (ingredients.size() < PARALLEL_PARSING_THRESHOLD) {
+            for (String ingredient : ingredients) {
+                result.put(ingredient, parseProduct(ingredient));
+            }
+            return result;
+        }
 
-                ParsedProduct product = ParsedProduct.builder()
-                        .name(originalProduct.getName())
-                        .quantity(originalProduct.getQuantity())
-                        .unit(originalProduct.getUnit())
-                        .original(originalProduct.getOriginal())
-                        .hasCustomUnit(originalProduct.isHasCustomUnit())
-                        .categoryId(suggestedCategory)
-                        .build();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Map<String, Future<ParsedProduct>> futures = new LinkedHashMap<>();
+            for (String ingredient : ingredients) {
+                futures.put(ingredient, executor.submit(() -> parseProduct(ingredient)));
+            }
 
-                if (suggestedCategory != null) {
-                    categorizationService.updateCategorization(product);
+            for (Map.Entry<String, Future<ParsedProduct>> entry : futures.entrySet()) {
+                try {
+                    result.put(entry.getKey(), entry.getValue().get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    result.put(entry.getKey(), createFallbackProduct(entry.getKey()));
+                } catch (ExecutionException e) {
+                    log.error("Error parsing product: {}", entry.getKey(), e.getCause());
+                    result.put(entry.getKey(), createFallbackProduct(entry.getKey()));
                 }
-                return product;
-            } else {
-
-                return ParsedProduct.builder()
-                        .name(ingredient)
-                        .quantity(1.0)
-                        .unit("szt")
-                        .original(ingredient)
-                        .hasCustomUnit(false)
-                        .categoryId(null)
-                        .build();
             }
-        } catch (Exception e) {
-            log.error("Error parsing product: {}", ingredient, e);
-            return ParsedProduct.builder()
-                    .name(ingredient)
-                    .quantity(1.0)
-                    .unit("szt")
-                    .original(ingredient)
-                    .hasCustomUnit(false)
-                    .categoryId(null)
-                    .build();
         }
+
+        return result;
+    }
+
+    private ParsedProduct createFallbackProduct(String ingredient) {
+        return ParsedProduct.builder()
+                .name(ingredient)
+                .quantity(1.0)
+                .unit("szt")
+                .original(ingredient)
+                .hasCustomUnit(false)
+                .categoryId(null)
+                .build();
+    }
+
+    private ParsedProduct copyOf(ParsedProduct product) {
+        return product.toBuilder().build();
     }
 
     private NutritionalValues parseNutritionalValues(String value) {
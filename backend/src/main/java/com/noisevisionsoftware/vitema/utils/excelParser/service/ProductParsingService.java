@@ -35,12 +35,18 @@ public class ProductParsingService {
             Pattern.compile("^(.+?)\\s+(\\d+)\\s*([^\\d\\s]+)$", Pattern.CASE_INSENSITIVE)  // "marchew 600 g"
     );
 
+    // Najczęstsze formaty "600 g marchwi" oraz "marchew 600 g" sprawdzane przed ogólnymi wzorcami
+    private static final Pattern DIRECT_QUANTITY_FIRST_PATTERN =
+            Pattern.compile("^(\\d+)\\s*([a-ząćęłńóśźż]+)\\s+(.+)$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern DIRECT_NAME_FIRST_PATTERN =
+            Pattern.compile("^(.+?)\\s+(\\d+)\\s*([a-ząćęłńóśźż]+)$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern NUMBER_PATTERN = Pattern.compile("(\\d+(?:[.,]\\d+)?)");
+
     public ParsingResult parseProduct(String input) {
         try {
             String cleanInput = cleanInputString(input);
 
-            Pattern directPattern1 = Pattern.compile("^(\\d+)\\s*([a-ząćęłńóśźż]+)\\s+(.+)$", Pattern.CASE_INSENSITIVE);
-            Matcher directMatcher1 = directPattern1.matcher(cleanInput);
+            Matcher directMatcher1 = DIRECT_QUANTITY_FIRST_PATTERN.matcher(cleanInput);
             if (directMatcher1.matches()) {
                 double quantity = Double.parseDouble(directMatcher1.group(1));
                 String unit = directMatcher1.group(2).toLowerCase();
@@ -55,8 +61,7 @@ public class ProductParsingService {
                 ));
             }
 
-            Pattern directPattern2 = Pattern.compile("^(.+?)\\s+(\\d+)\\s*([a-ząćęłńóśźż]+)$", Pattern.CASE_INSENSITIVE);
-            Matcher directMatcher2 = directPattern2.matcher(cleanInput);
+            Matcher directMatcher2 = DIRECT_NAME_FIRST_PATTERN.matcher(cleanInput);
             if (directMatcher2.matches()) {
                 String name = directMatcher2.group(1);
                 double quantity = Double.parseDouble(directMatcher2.group(2));
@@ -74,9 +79,7 @@ public class ProductParsingService {
             QuantityInfo quantityInfo = extractQuantityAndUnit(cleanInput);
 
             if (!quantityInfo.isSuccess() || quantityInfo.getQuantity() == null || quantityInfo.getRemainingText() == null) {
-
-                Pattern numberPattern = Pattern.compile("(\\d+(?:[.,]\\d+)?)");
-                Matcher numberMatcher = numberPattern.matcher(cleanInput);
+                Matcher numberMatcher = NUMBER_PATTERN.matcher(cleanInput);
                 if (numberMatcher.find()) {
                     double quantity = Double.parseDouble(numberMatcher.group(1).replace(',', '.'));
                     return new ParsingResult(new ParsedProduct(
@@ -144,11 +147,38 @@ public class ProductParsingService {
         }
     }
 
+    /**
+     * Usuwa znak wypunktowania z początku i normalizuje spacje w jednym przebiegu
+     * (odpowiednik trim + replaceAll("^[•-]\\s*", "") + replaceAll("\\s+", " ")).
+     */
     private String cleanInputString(String input) {
-        return input
-                .trim()
-                .replaceAll("^[•\\-]\\s*", "")  // Usuń znaki wypunktowania
-                .replaceAll("\\s+", " ");       // Normalizuj spacje
+        String trimmed = input.trim();
+        int start = 0;
+
+        // Usuń znaki wypunktowania
+        if (!trimmed.isEmpty() && (trimmed.charAt(0) == '•' || trimmed.charAt(0) == '-')) {
+            start = 1;
+            while (start < trimmed.length() && isRegexWhitespace(trimmed.charAt(start))) {
+                start++;
+            }
+        }
+
+        // Normalizuj spacje
+        StringBuilder buffer = new StringBuilder(trimmed.length() - start);
+        boolean inWhitespace = false;
+        for (int i = start; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (isRegexWhitespace(c)) {
+                if (!inWhitespace) {
+                    buffer.append(' ');
+                    inWhitespace = true;
+                }
+            } else {
+                buffer.append(c);
+                inWhitespace = false;
+            }
+        }
+        return buffer.toString();
     }
 
     protected QuantityInfo extractQuantityAndUnit(String input) {
@@ -209,7 +239,7 @@ public class ProductParsingService {
             if (unitInfo.isMatch()) {
                 unit = unitInfo.getUnit();
                 // Usuwanie jednostki z nazwy produktu
-                name = remainingText.replaceAll("(?i)\\b" + Pattern.quote(unit) + "\\b", "").trim();
+                name = removeWholeWord(remainingText, unit).trim();
             }
         }
 
@@ -221,12 +251,105 @@ public class ProductParsingService {
         return new UnitProcessingResult(unit, name, true);
     }
 
+    /**
+     * Usuwa niepuste nawiasy wraz z poprzedzającymi spacjami, normalizuje spacje
+     * i zamienia na małe litery-w jednym przebiegu po tekście.
+     */
     private String cleanProductName(String name) {
-        return name
-                .replaceAll("\\s*\\([^)]+\\)", "")  // Usuń nawiasy z zawartością
-                .replaceAll("\\s+", " ")           // Normalizuj spacje
-                .trim()
-                .toLowerCase();                    // Konwertuj na małe litery dla spójności
+        StringBuilder buffer = new StringBuilder(name.length());
+        boolean pendingSpace = false;
+        int length = name.length();
+
+        for (int i = 0; i < length; i++) {
+            char c = name.charAt(i);
+
+            // Usuń nawiasy z zawartością (razem ze spacjami przed nimi)
+            if (c == '(') {
+                int closing = name.indexOf(')', i + 1);
+                if (closing > i + 1) {
+                    pendingSpace = false;
+                    i = closing;
+                    continue;
+                }
+            }
+
+            // Normalizuj spacje
+            if (isRegexWhitespace(c)) {
+                pendingSpace = true;
+                continue;
+            }
+
+            if (pendingSpace && !buffer.isEmpty()) {
+                buffer.append(' ');
+            }
+            pendingSpace = false;
+            buffer.append(c);
+        }
+
+        // Konwertuj na małe litery dla spójności
+        return buffer.toString().toLowerCase();
+    }
+
+    /**
+     * Usuwa wszystkie wystąpienia słowa otoczonego granicami słowa, bez budowania wyrażenia
+     * regularnego dla każdego składnika. Semantyka jak dla "(?i)\\b" + Pattern.quote(word) + "\\b".
+     */
+    private String removeWholeWord(String text, String word) {
+        int wordLength = word.length();
+        if (wordLength == 0 || text.length() < wordLength) {
+            return text;
+        }
+
+        StringBuilder buffer = null;
+        int copiedUpTo = 0;
+        int i = 0;
+        while (i <= text.length() - wordLength) {
+            if (regionMatchesAsciiIgnoreCase(text, i, word)
+                    && isWordBoundary(text, i)
+                    && isWordBoundary(text, i + wordLength)) {
+                if (buffer == null) {
+                    buffer = new StringBuilder(text.length());
+                }
+                buffer.append(text, copiedUpTo, i);
+                i += wordLength;
+                copiedUpTo = i;
+            } else {
+                i++;
+            }
+        }
+
+        if (buffer == null) {
+            return text;
+        }
+        buffer.append(text, copiedUpTo, text.length());
+        return buffer.toString();
+    }
+
+    private boolean regionMatchesAsciiIgnoreCase(String text, int offset, String word) {
+        for (int j = 0; j < word.length(); j++) {
+            char a = text.charAt(offset + j);
+            char b = word.charAt(j);
+            if (a != b && (a >= 128 || b >= 128 || Character.toLowerCase(a) != Character.toLowerCase(b))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Granica słowa w sensie \b (bez UNICODE_CHARACTER_CLASS): zmiana między [a-zA-Z0-9_] a resztą
+    private boolean isWordBoundary(String text, int index) {
+        boolean before = index > 0 && isAsciiWordChar(text.charAt(index - 1));
+        boolean after = index < text.length() && isAsciiWordChar(text.charAt(index));
+        return before != after;
+    }
+
+    private static boolean isAsciiWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    // Odpowiednik klasy \s: [ \t\n\x0B\f\r]
+    private static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
     }
 
     private boolean isNumeric(String str) {
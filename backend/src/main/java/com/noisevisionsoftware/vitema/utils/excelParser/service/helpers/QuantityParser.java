@@ -21,6 +21,10 @@ public class QuantityParser {
             "pięć", 5.0
     );
 
+    private static final Pattern RANGE_PATTERN = Pattern.compile("^(\\d+(?:[.,]\\d+)?)\\s*-\\s*(\\d+(?:[.,]\\d+)?)$");
+    private static final Pattern FRACTION_PATTERN = Pattern.compile("^(\\d+)/(\\d+)$");
+    private static final Pattern MIXED_NUMBER_PATTERN = Pattern.compile("^(\\d+)\\s+(\\d+)/(\\d+)$");
+
     public Double parseQuantity(String input) {
         if (input == null || input.trim().isEmpty()) {
             return null;
@@ -35,7 +39,7 @@ public class QuantityParser {
         }
 
         // Obsługa zakresów (np. "2-3")
-        Matcher rangeMatcher = Pattern.compile("^(\\d+(?:[.,]\\d+)?)\\s*-\\s*(\\d+(?:[.,]\\d+)?)$").matcher(cleanInput);
+        Matcher rangeMatcher = RANGE_PATTERN.matcher(cleanInput);
         if (rangeMatcher.matches()) {
             try {
                 double min = Double.parseDouble(rangeMatcher.group(1).replace(',', '.'));
@@ -47,7 +51,7 @@ public class QuantityParser {
         }
 
         // Obsługa ułamków (np. "1/2")
-        Matcher fractionMatcher = Pattern.compile("^(\\d+)/(\\d+)$").matcher(cleanInput);
+        Matcher fractionMatcher = FRACTION_PATTERN.matcher(cleanInput);
         if (fractionMatcher.matches()) {
             try {
                 int numerator = Integer.parseInt(fractionMatcher.group(1));
@@ -62,7 +66,7 @@ public class QuantityParser {
         }
 
         // Obsługa liczb mieszanych (np. "1 1/2")
-        Matcher mixedMatcher = Pattern.compile("^(\\d+)\\s+(\\d+)/(\\d+)$").matcher(cleanInput);
+        Matcher mixedMatcher = MIXED_NUMBER_PATTERN.matcher(cleanInput);
         if (mixedMatcher.matches()) {
             try {
                 int wholeNumber = Integer.parseInt(mixedMatcher.group(1));
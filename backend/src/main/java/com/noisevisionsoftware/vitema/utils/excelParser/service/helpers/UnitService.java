@@ -2,11 +2,10 @@ package com.noisevisionsoftware.vitema.utils.excelParser.service.helpers;
 
 import com.noisevisionsoftware.vitema.utils.excelParser.model.unit.ProductUnit;
 import com.noisevisionsoftware.vitema.utils.excelParser.model.unit.UnitDetectionResult;
+import com.noisevisionsoftware.vitema.utils.excelParser.model.unit.UnitSpan;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 @Service
 public class UnitService {
@@ -32,25 +31,6 @@ public class UnitService {
             new ProductUnit("garść", "garść", "kitchen", "g", 30.0)
     );
 
-    private static final List<Map<String, Object>> UNIT_PATTERNS = Arrays.asList(
-            Map.of(
-                    "pattern", Pattern.compile("\\b(\\d+(?:[.,]\\d+)?)\\s*(kg|g|dag|dkg)\\b", Pattern.CASE_INSENSITIVE),
-                    "type", "weight"
-            ),
-            Map.of(
-                    "pattern", Pattern.compile("\\b(\\d+(?:[.,]\\d+)?)\\s*(ml|l|litr(?:y|ów)?)\\b", Pattern.CASE_INSENSITIVE),
-                    "type", "volume"
-            ),
-            Map.of(
-                    "pattern", Pattern.compile("\\b(\\d+(?:[.,]\\d+)?)\\s*(szt|sztuk[ia]?|opak(?:owanie)?)\\b", Pattern.CASE_INSENSITIVE),
-                    "type", "piece"
-            ),
-            Map.of(
-                    "pattern", Pattern.compile("\\b(\\d+(?:[.,]\\d+)?)\\s*(łyżk[ai]|łyżeczk[ai]|szklank[ai]|garść|garści)\\b", Pattern.CASE_INSENSITIVE),
-                    "type", "kitchen"
-            )
-    );
-
     private static final Map<String, String> UNIT_ALIASES = new HashMap<>() {{
         // Waga
         put("gram", "g");
@@ -61,47 +41,67 @@ public class UnitService {
         put("dekagramów", "dag");
         put("deko", "dag");
         put("dkg", "dag");
+        put("gramy", "g");
+        put("grama", "g");
+        put("kilogramy", "kg");
+        put("kilograma", "kg");
+        put("dekagramy", "dag");
 
         // Objętość
         put("mililitr", "ml");
         put("mililitrów", "ml");
         put("litr", "l");
         put("litrów", "l");
+        put("litry", "l");
+        put("litra", "l");
+        put("mililitry", "ml");
 
         // Opakowania
         put("sztuka", "szt");
         put("sztuk", "szt");
+        put("sztuki", "szt");
         put("opakowanie", "opak");
         put("opakowań", "opak");
         put("opakowania", "opak");
-        put("op.", "opak");
+        put("op", "opak");
 
         // Miary kuchenne
         put("łyżka", "łyżka");
         put("łyżek", "łyżka");
         put("łyżki", "łyżka");
+        put("łyżkę", "łyżka");
         put("łyżeczka", "łyżeczka");
         put("łyżeczek", "łyżeczka");
         put("łyżeczki", "łyżeczka");
+        put("łyżeczkę", "łyżeczka");
         put("szklanka", "szklanka");
         put("szklanek", "szklanka");
         put("szklanki", "szklanka");
+        put("szklankę", "szklanka");
         put("garść", "garść");
         put("garści", "garść");
-
-        put("g.", "g");
-        put("kg.", "kg");
-        put("dag.", "dag");
-        put("ml.", "ml");
-        put("l.", "l");
-        put("szt.", "szt");
-        put("opak.", "opak");
+        put("garście", "garść");
     }};
 
+    private static final Map<String, ProductUnit> UNITS_BY_VALUE = new HashMap<>();
+
+    // Jednoliterowe formy ("g", "l") bez liczby przed nimi uznajemy za jednostkę tylko z kropką
+    private static final int MIN_STANDALONE_FORM_LENGTH = 2;
+
+    private static final UnitTrie UNIT_TRIE;
+
+    static {
+        Map<String, String> forms = new HashMap<>();
+        for (ProductUnit unit : UNITS) {
+            UNITS_BY_VALUE.put(unit.getValue(), unit);
+            forms.put(unit.getValue(), unit.getValue());
+        }
+        forms.putAll(UNIT_ALIASES);
+        UNIT_TRIE = UnitTrie.compile(forms);
+    }
+
     public Optional<ProductUnit> getUnit(String value) {
-        return UNITS.stream()
-                .filter(unit -> unit.getValue().equals(value))
-                .findFirst();
+        return Optional.ofNullable(UNITS_BY_VALUE.get(value));
     }
 
     public Double convertToBaseUnit(double value, String fromUnit) {
@@ -112,7 +112,7 @@ public class UnitService {
     }
 
     public boolean isValidUnit(String unit) {
-        return UNITS.stream().anyMatch(u -> u.getValue().equals(unit));
+        return UNITS_BY_VALUE.containsKey(unit);
     }
 
     public record NormalizedValue(double value, String unit) {
@@ -132,48 +132,98 @@ public class UnitService {
             return new UnitDetectionResult("szt", "piece", false);
         }
 
-        String cleanText = text.toLowerCase().replaceAll("\\b\\.+", "");
+        // Cały tekst jest jednostką (np. "łyżki", "g.")
+        String exactUnit = UNIT_TRIE.matchWhole(stripTrailingDots(text.trim()));
+        if (exactUnit != null) {
+            return toDetectionResult(exactUnit);
+        }
 
-        if (UNIT_ALIASES.containsKey(cleanText)) {
-            String normalizedUnit = UNIT_ALIASES.get(cleanText);
-            Optional<ProductUnit> unit = getUnit(normalizedUnit);
-            if (unit.isPresent()) {
-                return new UnitDetectionResult(normalizedUnit, unit.get().getType(), true);
+        // Jeden przebieg po tekście: najpierw liczba z jednostką ("2 łyżki"), potem sama jednostka
+        List<UnitSpan> spans = findUnitSpans(text);
+        for (UnitSpan span : spans) {
+            if (span.hasQuantity()) {
+                return new UnitDetectionResult(span.getUnit(), span.getType(), true);
+            }
+        }
+        for (UnitSpan span : spans) {
+            if (span.getEnd() - span.getStart() >= MIN_STANDALONE_FORM_LENGTH || text.charAt(span.getEnd() - 1) == '.') {
+                return new UnitDetectionResult(span.getUnit(), span.getType(), true);
             }
         }
 
-        // Jeśli nie znajdziemy dokładnego dopasowania, szukamy jednostki w tekście
-        for (Map<String, Object> patternInfo : UNIT_PATTERNS) {
-            Pattern pattern = (Pattern) patternInfo.get("pattern");
-            Matcher matcher = pattern.matcher(text);
-            if (matcher.find()) {
-                String detectedUnit = matcher.group(2).toLowerCase();
-                String normalizedUnit = normalizeUnitAlias(detectedUnit);
-
-                Optional<ProductUnit> validUnit = getUnit(normalizedUnit);
-                if (validUnit.isPresent()) {
-                    return new UnitDetectionResult(
-                            normalizedUnit,
-                            validUnit.get().getType(),
-                            true
-                    );
+        return new UnitDetectionResult("szt", "piece", false);
+    }
+
+    /**
+     * Wyszukuje w jednym liniowym przebiegu wszystkie wystąpienia jednostek (wraz z poprzedzającą liczbą,
+     * jeśli występuje, np. "1 1/2 szklanki", "100g", "0,5 l"). Zwraca je w kolejności występowania
+     * razem ze współczynnikami konwersji do jednostek bazowych.
+     */
+    public List<UnitSpan> findUnitSpans(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+
+        List<UnitSpan> spans = new ArrayList<>();
+        int length = text.length();
+        int numberStart = -1;
+        double numberValue = 0;
+        int i = 0;
+
+        while (i < length) {
+            char c = text.charAt(i);
+
+            if (Character.isDigit(c) && (i == 0 || !Character.isLetter(text.charAt(i - 1)))) {
+                int end = scanNumberEnd(text, i);
+                double value = parseNumber(text, i, end);
+                // Liczba mieszana "1 1/2"-ułamek dodawany do poprzedzającej liczby
+                if (numberStart >= 0 && text.lastIndexOf('/', end - 1) > i) {
+                    numberValue += value;
+                } else {
+                    numberStart = i;
+                    numberValue = value;
                 }
+                i = end;
+                continue;
             }
-        }
 
-        for (String alias : UNIT_ALIASES.keySet()) {
-            if (cleanText.contains(alias)) {
-                String normalizedUnit = UNIT_ALIASES.get(alias);
-                Optional<ProductUnit> unit = getUnit(normalizedUnit);
-                if (unit.isPresent()) {
-                    return new UnitDetectionResult(normalizedUnit, unit.get().getType(), true);
+            if (Character.isLetter(c) && (i == 0 || !Character.isLetter(text.charAt(i - 1)))) {
+                int matchEnd = UNIT_TRIE.longestMatchEnd(text, i);
+                if (matchEnd > 0) {
+                    ProductUnit unit = UNITS_BY_VALUE.get(UNIT_TRIE.unitAt(text, i, matchEnd));
+                    int spanEnd = matchEnd;
+                    while (spanEnd < length && text.charAt(spanEnd) == '.') {
+                        spanEnd++;
+                    }
+                    boolean withNumber = numberStart >= 0;
+                    spans.add(new UnitSpan(
+                            withNumber ? numberStart : i,
+                            spanEnd,
+                            withNumber ? numberValue : null,
+                            unit.getValue(),
+                            unit.getType(),
+                            unit.getBaseUnit(),
+                            unit.getConversionFactor()
+                    ));
+                    i = spanEnd;
+                } else {
+                    while (i < length && Character.isLetter(text.charAt(i))) {
+                        i++;
+                    }
                 }
+                numberStart = -1;
+                continue;
+            }
+
+            // Między liczbą a jednostką dopuszczalne są tylko białe znaki
+            if (!Character.isWhitespace(c)) {
+                numberStart = -1;
             }
+            i++;
         }
 
-        return new UnitDetectionResult("szt", "piece", false);
+        return spans;
     }
-
     public String normalizeUnitAlias(String unit) {
         if (unit == null) return "";
 
@@ -206,4 +256,43 @@ public class UnitService {
 
         return baseUnit1.equals(baseUnit2);
     }
+
+    private UnitDetectionResult toDetectionResult(String normalizedUnit) {
+        ProductUnit unit = UNITS_BY_VALUE.get(normalizedUnit);
+        return new UnitDetectionResult(normalizedUnit, unit.getType(), true);
+    }
+
+    // Liczba całkowita, dziesiętna ("0,5") lub ułamek ("1/2")
+    private static int scanNumberEnd(String text, int start) {
+        int i = start;
+        while (i < text.length() && Character.isDigit(text.charAt(i))) {
+            i++;
+        }
+        if (i + 1 < text.length() && (text.charAt(i) == '.' || text.charAt(i) == ',' || text.charAt(i) == '/')
+                && Character.isDigit(text.charAt(i + 1))) {
+            i++;
+            while (i < text.length() && Character.isDigit(text.charAt(i))) {
+                i++;
+            }
+        }
+        return i;
+    }
+
+    private static double parseNumber(String text, int start, int end) {
+        String number = text.substring(start, end);
+        int slash = number.indexOf('/');
+        if (slash > 0) {
+            double denominator = Double.parseDouble(number.substring(slash + 1));
+            return denominator == 0 ? 0 : Double.parseDouble(number.substring(0, slash)) / denominator;
+        }
+        return Double.parseDouble(number.replace(',', '.'));
+    }
+
+    private static String stripTrailingDots(String text) {
+        int end = text.length();
+        while (end > 0 && text.charAt(end - 1) == '.') {
+            end--;
+        }
+        return text.substring(0, end);
+    }
 }
@@ -0,0 +1,112 @@
+package com.noisevisionsoftware.vitema.utils.excelParser.service.helpers;
+
+import java.util.*;
+
+/**
+ * Skompilowane drzewo prefiksowe wszystkich form jednostek (np. łyżka/łyżki/łyżek/łyżkę).
+ * Węzły przechowywane są w tablicach, więc wyszukiwanie nie alokuje pamięci.
+ */
+final class UnitTrie {
+
+    private static final int ROOT = 0;
+
+    // Dla każdego węzła: posortowane znaki krawędzi i indeksy dzieci
+    private final char[][] edgeChars;
+    private final int[][] edgeTargets;
+    // Znormalizowana jednostka dla węzłów kończących formę, w przeciwnym razie null
+    private final String[] terminalUnits;
+
+    private UnitTrie(char[][] edgeChars, int[][] edgeTargets, String[] terminalUnits) {
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.terminalUnits = terminalUnits;
+    }
+
+    static UnitTrie compile(Map<String, String> formsToUnits) {
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<String> terminals = new ArrayList<>();
+        children.add(new TreeMap<>());
+        terminals.add(null);
+
+        for (Map.Entry<String, String> entry : formsToUnits.entrySet()) {
+            String form = entry.getKey().toLowerCase();
+            int node = ROOT;
+            for (int i = 0; i < form.length(); i++) {
+                char c = form.charAt(i);
+                Integer next = children.get(node).get(c);
+                if (next == null) {
+                    next = children.size();
+                    children.add(new TreeMap<>());
+                    terminals.add(null);
+                    children.get(node).put(c, next);
+                }
+                node = next;
+            }
+            terminals.set(node, entry.getValue());
+        }
+
+        int size = children.size();
+        char[][] edgeChars = new char[size][];
+        int[][] edgeTargets = new int[size][];
+        for (int node = 0; node < size; node++) {
+            TreeMap<Character, Integer> edges = children.get(node);
+            edgeChars[node] = new char[edges.size()];
+            edgeTargets[node] = new int[edges.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                edgeChars[node][i] = edge.getKey();
+                edgeTargets[node][i] = edge.getValue();
+                i++;
+            }
+        }
+
+        return new UnitTrie(edgeChars, edgeTargets, terminals.toArray(new String[0]));
+    }
+
+    /**
+     * Zwraca jednostkę, jeśli cały tekst jest jedną z form, w przeciwnym razie null
+     */
+    String matchWhole(String text) {
+        int node = ROOT;
+        for (int i = 0; i < text.length() && node >= 0; i++) {
+            node = step(node, Character.toLowerCase(text.charAt(i)));
+        }
+        return node >= 0 ? terminalUnits[node] : null;
+    }
+
+    /**
+     * Najdłuższe dopasowanie formy zaczynające się od {@code start}, po którym następuje granica słowa.
+     * Zwraca indeks końca dopasowania (wyłącznie) lub -1.
+     */
+    int longestMatchEnd(String text, int start) {
+        int node = ROOT;
+        int bestEnd = -1;
+        for (int i = start; i < text.length(); i++) {
+            node = step(node, Character.toLowerCase(text.charAt(i)));
+            if (node < 0) {
+                break;
+            }
+            if (terminalUnits[node] != null && isWordEnd(text, i + 1)) {
+                bestEnd = i + 1;
+            }
+        }
+        return bestEnd;
+    }
+
+    String unitAt(String text, int start, int end) {
+        int node = ROOT;
+        for (int i = start; i < end && node >= 0; i++) {
+            node = step(node, Character.toLowerCase(text.charAt(i)));
+        }
+        return node >= 0 ? terminalUnits[node] : null;
+    }
+
+    private int step(int node, char c) {
+        int index = Arrays.binarySearch(edgeChars[node], c);
+        return index >= 0 ? edgeTargets[node][index] : -1;
+    }
+
+    private static boolean isWordEnd(String text, int index) {
+        return index >= text.length() || !Character.isLetterOrDigit(text.charAt(index));
+    }
+}
@@ -0,0 +1,5 @@
+-- Trigram index for substring product search (ingredient picker: lower(name) LIKE '%q%').
+-- The btree idx_products_name cannot serve a leading wildcard, so every search was a seq scan.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm ON products USING gin (lower(name) gin_trgm_ops);
@@ -0,0 +1,31 @@
+-- Wyszukiwanie pełnotekstowe przepisów i szablonów posiłków (nazwa ważniejsza niż instrukcje).
+-- PostgreSQL nie ma stemmera dla polskiego, więc konfiguracja vitema_pl usuwa znaki diakrytyczne
+-- (unaccent) i zostawia słowa w pełnej formie ('simple'); odmianę obsługuje dopasowanie
+-- prefiksowe w zapytaniu (owsiank:* znajdzie owsianka i owsianki).
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_ts_config WHERE cfgname = 'vitema_pl') THEN
+        CREATE TEXT SEARCH CONFIGURATION vitema_pl (COPY = simple);
+        ALTER TEXT SEARCH CONFIGURATION vitema_pl
+            ALTER MAPPING FOR hword, hword_part, word WITH unaccent, simple;
+    END IF;
+END
+$$;
+
+ALTER TABLE recipes ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('vitema_pl'::regconfig, coalesce(name, '')), 'A') ||
+    setweight(to_tsvector('vitema_pl'::regconfig, coalesce(instructions, '')), 'B')
+) STORED;
+
+ALTER TABLE meal_templates ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('vitema_pl'::regconfig, coalesce(name, '')), 'A') ||
+    setweight(to_tsvector('vitema_pl'::regconfig, coalesce(instructions, '')), 'B')
+) STORED;
+
+CREATE INDEX idx_recipes_search_vector ON recipes USING gin (search_vector);
+CREATE INDEX idx_meal_templates_search_vector ON meal_templates USING gin (search_vector);
+
+-- Podpowiedzi przepisów po fragmencie nazwy (lower(name) LIKE '%q%') - jak dla produktów w V15
+CREATE INDEX IF NOT EXISTS idx_recipes_name_trgm ON recipes USING gin (lower(name) gin_trgm_ops);
@@ -0,0 +1,3 @@
+-- Lista przepisów od najnowszych stronicowana po kluczu (created_at, id) zamiast OFFSET:
+-- kolejna strona to skan indeksu od pozycji z kursora, niezależnie od głębokości przewijania.
+CREATE INDEX IF NOT EXISTS idx_recipes_created_at_id ON recipes (created_at DESC, id DESC);
@@ -0,0 +1,17 @@
+-- Liczniki użyć produktów w zapisanych dietach i przepisach, wykorzystywane przy szeregowaniu
+-- wyników wyszukiwania. Aplikacja dolicza użycia w pamięci i zapisuje je tu zbiorczo.
+CREATE TABLE product_usage (
+    product_id BIGINT PRIMARY KEY,
+    usage_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_product_usage_product
+        FOREIGN KEY (product_id) REFERENCES products(id) ON DELETE CASCADE
+);
+
+-- Stan początkowy: liczba przepisów, w których występuje produkt
+INSERT INTO product_usage (product_id, usage_count)
+SELECT ri.product_id, count(DISTINCT ri.recipe_id)
+FROM recipe_ingredients ri
+JOIN products p ON p.id = ri.product_id
+GROUP BY ri.product_id;
@@ -0,0 +1,37 @@
+-- Liczba użyć przepisu w dietach (wierszy recipe_references), używana przy szeregowaniu wyników
+-- wyszukiwania przepisów zamiast liczenia referencji dla każdego dopasowanego wiersza.
+-- Osobna tabela, a nie kolumna w recipes: zmiana licznika nie przelicza search_vector przepisu.
+CREATE TABLE recipe_usage (
+    recipe_id VARCHAR(255) PRIMARY KEY,
+    reference_count BIGINT NOT NULL DEFAULT 0,
+
+    CONSTRAINT fk_recipe_usage_recipe
+        FOREIGN KEY (recipe_id) REFERENCES recipes(external_id) ON DELETE CASCADE
+);
+
+-- Licznik jest utrzymywany przez trigger, więc zgadza się z recipe_references niezależnie od tego,
+-- która ścieżka aplikacji dodaje lub usuwa referencje
+CREATE OR REPLACE FUNCTION update_recipe_usage()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('DELETE', 'UPDATE') THEN
+        UPDATE recipe_usage SET reference_count = reference_count - 1 WHERE recipe_id = OLD.recipe_id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO recipe_usage (recipe_id, reference_count) VALUES (NEW.recipe_id, 1)
+        ON CONFLICT (recipe_id) DO UPDATE SET reference_count = recipe_usage.reference_count + 1;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trigger_recipe_usage
+    AFTER INSERT OR DELETE OR UPDATE OF recipe_id ON recipe_references
+    FOR EACH ROW
+    EXECUTE FUNCTION update_recipe_usage();
+
+-- Stan początkowy
+INSERT INTO recipe_usage (recipe_id, reference_count)
+SELECT rr.recipe_id, count(*)
+FROM recipe_references rr
+GROUP BY rr.recipe_id;
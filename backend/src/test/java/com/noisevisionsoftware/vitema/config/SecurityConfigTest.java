@@ -145,7 +145,8 @@ class SecurityConfigTest {
         // then
         assertNotNull(corsConfiguration);
         List<String> exposedHeaders = corsConfiguration.getExposedHeaders();
-        List<String> expectedExposedHeaders = List.of("Authorization", "X-XSRF-TOKEN");
+        List<String> expectedExposedHeaders = List.of("Authorization", "X-XSRF-TOKEN", "X-Next-Cursor",
+                "X-Skipped-Sources");
 
         assertThat(exposedHeaders).containsExactlyInAnyOrderElementsOf(expectedExposedHeaders);
     }
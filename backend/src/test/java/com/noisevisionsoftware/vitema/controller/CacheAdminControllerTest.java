@@ -1,6 +1,7 @@
 package com.noisevisionsoftware.vitema.controller;
 
 import com.noisevisionsoftware.vitema.service.CacheMonitoringService;
+import com.noisevisionsoftware.vitema.service.category.ProductCategorizationService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -22,6 +23,9 @@ class CacheAdminControllerTest {
     @Mock
     private CacheMonitoringService cacheMonitoringService;
 
+    @Mock
+    private ProductCategorizationService productCategorizationService;
+
     @InjectMocks
     private CacheAdminController cacheAdminController;
 
@@ -46,6 +50,22 @@ class CacheAdminControllerTest {
         verify(cacheMonitoringService, times(1)).getCacheStatistics();
     }
 
+    @Test
+    void getCategorizationWriteBehindStats_ShouldReturnServiceStats() {
+        // Arrange
+        ProductCategorizationService.WriteBehindStats stats =
+                new ProductCategorizationService.WriteBehindStats(3, 1200L, 40L, 250L, 2L);
+        when(productCategorizationService.getWriteBehindStats()).thenReturn(stats);
+
+        // Act
+        ResponseEntity<ProductCategorizationService.WriteBehindStats> response =
+                cacheAdminController.getCategorizationWriteBehindStats();
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(stats, response.getBody());
+    }
+
     @Test
     void invalidateCache_ShouldInvalidateSpecifiedCache() {
         // Arrange
@@ -79,9 +99,10 @@ class CacheAdminControllerTest {
         verify(cacheMonitoringService, times(1)).invalidateCache("recipesCache");
         verify(cacheMonitoringService, times(1)).invalidateCache("recipesBatchCache");
         verify(cacheMonitoringService, times(1)).invalidateCache("recipesPageCache");
+        verify(cacheMonitoringService, times(1)).invalidateCache("recipesCountCache");
         verify(cacheMonitoringService, times(1)).invalidateCache("recipesSearchCache");
 
-        // Verify that invalidateCache was called exactly 4 times
-        verify(cacheMonitoringService, times(4)).invalidateCache(anyString());
+        // Verify that invalidateCache was called exactly 5 times
+        verify(cacheMonitoringService, times(5)).invalidateCache(anyString());
     }
 }
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.noisevisionsoftware.vitema.controller;
+
+import com.noisevisionsoftware.vitema.service.category.CategoryDataCleanupService;
+import com.noisevisionsoftware.vitema.service.category.CategoryDataCleanupService.CleanupJobStatus;
+import com.noisevisionsoftware.vitema.service.category.CategoryDataCleanupService.JobState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryCleanupAdminControllerTest {
+
+    @Mock
+    private CategoryDataCleanupService cleanupService;
+
+    @InjectMocks
+    private CategoryCleanupAdminController controller;
+
+    private final CleanupJobStatus runningStatus = new CleanupJobStatus(JobState.RUNNING, true, 0, 0, null, null);
+
+    @Test
+    void startCleanup_ShouldStartJobAndReturnAccepted() {
+        // Arrange
+        when(cleanupService.startCleanupJob(true)).thenReturn(runningStatus);
+
+        // Act
+        ResponseEntity<CleanupJobStatus> response = controller.startCleanup(true);
+
+        // Assert
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(runningStatus, response.getBody());
+        verify(cleanupService, times(1)).startCleanupJob(true);
+    }
+
+    @Test
+    void getCleanupStatus_ShouldReturnNotFound_WhenNoJobWasStarted() {
+        // Arrange
+        when(cleanupService.getCleanupJobStatus()).thenReturn(Optional.empty());
+
+        // Act
+        ResponseEntity<CleanupJobStatus> response = controller.getCleanupStatus();
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void cancelCleanup_ShouldReturnJobStatus() {
+        // Arrange
+        when(cleanupService.cancelCleanupJob()).thenReturn(Optional.of(runningStatus));
+
+        // Act
+        ResponseEntity<CleanupJobStatus> response = controller.cancelCleanup();
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(runningStatus, response.getBody());
+    }
+}
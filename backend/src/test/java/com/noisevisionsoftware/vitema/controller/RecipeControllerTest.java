@@ -5,10 +5,12 @@ import com.noisevisionsoftware.vitema.dto.request.recipe.RecipeUpdateRequest;
 import com.noisevisionsoftware.vitema.dto.response.recipe.RecipeImageResponse;
 import com.noisevisionsoftware.vitema.dto.response.recipe.RecipeResponse;
 import com.noisevisionsoftware.vitema.dto.response.recipe.RecipesPageResponse;
+import com.noisevisionsoftware.vitema.dto.search.SearchPage;
 import com.noisevisionsoftware.vitema.exception.NotFoundException;
 import com.noisevisionsoftware.vitema.mapper.recipe.RecipeMapper;
 import com.noisevisionsoftware.vitema.model.recipe.Recipe;
 import com.noisevisionsoftware.vitema.service.RecipeService;
+import com.noisevisionsoftware.vitema.utils.RecipeCursor;
 import org.apache.coyote.BadRequestException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -20,6 +22,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -75,32 +78,28 @@ class RecipeControllerTest {
     }
 
     @Test
-    void getAllRecipes_ShouldReturnPaginatedRecipes() {
+    void getAllRecipes_WhenNewestFirst_ShouldReturnFirstKeysetPageWithTotal() {
         // given
-        int page = 0;
         int size = 50;
-        String sortBy = "createdAt";
-        String sortDir = "desc";
 
         List<Recipe> recipes = Arrays.asList(
                 createTestRecipe(),
                 createTestRecipe("test-recipe-id-2")
         );
 
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.fromString(sortDir), sortBy));
-        Page<Recipe> recipesPage = new PageImpl<>(recipes, pageable, 2);
-
         List<RecipeResponse> expectedResponses = Arrays.asList(
                 createTestRecipeResponse(),
                 createTestRecipeResponse("test-recipe-id-2")
         );
 
-        when(recipeService.getAllRecipes(any(Pageable.class))).thenReturn(recipesPage);
+        when(recipeService.getRecipesPage(null, size)).thenReturn(new SearchPage<>(recipes, "next"));
+        when(recipeService.countVisibleRecipes()).thenReturn(120L);
         when(recipeMapper.toResponse(recipes.get(0))).thenReturn(expectedResponses.get(0));
         when(recipeMapper.toResponse(recipes.get(1))).thenReturn(expectedResponses.get(1));
 
         // when
-        ResponseEntity<RecipesPageResponse> response = recipeController.getAllRecipes(page, size, sortBy, sortDir);
+        ResponseEntity<RecipesPageResponse> response =
+                recipeController.getAllRecipes(0, size, "createdAt", "desc", null, true);
 
         // then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -108,10 +107,53 @@ class RecipeControllerTest {
         assertThat(response.getBody().getContent())
                 .hasSize(2)
                 .isEqualTo(expectedResponses);
-        assertThat(response.getBody().getPage()).isEqualTo(page);
+        assertThat(response.getBody().getPage()).isEqualTo(0);
         assertThat(response.getBody().getSize()).isEqualTo(size);
-        assertThat(response.getBody().getTotalElements()).isEqualTo(2);
-        assertThat(response.getBody().getTotalPages()).isEqualTo(1);
+        assertThat(response.getBody().getTotalElements()).isEqualTo(120);
+        assertThat(response.getBody().getTotalPages()).isEqualTo(3);
+        assertThat(response.getBody().getNextCursor()).isEqualTo("next");
+        verify(recipeService, never()).getAllRecipes(any(Pageable.class));
+    }
+
+    @Test
+    void getAllRecipes_WhenCursorProvided_ShouldReturnNextPageWithoutCount() {
+        // given
+        String cursor = new RecipeCursor(LocalDateTime.of(2024, 5, 1, 12, 0), 42L).encode();
+        Recipe recipe = createTestRecipe();
+
+        when(recipeService.getRecipesPage(cursor, 30)).thenReturn(new SearchPage<>(List.of(recipe), null));
+        when(recipeMapper.toResponse(recipe)).thenReturn(createTestRecipeResponse());
+
+        // when
+        ResponseEntity<RecipesPageResponse> response =
+                recipeController.getAllRecipes(0, 30, "createdAt", "desc", cursor, false);
+
+        // then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getContent()).hasSize(1);
+        assertThat(response.getBody().getPage()).isNull();
+        assertThat(response.getBody().getTotalElements()).isNull();
+        assertThat(response.getBody().getTotalPages()).isNull();
+        assertThat(response.getBody().getNextCursor()).isNull();
+        verify(recipeService, never()).countVisibleRecipes();
+    }
+
+    @Test
+    void getAllRecipes_WhenCursorOrSizeInvalid_ShouldReturnBadRequest() {
+        // when
+        ResponseEntity<RecipesPageResponse> invalidCursor =
+                recipeController.getAllRecipes(0, 30, "createdAt", "desc", "not-a-cursor", true);
+        ResponseEntity<RecipesPageResponse> invalidSize =
+                recipeController.getAllRecipes(0, 0, "createdAt", "desc", null, true);
+        ResponseEntity<RecipesPageResponse> tooLargeSize =
+                recipeController.getAllRecipes(0, Integer.MAX_VALUE, "createdAt", "desc", null, true);
+
+        // then
+        assertThat(invalidCursor.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(invalidSize.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(tooLargeSize.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(recipeService);
     }
 
     @Test
@@ -131,7 +173,7 @@ class RecipeControllerTest {
         when(recipeMapper.toResponse(any(Recipe.class))).thenReturn(createTestRecipeResponse());
 
         // when
-        ResponseEntity<RecipesPageResponse> response = recipeController.getAllRecipes(page, size, sortBy, sortDir);
+        ResponseEntity<RecipesPageResponse> response = recipeController.getAllRecipes(page, size, sortBy, sortDir, null, true);
 
         // then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -140,6 +182,7 @@ class RecipeControllerTest {
         assertThat(response.getBody().getSize()).isEqualTo(size);
         assertThat(response.getBody().getTotalElements()).isEqualTo(11);
         assertThat(response.getBody().getTotalPages()).isEqualTo(2);
+        assertThat(response.getBody().getNextCursor()).isNull();
     }
 
     @Test
@@ -358,12 +401,12 @@ class RecipeControllerTest {
                 createTestRecipeResponse("test-recipe-id-2")
         );
 
-        when(recipeService.searchRecipes(query)).thenReturn(searchResults);
+        when(recipeService.searchRecipes(query, 2, null)).thenReturn(new SearchPage<>(searchResults, "next"));
         when(recipeMapper.toResponse(searchResults.get(0))).thenReturn(expectedResponses.get(0));
         when(recipeMapper.toResponse(searchResults.get(1))).thenReturn(expectedResponses.get(1));
 
         // when
-        ResponseEntity<List<RecipeResponse>> response = recipeController.searchRecipes(query);
+        ResponseEntity<List<RecipeResponse>> response = recipeController.searchRecipes(query, 2, null);
 
         // then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -371,24 +414,38 @@ class RecipeControllerTest {
                 .isNotNull()
                 .hasSize(2)
                 .isEqualTo(expectedResponses);
-        verify(recipeService).searchRecipes(query);
+        assertThat(response.getHeaders().getFirst(SearchPage.NEXT_CURSOR_HEADER)).isEqualTo("next");
+        verify(recipeService).searchRecipes(query, 2, null);
     }
 
     @Test
     void searchRecipes_WhenNoResults_ShouldReturnEmptyList() {
         // given
         String query = "nonexistent";
-        when(recipeService.searchRecipes(query)).thenReturn(new ArrayList<>());
+        when(recipeService.searchRecipes(query, 20, null)).thenReturn(new SearchPage<>(new ArrayList<>(), null));
 
         // when
-        ResponseEntity<List<RecipeResponse>> response = recipeController.searchRecipes(query);
+        ResponseEntity<List<RecipeResponse>> response = recipeController.searchRecipes(query, 20, null);
 
         // then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody())
                 .isNotNull()
                 .isEmpty();
-        verify(recipeService).searchRecipes(query);
+        assertThat(response.getHeaders().containsKey(SearchPage.NEXT_CURSOR_HEADER)).isFalse();
+        verify(recipeService).searchRecipes(query, 20, null);
+    }
+
+    @Test
+    void searchRecipes_WhenLimitOrCursorInvalid_ShouldReturnBadRequest() {
+        // when
+        ResponseEntity<List<RecipeResponse>> tooLarge = recipeController.searchRecipes("pasta", 101, null);
+        ResponseEntity<List<RecipeResponse>> badCursor = recipeController.searchRecipes("pasta", 20, "???");
+
+        // then
+        assertThat(tooLarge.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(badCursor.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(recipeService);
     }
 
     @Test
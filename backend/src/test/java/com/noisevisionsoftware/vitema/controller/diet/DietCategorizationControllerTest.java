@@ -1,11 +1,16 @@
 package com.noisevisionsoftware.vitema.controller.diet;
 
+import com.fasterxml.jackson.core.JsonParseException;
 import com.noisevisionsoftware.vitema.dto.request.category.BulkCategoryRequest;
 import com.noisevisionsoftware.vitema.dto.request.category.ParseProductsRequest;
 import com.noisevisionsoftware.vitema.dto.request.category.UpdateCategoriesRequest;
 import com.noisevisionsoftware.vitema.dto.request.category.UpdateProductRequest;
+import com.noisevisionsoftware.vitema.exception.PayloadTooLargeException;
 import com.noisevisionsoftware.vitema.model.shopping.category.Category;
+import com.noisevisionsoftware.vitema.model.shopping.category.CategorySuggestion;
 import com.noisevisionsoftware.vitema.service.category.FirestoreCategoryDataManager;
+import com.noisevisionsoftware.vitema.service.category.IngredientBatchParsingService;
+import com.noisevisionsoftware.vitema.service.category.IngredientParseCache;
 import com.noisevisionsoftware.vitema.service.category.ProductCategorizationService;
 import com.noisevisionsoftware.vitema.utils.excelParser.model.ParsedProduct;
 import com.noisevisionsoftware.vitema.utils.excelParser.model.ParsingResult;
@@ -13,12 +18,21 @@ import com.noisevisionsoftware.vitema.utils.excelParser.service.ProductParsingSe
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -37,10 +51,12 @@ class DietCategorizationControllerTest {
     @Mock
     private ProductParsingService productParsingService;
 
+    @Mock
+    private IngredientBatchParsingService batchParsingService;
+
     @Mock
     private List<Category> defaultCategories;
 
-    @InjectMocks
     private DietCategorizationController controller;
 
     private ParsedProduct testProduct;
@@ -56,6 +72,11 @@ class DietCategorizationControllerTest {
 
     @BeforeEach
     void setUp() {
+        IngredientParseCache ingredientParseCache = new IngredientParseCache(
+                productParsingService, categorizationService, new CaffeineCacheManager(IngredientParseCache.CACHE_NAME));
+        controller = new DietCategorizationController(
+                categorizationService, firestoreCategoryDataManager, ingredientParseCache, batchParsingService, defaultCategories);
+
         testProduct = ParsedProduct.builder()
                 .id(TEST_PRODUCT_ID)
                 .name("Mleko")
@@ -93,7 +114,7 @@ class DietCategorizationControllerTest {
     void parseProducts_WithValidProducts_ShouldReturnParsedProductsWithCategories() {
         // Arrange
         when(productParsingService.parseProduct(anyString())).thenReturn(parsingResult);
-        when(categorizationService.suggestCategory(any(ParsedProduct.class))).thenReturn(TEST_CATEGORY_ID);
+        when(categorizationService.suggestCategories(any(ParsedProduct.class), anyInt())).thenReturn(suggestions(TEST_CATEGORY_ID));
 
         // Act
         ResponseEntity<List<ParsedProduct>> response = controller.parseProducts(parseProductsRequest);
@@ -104,7 +125,7 @@ class DietCategorizationControllerTest {
         assertEquals(2, response.getBody().size());
         assertEquals(TEST_CATEGORY_ID, response.getBody().getFirst().getCategoryId());
         verify(productParsingService, times(2)).parseProduct(anyString());
-        verify(categorizationService, times(2)).suggestCategory(any(ParsedProduct.class));
+        verify(categorizationService, times(2)).suggestCategories(any(ParsedProduct.class), anyInt());
     }
 
     @Test
@@ -146,7 +167,7 @@ class DietCategorizationControllerTest {
         failedResult.setSuccess(false);
         failedResult.setProduct(null);
         when(productParsingService.parseProduct(anyString())).thenReturn(failedResult);
-        when(categorizationService.suggestCategory(any(ParsedProduct.class))).thenReturn(null);
+        when(categorizationService.suggestCategories(any(ParsedProduct.class), anyInt())).thenReturn(List.of());
 
         // Act
         ResponseEntity<List<ParsedProduct>> response = controller.parseProducts(parseProductsRequest);
@@ -186,7 +207,7 @@ class DietCategorizationControllerTest {
     void parseProducts_WithCategorizationServiceReturningNull_ShouldSetNullCategoryId() {
         // Arrange
         when(productParsingService.parseProduct(anyString())).thenReturn(parsingResult);
-        when(categorizationService.suggestCategory(any(ParsedProduct.class))).thenReturn(null);
+        when(categorizationService.suggestCategories(any(ParsedProduct.class), anyInt())).thenReturn(List.of());
 
         // Act
         ResponseEntity<List<ParsedProduct>> response = controller.parseProducts(parseProductsRequest);
@@ -196,7 +217,84 @@ class DietCategorizationControllerTest {
         assertNotNull(response.getBody());
         assertEquals(2, response.getBody().size());
         assertNull(response.getBody().getFirst().getCategoryId());
-        verify(categorizationService, times(2)).suggestCategory(any(ParsedProduct.class));
+        verify(categorizationService, times(2)).suggestCategories(any(ParsedProduct.class), anyInt());
+    }
+
+    // POST /api/diets/categorization/parse/stream - parseProductsStream tests
+
+    @Test
+    void parseProductsStream_ShouldReturnNdjsonStream() throws IOException {
+        // Arrange
+        MockHttpServletRequest request = jsonRequest("{\"products\": [\"Mleko 2% 1L\", \"Chleb 500g\"]}");
+        IngredientBatchParsingService.BatchStream body = mock(IngredientBatchParsingService.BatchStream.class);
+        when(batchParsingService.readJsonLines(any(InputStream.class), anyLong())).thenReturn(parseProductsRequest.getProducts());
+        when(batchParsingService.openStream(parseProductsRequest.getProducts())).thenReturn(body);
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = controller.parseProductsStream(request);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        assertSame(body, response.getBody());
+    }
+
+    @Test
+    void parseProductsStream_WhenAsyncRequestCompletes_ShouldReleaseStreamSlot() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = jsonRequest("{\"products\": [\"jajko\"]}");
+        IngredientBatchParsingService.BatchStream body = mock(IngredientBatchParsingService.BatchStream.class);
+        when(batchParsingService.readJsonLines(any(InputStream.class), anyLong())).thenReturn(List.of("jajko"));
+        when(batchParsingService.openStream(anyList())).thenReturn(body);
+        controller.parseProductsStream(request);
+
+        // Act - np. timeout, zanim zadanie zapisu w ogóle wystartowało
+        WebAsyncUtils.getAsyncManager(request)
+                .getCallableInterceptor(IngredientBatchParsingService.BatchStream.class.getName())
+                .afterCompletion(new ServletWebRequest(request), () -> null);
+
+        // Assert
+        verify(body).release();
+        verify(body, never()).writeTo(any());
+    }
+
+    @Test
+    void parseProductLinesStream_ShouldReadTextAsUtf8ByDefault() throws IOException {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/diets/categorization/parse/stream");
+        request.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        request.setContent("2 jajka\n100g ryżu".getBytes(StandardCharsets.UTF_8));
+        List<String> lines = List.of("2 jajka", "100g ryżu");
+        when(batchParsingService.readTextLines(any(InputStream.class), anyLong(), eq(StandardCharsets.UTF_8))).thenReturn(lines);
+        when(batchParsingService.openStream(lines)).thenReturn(mock(IngredientBatchParsingService.BatchStream.class));
+
+        // Act
+        controller.parseProductLinesStream(request);
+
+        // Assert
+        verify(batchParsingService).openStream(lines);
+    }
+
+    @Test
+    void parseProductsStream_WhenLimitExceeded_ShouldPropagateException() throws IOException {
+        // Arrange
+        when(batchParsingService.readJsonLines(any(InputStream.class), anyLong())).thenThrow(new PayloadTooLargeException("too large"));
+
+        // Act & Assert
+        assertThrows(PayloadTooLargeException.class, () -> controller.parseProductsStream(jsonRequest("{}")));
+        verify(batchParsingService, never()).openStream(anyList());
+        verifyNoInteractions(productParsingService);
+    }
+
+    @Test
+    void parseProductsStream_WhenJsonMalformed_ShouldThrowNotReadable() throws IOException {
+        // Arrange
+        when(batchParsingService.readJsonLines(any(InputStream.class), anyLong()))
+                .thenThrow(new JsonParseException(null, "Unexpected end-of-input"));
+
+        // Act & Assert
+        assertThrows(HttpMessageNotReadableException.class, () -> controller.parseProductsStream(jsonRequest("{\"products\": [")));
+        verify(batchParsingService, never()).openStream(anyList());
     }
 
     // PUT /api/diets/categorization/product - updateProduct tests
@@ -483,6 +581,36 @@ class DietCategorizationControllerTest {
         verify(categorizationService).suggestCategory(testProduct);
     }
 
+    // POST /api/diets/categorization/suggest/top - suggestTopCategories tests
+
+    @Test
+    void suggestTopCategories_WithValidLimit_ShouldReturnRankedSuggestions() {
+        // Arrange
+        List<CategorySuggestion> suggestions = List.of(
+                new CategorySuggestion(TEST_CATEGORY_ID, 1.0, CategorySuggestion.MatchType.EXACT),
+                new CategorySuggestion("inna-kategoria", 0.7, CategorySuggestion.MatchType.SIMILAR));
+        when(categorizationService.suggestCategories(testProduct, 2)).thenReturn(suggestions);
+
+        // Act
+        ResponseEntity<List<CategorySuggestion>> response = controller.suggestTopCategories(testProduct, 2);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(suggestions, response.getBody());
+    }
+
+    @Test
+    void suggestTopCategories_WithInvalidLimit_ShouldReturnBadRequest() {
+        // Act
+        ResponseEntity<List<CategorySuggestion>> tooSmall = controller.suggestTopCategories(testProduct, 0);
+        ResponseEntity<List<CategorySuggestion>> tooLarge = controller.suggestTopCategories(testProduct, 11);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, tooSmall.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, tooLarge.getStatusCode());
+        verifyNoInteractions(categorizationService);
+    }
+
     // POST /api/diets/categorization/suggest/bulk - bulkSuggestCategories tests
 
     @Test
@@ -582,4 +710,17 @@ class DietCategorizationControllerTest {
         assertEquals(errorMessage, response.getBody().get("error"));
         verify(categorizationService).suggestCategory(testProduct);
     }
+
+    private List<CategorySuggestion> suggestions(String categoryId) {
+        return categoryId == null
+                ? List.of()
+                : List.of(new CategorySuggestion(categoryId, 1.0, CategorySuggestion.MatchType.EXACT));
+    }
+
+    private MockHttpServletRequest jsonRequest(String json) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/diets/categorization/parse/stream");
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(json.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
 }
@@ -8,6 +8,7 @@ import com.noisevisionsoftware.vitema.model.recipe.jpa.NutritionalValuesEntity;
 import com.noisevisionsoftware.vitema.model.recipe.jpa.RecipeEntity;
 import com.noisevisionsoftware.vitema.model.recipe.jpa.RecipeIngredientEntity;
 import com.noisevisionsoftware.vitema.repository.jpa.ProductJpaRepository;
+import com.noisevisionsoftware.vitema.repository.jpa.recipe.RecipeJpaRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -166,6 +167,66 @@ class RecipeJpaConverterTest {
         assertThat(entity.getParentRecipeId()).isNull();
     }
 
+    @Test
+    @DisplayName("Should convert list projection to Recipe without ingredients")
+    void toSummaryModel_withProjection_convertsListFields() {
+        // Given
+        RecipeJpaRepository.RecipeSummaryView view = mock(RecipeJpaRepository.RecipeSummaryView.class);
+        when(view.getExternalId()).thenReturn(SAMPLE_ID);
+        when(view.getName()).thenReturn(SAMPLE_NAME);
+        when(view.getInstructions()).thenReturn("Wymieszaj");
+        when(view.getCreatedAt()).thenReturn(LocalDateTime.of(2024, 3, 1, 12, 30));
+        when(view.getCalories()).thenReturn(350.0);
+        when(view.getProtein()).thenReturn(null);
+        when(view.getFat()).thenReturn(null);
+        when(view.getCarbs()).thenReturn(null);
+        when(view.getAuthorId()).thenReturn("trainer-1");
+        when(view.getIsPublic()).thenReturn(true);
+
+        // When
+        Recipe recipe = converter.toSummaryModel(view, List.of("photo-1.jpg", "photo-2.jpg"));
+        Recipe withoutPhotos = converter.toSummaryModel(view, null);
+
+        // Then
+        assertThat(recipe.getId()).isEqualTo(SAMPLE_ID);
+        assertThat(recipe.getInstructions()).isEqualTo("Wymieszaj");
+        assertThat(recipe.getIngredients()).isEmpty();
+        assertThat(recipe.getPhotos()).containsExactly("photo-1.jpg", "photo-2.jpg");
+        assertThat(recipe.getNutritionalValues().getCalories()).isEqualTo(350.0);
+        assertThat(recipe.getAuthorId()).isEqualTo("trainer-1");
+        assertThat(recipe.isPublic()).isTrue();
+        assertThat(withoutPhotos.getPhotos()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should convert suggestion projection to a lightweight Recipe")
+    void toSuggestionModel_withProjection_convertsSummaryFields() {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 1, 12, 30);
+        RecipeJpaRepository.RecipeSuggestionView view = mock(RecipeJpaRepository.RecipeSuggestionView.class);
+        when(view.getExternalId()).thenReturn(SAMPLE_ID);
+        when(view.getName()).thenReturn(SAMPLE_NAME);
+        when(view.getCalories()).thenReturn(350.0);
+        when(view.getProtein()).thenReturn(20.0);
+        when(view.getFat()).thenReturn(null);
+        when(view.getInstructions()).thenReturn(SAMPLE_INSTRUCTIONS);
+        when(view.getPhoto()).thenReturn("photo.jpg");
+        when(view.getCreatedAt()).thenReturn(createdAt);
+
+        // When
+        Recipe recipe = converter.toSuggestionModel(view);
+
+        // Then
+        assertThat(recipe.getId()).isEqualTo(SAMPLE_ID);
+        assertThat(recipe.getName()).isEqualTo(SAMPLE_NAME);
+        assertThat(recipe.getInstructions()).isEqualTo(SAMPLE_INSTRUCTIONS);
+        assertThat(recipe.getIngredients()).isEmpty();
+        assertThat(recipe.getPhotos()).containsExactly("photo.jpg");
+        assertThat(recipe.getNutritionalValues().getCalories()).isEqualTo(350.0);
+        assertThat(recipe.getNutritionalValues().getFat()).isNull();
+        assertThat(recipe.getCreatedAt().getSeconds()).isEqualTo(createdAt.toEpochSecond(ZoneOffset.UTC));
+    }
+
     @Test
     @DisplayName("Should handle RecipeEntity with null optional fields")
     void toModel_withNullOptionalFields_convertsCorrectly() {
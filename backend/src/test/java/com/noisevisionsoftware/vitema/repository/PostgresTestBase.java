@@ -0,0 +1,55 @@
+package com.noisevisionsoftware.vitema.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Baza testów na prawdziwym Postgresie po migracjach Flyway. Kontener jest uruchamiany dla każdej
+ * klasy testowej osobno, więc klasy nie widzą nawzajem swoich danych; bez Dockera testy są pomijane.
+ * <p>
+ * Połączenie ma włączone {@code reWriteBatchedInserts}, tak jak produkcyjny import produktów.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class PostgresTestBase {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    protected static NamedParameterJdbcTemplate jdbc;
+
+    @BeforeAll
+    static void migrateDatabase() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl() + "&reWriteBatchedInserts=true", POSTGRES.getUsername(), POSTGRES.getPassword());
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load().migrate();
+        jdbc = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    /**
+     * Treść adnotacji {@link Query} metody repozytorium - bez zmian, tak jak przekazuje ją Spring Data.
+     */
+    protected static String repositoryQuery(Class<?> repository, String methodName) {
+        Method method = Arrays.stream(repository.getMethods())
+                .filter(candidate -> candidate.getName().equals(methodName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(repository.getSimpleName() + " has no method " + methodName));
+        return method.getAnnotation(Query.class).value();
+    }
+
+    protected static String explainPlan(String sql, Map<String, ?> params) {
+        List<String> lines = jdbc.queryForList("EXPLAIN " + sql, new MapSqlParameterSource(params), String.class);
+        return String.join("\n", lines);
+    }
+}
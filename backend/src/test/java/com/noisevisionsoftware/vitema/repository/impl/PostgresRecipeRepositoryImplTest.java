@@ -283,19 +283,29 @@ class PostgresRecipeRepositoryImplTest {
         // given
         String query = "testowy";
         List<RecipeEntity> entities = Collections.singletonList(mockEntity);
-        when(recipeJpaRepository.search(query)).thenReturn(entities);
+        when(recipeJpaRepository.search("testowy:*", 20, 0)).thenReturn(entities);
         when(recipeJpaConverter.toModel(mockEntity)).thenReturn(mockRecipe);
 
         // when
-        List<Recipe> results = repository.search(query);
+        List<Recipe> results = repository.search(query, 20, 0);
 
         // then
         assertThat(results).hasSize(1);
         assertThat(results.getFirst().getName()).contains("Testowy");
-        verify(recipeJpaRepository).search(query);
+        verify(recipeJpaRepository).search("testowy:*", 20, 0);
         verify(recipeJpaConverter).toModel(mockEntity);
     }
 
+    @Test
+    void search_ShouldNotQueryDatabase_WhenQueryHasNoWords() {
+        // when
+        List<Recipe> results = repository.search(" !? ", 20, 0);
+
+        // then
+        assertThat(results).isEmpty();
+        verifyNoInteractions(recipeJpaRepository);
+    }
+
     @Test
     void delete_ShouldDeleteRecipe_WhenRecipeExists() {
         // given
@@ -0,0 +1,123 @@
+package com.noisevisionsoftware.vitema.repository.jpa;
+
+import com.noisevisionsoftware.vitema.repository.PostgresTestBase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Plany zapytań wyszukiwania produktów na tabeli z 100 tys. wierszy, po migracjach Flyway.
+ * Zapytania są brane z adnotacji {@link Query} repozytorium z dwiema podmianami: parametr SpEL
+ * {@code :#{#type.name()}} staje się zwykłym {@code :type}, a {@code SELECT p.*} - {@code SELECT p.name},
+ * żeby porównywać same nazwy. Warunki, sortowanie i LIMIT/OFFSET są takie jak w aplikacji.
+ */
+class ProductJpaRepositoryTest extends PostgresTestBase {
+
+    private static final int SEEDED_PRODUCTS = 100_000;
+    private static final String TRIGRAM_INDEX = "idx_products_name_trgm";
+
+    @BeforeAll
+    static void seed() {
+        jdbc.update("INSERT INTO products (name, category, kcal, protein, fat, carbs, type) " +
+                        "SELECT 'produkt ' || md5(i::text), 'inne', 100, 1, 1, 1, 'GLOBAL' " +
+                        "FROM generate_series(1, :count) AS i",
+                Map.of("count", SEEDED_PRODUCTS));
+        jdbc.update("INSERT INTO products (name, category, kcal, protein, fat, carbs, type, author_id) VALUES " +
+                        "('Mleko', 'nabial', 61, 3.2, 3.2, 4.8, 'GLOBAL', NULL), " +
+                        "('Mleko kozie', 'nabial', 69, 3.6, 4.1, 4.5, 'CUSTOM', 'trainer-1'), " +
+                        "('Mleko kokosowe', 'nabial', 230, 2.3, 24, 6, 'CUSTOM', 'trainer-2')",
+                Map.of());
+        jdbc.getJdbcTemplate().execute("ANALYZE products");
+    }
+
+    @Test
+    void searchProductsForTrainer_ShouldUseTrigramIndex() {
+        // when
+        String plan = explain("searchProductsForTrainer", Map.of("name", "mleko", "trainerId", "trainer-1", "limit", 21, "offset", 0));
+
+        // then
+        assertUsesTrigramIndex(plan);
+    }
+
+    @Test
+    void findByNameContainingIgnoreCaseAndType_ShouldUseTrigramIndex() {
+        // when
+        String plan = explain("findByNameContainingIgnoreCaseAndType", Map.of("name", "Mleko", "type", "GLOBAL", "limit", 21, "offset", 0));
+
+        // then
+        assertUsesTrigramIndex(plan);
+    }
+
+    @Test
+    void findByNameContainingIgnoreCaseAndCategory_ShouldUseTrigramIndex() {
+        // when
+        String plan = explain("findByNameContainingIgnoreCaseAndCategory", Map.of("name", "jogurt", "category", "nabial", "limit", 21, "offset", 0));
+
+        // then
+        assertUsesTrigramIndex(plan);
+    }
+
+    @Test
+    void searchProductsForTrainer_ShouldRankExactBeforePrefixAndHideOtherTrainersProducts() {
+        // when
+        List<String> names = jdbc.queryForList(sql("searchProductsForTrainer"),
+                Map.of("name", "MLEKO", "trainerId", "trainer-1", "limit", 21, "offset", 0), String.class);
+
+        // then - tylko kolumna name z SELECT p.*
+        assertEquals(List.of("Mleko", "Mleko kozie"), names);
+    }
+
+    @Test
+    void findByNameContainingIgnoreCaseAndType_ShouldRankMoreUsedProductsFirstWithinTier() {
+        // given
+        jdbc.update("INSERT INTO products (name, category, kcal, protein, fat, carbs, type) VALUES " +
+                        "('Ser biały', 'nabial', 98, 11, 4, 3, 'GLOBAL'), " +
+                        "('Ser żółty', 'nabial', 350, 26, 27, 1, 'GLOBAL')",
+                Map.of());
+        jdbc.update("INSERT INTO product_usage (product_id, usage_count) " +
+                        "SELECT id, 12 FROM products WHERE name = 'Ser żółty'",
+                Map.of());
+
+        // when
+        List<String> names = jdbc.queryForList(sql("findByNameContainingIgnoreCaseAndType"),
+                Map.of("name", "ser", "type", "GLOBAL", "limit", 2, "offset", 0), String.class);
+
+        // then
+        assertEquals(List.of("Ser żółty", "Ser biały"), names);
+    }
+
+    @Test
+    void findByNameContainingIgnoreCaseAndType_ShouldApplyLimitAndOffsetInQuery() {
+        // when
+        List<String> firstPage = jdbc.queryForList(sql("findByNameContainingIgnoreCaseAndType"),
+                Map.of("name", "produkt", "type", "GLOBAL", "limit", 5, "offset", 0), String.class);
+        List<String> secondPage = jdbc.queryForList(sql("findByNameContainingIgnoreCaseAndType"),
+                Map.of("name", "produkt", "type", "GLOBAL", "limit", 5, "offset", 5), String.class);
+
+        // then
+        assertEquals(5, firstPage.size());
+        assertEquals(5, secondPage.size());
+        assertTrue(firstPage.getLast().compareTo(secondPage.getFirst()) < 0);
+    }
+
+    private String explain(String repositoryMethod, Map<String, ?> params) {
+        return explainPlan(sql(repositoryMethod), params);
+    }
+
+    private String sql(String repositoryMethod) {
+        // Parametr enum jest przekazywany przez SpEL jako nazwa stałej
+        return repositoryQuery(ProductJpaRepository.class, repositoryMethod)
+                .replace(":#{#type.name()}", ":type")
+                .replace("SELECT p.*", "SELECT p.name");
+    }
+
+    private void assertUsesTrigramIndex(String plan) {
+        assertTrue(plan.contains(TRIGRAM_INDEX), plan);
+        assertFalse(plan.contains("Seq Scan on products"), plan);
+    }
+}
@@ -0,0 +1,127 @@
+package com.noisevisionsoftware.vitema.repository.jpa.recipe;
+
+import com.noisevisionsoftware.vitema.repository.PostgresTestBase;
+import com.noisevisionsoftware.vitema.utils.FullTextQuery;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Wyszukiwanie przepisów na tabeli z 200 tys. wierszy, po migracjach Flyway. Zapytania są brane
+ * z adnotacji {@link Query} repozytorium; jedyna podmiana to {@code SELECT r.*} na {@code SELECT r.name}
+ * tam, gdzie test porównuje same nazwy.
+ */
+class RecipeJpaRepositoryTest extends PostgresTestBase {
+
+    private static final int SEEDED_RECIPES = 200_000;
+
+    @BeforeAll
+    static void seed() {
+        jdbc.update("INSERT INTO recipes (external_id, name, instructions, created_at, is_public) " +
+                        "SELECT 'seed-' || i, 'przepis ' || md5(i::text), 'wymieszaj ' || md5((i + 1)::text), now(), true " +
+                        "FROM generate_series(1, :count) AS i",
+                Map.of("count", SEEDED_RECIPES));
+        jdbc.update("INSERT INTO recipes (external_id, name, instructions, created_at, is_public, author_id) VALUES " +
+                        "('r-1', 'Owsianka z jabłkiem', 'Płatki zalej mlekiem', now(), true, NULL), " +
+                        "('r-2', 'Koktajl bananowy', 'Dodaj owsiankę i zmiksuj', now(), true, NULL), " +
+                        "('r-3', 'Owsianki nocne', 'Odstaw na noc', now(), false, 'trainer-2')",
+                Map.of());
+        jdbc.getJdbcTemplate().execute("ANALYZE recipes");
+    }
+
+    @Test
+    void search_ShouldUseFullTextIndex() {
+        // when
+        String plan = explain("search", Map.of("tsQuery", FullTextQuery.prefixQuery("owsianka"), "limit", 20, "offset", 0));
+
+        // then
+        assertTrue(plan.contains("idx_recipes_search_vector"), plan);
+        assertFalse(plan.contains("Seq Scan on recipes"), plan);
+    }
+
+    @Test
+    void search_ShouldMatchInflectedFormsWithoutDiacriticsAndRankNameAboveInstructions() {
+        // when
+        List<String> names = jdbc.queryForList(sql("search"),
+                Map.of("tsQuery", FullTextQuery.prefixQuery("owsiank"), "limit", 20, "offset", 0), String.class);
+        List<String> withoutDiacritics = jdbc.queryForList(sql("search"),
+                Map.of("tsQuery", FullTextQuery.prefixQuery("jablkiem"), "limit", 20, "offset", 0), String.class);
+
+        // then
+        assertEquals(3, names.size());
+        assertEquals("Koktajl bananowy", names.getLast());
+        assertEquals(List.of("Owsianka z jabłkiem"), withoutDiacritics);
+    }
+
+    @Test
+    void searchVisible_ShouldUseTrigramIndexAndHideOtherUsersPrivateRecipes() {
+        // when
+        String plan = explain("searchVisible", Map.of("query", "owsian", "userId", "trainer-1", "limit", 21, "offset", 0));
+        List<Object> names = names(jdbc.queryForList(sql("searchVisible"),
+                Map.of("query", "owsian", "userId", "trainer-1", "limit", 21, "offset", 0)));
+
+        // then
+        assertTrue(plan.contains("idx_recipes_name_trgm"), plan);
+        assertEquals(List.of("Owsianka z jabłkiem"), names);
+    }
+
+    @Test
+    void searchVisible_ShouldRankMoreReferencedRecipesFirstWithinTier() {
+        // given
+        jdbc.update("INSERT INTO recipes (external_id, name, created_at, is_public) VALUES " +
+                        "('z-1', 'Zupa pomidorowa', now(), true), ('z-2', 'Zupa ogórkowa', now(), true)",
+                Map.of());
+        jdbc.update("INSERT INTO recipe_references (id, recipe_id, diet_id, user_id, meal_type, added_at) VALUES " +
+                        "('ref-1', 'z-1', 'd-1', 'u-1', 'LUNCH', now()), " +
+                        "('ref-2', 'z-2', 'd-1', 'u-1', 'LUNCH', now()), " +
+                        "('ref-3', 'z-2', 'd-2', 'u-1', 'DINNER', now())",
+                Map.of());
+        Map<String, Object> params = Map.of("query", "zupa", "userId", "trainer-1", "limit", 21, "offset", 0);
+
+        // when
+        List<Object> byUsage = names(jdbc.queryForList(sql("searchVisible"), params));
+        jdbc.update("DELETE FROM recipe_references WHERE recipe_id = 'z-2'", Map.of());
+        List<Object> afterDelete = names(jdbc.queryForList(sql("searchVisible"), params));
+
+        // then - licznik recipe_usage nadąża za dodaniem i usunięciem referencji
+        assertEquals(List.of("Zupa ogórkowa", "Zupa pomidorowa"), byUsage);
+        assertEquals(List.of("Zupa pomidorowa", "Zupa ogórkowa"), afterDelete);
+        assertEquals(0L, jdbc.queryForObject("SELECT reference_count FROM recipe_usage WHERE recipe_id = 'z-2'",
+                Map.of(), Long.class));
+    }
+
+    @Test
+    void findSuggestions_ShouldRankByMatchTypeAndReadOnlyProjectionColumns() {
+        // given
+        Map<String, Object> params = Map.of("query", "owsianka", "userId", "trainer-2", "limit", 5);
+
+        // when
+        String plan = explain("findSuggestions", params);
+        List<Map<String, Object>> rows = jdbc.queryForList(sql("findSuggestions"), params);
+
+        // then
+        assertTrue(plan.contains("idx_recipes_name_trgm"), plan);
+        assertEquals(List.of("Owsianka z jabłkiem"), rows.stream().map(row -> row.get("name")).toList());
+        assertEquals(Set.of("externalId", "name", "calories", "protein", "fat", "carbs", "instructions", "photo",
+                        "createdAt"),
+                rows.getFirst().keySet());
+    }
+
+    private List<Object> names(List<Map<String, Object>> rows) {
+        return rows.stream().map(row -> row.get("name")).toList();
+    }
+
+    private String explain(String repositoryMethod, Map<String, ?> params) {
+        return explainPlan(sql(repositoryMethod), params);
+    }
+
+    private String sql(String repositoryMethod) {
+        return repositoryQuery(RecipeJpaRepository.class, repositoryMethod).replace("SELECT r.*", "SELECT r.name");
+    }
+}
@@ -0,0 +1,209 @@
+package com.noisevisionsoftware.vitema.repository.jpa.recipe;
+
+import com.google.cloud.storage.Storage;
+import com.noisevisionsoftware.vitema.dto.search.SearchPage;
+import com.noisevisionsoftware.vitema.mapper.recipe.RecipeJpaConverter;
+import com.noisevisionsoftware.vitema.mapper.recipe.RecipeReferenceJpaConverter;
+import com.noisevisionsoftware.vitema.model.recipe.Recipe;
+import com.noisevisionsoftware.vitema.model.recipe.jpa.NutritionalValuesEntity;
+import com.noisevisionsoftware.vitema.model.recipe.jpa.RecipeEntity;
+import com.noisevisionsoftware.vitema.model.recipe.jpa.RecipeIngredientEntity;
+import com.noisevisionsoftware.vitema.repository.impl.PostgresRecipeRepositoryImpl;
+import com.noisevisionsoftware.vitema.repository.recipe.RecipeImageRepository;
+import com.noisevisionsoftware.vitema.service.RecipeService;
+import com.noisevisionsoftware.vitema.service.product.ProductUsageCounter;
+import com.noisevisionsoftware.vitema.service.UserService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Liczba instrukcji SQL na ścieżkę danych każdego endpointu przepisów nie może rosnąć z liczbą
+ * przepisów na stronie - widoki listy korzystają z projekcji, widoki szczegółów z grafu encji.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "firebase.storage.bucket-name=test-bucket"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({RecipeService.class, RecipeJpaConverter.class, PostgresRecipeRepositoryImpl.class, RecipeReferenceJpaConverter.class})
+@Testcontainers(disabledWithoutDocker = true)
+class RecipeQueryCountTest {
+
+    private static final int SEEDED_RECIPES = 60;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @MockBean
+    private Storage storage;
+
+    @MockBean
+    private UserService userService;
+
+    @MockBean
+    private RecipeImageRepository recipeImageRepository;
+
+    @MockBean
+    private ProductUsageCounter productUsageCounter;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private RecipeJpaRepository recipeJpaRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        recipeJpaRepository.saveAll(IntStream.range(0, SEEDED_RECIPES).mapToObj(this::recipe).toList());
+        entityManager.flush();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getAllRecipes_ShouldUseConstantStatementCount() {
+        // when
+        long smallPage = statements(() -> recipeService.getAllRecipes(PageRequest.of(0, 5, Sort.by("createdAt"))));
+        long largePage = statements(() -> recipeService.getAllRecipes(PageRequest.of(0, 50, Sort.by("createdAt"))));
+
+        // then - strona, liczba wszystkich, zdjęcia
+        assertEquals(3, smallPage);
+        assertEquals(smallPage, largePage);
+    }
+
+    @Test
+    void getRecipesPage_ShouldUseConstantStatementCountAtAnyDepth() {
+        // given
+        String deepCursor = recipeService.getRecipesPage(null, 50).nextCursor();
+
+        // when
+        long firstPage = statements(() -> recipeService.getRecipesPage(null, 5));
+        long deepPage = statements(() -> recipeService.getRecipesPage(deepCursor, 5));
+
+        // then - strona, zdjęcia
+        assertEquals(2, firstPage);
+        assertEquals(firstPage, deepPage);
+    }
+
+    @Test
+    void getRecipesPage_ShouldWalkAllRecipesOnce() {
+        // given
+        Set<String> seen = new HashSet<>();
+        String cursor = null;
+
+        // when
+        do {
+            SearchPage<Recipe> page = recipeService.getRecipesPage(cursor, 7);
+            page.items().forEach(recipe -> assertTrue(seen.add(recipe.getId())));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        // then
+        assertEquals(SEEDED_RECIPES, seen.size());
+    }
+
+    @Test
+    void searchRecipes_ShouldUseConstantStatementCount() {
+        // when
+        long smallPage = statements(() -> recipeService.searchRecipes("przepis", 5, null));
+        long largePage = statements(() -> recipeService.searchRecipes("przepis", 50, null));
+
+        // then - wyniki, zdjęcia
+        assertEquals(2, smallPage);
+        assertEquals(smallPage, largePage);
+    }
+
+    @Test
+    void getRecipesByIds_ShouldUseConstantStatementCount() {
+        // when
+        long fewRecipes = statements(() -> recipeService.getRecipesByIds(externalIds(5)));
+        long manyRecipes = statements(() -> recipeService.getRecipesByIds(externalIds(50)));
+
+        // then - przepisy ze składnikami, zdjęcia
+        assertEquals(2, fewRecipes);
+        assertEquals(fewRecipes, manyRecipes);
+    }
+
+    @Test
+    void getRecipeById_ShouldLoadIngredientsWithRecipe() {
+        // when
+        long count = statements(() -> recipeService.getRecipeById("recipe-1"));
+
+        // then
+        assertEquals(2, count);
+    }
+
+    private long statements(Runnable endpoint) {
+        entityManager.clear();
+        statistics.clear();
+        endpoint.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private List<String> externalIds(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "recipe-" + i).toList();
+    }
+
+    private RecipeEntity recipe(int i) {
+        RecipeEntity recipe = RecipeEntity.builder()
+                .externalId("recipe-" + i)
+                .name("Przepis " + i)
+                .instructions("Wymieszaj składniki")
+                .photos(new ArrayList<>(List.of("photo-" + i + "-1.jpg", "photo-" + i + "-2.jpg")))
+                .nutritionalValues(NutritionalValuesEntity.builder().calories(300).protein(20).fat(10).carbs(30).build())
+                .isPublic(true)
+                .build();
+        List<RecipeIngredientEntity> ingredients = new ArrayList<>();
+        for (int j = 0; j < 3; j++) {
+            ingredients.add(RecipeIngredientEntity.builder()
+                    .recipe(recipe)
+                    .name("Składnik " + j)
+                    .quantity(BigDecimal.valueOf(100))
+                    .unit("g")
+                    .displayOrder(j)
+                    .build());
+        }
+        recipe.setIngredients(ingredients);
+        return recipe;
+    }
+}
@@ -0,0 +1,76 @@
+package com.noisevisionsoftware.vitema.repository.meal;
+
+import com.noisevisionsoftware.vitema.repository.PostgresTestBase;
+import com.noisevisionsoftware.vitema.utils.FullTextQuery;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Wyszukiwanie pełnotekstowe szablonów posiłków na tabeli ze 100 tys. wierszy, po migracjach Flyway.
+ * Zapytania są brane z adnotacji {@link Query} repozytorium, z {@code SELECT m.name} zamiast
+ * {@code SELECT m.*}. Stronicowanie ({@code Pageable}) Spring Data dokleja do zapytania jako
+ * LIMIT/OFFSET, więc test dokleja {@code LIMIT 20} sam.
+ */
+class MealTemplateJpaRepositoryTest extends PostgresTestBase {
+
+    private static final int SEEDED_TEMPLATES = 100_000;
+
+    @BeforeAll
+    static void seed() {
+        jdbc.update("INSERT INTO meal_templates (external_id, name, name_lower, instructions, is_public) " +
+                        "SELECT 'seed-' || i, 'posiłek ' || md5(i::text), '', 'podgrzej ' || md5((i + 1)::text), true " +
+                        "FROM generate_series(1, :count) AS i",
+                Map.of("count", SEEDED_TEMPLATES));
+        jdbc.update("INSERT INTO meal_templates (external_id, name, name_lower, instructions, is_public, created_by, usage_count) VALUES " +
+                        "('m-1', 'Jajecznica ze szczypiorkiem', '', 'Smaż na maśle', true, NULL, 1), " +
+                        "('m-2', 'Kanapki', '', 'Podawaj z jajecznicą', true, NULL, 50), " +
+                        "('m-3', 'Jajecznica na boczku', '', NULL, false, 'trainer-2', 0)",
+                Map.of());
+        jdbc.getJdbcTemplate().execute("ANALYZE meal_templates");
+    }
+
+    @Test
+    void searchAccessibleTemplates_ShouldUseFullTextIndex() {
+        // when
+        String plan = explain("searchAccessibleTemplates",
+                Map.of("tsQuery", FullTextQuery.prefixQuery("jajecznica"), "userId", "trainer-1"));
+
+        // then
+        assertTrue(plan.contains("idx_meal_templates_search_vector"), plan);
+        assertFalse(plan.contains("Seq Scan on meal_templates"), plan);
+    }
+
+    @Test
+    void searchAccessibleTemplates_ShouldRankNameMatchesFirstAndHideOtherUsersPrivateTemplates() {
+        // when
+        List<String> names = jdbc.queryForList(sql("searchAccessibleTemplates") + " LIMIT 20",
+                Map.of("tsQuery", FullTextQuery.prefixQuery("jajeczn"), "userId", "trainer-1"), String.class);
+
+        // then - nazwa waży więcej niż instrukcje, nawet przy większej liczbie użyć
+        assertEquals(List.of("Jajecznica ze szczypiorkiem", "Kanapki"), names);
+    }
+
+    @Test
+    void searchByNameOrInstructions_ShouldMatchWithoutDiacritics() {
+        // when
+        List<String> names = jdbc.queryForList(sql("searchByNameOrInstructions") + " LIMIT 20",
+                Map.of("tsQuery", FullTextQuery.prefixQuery("masle")), String.class);
+
+        // then
+        assertEquals(List.of("Jajecznica ze szczypiorkiem"), names);
+    }
+
+    private String explain(String repositoryMethod, Map<String, ?> params) {
+        return explainPlan(sql(repositoryMethod) + " LIMIT 20", params);
+    }
+
+    private String sql(String repositoryMethod) {
+        return repositoryQuery(MealTemplateJpaRepository.class, repositoryMethod).replace("SELECT m.*", "SELECT m.name");
+    }
+}
@@ -131,9 +131,9 @@ class PostgresMealTemplateRepositoryTest {
         // given
         String query = "testowy";
         int limit = 10;
-        Pageable pageable = PageRequest.of(1, limit);
+        Pageable pageable = PageRequest.of(0, limit);
         List<MealTemplateEntity> entities = Collections.singletonList(mockEntity);
-        when(jpaRepository.searchByNameOrInstructions(query, pageable)).thenReturn(entities);
+        when(jpaRepository.searchByNameOrInstructions(query + ":*", pageable)).thenReturn(entities);
         when(converter.toModel(mockEntity)).thenReturn(mockTemplate);
 
         // when
@@ -142,7 +142,7 @@ class PostgresMealTemplateRepositoryTest {
         // then
         assertThat(result).hasSize(1);
         assertThat(result.getFirst().getName()).containsIgnoringCase("testowy");
-        verify(jpaRepository).searchByNameOrInstructions(query, pageable);
+        verify(jpaRepository).searchByNameOrInstructions(query + ":*", pageable);
         verify(converter).toModel(mockEntity);
     }
 
@@ -151,8 +151,8 @@ class PostgresMealTemplateRepositoryTest {
         // given
         String query = "nieistniejący";
         int limit = 10;
-        Pageable pageable = PageRequest.of(1, limit);
-        when(jpaRepository.searchByNameOrInstructions(query, pageable))
+        Pageable pageable = PageRequest.of(0, limit);
+        when(jpaRepository.searchByNameOrInstructions(query + ":*", pageable))
                 .thenReturn(Collections.emptyList());
 
         // when
@@ -160,7 +160,7 @@ class PostgresMealTemplateRepositoryTest {
 
         // then
         assertThat(result).isEmpty();
-        verify(jpaRepository).searchByNameOrInstructions(query, pageable);
+        verify(jpaRepository).searchByNameOrInstructions(query + ":*", pageable);
         verify(converter, never()).toModel(any());
     }
 
@@ -169,8 +169,8 @@ class PostgresMealTemplateRepositoryTest {
         // given
         String query = "testowy";
         int limit = 10;
-        Pageable pageable = PageRequest.of(1, limit);
-        when(jpaRepository.searchByNameOrInstructions(query, pageable))
+        Pageable pageable = PageRequest.of(0, limit);
+        when(jpaRepository.searchByNameOrInstructions(query + ":*", pageable))
                 .thenThrow(new RuntimeException("Database error"));
 
         // when
@@ -178,14 +178,14 @@ class PostgresMealTemplateRepositoryTest {
 
         // then
         assertThat(result).isEmpty();
-        verify(jpaRepository).searchByNameOrInstructions(query, pageable);
+        verify(jpaRepository).searchByNameOrInstructions(query + ":*", pageable);
     }
 
     @Test
     void findTopByUsageCount_ShouldReturnListOfTemplates_WhenTemplatesExist() {
         // given
         int limit = 5;
-        Pageable pageable = PageRequest.of(1, limit);
+        Pageable pageable = PageRequest.of(0, limit);
         List<MealTemplateEntity> entities = Arrays.asList(mockEntity, createAnotherEntity());
         when(jpaRepository.findTopByOrderByUsageCountDescLastUsedDesc(pageable)).thenReturn(entities);
         when(converter.toModel(any(MealTemplateEntity.class))).thenReturn(mockTemplate);
@@ -203,7 +203,7 @@ class PostgresMealTemplateRepositoryTest {
     void findTopByUsageCount_ShouldReturnEmptyList_WhenNoTemplatesExist() {
         // given
         int limit = 5;
-        Pageable pageable = PageRequest.of(1, limit);
+        Pageable pageable = PageRequest.of(0, limit);
         when(jpaRepository.findTopByOrderByUsageCountDescLastUsedDesc(pageable))
                 .thenReturn(Collections.emptyList());
 
@@ -220,7 +220,7 @@ class PostgresMealTemplateRepositoryTest {
     void findTopByUsageCount_ShouldReturnEmptyList_WhenRepositoryThrowsException() {
         // given
         int limit = 5;
-        Pageable pageable = PageRequest.of(1, limit);
+        Pageable pageable = PageRequest.of(0, limit);
         when(jpaRepository.findTopByOrderByUsageCountDescLastUsedDesc(pageable))
                 .thenThrow(new RuntimeException("Database error"));
 
@@ -236,7 +236,7 @@ class PostgresMealTemplateRepositoryTest {
     void findRecentlyUsed_ShouldReturnListOfTemplates_WhenTemplatesExist() {
         // given
         int limit = 5;
-        Pageable pageable = PageRequest.of(1, limit);
+        Pageable pageable = PageRequest.of(0, limit);
         List<MealTemplateEntity> entities = Arrays.asList(mockEntity, createAnotherEntity());
         when(jpaRepository.findRecentlyUsed(pageable)).thenReturn(entities);
         when(converter.toModel(any(MealTemplateEntity.class))).thenReturn(mockTemplate);
@@ -254,7 +254,7 @@ class PostgresMealTemplateRepositoryTest {
     void findRecentlyUsed_ShouldReturnEmptyList_WhenNoTemplatesExist() {
         // given
         int limit = 5;
-        Pageable pageable = PageRequest.of(1, limit);
+        Pageable pageable = PageRequest.of(0, limit);
         when(jpaRepository.findRecentlyUsed(pageable))
                 .thenReturn(Collections.emptyList());
 
@@ -271,7 +271,7 @@ class PostgresMealTemplateRepositoryTest {
     void findRecentlyUsed_ShouldReturnEmptyList_WhenRepositoryThrowsException() {
         // given
         int limit = 5;
-        Pageable pageable = PageRequest.of(1, limit);
+        Pageable pageable = PageRequest.of(0, limit);
         when(jpaRepository.findRecentlyUsed(pageable))
                 .thenThrow(new RuntimeException("Database error"));
 
@@ -438,9 +438,9 @@ class PostgresMealTemplateRepositoryTest {
         // given
         String query = "testowy";
         int limit = 10;
-        Pageable pageable = PageRequest.of(1, limit);
+        Pageable pageable = PageRequest.of(0, limit);
         List<MealTemplateEntity> entities = Collections.singletonList(mockEntity);
-        when(jpaRepository.searchAccessibleTemplates(query, TEST_USER_ID, pageable)).thenReturn(entities);
+        when(jpaRepository.searchAccessibleTemplates(query + ":*", TEST_USER_ID, pageable)).thenReturn(entities);
         when(converter.toModel(mockEntity)).thenReturn(mockTemplate);
 
         // when
@@ -449,7 +449,7 @@ class PostgresMealTemplateRepositoryTest {
         // then
         assertThat(result).hasSize(1);
         assertThat(result.getFirst().getName()).containsIgnoringCase("testowy");
-        verify(jpaRepository).searchAccessibleTemplates(query, TEST_USER_ID, pageable);
+        verify(jpaRepository).searchAccessibleTemplates(query + ":*", TEST_USER_ID, pageable);
         verify(converter).toModel(mockEntity);
     }
 
@@ -458,8 +458,8 @@ class PostgresMealTemplateRepositoryTest {
         // given
         String query = "nieistniejący";
         int limit = 10;
-        Pageable pageable = PageRequest.of(1, limit);
-        when(jpaRepository.searchAccessibleTemplates(query, TEST_USER_ID, pageable))
+        Pageable pageable = PageRequest.of(0, limit);
+        when(jpaRepository.searchAccessibleTemplates(query + ":*", TEST_USER_ID, pageable))
                 .thenReturn(Collections.emptyList());
 
         // when
@@ -467,7 +467,7 @@ class PostgresMealTemplateRepositoryTest {
 
         // then
         assertThat(result).isEmpty();
-        verify(jpaRepository).searchAccessibleTemplates(query, TEST_USER_ID, pageable);
+        verify(jpaRepository).searchAccessibleTemplates(query + ":*", TEST_USER_ID, pageable);
         verify(converter, never()).toModel(any());
     }
 
@@ -476,8 +476,8 @@ class PostgresMealTemplateRepositoryTest {
         // given
         String query = "testowy";
         int limit = 10;
-        Pageable pageable = PageRequest.of(1, limit);
-        when(jpaRepository.searchAccessibleTemplates(query, TEST_USER_ID, pageable))
+        Pageable pageable = PageRequest.of(0, limit);
+        when(jpaRepository.searchAccessibleTemplates(query + ":*", TEST_USER_ID, pageable))
                 .thenThrow(new RuntimeException("Database error"));
 
         // when
@@ -485,7 +485,7 @@ class PostgresMealTemplateRepositoryTest {
 
         // then
         assertThat(result).isEmpty();
-        verify(jpaRepository).searchAccessibleTemplates(query, TEST_USER_ID, pageable);
+        verify(jpaRepository).searchAccessibleTemplates(query + ":*", TEST_USER_ID, pageable);
     }
 
     private MealTemplateEntity createAnotherEntity() {
@@ -5,15 +5,20 @@ import com.google.cloud.storage.Blob;
 import com.google.cloud.storage.BlobId;
 import com.google.cloud.storage.BlobInfo;
 import com.google.cloud.storage.Storage;
+import com.noisevisionsoftware.vitema.dto.search.SearchPage;
 import com.noisevisionsoftware.vitema.exception.NotFoundException;
 import com.noisevisionsoftware.vitema.model.recipe.NutritionalValues;
 import com.noisevisionsoftware.vitema.model.recipe.Recipe;
 import com.noisevisionsoftware.vitema.model.recipe.RecipeImageReference;
+import com.noisevisionsoftware.vitema.model.recipe.RecipeIngredient;
 import com.noisevisionsoftware.vitema.mapper.recipe.RecipeJpaConverter;
 import com.noisevisionsoftware.vitema.model.recipe.jpa.RecipeEntity;
 import com.noisevisionsoftware.vitema.repository.jpa.recipe.RecipeJpaRepository;
 import com.noisevisionsoftware.vitema.repository.recipe.RecipeImageRepository;
 import com.noisevisionsoftware.vitema.repository.recipe.RecipeRepository;
+import com.noisevisionsoftware.vitema.service.product.ProductUsageCounter;
+import com.noisevisionsoftware.vitema.service.search.SearchCursor;
+import com.noisevisionsoftware.vitema.utils.RecipeCursor;
 import org.apache.coyote.BadRequestException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -31,6 +36,7 @@ import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -59,6 +65,9 @@ class RecipeServiceTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private ProductUsageCounter productUsageCounter;
+
     @InjectMocks
     private RecipeService recipeService;
 
@@ -161,29 +170,106 @@ class RecipeServiceTest {
     void getAllRecipes_ShouldReturnPageOfRecipes() {
         // given
         Pageable pageable = PageRequest.of(0, 10);
-        List<Recipe> recipes = Arrays.asList(createTestRecipe(), createTestRecipe("test-recipe-id-2"));
-        List<RecipeEntity> entities = Arrays.asList(
-                createTestRecipeEntity(createTestRecipe()),
-                createTestRecipeEntity(createTestRecipe("test-recipe-id-2"))
-        );
-        Page<RecipeEntity> entitiesPage = new PageImpl<>(entities, pageable, entities.size());
-
-        when(recipeJpaRepository.findAllVisible(anyString(), eq(pageable))).thenReturn(entitiesPage);
-        when(recipeJpaConverter.toModel(any(RecipeEntity.class)))
-                .thenAnswer(invocation -> {
-                    RecipeEntity entity = invocation.getArgument(0);
-                    return recipes.stream()
-                            .filter(r -> r.getId().equals(entity.getExternalId()))
-                            .findFirst()
-                            .orElse(createTestRecipe());
-                });
+        RecipeJpaRepository.RecipeSummaryView first = summaryView(1L);
+        RecipeJpaRepository.RecipeSummaryView second = summaryView(2L);
+        Page<RecipeJpaRepository.RecipeSummaryView> summariesPage =
+                new PageImpl<>(List.of(first, second), pageable, 2);
+        RecipeJpaRepository.RecipePhotoView photo = photoView(2L, "photo.jpg");
+
+        when(recipeJpaRepository.findAllVisible(anyString(), eq(pageable))).thenReturn(summariesPage);
+        when(recipeJpaRepository.findPhotosByRecipeIds(List.of(1L, 2L))).thenReturn(List.of(photo));
+        when(recipeJpaConverter.toSummaryModel(first, null)).thenReturn(createTestRecipe());
+        when(recipeJpaConverter.toSummaryModel(second, List.of("photo.jpg"))).thenReturn(createTestRecipe("test-recipe-id-2"));
 
         // when
         Page<Recipe> actualPage = recipeService.getAllRecipes(pageable);
 
         // then
-        assertThat(actualPage.getContent()).hasSize(2);
+        assertThat(actualPage.getContent()).extracting(Recipe::getId)
+                .containsExactly(createTestRecipe().getId(), "test-recipe-id-2");
         verify(recipeJpaRepository).findAllVisible(anyString(), eq(pageable));
+        verify(recipeJpaRepository, times(1)).findPhotosByRecipeIds(anyCollection());
+        verify(recipeJpaConverter, never()).toModel(any());
+    }
+
+    @Test
+    void getRecipesPage_WhenNoCursor_ShouldReturnNewestRecipesAndCursorOfLastRow() {
+        // given
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_456_000);
+        RecipeJpaRepository.RecipeSummaryView first = summaryView(7L);
+        RecipeJpaRepository.RecipeSummaryView last = summaryView(5L);
+        when(last.getCreatedAt()).thenReturn(createdAt);
+        RecipeJpaRepository.RecipeSummaryView beyondPage = mock(RecipeJpaRepository.RecipeSummaryView.class);
+
+        when(userService.getCurrentUserId()).thenReturn("user-1");
+        when(recipeJpaRepository.findFirstVisible("user-1", 3)).thenReturn(List.of(first, last, beyondPage));
+        when(recipeJpaRepository.findPhotosByRecipeIds(List.of(7L, 5L))).thenReturn(List.of());
+        when(recipeJpaConverter.toSummaryModel(any(), isNull())).thenReturn(createTestRecipe());
+
+        // when
+        SearchPage<Recipe> page = recipeService.getRecipesPage(null, 2);
+
+        // then
+        assertThat(page.items()).hasSize(2);
+        assertThat(RecipeCursor.decode(page.nextCursor())).isEqualTo(new RecipeCursor(createdAt, 5L));
+        verify(recipeJpaRepository, never()).findAllVisible(any(), any());
+        verify(recipeJpaRepository, never()).countVisible(any());
+    }
+
+    @Test
+    void getRecipesPage_WhenCursorProvided_ShouldContinueAfterCursorPosition() {
+        // given
+        RecipeCursor cursor = new RecipeCursor(LocalDateTime.of(2024, 5, 1, 12, 0), 5L);
+        RecipeJpaRepository.RecipeSummaryView next = summaryView(4L);
+        RecipeJpaRepository.RecipePhotoView photo = photoView(4L, "photo.jpg");
+
+        when(userService.getCurrentUserId()).thenReturn(null);
+        when(recipeJpaRepository.findVisibleBefore("", cursor.createdAt(), 5L, 3)).thenReturn(List.of(next));
+        when(recipeJpaRepository.findPhotosByRecipeIds(List.of(4L))).thenReturn(List.of(photo));
+        when(recipeJpaConverter.toSummaryModel(next, List.of("photo.jpg"))).thenReturn(createTestRecipe());
+
+        // when
+        SearchPage<Recipe> page = recipeService.getRecipesPage(cursor.encode(), 2);
+
+        // then
+        assertThat(page.items()).hasSize(1);
+        assertThat(page.nextCursor()).isNull();
+        verify(recipeJpaRepository, never()).findFirstVisible(any(), anyInt());
+    }
+
+    @Test
+    void getRecipesPage_WhenSizeAboveMaximum_ShouldClampLimit() {
+        // given
+        when(userService.getCurrentUserId()).thenReturn("user-1");
+        when(recipeJpaRepository.findFirstVisible("user-1", SearchCursor.MAX_LIMIT + 1)).thenReturn(List.of());
+
+        // when
+        SearchPage<Recipe> page = recipeService.getRecipesPage(null, Integer.MAX_VALUE);
+
+        // then
+        assertThat(page.items()).isEmpty();
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void getRecipesPage_WhenCursorInvalid_ShouldThrowException() {
+        // when & then
+        assertThatThrownBy(() -> recipeService.getRecipesPage("not-a-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(recipeJpaRepository);
+    }
+
+    @Test
+    void countVisibleRecipes_ShouldCountPublicAndOwnRecipes() {
+        // given
+        when(userService.getCurrentUserId()).thenReturn("user-1");
+        when(recipeJpaRepository.countVisible("user-1")).thenReturn(42L);
+
+        // when
+        long count = recipeService.countVisibleRecipes();
+
+        // then
+        assertThat(count).isEqualTo(42L);
     }
 
     @Test
@@ -224,6 +310,41 @@ class RecipeServiceTest {
                 .hasMessageContaining(TEST_RECIPE_ID);
     }
 
+    @Test
+    void updateRecipe_ShouldRecordUsageOnlyOfAddedProducts() {
+        // given
+        Recipe existingRecipe = createTestRecipe();
+        existingRecipe.setIngredients(List.of(ingredient(1L), ingredient(2L)));
+        Recipe updateRecipe = createTestRecipe();
+        updateRecipe.setIngredients(List.of(ingredient(2L), ingredient(3L), ingredient(null)));
+
+        when(recipeRepository.findById(TEST_RECIPE_ID)).thenReturn(Optional.of(existingRecipe));
+        when(recipeRepository.update(eq(TEST_RECIPE_ID), any(Recipe.class)))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+
+        // when
+        recipeService.updateRecipe(TEST_RECIPE_ID, updateRecipe);
+
+        // then
+        verify(productUsageCounter).recordUsage(Set.of(3L));
+    }
+
+    @Test
+    void createRecipe_ShouldRecordUsageOfLinkedProducts() {
+        // given
+        Recipe recipeToCreate = Recipe.builder()
+                .name("New Recipe")
+                .ingredients(List.of(ingredient(5L), ingredient(5L), ingredient(null), ingredient(7L)))
+                .build();
+        when(recipeRepository.save(any(Recipe.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        recipeService.createRecipe(recipeToCreate);
+
+        // then
+        verify(productUsageCounter).recordUsage(Set.of(5L, 7L));
+    }
+
     @Test
     void createRecipe_ShouldSetCreatedAtAndSave() {
         // given
@@ -778,28 +899,78 @@ class RecipeServiceTest {
     void searchRecipes_ShouldReturnMatchingRecipes() {
         // given
         String query = "pasta";
-        List<Recipe> expectedRecipes = Arrays.asList(createTestRecipe(), createTestRecipe("test-recipe-id-2"));
-        List<RecipeEntity> entities = Arrays.asList(
-                createTestRecipeEntity(createTestRecipe()),
-                createTestRecipeEntity(createTestRecipe("test-recipe-id-2"))
-        );
+        List<RecipeJpaRepository.RecipeSummaryView> summaries = List.of(summaryView(1L), summaryView(2L));
 
-        when(recipeJpaRepository.searchVisible(eq(query), anyString())).thenReturn(entities);
-        when(recipeJpaConverter.toModel(any(RecipeEntity.class)))
-                .thenAnswer(invocation -> {
-                    RecipeEntity entity = invocation.getArgument(0);
-                    return expectedRecipes.stream()
-                            .filter(r -> r.getId().equals(entity.getExternalId()))
-                            .findFirst()
-                            .orElse(createTestRecipe());
-                });
+        when(recipeJpaRepository.searchVisible(eq(query), anyString(), eq(21), eq(0))).thenReturn(summaries);
+        when(recipeJpaRepository.findPhotosByRecipeIds(List.of(1L, 2L))).thenReturn(List.of());
+        when(recipeJpaConverter.toSummaryModel(any(), isNull())).thenReturn(createTestRecipe());
 
         // when
         List<Recipe> result = recipeService.searchRecipes(query);
 
         // then
         assertThat(result).hasSize(2);
-        verify(recipeJpaRepository).searchVisible(eq(query), anyString());
+        verify(recipeJpaRepository).searchVisible(eq(query), anyString(), eq(21), eq(0));
+    }
+
+    @Test
+    void searchRecipes_WhenMoreRowsThanLimit_ShouldReturnPageWithNextCursor() {
+        // given
+        String query = "pasta";
+        List<RecipeJpaRepository.RecipeSummaryView> summaries = List.of(summaryView(3L), summaryView(4L), summaryView(5L));
+        when(recipeJpaRepository.searchVisible(eq(query), anyString(), eq(3), eq(2))).thenReturn(summaries);
+        when(recipeJpaRepository.findPhotosByRecipeIds(anyCollection())).thenReturn(List.of());
+        when(recipeJpaConverter.toSummaryModel(any(), isNull())).thenReturn(createTestRecipe());
+
+        // when
+        SearchPage<Recipe> page = recipeService.searchRecipes(query, 2, SearchCursor.encode(2));
+
+        // then
+        assertThat(page.items()).hasSize(2);
+        assertThat(SearchCursor.decode(page.nextCursor(), 1)).containsExactly(4);
+    }
+
+    @Test
+    void searchRecipeSuggestions_ShouldMapProjectionsInDatabaseOrder() {
+        // given
+        RecipeJpaRepository.RecipeSuggestionView first = mock(RecipeJpaRepository.RecipeSuggestionView.class);
+        RecipeJpaRepository.RecipeSuggestionView second = mock(RecipeJpaRepository.RecipeSuggestionView.class);
+        Recipe firstRecipe = createTestRecipe("r-1");
+        Recipe secondRecipe = createTestRecipe("r-2");
+        when(userService.getCurrentUserId()).thenReturn(null);
+        when(recipeJpaRepository.findSuggestions("pasta", "", 5)).thenReturn(List.of(first, second));
+        when(recipeJpaConverter.toSuggestionModel(first)).thenReturn(firstRecipe);
+        when(recipeJpaConverter.toSuggestionModel(second)).thenReturn(secondRecipe);
+
+        // when
+        List<Recipe> result = recipeService.searchRecipeSuggestions(" pasta ", 5);
+
+        // then
+        assertThat(result).containsExactly(firstRecipe, secondRecipe);
+        verify(recipeJpaRepository, never()).searchVisible(anyString(), anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void searchRecipeSuggestions_ShouldClampLimit() {
+        // given
+        when(userService.getCurrentUserId()).thenReturn(null);
+        when(recipeJpaRepository.findSuggestions("pasta", "", SearchCursor.MAX_LIMIT)).thenReturn(List.of());
+
+        // when
+        List<Recipe> result = recipeService.searchRecipeSuggestions("pasta", 100_000);
+
+        // then
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void searchRecipeSuggestions_WhenQueryIsBlank_ShouldNotQueryDatabase() {
+        // when
+        List<Recipe> result = recipeService.searchRecipeSuggestions("  ", 5);
+
+        // then
+        assertThat(result).isEmpty();
+        verifyNoInteractions(recipeJpaRepository);
     }
 
     @Test
@@ -853,6 +1024,13 @@ class RecipeServiceTest {
         recipeService.refreshRecipesCache();
     }
 
+    private RecipeIngredient ingredient(Long productId) {
+        return RecipeIngredient.builder()
+                .name("Składnik " + productId)
+                .productId(productId)
+                .build();
+    }
+
     private Recipe createTestRecipe() {
         return createTestRecipe(TEST_RECIPE_ID);
     }
@@ -883,4 +1061,17 @@ class RecipeServiceTest {
                         java.time.ZoneOffset.UTC))
                 .build();
     }
-}
\ No newline at end of file
+
+    private RecipeJpaRepository.RecipeSummaryView summaryView(Long id) {
+        RecipeJpaRepository.RecipeSummaryView view = mock(RecipeJpaRepository.RecipeSummaryView.class);
+        when(view.getId()).thenReturn(id);
+        return view;
+    }
+
+    private RecipeJpaRepository.RecipePhotoView photoView(Long recipeId, String photoUrl) {
+        RecipeJpaRepository.RecipePhotoView view = mock(RecipeJpaRepository.RecipePhotoView.class);
+        when(view.getRecipeId()).thenReturn(recipeId);
+        when(view.getPhotoUrl()).thenReturn(photoUrl);
+        return view;
+    }
+}
@@ -21,7 +21,10 @@ import java.util.concurrent.ExecutionException;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -44,9 +47,15 @@ class CategoryDataCleanupServiceTest {
     @Mock
     private WriteBatch writeBatch;
 
+    @Mock
+    private Query query;
+
     @Mock
     private ApiFuture<List<WriteResult>> writeResultsApiFuture;
 
+    @Mock
+    private IngredientParseCache ingredientParseCache;
+
     @InjectMocks
     private CategoryDataCleanupService categoryDataCleanupService;
 
@@ -55,6 +64,9 @@ class CategoryDataCleanupServiceTest {
     @BeforeEach
     void setUp() {
         when(firestore.collection(COLLECTION_NAME)).thenReturn(collectionReference);
+        when(collectionReference.orderBy(any(FieldPath.class))).thenReturn(query);
+        when(query.limit(anyInt())).thenReturn(query);
+        when(query.startAfter(anyString())).thenReturn(query);
     }
 
     @Nested
@@ -77,6 +89,7 @@ class CategoryDataCleanupServiceTest {
             // Then
             verify(writeBatch, never()).delete(any(DocumentReference.class));
             verify(writeBatch, never()).update(any(DocumentReference.class), anyMap());
+            verifyNoInteractions(ingredientParseCache);
         }
 
         @Test
@@ -114,6 +127,7 @@ class CategoryDataCleanupServiceTest {
             assertThat(variations).containsExactlyInAnyOrder("marchewka", "marchew", "marchewka 500g");
             assertThat(updates.get("usageCount")).isEqualTo(8);
             assertThat(updates.get("updatedAt")).isNotNull();
+            verify(ingredientParseCache).invalidateAll();
         }
 
         @Test
@@ -368,7 +382,7 @@ class CategoryDataCleanupServiceTest {
         @DisplayName("Should throw RuntimeException when Firestore query fails")
         void givenFirestoreQueryFailure_When_CleanupDuplicates_Then_ThrowRuntimeException() throws Exception {
             // Given
-            when(collectionReference.get()).thenReturn(querySnapshotApiFuture);
+            when(query.get()).thenReturn(querySnapshotApiFuture);
             when(querySnapshotApiFuture.get()).thenThrow(new ExecutionException("Firestore error", null));
 
             // When & Then
@@ -480,6 +494,202 @@ class CategoryDataCleanupServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("streaming and near-duplicates")
+    class StreamingTests {
+
+        @Test
+        @DisplayName("Should page through collection and merge duplicates found on different pages")
+        void givenDuplicatesOnDifferentPages_When_CleanupDuplicates_Then_MergeAcrossPages() throws Exception {
+            // Given
+            List<QueryDocumentSnapshot> firstPage = new ArrayList<>();
+            firstPage.add(createDocumentSnapshot("a000", "Kefir", Timestamp.ofTimeSecondsAndNanos(1000, 0),
+                    List.of("kefir"), 2L));
+            for (int i = 1; i < 500; i++) {
+                firstPage.add(createDocumentSnapshot(String.format("a%03d", i), uniqueName(i),
+                        null, null, null));
+            }
+            List<QueryDocumentSnapshot> secondPage = List.of(
+                    createDocumentSnapshot("b000", "kefir 400g", Timestamp.ofTimeSecondsAndNanos(2000, 0),
+                            List.of("kefir naturalny"), 3L));
+            setupPages(firstPage, secondPage);
+            setupWriteBatch();
+
+            // When
+            CategoryDataCleanupService.CleanupReport report = categoryDataCleanupService.cleanupDuplicates();
+
+            // Then
+            verify(query).startAfter("a499");
+            assertThat(report.scannedDocuments()).isEqualTo(501);
+            assertThat(report.documentsRemoved()).isEqualTo(1);
+            ArgumentCaptor<DocumentReference> deleteCaptor = ArgumentCaptor.forClass(DocumentReference.class);
+            verify(writeBatch).delete(deleteCaptor.capture());
+            assertThat(deleteCaptor.getValue().getId()).isEqualTo("a000");
+        }
+
+        @Test
+        @DisplayName("Should merge near-duplicates with the same category into the more used entry")
+        void givenNearDuplicatesWithSameCategory_When_CleanupDuplicates_Then_MergeIntoMoreUsed() throws Exception {
+            // Given
+            QueryDocumentSnapshot doc1 = createDocumentSnapshot("doc1", "jogurt naturalny", null,
+                    List.of("jogurt naturalny 2%"), 10L);
+            QueryDocumentSnapshot doc2 = createDocumentSnapshot("doc2", "jogurt naturalne", null,
+                    List.of("jogurty naturalne"), 2L);
+            when(doc1.getString("categoryId")).thenReturn("nabiał");
+            when(doc2.getString("categoryId")).thenReturn("nabiał");
+            setupQuerySnapshot(Arrays.asList(doc1, doc2));
+            setupWriteBatch();
+
+            // When
+            CategoryDataCleanupService.CleanupReport report = categoryDataCleanupService.cleanupDuplicates();
+
+            // Then
+            ArgumentCaptor<DocumentReference> deleteCaptor = ArgumentCaptor.forClass(DocumentReference.class);
+            verify(writeBatch).delete(deleteCaptor.capture());
+            assertThat(deleteCaptor.getValue().getId()).isEqualTo("doc2");
+
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<Map<String, Object>> updateMapCaptor = ArgumentCaptor.forClass(Map.class);
+            verify(writeBatch).update(any(DocumentReference.class), updateMapCaptor.capture());
+            assertThat(updateMapCaptor.getValue().get("usageCount")).isEqualTo(12);
+            @SuppressWarnings("unchecked")
+            List<String> variations = (List<String>) updateMapCaptor.getValue().get("variations");
+            assertThat(variations).contains("jogurt naturalne", "jogurty naturalne", "jogurt naturalny 2%");
+            assertThat(report.nearDuplicates()).singleElement()
+                    .satisfies(nearDuplicate -> assertThat(nearDuplicate.merged()).isTrue());
+        }
+
+        @Test
+        @DisplayName("Should only report near-duplicates from different categories")
+        void givenNearDuplicatesWithDifferentCategories_When_CleanupDuplicates_Then_ReportOnly() throws Exception {
+            // Given
+            QueryDocumentSnapshot doc1 = createDocumentSnapshot("doc1", "jogurt truskawkowy", null, null, 5L);
+            QueryDocumentSnapshot doc2 = createDocumentSnapshot("doc2", "jogurt truskawkowe", null, null, 1L);
+            when(doc1.getString("categoryId")).thenReturn("nabiał");
+            when(doc2.getString("categoryId")).thenReturn("przekąski");
+            setupQuerySnapshot(Arrays.asList(doc1, doc2));
+            setupWriteBatch();
+
+            // When
+            CategoryDataCleanupService.CleanupReport report = categoryDataCleanupService.cleanupDuplicates();
+
+            // Then
+            verify(writeBatch, never()).delete(any(DocumentReference.class));
+            assertThat(report.nearDuplicates()).singleElement()
+                    .satisfies(nearDuplicate -> assertThat(nearDuplicate.merged()).isFalse());
+        }
+
+        @Test
+        @DisplayName("Should report changes without writing in dry-run mode")
+        void givenDuplicates_When_PreviewDuplicates_Then_ReportDiffWithoutWrites() throws Exception {
+            // Given
+            QueryDocumentSnapshot doc1 = createDocumentSnapshot("doc1", "Mleko", Timestamp.ofTimeSecondsAndNanos(2000, 0),
+                    List.of("mleko"), 4L);
+            QueryDocumentSnapshot doc2 = createDocumentSnapshot("doc2", "mleko", Timestamp.ofTimeSecondsAndNanos(1000, 0),
+                    List.of("mleko 1l"), 1L);
+            setupQuerySnapshot(Arrays.asList(doc1, doc2));
+
+            // When
+            CategoryDataCleanupService.CleanupReport report = categoryDataCleanupService.previewDuplicates();
+
+            // Then
+            verify(firestore, never()).batch();
+            verifyNoInteractions(ingredientParseCache);
+            assertThat(report.dryRun()).isTrue();
+            assertThat(report.documentsRemoved()).isZero();
+            assertThat(report.merges()).containsExactly(new CategoryDataCleanupService.MergeDiff(
+                    "mleko", "doc1", List.of("doc2"), 5, List.of("mleko 1l")));
+        }
+    }
+
+    @Nested
+    @DisplayName("background job")
+    class BackgroundJobTests {
+
+        @Test
+        @DisplayName("Should resume failed job from the last scanned page")
+        void givenFailedJob_When_StartedAgain_Then_ResumeFromCursor() throws Exception {
+            // Given
+            List<QueryDocumentSnapshot> firstPage = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                firstPage.add(createDocumentSnapshot(String.format("a%03d", i), uniqueName(i),
+                        null, null, null));
+            }
+            QuerySnapshot firstSnapshot = mock(QuerySnapshot.class);
+            QuerySnapshot secondSnapshot = mock(QuerySnapshot.class);
+            when(firstSnapshot.getDocuments()).thenReturn(firstPage);
+            when(secondSnapshot.getDocuments()).thenReturn(List.of());
+            when(query.get()).thenReturn(querySnapshotApiFuture);
+            when(querySnapshotApiFuture.get())
+                    .thenReturn(firstSnapshot)
+                    .thenThrow(new ExecutionException("Przekroczono limit czasu", null))
+                    .thenReturn(secondSnapshot);
+
+            // When
+            categoryDataCleanupService.startCleanupJob(true);
+            awaitState(CategoryDataCleanupService.JobState.FAILED);
+            categoryDataCleanupService.startCleanupJob(true);
+            CategoryDataCleanupService.CleanupJobStatus status = awaitState(CategoryDataCleanupService.JobState.COMPLETED);
+
+            // Then
+            verify(query, times(2)).startAfter("a499");
+            assertThat(status.scannedDocuments()).isEqualTo(500);
+            assertThat(status.report().merges()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should not count documents twice when a job failed in the middle of a page")
+        void givenJobFailedMidPage_When_StartedAgain_Then_EachDocumentMergedOnce() throws Exception {
+            // Given
+            QueryDocumentSnapshot doc1 = createDocumentSnapshot("doc1", "Mleko", Timestamp.ofTimeSecondsAndNanos(2000, 0),
+                    List.of("mleko"), 4L);
+            QueryDocumentSnapshot doc2 = createDocumentSnapshot("doc2", "mleko", Timestamp.ofTimeSecondsAndNanos(1000, 0),
+                    List.of("mleko 1l"), 1L);
+            QueryDocumentSnapshot doc3 = createDocumentSnapshot("doc3", "chleb", null, null, null);
+            when(doc2.getLong("usageCount"))
+                    .thenThrow(new IllegalStateException("Niepoprawny typ pola usageCount"))
+                    .thenReturn(1L);
+            setupQuerySnapshot(Arrays.asList(doc1, doc2, doc3));
+            setupWriteBatch();
+
+            // When
+            categoryDataCleanupService.startCleanupJob(false);
+            awaitState(CategoryDataCleanupService.JobState.FAILED);
+            categoryDataCleanupService.startCleanupJob(false);
+            CategoryDataCleanupService.CleanupJobStatus status = awaitState(CategoryDataCleanupService.JobState.COMPLETED);
+
+            // Then
+            DocumentReference ref1 = doc1.getReference();
+            DocumentReference ref2 = doc2.getReference();
+            assertThat(status.scannedDocuments()).isEqualTo(3);
+            assertThat(status.report().merges()).containsExactly(new CategoryDataCleanupService.MergeDiff(
+                    "mleko", "doc1", List.of("doc2"), 5, List.of("mleko 1l")));
+            verify(writeBatch).update(eq(ref1), anyMap());
+            verify(writeBatch).delete(ref2);
+            verify(writeBatch, never()).delete(ref1);
+        }
+
+        @Test
+        @DisplayName("Should return empty status when no job was started")
+        void givenNoJob_When_GetStatus_Then_Empty() {
+            assertThat(categoryDataCleanupService.getCleanupJobStatus()).isEmpty();
+            assertThat(categoryDataCleanupService.cancelCleanupJob()).isEmpty();
+        }
+
+        private CategoryDataCleanupService.CleanupJobStatus awaitState(CategoryDataCleanupService.JobState state)
+                throws InterruptedException {
+            for (int i = 0; i < 200; i++) {
+                CategoryDataCleanupService.CleanupJobStatus status =
+                        categoryDataCleanupService.getCleanupJobStatus().orElseThrow();
+                if (status.state() == state) {
+                    return status;
+                }
+                Thread.sleep(10);
+            }
+            throw new AssertionError("Zadanie nie osiągnęło stanu " + state);
+        }
+    }
+
     // Helper methods
 
     private QueryDocumentSnapshot createDocumentSnapshot(String id, String productName, Timestamp updatedAt,
@@ -499,11 +709,25 @@ class CategoryDataCleanupServiceTest {
     }
 
     private void setupQuerySnapshot(List<QueryDocumentSnapshot> documents) throws Exception {
-        when(collectionReference.get()).thenReturn(querySnapshotApiFuture);
+        when(query.get()).thenReturn(querySnapshotApiFuture);
         when(querySnapshotApiFuture.get()).thenReturn(querySnapshot);
         when(querySnapshot.getDocuments()).thenReturn(documents);
     }
 
+    // Nazwy bez cyfr - normalizacja usuwa liczby, więc "produkt 1" i "produkt 2" byłyby duplikatami
+    private String uniqueName(int i) {
+        return "produkt " + (char) ('a' + i / 26 % 26) + (char) ('a' + i % 26) + "x";
+    }
+
+    private void setupPages(List<QueryDocumentSnapshot> firstPage, List<QueryDocumentSnapshot> secondPage) throws Exception {
+        QuerySnapshot firstSnapshot = mock(QuerySnapshot.class);
+        QuerySnapshot secondSnapshot = mock(QuerySnapshot.class);
+        when(firstSnapshot.getDocuments()).thenReturn(firstPage);
+        when(secondSnapshot.getDocuments()).thenReturn(secondPage);
+        when(query.get()).thenReturn(querySnapshotApiFuture);
+        when(querySnapshotApiFuture.get()).thenReturn(firstSnapshot, secondSnapshot);
+    }
+
     private void setupWriteBatch() throws Exception {
         lenient().when(firestore.batch()).thenReturn(writeBatch);
         @SuppressWarnings("unchecked")
@@ -0,0 +1,144 @@
+package com.noisevisionsoftware.vitema.service.category;
+
+import com.google.cloud.firestore.ListenerRegistration;
+import com.noisevisionsoftware.vitema.model.shopping.category.ProductCategoryData;
+import com.noisevisionsoftware.vitema.service.category.FirestoreCategoryDataManager.CategoryChange;
+import com.noisevisionsoftware.vitema.service.category.FirestoreCategoryDataManager.CategoryChanges;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryDataSyncServiceTest {
+
+    @Mock
+    private FirestoreCategoryDataManager dataManager;
+
+    @Mock
+    private ProductCategorizationService categorizationService;
+
+    @Mock
+    private ListenerRegistration registration;
+
+    private CategoryDataSyncService syncService;
+
+    @BeforeEach
+    void setUp() {
+        syncService = new CategoryDataSyncService(dataManager, categorizationService);
+        ReflectionTestUtils.setField(syncService, "debounceMillis", 50L);
+        ReflectionTestUtils.setField(syncService, "retryDelayMillis", 50L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        syncService.stop();
+    }
+
+    @Test
+    void onChanges_ShouldApplyFullSnapshotAsResync() {
+        // given
+        when(dataManager.listenForChanges(any(), any())).thenReturn(registration);
+        syncService.start();
+        Consumer<CategoryChanges> listener = captureListener();
+
+        // when
+        listener.accept(new CategoryChanges(List.of(change("mleko", "nabiał"), change("chleb", "pieczywo")), true));
+
+        // then
+        verify(categorizationService, timeout(2_000))
+                .applyRemoteChanges(argThat(changes -> changes.size() == 2), eq(true));
+    }
+
+    @Test
+    void onChanges_ShouldCoalesceChangesWithinDebounceWindow() {
+        // given
+        when(dataManager.listenForChanges(any(), any())).thenReturn(registration);
+        syncService.start();
+        Consumer<CategoryChanges> listener = captureListener();
+        listener.accept(new CategoryChanges(List.of(), true));
+        verify(categorizationService, timeout(2_000)).applyRemoteChanges(anyCollection(), eq(true));
+
+        // when
+        listener.accept(new CategoryChanges(List.of(change("mleko", "nabiał")), false));
+        listener.accept(new CategoryChanges(List.of(change("mleko", "napoje"), new CategoryChange("chleb", null)), false));
+
+        // then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CategoryChange>> applied = ArgumentCaptor.forClass(List.class);
+        verify(categorizationService, timeout(2_000)).applyRemoteChanges(applied.capture(), eq(false));
+        assertEquals(2, applied.getValue().size());
+        assertEquals("napoje", applied.getValue().getFirst().data().getCategoryId());
+        assertEquals(new CategoryChange("chleb", null), applied.getValue().get(1));
+    }
+
+    @Test
+    void onError_ShouldReRegisterListenerAndResync() {
+        // given
+        when(dataManager.listenForChanges(any(), any())).thenReturn(registration);
+        syncService.start();
+        captureListener();
+
+        // when
+        syncService.onError(new IllegalStateException("Utracono połączenie"));
+
+        // then
+        verify(registration).remove();
+        verify(dataManager, timeout(2_000).times(2)).listenForChanges(any(), any());
+        Consumer<CategoryChanges> listener = captureListener();
+        listener.accept(new CategoryChanges(List.of(change("mleko", "nabiał")), true));
+        verify(categorizationService, timeout(2_000)).applyRemoteChanges(anyCollection(), eq(true));
+    }
+
+    @Test
+    void start_ShouldRetry_WhenRegistrationFails() {
+        // given
+        when(dataManager.listenForChanges(any(), any()))
+                .thenThrow(new IllegalStateException("Firestore niedostępny"))
+                .thenReturn(registration);
+
+        // when
+        syncService.start();
+
+        // then
+        verify(dataManager, timeout(2_000).times(2)).listenForChanges(any(), any());
+    }
+
+    @Test
+    void start_ShouldNotListen_WhenDisabled() throws InterruptedException {
+        // given
+        ReflectionTestUtils.setField(syncService, "enabled", false);
+
+        // when
+        syncService.start();
+        Thread.sleep(100);
+
+        // then
+        verifyNoInteractions(dataManager);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Consumer<CategoryChanges> captureListener() {
+        ArgumentCaptor<Consumer<CategoryChanges>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(dataManager, timeout(2_000).atLeastOnce()).listenForChanges(listener.capture(), any());
+        return listener.getValue();
+    }
+
+    private CategoryChange change(String key, String categoryId) {
+        return new CategoryChange(key, ProductCategoryData.builder()
+                .productName(key)
+                .categoryId(categoryId)
+                .build());
+    }
+}
@@ -0,0 +1,105 @@
+package com.noisevisionsoftware.vitema.service.category;
+
+import com.noisevisionsoftware.vitema.model.shopping.category.ProductCategoryData;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategoryIndexTest {
+
+    @Test
+    void withChanges_ShouldLeavePreviousVersionUntouched() {
+        // given
+        CategoryIndex first = CategoryIndex.build(Map.of(
+                "mleko", entry("mleko", "nabiał", 10, "mleko 3.2%"),
+                "chleb", entry("chleb", "pieczywo", 8, "chleb razowy")));
+        Map<String, ProductCategoryData> changes = new HashMap<>();
+        changes.put("mleko", entry("mleko", "napoje", 11, "mleko owsiane"));
+        changes.put("banan", entry("banan", "owoce", 1, "banan"));
+        changes.put("chleb", null);
+
+        // when
+        CategoryIndex second = first.withChanges(changes);
+
+        // then
+        assertEquals("nabiał", first.findByName("mleko").orElseThrow().getCategoryId());
+        assertTrue(first.findByVariation("mleko 3 2").isPresent());
+        assertTrue(first.findByVariation("mleko owsiane").isEmpty());
+        assertTrue(first.findByName("chleb").isPresent());
+        assertTrue(first.findMostUsedSimilar("chlebb", 0.75, 3).isPresent());
+        assertNull(first.get("banan"));
+
+        assertEquals("napoje", second.findByName("mleko").orElseThrow().getCategoryId());
+        assertTrue(second.findByVariation("mleko 3 2").isEmpty());
+        assertTrue(second.findByVariation("mleko owsiane").isPresent());
+        assertTrue(second.findByName("chleb").isEmpty());
+        assertTrue(second.findMostUsedSimilar("chlebb", 0.75, 3).isEmpty());
+        assertEquals("owoce", second.findMostUsedSimilar("banann", 0.75, 3).orElseThrow().getCategoryId());
+        assertEquals(Set.of("mleko", "banan"), second.keys());
+    }
+
+    @Test
+    void withChanges_WhenReadConcurrently_ShouldAlwaysExposeConsistentVersion() throws Exception {
+        // given
+        AtomicReference<CategoryIndex> published = new AtomicReference<>(CategoryIndex.build(Map.of(
+                "mleko", version(0),
+                "chleb", entry("chleb", "pieczywo", 8, "chleb razowy"))));
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        for (int r = 0; r < 4; r++) {
+            results.add(readers.submit(() -> {
+                int reads = 0;
+                do {
+                    CategoryIndex snapshot = published.get();
+                    // Wpis znaleziony po nazwie musi być dostępny przez każdy swój wariant i przez
+                    // podobieństwo - w tej samej wersji, bez okna, w którym indeksy go nie znają
+                    ProductCategoryData byName = snapshot.findByName("mleko").orElseThrow(
+                            () -> new AssertionError("entry missing from name index"));
+                    for (String variation : byName.getVariations()) {
+                        assertSame(byName, snapshot.findByVariation(CategoryIndex.normalize(variation))
+                                .orElseThrow(() -> new AssertionError("variation missing: " + variation)));
+                    }
+                    assertSame(byName, snapshot.findMostUsedSimilar("mlekoo", 0.75, 3).orElseThrow(
+                            () -> new AssertionError("entry missing from trigram index")));
+                    assertTrue(snapshot.findByName("chleb").isPresent());
+                    reads++;
+                } while (writing.get());
+                return reads;
+            }));
+        }
+
+        // when
+        for (int i = 1; i <= 5_000; i++) {
+            published.set(published.get().withChanges(Map.of("mleko", version(i))));
+        }
+        writing.set(false);
+
+        // then
+        readers.shutdown();
+        for (Future<Integer> result : results) {
+            assertTrue(result.get(30, TimeUnit.SECONDS) > 0);
+        }
+        assertEquals(5_000, published.get().findByName("mleko").orElseThrow().getUsageCount());
+    }
+
+    // Każda wersja ma inny zestaw wariantów, więc zmiana przebudowuje wszystkie indeksy wpisu
+    private ProductCategoryData version(int i) {
+        return entry("mleko", i % 2 == 0 ? "nabiał" : "napoje", i, "mleko " + i, "mleko wersja " + (i % 7));
+    }
+
+    private ProductCategoryData entry(String name, String categoryId, int usageCount, String... variations) {
+        return ProductCategoryData.builder()
+                .productName(name)
+                .categoryId(categoryId)
+                .usageCount(usageCount)
+                .variations(List.of(variations))
+                .build();
+    }
+}
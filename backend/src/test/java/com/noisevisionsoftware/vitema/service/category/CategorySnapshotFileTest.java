@@ -0,0 +1,123 @@
+package com.noisevisionsoftware.vitema.service.category;
+
+import com.google.cloud.Timestamp;
+import com.noisevisionsoftware.vitema.model.shopping.category.ProductCategoryData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategorySnapshotFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void write_ThenRead_ShouldRestoreAllEntries() throws IOException {
+        // given
+        Timestamp now = Timestamp.ofTimeSecondsAndNanos(1_700_000_000L, 123_456_789);
+        Map<String, ProductCategoryData> data = new HashMap<>();
+        data.put("ser żółty", ProductCategoryData.builder()
+                .productName("ser żółty")
+                .categoryId("nabiał")
+                .usageCount(7)
+                .variations(List.of("ser żółty gouda", "ser żółty 200g"))
+                .lastUsed(now)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+        data.put("chleb", ProductCategoryData.builder()
+                .productName("chleb")
+                .usageCount(1)
+                .variations(List.of())
+                .build());
+        Path file = tempDir.resolve("categories.bin");
+
+        // when
+        CategorySnapshotFile.write(file, data);
+        Map<String, ProductCategoryData> restored = CategorySnapshotFile.read(file);
+
+        // then
+        assertEquals(data, restored);
+        assertNull(restored.get("chleb").getCategoryId());
+        assertNull(restored.get("chleb").getLastUsed());
+    }
+
+    @Test
+    void write_ShouldStoreRepeatedStringsOnce() throws IOException {
+        // given
+        Map<String, ProductCategoryData> data = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            String name = "produkt numer " + i;
+            data.put(name, ProductCategoryData.builder()
+                    .productName(name)
+                    .categoryId("kategoria o bardzo długiej nazwie, powtarzana w każdym wpisie")
+                    .variations(List.of(name))
+                    .build());
+        }
+        Path file = tempDir.resolve("categories.bin");
+
+        // when
+        CategorySnapshotFile.write(file, data);
+
+        // then - klucz, nazwa i wariant to ten sam napis, kategoria zapisana raz
+        // (bez współdzielenia napisów wpis zajmowałby ok. 180 bajtów)
+        assertTrue(Files.size(file) < 100 * 100, "Snapshot size: " + Files.size(file));
+        assertEquals(data, CategorySnapshotFile.read(file));
+    }
+
+    @Test
+    void write_ShouldReplaceExistingSnapshot() throws IOException {
+        // given
+        Path file = tempDir.resolve("categories.bin");
+        CategorySnapshotFile.write(file, Map.of("mleko", entry("mleko")));
+
+        // when
+        CategorySnapshotFile.write(file, Map.of("chleb", entry("chleb")));
+
+        // then
+        assertEquals(Map.of("chleb", entry("chleb")), CategorySnapshotFile.read(file));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void read_ShouldReject_WhenFileIsCorrupted() throws IOException {
+        // given
+        Path file = tempDir.resolve("categories.bin");
+        CategorySnapshotFile.write(file, Map.of("mleko", entry("mleko")));
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(file, bytes);
+
+        // when & then
+        assertThrows(IOException.class, () -> CategorySnapshotFile.read(file));
+    }
+
+    @Test
+    void read_ShouldReject_WhenFileIsTruncated() throws IOException {
+        // given
+        Path file = tempDir.resolve("categories.bin");
+        Files.write(file, new byte[]{0x56, 0x43});
+
+        // when & then
+        assertThrows(IOException.class, () -> CategorySnapshotFile.read(file));
+    }
+
+    private ProductCategoryData entry(String name) {
+        return ProductCategoryData.builder()
+                .productName(name)
+                .categoryId("spożywcze")
+                .usageCount(1)
+                .variations(List.of(name))
+                .build();
+    }
+}
@@ -1,12 +1,16 @@
 package com.noisevisionsoftware.vitema.service.category;
 
 import com.google.api.core.ApiFuture;
+import com.google.cloud.Timestamp;
 import com.google.cloud.firestore.*;
+import com.google.cloud.firestore.EventListener;
 import com.noisevisionsoftware.vitema.model.shopping.category.ProductCategoryData;
 import com.noisevisionsoftware.vitema.utils.excelParser.model.ParsedProduct;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -186,6 +190,170 @@ class FirestoreCategoryDataManagerTest {
         verify(writeBatch).set(eq(documentReference), any(ProductCategoryData.class), eq(SetOptions.merge()));
     }
 
+    @Test
+    void saveData_shouldUseDocumentIdsFromLoadWithoutReads() throws ExecutionException, InterruptedException {
+        // Given
+        QueryDocumentSnapshot existingDoc = mock(QueryDocumentSnapshot.class);
+        when(existingDoc.getId()).thenReturn("legacy_doc_id");
+        when(existingDoc.toObject(ProductCategoryData.class)).thenReturn(ProductCategoryData.builder()
+                .productName("marchewka")
+                .categoryId("warzywa")
+                .build());
+        when(collectionReference.get()).thenReturn(querySnapshotApiFuture);
+        when(querySnapshotApiFuture.get()).thenReturn(querySnapshot);
+        when(querySnapshot.getDocuments()).thenReturn(List.of(existingDoc));
+
+        when(firestore.batch()).thenReturn(writeBatch);
+        when(writeBatch.commit()).thenReturn(writeResultsApiFuture);
+        when(collectionReference.document(anyString())).thenReturn(documentReference);
+
+        Map<String, ProductCategoryData> changed = new HashMap<>(firestoreCategoryDataManager.loadData());
+        changed.put("nowy produkt", ProductCategoryData.builder().productName("nowy produkt").build());
+
+        // When
+        firestoreCategoryDataManager.saveData(changed);
+
+        // Then
+        verify(collectionReference).document("legacy_doc_id");
+        verify(collectionReference).document("nowy_produkt");
+        verify(collectionReference, never()).whereEqualTo(anyString(), any());
+        verify(documentReference, never()).get();
+        verify(writeBatch, times(2)).set(eq(documentReference), any(ProductCategoryData.class), eq(SetOptions.merge()));
+    }
+
+    @Test
+    void saveData_shouldCommitAllBatchesBeforeWaiting() throws ExecutionException, InterruptedException {
+        // Given
+        when(collectionReference.get()).thenReturn(querySnapshotApiFuture);
+        when(querySnapshotApiFuture.get()).thenReturn(querySnapshot);
+        when(querySnapshot.getDocuments()).thenReturn(Collections.emptyList());
+        firestoreCategoryDataManager.loadData();
+
+        Map<String, ProductCategoryData> data = new HashMap<>();
+        for (int i = 0; i < 1_200; i++) {
+            String name = "produkt " + (char) ('a' + i % 26) + i;
+            data.put(name, ProductCategoryData.builder().productName(name).build());
+        }
+
+        when(firestore.batch()).thenReturn(writeBatch);
+        when(writeBatch.commit()).thenReturn(writeResultsApiFuture);
+        when(collectionReference.document(anyString())).thenReturn(documentReference);
+
+        // When
+        firestoreCategoryDataManager.saveData(data);
+
+        // Then
+        InOrder inOrder = inOrder(writeBatch, writeResultsApiFuture);
+        inOrder.verify(writeBatch, times(3)).commit();
+        inOrder.verify(writeResultsApiFuture, times(3)).get();
+        verify(writeBatch, times(1_200)).set(any(DocumentReference.class), any(ProductCategoryData.class), eq(SetOptions.merge()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void listenForChanges_shouldMapDocumentChangesToNormalizedKeys() {
+        // Given
+        ArgumentCaptor<EventListener<QuerySnapshot>> listener = ArgumentCaptor.forClass(EventListener.class);
+        when(collectionReference.addSnapshotListener(listener.capture())).thenReturn(mock(ListenerRegistration.class));
+        List<FirestoreCategoryDataManager.CategoryChanges> received = new ArrayList<>();
+        firestoreCategoryDataManager.listenForChanges(received::add, error -> fail());
+
+        ProductCategoryData modified = ProductCategoryData.builder().productName("Marchewka 100g").categoryId("warzywa").build();
+        ProductCategoryData removed = ProductCategoryData.builder().productName("jabłko").categoryId("owoce").build();
+        List<DocumentChange> documentChanges = List.of(
+                documentChange(DocumentChange.Type.MODIFIED, "marchewka_doc", modified),
+                documentChange(DocumentChange.Type.REMOVED, "jablko_doc", removed));
+        QuerySnapshot snapshot = mock(QuerySnapshot.class);
+        when(snapshot.getDocumentChanges()).thenReturn(documentChanges);
+
+        // When
+        listener.getValue().onEvent(snapshot, null);
+        listener.getValue().onEvent(snapshot, null);
+
+        // Then
+        List<FirestoreCategoryDataManager.CategoryChange> expected = List.of(
+                new FirestoreCategoryDataManager.CategoryChange("marchewka", modified),
+                new FirestoreCategoryDataManager.CategoryChange("jabłko", null));
+        assertEquals(List.of(
+                new FirestoreCategoryDataManager.CategoryChanges(expected, true),
+                new FirestoreCategoryDataManager.CategoryChanges(expected, false)), received);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void listenForChanges_shouldSkipInitialSnapshot_whenCollectionUnchangedSinceLoad()
+            throws ExecutionException, InterruptedException {
+        // Given
+        QueryDocumentSnapshot document = loadedDocument("marchewka", Timestamp.ofTimeSecondsAndNanos(100, 0));
+        firestoreCategoryDataManager.loadData();
+
+        ArgumentCaptor<EventListener<QuerySnapshot>> listener = ArgumentCaptor.forClass(EventListener.class);
+        when(collectionReference.addSnapshotListener(listener.capture())).thenReturn(mock(ListenerRegistration.class));
+        List<FirestoreCategoryDataManager.CategoryChanges> received = new ArrayList<>();
+        firestoreCategoryDataManager.listenForChanges(received::add, error -> fail());
+
+        QuerySnapshot initial = mock(QuerySnapshot.class);
+        when(initial.getDocuments()).thenReturn(List.of(document));
+        ProductCategoryData modified = ProductCategoryData.builder().productName("marchewka").categoryId("owoce").build();
+        QuerySnapshot delta = mock(QuerySnapshot.class);
+        DocumentChange change = documentChange(DocumentChange.Type.MODIFIED, "marchewka_doc", modified);
+        when(delta.getDocumentChanges()).thenReturn(List.of(change));
+
+        // When
+        listener.getValue().onEvent(initial, null);
+        listener.getValue().onEvent(delta, null);
+
+        // Then
+        assertEquals(List.of(new FirestoreCategoryDataManager.CategoryChanges(
+                List.of(new FirestoreCategoryDataManager.CategoryChange("marchewka", modified)), false)), received);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void listenForChanges_shouldDeliverInitialSnapshot_whenCollectionChangedSinceLoad()
+            throws ExecutionException, InterruptedException {
+        // Given
+        loadedDocument("marchewka", Timestamp.ofTimeSecondsAndNanos(100, 0));
+        firestoreCategoryDataManager.loadData();
+
+        ArgumentCaptor<EventListener<QuerySnapshot>> listener = ArgumentCaptor.forClass(EventListener.class);
+        when(collectionReference.addSnapshotListener(listener.capture())).thenReturn(mock(ListenerRegistration.class));
+        List<FirestoreCategoryDataManager.CategoryChanges> received = new ArrayList<>();
+        firestoreCategoryDataManager.listenForChanges(received::add, error -> fail());
+
+        ProductCategoryData modified = ProductCategoryData.builder().productName("marchewka").categoryId("owoce").build();
+        DocumentChange change = documentChange(DocumentChange.Type.ADDED, "marchewka_doc", modified);
+        QueryDocumentSnapshot document = change.getDocument();
+        when(document.getUpdateTime()).thenReturn(Timestamp.ofTimeSecondsAndNanos(200, 0));
+        QuerySnapshot initial = mock(QuerySnapshot.class);
+        when(initial.getDocuments()).thenReturn(List.of(document));
+        when(initial.getDocumentChanges()).thenReturn(List.of(change));
+
+        // When
+        listener.getValue().onEvent(initial, null);
+
+        // Then
+        assertEquals(List.of(new FirestoreCategoryDataManager.CategoryChanges(
+                List.of(new FirestoreCategoryDataManager.CategoryChange("marchewka", modified)), true)), received);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void listenForChanges_shouldReportListenerErrors() {
+        // Given
+        ArgumentCaptor<EventListener<QuerySnapshot>> listener = ArgumentCaptor.forClass(EventListener.class);
+        when(collectionReference.addSnapshotListener(listener.capture())).thenReturn(mock(ListenerRegistration.class));
+        List<Exception> errors = new ArrayList<>();
+        firestoreCategoryDataManager.listenForChanges(changes -> fail(), errors::add);
+        FirestoreException error = mock(FirestoreException.class);
+
+        // When
+        listener.getValue().onEvent(null, error);
+
+        // Then
+        assertEquals(List.of(error), errors);
+    }
+
     @Test
     void updateProduct_shouldCreateNewDocument_whenProductDoesNotExist()
             throws ExecutionException, InterruptedException {
@@ -472,4 +640,26 @@ class FirestoreCategoryDataManagerTest {
             return "mleko".equals(productName);
         }), eq(SetOptions.merge()));
     }
-}
\ No newline at end of file
+
+    private QueryDocumentSnapshot loadedDocument(String productName, Timestamp updateTime)
+            throws ExecutionException, InterruptedException {
+        QueryDocumentSnapshot document = mock(QueryDocumentSnapshot.class);
+        when(document.toObject(ProductCategoryData.class))
+                .thenReturn(ProductCategoryData.builder().productName(productName).categoryId("warzywa").build());
+        when(document.getUpdateTime()).thenReturn(updateTime);
+        when(collectionReference.get()).thenReturn(querySnapshotApiFuture);
+        when(querySnapshotApiFuture.get()).thenReturn(querySnapshot);
+        when(querySnapshot.getDocuments()).thenReturn(List.of(document));
+        return document;
+    }
+
+    private DocumentChange documentChange(DocumentChange.Type type, String id, ProductCategoryData data) {
+        QueryDocumentSnapshot document = mock(QueryDocumentSnapshot.class);
+        when(document.getId()).thenReturn(id);
+        when(document.toObject(ProductCategoryData.class)).thenReturn(data);
+        DocumentChange change = mock(DocumentChange.class);
+        when(change.getType()).thenReturn(type);
+        when(change.getDocument()).thenReturn(document);
+        return change;
+    }
+}
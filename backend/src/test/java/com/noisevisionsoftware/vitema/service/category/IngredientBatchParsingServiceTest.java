@@ -0,0 +1,258 @@
+package com.noisevisionsoftware.vitema.service.category;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.noisevisionsoftware.vitema.dto.response.category.ParsedProductLineResponse;
+import com.noisevisionsoftware.vitema.exception.PayloadTooLargeException;
+import com.noisevisionsoftware.vitema.exception.TooManyRequestsException;
+import com.noisevisionsoftware.vitema.utils.excelParser.model.ParsedProduct;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IngredientBatchParsingServiceTest {
+
+    @Mock
+    private IngredientParseCache ingredientParseCache;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Powinien zapisać każdy niepusty składnik jako osobną linię JSON z indeksem")
+    void openStream_shouldWriteOneJsonLinePerIngredient() throws IOException {
+        // given
+        stubParsingByEcho();
+        IngredientBatchParsingService service = createService(100, 100, 2, 8);
+
+        // when
+        List<ParsedProductLineResponse> results = readLines(
+                writeStream(service.openStream(Arrays.asList("2 jajka", "  ", "100g ryżu", null, "1 banan"))));
+
+        // then
+        Map<Integer, String> namesByIndex = new HashMap<>();
+        results.forEach(line -> namesByIndex.put(line.getIndex(), line.getProduct().getName()));
+        assertEquals(Map.of(0, "2 jajka", 2, "100g ryżu", 4, "1 banan"), namesByIndex);
+        verify(ingredientParseCache, times(3)).parse(anyString());
+    }
+
+    @Test
+    @DisplayName("Nie powinien parsować naraz więcej składników niż limit")
+    void openStream_shouldRespectInFlightLimit() throws IOException {
+        // given
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(ingredientParseCache.parse(anyString())).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(2);
+            running.decrementAndGet();
+            return ParsedProduct.builder().name(invocation.getArgument(0)).build();
+        });
+        IngredientBatchParsingService service = createService(1000, 100, 1, 4);
+        List<String> lines = IntStream.range(0, 200).mapToObj(i -> "składnik " + i).toList();
+
+        // when
+        List<ParsedProductLineResponse> results = readLines(writeStream(service.openStream(lines)));
+
+        // then
+        assertEquals(200, results.size());
+        assertEquals(200, results.stream().map(ParsedProductLineResponse::getIndex).distinct().count());
+        assertTrue(maxRunning.get() <= 4, "max in flight: " + maxRunning.get());
+    }
+
+    @Test
+    @DisplayName("Powinien odrzucić żądanie z liczbą składników ponad limit")
+    void openStream_shouldRejectTooManyLines() {
+        // given
+        IngredientBatchParsingService service = createService(2, 100, 1, 4);
+
+        // when & then
+        assertThrows(PayloadTooLargeException.class, () -> service.openStream(List.of("a", "b", "c")));
+        assertEquals(1, service.getAvailableBatchSlots());
+        verifyNoInteractions(ingredientParseCache);
+    }
+
+    @Test
+    @DisplayName("Powinien odrzucić żądanie ze zbyt długim składnikiem")
+    void openStream_shouldRejectTooLongLine() {
+        // given
+        IngredientBatchParsingService service = createService(10, 5, 1, 4);
+
+        // when & then
+        assertThrows(PayloadTooLargeException.class, () -> service.openStream(List.of("jajko", "za długi")));
+    }
+
+    @Test
+    @DisplayName("Powinien odrzucić strumień ponad limit równoczesnych i zwolnić miejsce po zakończeniu")
+    void openStream_shouldLimitConcurrentStreams() throws IOException {
+        // given
+        stubParsingByEcho();
+        IngredientBatchParsingService service = createService(10, 100, 1, 4);
+        StreamingResponseBody first = service.openStream(List.of("jajko"));
+
+        // when & then
+        assertThrows(TooManyRequestsException.class, () -> service.openStream(List.of("mleko")));
+
+        writeStream(first);
+        assertEquals(1, service.getAvailableBatchSlots());
+        assertNotNull(service.openStream(List.of("mleko")));
+    }
+
+    @Test
+    @DisplayName("Powinien zwolnić miejsce, gdy zapis do klienta się nie powiedzie")
+    void openStream_shouldReleaseSlotWhenClientDisconnects() {
+        // given
+        stubParsingByEcho();
+        IngredientBatchParsingService service = createService(10, 100, 1, 4);
+        StreamingResponseBody body = service.openStream(List.of("jajko", "mleko"));
+
+        // when & then
+        assertThrows(IOException.class, () -> body.writeTo(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        }));
+        assertEquals(1, service.getAvailableBatchSlots());
+    }
+
+    @Test
+    @DisplayName("Powinien zwolnić miejsce, gdy zapis nigdy nie wystartował - tylko raz")
+    void openStream_shouldReleaseSlotOnceWhenStreamAbandoned() throws IOException {
+        // given
+        stubParsingByEcho();
+        IngredientBatchParsingService service = createService(10, 100, 2, 4);
+        IngredientBatchParsingService.BatchStream abandoned = service.openStream(List.of("jajko"));
+        IngredientBatchParsingService.BatchStream written = service.openStream(List.of("mleko"));
+
+        // when
+        abandoned.release();
+        abandoned.release();
+        writeStream(written);
+        written.release();
+
+        // then
+        assertEquals(2, service.getAvailableBatchSlots());
+    }
+
+    @Test
+    @DisplayName("Powinien czytać składniki z JSON, pomijając inne pola")
+    void readJsonLines_shouldReadProductsArray() throws IOException {
+        // given
+        IngredientBatchParsingService service = createService(10, 100, 1, 4);
+        String json = "{\"source\": {\"file\": \"dieta.xlsx\"}, \"products\": [\"2 jajka\", null, \"100g ryżu\"]}";
+
+        // when
+        List<String> lines = service.readJsonLines(stream(json), -1);
+
+        // then
+        assertEquals(Arrays.asList("2 jajka", null, "100g ryżu"), lines);
+    }
+
+    @Test
+    @DisplayName("Powinien przerwać czytanie JSON po przekroczeniu limitu składników")
+    void readJsonLines_shouldRejectTooManyLinesWhileReading() {
+        // given
+        IngredientBatchParsingService service = createService(2, 100, 1, 4);
+
+        // when & then
+        assertThrows(PayloadTooLargeException.class,
+                () -> service.readJsonLines(stream("{\"products\": [\"a\", \"b\", \"c\"]}"), -1));
+    }
+
+    @Test
+    @DisplayName("Powinien odrzucić niepoprawny JSON")
+    void readJsonLines_shouldRejectMalformedJson() {
+        // given
+        IngredientBatchParsingService service = createService(10, 100, 1, 4);
+
+        // when & then
+        assertThrows(JsonProcessingException.class, () -> service.readJsonLines(stream("{\"products\": [{\"name\": 1}]}"), -1));
+        assertThrows(JsonProcessingException.class, () -> service.readJsonLines(stream("{\"products\": [\"a\""), -1));
+    }
+
+    @Test
+    @DisplayName("Powinien odrzucić żądanie z nagłówkiem Content-Length ponad limit bez czytania treści")
+    void readJsonLines_shouldRejectDeclaredContentLengthOverLimit() {
+        // given
+        IngredientBatchParsingService service = createService(10, 100, 1, 4);
+        InputStream body = mock(InputStream.class);
+
+        // when & then
+        assertThrows(PayloadTooLargeException.class, () -> service.readJsonLines(body, 1025));
+        verifyNoInteractions(body);
+    }
+
+    @Test
+    @DisplayName("Powinien przerwać czytanie treści bez Content-Length po przekroczeniu limitu bajtów")
+    void readTextLines_shouldStopReadingAfterByteLimit() {
+        // given
+        IngredientBatchParsingService service = createService(10_000, 100, 1, 4);
+        String text = "jajko\n".repeat(200);
+
+        // when & then
+        assertThrows(PayloadTooLargeException.class,
+                () -> service.readTextLines(stream(text), -1, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Powinien dzielić tekst na linie i sprawdzać ich długość")
+    void readTextLines_shouldSplitLinesAndCheckLength() throws IOException {
+        // given
+        IngredientBatchParsingService service = createService(10, 9, 1, 4);
+
+        // when
+        List<String> lines = service.readTextLines(stream("2 jajka\r\n\n1 banan"), -1, StandardCharsets.UTF_8);
+
+        // then
+        assertEquals(List.of("2 jajka", "", "1 banan"), lines);
+        assertThrows(PayloadTooLargeException.class,
+                () -> service.readTextLines(stream("100g ryżu białego"), -1, StandardCharsets.UTF_8));
+    }
+
+    private IngredientBatchParsingService createService(int maxLines, int maxLineLength,
+                                                        int maxConcurrentBatches, int inFlightLimit) {
+        return new IngredientBatchParsingService(ingredientParseCache, objectMapper,
+                maxLines, maxLineLength, maxConcurrentBatches, inFlightLimit, 1024);
+    }
+
+    private void stubParsingByEcho() {
+        lenient().when(ingredientParseCache.parse(anyString())).thenAnswer(invocation -> {
+            String text = invocation.getArgument(0);
+            return ParsedProduct.builder().name(text).quantity(1.0).unit("szt").original(text).build();
+        });
+    }
+
+    private InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String writeStream(StreamingResponseBody body) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        body.writeTo(outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+
+    private List<ParsedProductLineResponse> readLines(String ndjson) throws IOException {
+        List<ParsedProductLineResponse> results = new ArrayList<>();
+        for (String line : ndjson.split("\n")) {
+            if (!line.isEmpty()) {
+                results.add(objectMapper.readValue(line, ParsedProductLineResponse.class));
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,223 @@
+package com.noisevisionsoftware.vitema.service.category;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.noisevisionsoftware.vitema.model.shopping.category.CategorySuggestion;
+import com.noisevisionsoftware.vitema.utils.excelParser.model.ParsedProduct;
+import com.noisevisionsoftware.vitema.utils.excelParser.model.ParsingResult;
+import com.noisevisionsoftware.vitema.utils.excelParser.service.ProductParsingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IngredientParseCacheTest {
+
+    @Mock
+    private ProductParsingService productParsingService;
+
+    @Mock
+    private ProductCategorizationService categorizationService;
+
+    private IngredientParseCache ingredientParseCache;
+
+    @BeforeEach
+    void setUp() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(IngredientParseCache.CACHE_NAME);
+        cacheManager.setCaffeine(Caffeine.newBuilder().recordStats());
+        ingredientParseCache = new IngredientParseCache(productParsingService, categorizationService, cacheManager);
+    }
+
+    @Test
+    @DisplayName("Powinien parsować i kategoryzować powtarzający się składnik tylko raz")
+    void parse_shouldParseRepeatedIngredientOnce() {
+        // given
+        stubParsing("oliwa", 2.0, "łyżka");
+        when(categorizationService.suggestCategories(any(ParsedProduct.class), anyInt())).thenReturn(suggestions("oleje"));
+
+        // when
+        ParsedProduct first = ingredientParseCache.parse("2 łyżki oliwy");
+        ParsedProduct second = ingredientParseCache.parse("2 łyżki oliwy");
+
+        // then
+        assertEquals("oliwa", second.getName());
+        assertEquals(2.0, second.getQuantity());
+        assertEquals("łyżka", second.getUnit());
+        assertEquals("oleje", second.getCategoryId());
+        assertNotSame(first, second);
+        verify(productParsingService, times(1)).parseProduct(anyString());
+        verify(categorizationService, times(1)).suggestCategories(any(ParsedProduct.class), anyInt());
+    }
+
+    @Test
+    @DisplayName("Powinien traktować warianty różniące się wielkością liter i spacjami jako ten sam klucz")
+    void parse_shouldNormalizeCaseAndWhitespace() {
+        // given
+        stubParsing("oliwa", 2.0, "łyżka");
+
+        // when
+        ingredientParseCache.parse("2 łyżki oliwy");
+        ParsedProduct product = ingredientParseCache.parse("  2  Łyżki   OLIWY ");
+
+        // then
+        assertEquals("  2  Łyżki   OLIWY ", product.getOriginal());
+        verify(productParsingService, times(1)).parseProduct(anyString());
+    }
+
+    @Test
+    @DisplayName("Modyfikacja zwróconego produktu nie powinna zmieniać wartości w cache")
+    void parse_shouldReturnIndependentCopies() {
+        // given
+        stubParsing("mleko", 200.0, "ml");
+        when(categorizationService.suggestCategories(any(ParsedProduct.class), anyInt())).thenReturn(suggestions("nabiał"));
+
+        // when
+        ingredientParseCache.parse("200ml mleka").setCategoryId("inna");
+        ParsedProduct product = ingredientParseCache.parse("200ml mleka");
+
+        // then
+        assertEquals("nabiał", product.getCategoryId());
+    }
+
+    @Test
+    @DisplayName("Powinien zwracać alternatywne kategorie wyznaczone jednym wyszukiwaniem")
+    void parse_shouldReturnCategoryAlternatives() {
+        // given
+        stubParsing("śmietana", 1.0, "szt");
+        List<CategorySuggestion> suggestions = List.of(
+                new CategorySuggestion("nabiał", 0.9, CategorySuggestion.MatchType.VARIATION),
+                new CategorySuggestion("przyprawy", 0.7, CategorySuggestion.MatchType.SIMILAR));
+        when(categorizationService.suggestCategories(any(ParsedProduct.class), anyInt())).thenReturn(suggestions);
+
+        // when
+        ParsedProduct product = ingredientParseCache.parse("śmietana 18%");
+
+        // then
+        assertEquals("nabiał", product.getCategoryId());
+        assertEquals(suggestions, product.getCategorySuggestions());
+        verify(categorizationService).suggestCategories(any(ParsedProduct.class), eq(IngredientParseCache.MAX_CATEGORY_SUGGESTIONS));
+        verify(categorizationService, never()).suggestCategory(any(ParsedProduct.class));
+    }
+
+    @Test
+    @DisplayName("Powinien parsować ponownie po wyczyszczeniu cache")
+    void invalidateAll_shouldForceReparsing() {
+        // given
+        stubParsing("jajko", 1.0, "szt");
+
+        // when
+        ingredientParseCache.parse("1 jajko");
+        ingredientParseCache.invalidateAll();
+        ingredientParseCache.parse("1 jajko");
+
+        // then
+        verify(productParsingService, times(2)).parseProduct(anyString());
+    }
+
+    @Test
+    @DisplayName("Powinien zwrócić produkt domyślny i nie zapamiętywać błędu parsowania")
+    void parse_shouldReturnFallbackWithoutCachingFailure() {
+        // given
+        when(productParsingService.parseProduct(anyString())).thenThrow(new RuntimeException("Parsing error"));
+
+        // when
+        ParsedProduct first = ingredientParseCache.parse("coś dziwnego");
+        ingredientParseCache.parse("coś dziwnego");
+
+        // then
+        assertEquals("coś dziwnego", first.getName());
+        assertEquals(1.0, first.getQuantity());
+        assertEquals("szt", first.getUnit());
+        assertNull(first.getCategoryId());
+        assertNotNull(first.getId());
+        verify(productParsingService, times(2)).parseProduct(anyString());
+    }
+
+    @Test
+    @DisplayName("Powinien nadawać produktowi domyślnemu nowy identyfikator przy każdym wywołaniu")
+    void parse_shouldAssignNewIdToEachFallbackCopy() {
+        // given
+        when(productParsingService.parseProduct(anyString())).thenReturn(new ParsingResult(null, false));
+        when(categorizationService.suggestCategories(any(ParsedProduct.class), anyInt())).thenReturn(List.of());
+
+        // when
+        ParsedProduct first = ingredientParseCache.parse("???");
+        ParsedProduct second = ingredientParseCache.parse("???");
+
+        // then
+        assertNotNull(first.getId());
+        assertNotNull(second.getId());
+        assertNotEquals(first.getId(), second.getId());
+        assertEquals("???", second.getName());
+        verify(productParsingService, times(1)).parseProduct(anyString());
+    }
+
+    @Test
+    @DisplayName("Powinien zwracać sparsowany produkt bez identyfikatora")
+    void parse_shouldNotAssignIdToParsedProduct() {
+        // given
+        stubParsing("ryż", 100.0, "g");
+
+        // when
+        ParsedProduct product = ingredientParseCache.parse("100g ryżu");
+
+        // then
+        assertNull(product.getId());
+    }
+
+    @Test
+    @DisplayName("Powinien raportować trafienia i chybienia cache")
+    void getStats_shouldReportHitsAndMisses() {
+        // given
+        stubParsing("ryż", 100.0, "g");
+
+        // when
+        ingredientParseCache.parse("100g ryżu");
+        ingredientParseCache.parse("100g ryżu");
+        ingredientParseCache.parse("100g ryżu");
+        CacheStats stats = ingredientParseCache.getStats();
+
+        // then
+        assertEquals(2, stats.hitCount());
+        assertEquals(1, stats.missCount());
+    }
+
+    @Test
+    @DisplayName("Powinien normalizować klucz cache")
+    void normalizeKey_shouldLowercaseAndCollapseWhitespace() {
+        assertEquals("2 łyżki oliwy", IngredientParseCache.normalizeKey("\t2  Łyżki\nOLIWY  "));
+        assertEquals("", IngredientParseCache.normalizeKey("   "));
+    }
+
+    private void stubParsing(String name, double quantity, String unit) {
+        when(productParsingService.parseProduct(anyString())).thenAnswer(invocation -> {
+            String original = invocation.getArgument(0);
+            return new ParsingResult(ParsedProduct.builder()
+                    .name(name)
+                    .quantity(quantity)
+                    .unit(unit)
+                    .original(original)
+                    .hasCustomUnit(false)
+                    .build());
+        });
+    }
+
+    private List<CategorySuggestion> suggestions(String categoryId) {
+        return categoryId == null
+                ? List.of()
+                : List.of(new CategorySuggestion(categoryId, 1.0, CategorySuggestion.MatchType.EXACT));
+    }
+}
@@ -1,21 +1,34 @@
 package com.noisevisionsoftware.vitema.service.category;
 
 import com.google.cloud.Timestamp;
+import com.noisevisionsoftware.vitema.model.shopping.category.CategorySuggestion;
 import com.noisevisionsoftware.vitema.model.shopping.category.ProductCategoryData;
 import com.noisevisionsoftware.vitema.utils.excelParser.model.ParsedProduct;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,6 +37,12 @@ public class ProductCategorizationServiceTest {
     @Mock
     private FirestoreCategoryDataManager dataManager;
 
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache parseCache;
+
     @InjectMocks
     @Spy
     private ProductCategorizationService service;
@@ -121,10 +140,10 @@ public class ProductCategorizationServiceTest {
 
         // then
         verify(service).cleanProductName("banan");
-        assertTrue(testData.containsKey("banan"));
-        assertEquals("owoce", testData.get("banan").getCategoryId());
-        assertEquals(1, testData.get("banan").getUsageCount());
-        assertTrue(testData.get("banan").getVariations().contains("banan"));
+        ProductCategoryData banan = service.findExactMatch("banan").orElseThrow();
+        assertEquals("owoce", banan.getCategoryId());
+        assertEquals(1, banan.getUsageCount());
+        assertTrue(banan.getVariations().contains("banan"));
     }
 
     @Test
@@ -138,8 +157,87 @@ public class ProductCategorizationServiceTest {
         service.updateCategorization(product);
 
         // then
-        assertEquals(initialUsageCount + 1, testData.get("mleko").getUsageCount());
-        assertTrue(testData.get("mleko").getVariations().contains("mleko świeże 2%"));
+        ProductCategoryData mleko = service.findExactMatch("mleko").orElseThrow();
+        assertEquals(initialUsageCount + 1, mleko.getUsageCount());
+        assertTrue(mleko.getVariations().contains("mleko świeże 2%"));
+        // Wczytana wersja wpisu zostaje nietknięta
+        assertEquals(initialUsageCount, testData.get("mleko").getUsageCount());
+    }
+
+    @Test
+    void updateCategorization_shouldMakeNewProductAvailableForSuggestions() {
+        // given
+        ParsedProduct product = createParsedProduct("banan", "banan");
+        product.setCategoryId("owoce");
+
+        // when
+        service.updateCategorization(product);
+
+        // then
+        assertEquals("owoce", service.suggestCategory(createParsedProduct("banan", "banan")));
+        assertEquals("owoce", service.suggestCategory(createParsedProduct("banann", "banann")));
+    }
+
+    @Test
+    void updateCategorization_shouldIndexNewVariationOfExistingProduct() {
+        // given
+        ParsedProduct product = createParsedProduct("mleko owsiane barista", "mleko owsiane barista");
+        product.setCategoryId("napoje");
+
+        // when
+        service.updateCategorization(product);
+
+        // then
+        assertEquals(service.findExactMatch("mleko"), service.findVariationMatch("mleko owsiane barista"));
+        assertEquals("napoje", service.suggestCategory(createParsedProduct("mleko owsiane barista", "mleko owsiane barista")));
+    }
+
+    @Test
+    void updateCategorization_shouldReplaceIndexedEntryForExistingKey() {
+        // given
+        ParsedProduct first = createParsedProduct("banan", "banan");
+        first.setCategoryId("owoce");
+        service.updateCategorization(first);
+
+        ParsedProduct second = createParsedProduct("banan", "banan dojrzały");
+        second.setCategoryId("przekąski");
+
+        // when
+        service.updateCategorization(second);
+
+        // then
+        assertEquals("przekąski", service.suggestCategory(createParsedProduct("banan", "banan")));
+        assertTrue(service.findVariationMatch("banan").isEmpty());
+        assertTrue(service.findVariationMatch("banan dojrzały").isPresent());
+    }
+
+    @Test
+    void findExactMatch_shouldPreferMostUsedEntryWithSameName() {
+        // given
+        testData.put("mleko-2", ProductCategoryData.builder()
+                .productName("mleko")
+                .categoryId("napoje")
+                .usageCount(50)
+                .variations(new ArrayList<>())
+                .build());
+        service.init();
+
+        // when
+        Optional<ProductCategoryData> match = service.findExactMatch("mleko");
+
+        // then
+        assertTrue(match.isPresent());
+        assertEquals("napoje", match.get().getCategoryId());
+    }
+
+    @Test
+    void findSimilarMatch_shouldSkipNamesWithDistantLength() {
+        // when
+        Optional<ProductCategoryData> match = service.findSimilarMatch("mleko zsiadłe");
+
+        // then
+        assertTrue(match.isEmpty());
+        verify(service, never()).calculateSimilarity(anyString(), eq("mleko"));
     }
 
     @Test
@@ -157,8 +255,92 @@ public class ProductCategorizationServiceTest {
         service.updateCategoriesInTransaction(categorizedProducts);
 
         // then
-        verify(service, times(2)).updateCategorization(any(ParsedProduct.class));
-        verify(service).saveDataIfChanged();
+        assertEquals("owoce", service.findExactMatch("banan").orElseThrow().getCategoryId());
+        assertEquals("owoce", service.findExactMatch("jabłko").orElseThrow().getCategoryId());
+        verify(service, never()).saveDataIfChanged();
+        assertEquals(2, service.getWriteBehindStats().pendingEntries());
+    }
+
+    @Test
+    void updateCategoriesInTransaction_shouldFlushInBackground_whenQueueIsFull() {
+        // given
+        ReflectionTestUtils.setField(service, "maxPendingEntries", 2);
+        Map<String, List<ParsedProduct>> categorizedProducts = Map.of(
+                "owoce", List.of(createParsedProduct("banan", "banan"), createParsedProduct("jabłko", "jabłko")));
+
+        // when
+        service.updateCategoriesInTransaction(categorizedProducts);
+
+        // then
+        verify(dataManager, timeout(5_000)).saveData(argThat(changed -> changed.size() == 2));
+    }
+
+    @Test
+    void flushOnShutdown_shouldSavePendingEntries() {
+        // given
+        service.updateCategorization(createParsedProduct("banan", "banan"));
+        service.updateCategorization(createParsedProduct("mleko 2%", "mleko"));
+
+        // when
+        service.flushOnShutdown();
+
+        // then
+        verify(dataManager).saveData(argThat(changed -> changed.keySet().equals(Set.of("banan", "mleko"))));
+        assertEquals(0, service.getWriteBehindStats().pendingEntries());
+    }
+
+    @Test
+    void getWriteBehindStats_shouldReportFlushedEntriesAndLag() throws InterruptedException {
+        // given
+        service.updateCategorization(createParsedProduct("banan", "banan"));
+        Thread.sleep(20);
+        ProductCategorizationService.WriteBehindStats pending = service.getWriteBehindStats();
+
+        // when
+        service.flushPendingUpdates();
+
+        // then
+        assertEquals(1, pending.pendingEntries());
+        assertTrue(pending.currentLagMillis() >= 20);
+        ProductCategorizationService.WriteBehindStats flushed = service.getWriteBehindStats();
+        assertEquals(0, flushed.pendingEntries());
+        assertEquals(0, flushed.currentLagMillis());
+        assertTrue(flushed.lastFlushLagMillis() >= 20);
+        assertEquals(1, flushed.flushedEntries());
+        assertEquals(0, flushed.failedFlushes());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void updateCategoriesInTransaction_shouldSaveOnlyChangedEntries() {
+        // given
+        Map<String, List<ParsedProduct>> categorizedProducts = Map.of(
+                "owoce", List.of(createParsedProduct("banan", "banan")));
+        ArgumentCaptor<Map<String, ProductCategoryData>> saved = ArgumentCaptor.forClass(Map.class);
+
+        // when
+        service.updateCategoriesInTransaction(categorizedProducts);
+        service.saveDataIfChanged();
+
+        // then
+        verify(dataManager, times(1)).saveData(saved.capture());
+        assertEquals(Set.of("banan"), saved.getValue().keySet());
+    }
+
+    @Test
+    void saveDataIfChanged_shouldRetryEntriesAfterFailedSave() {
+        // given
+        service.updateCategorization(createParsedProduct("banan", "banan"));
+        doThrow(new RuntimeException("Firestore niedostępny"))
+                .doNothing()
+                .when(dataManager).saveData(anyMap());
+
+        // when
+        service.saveDataIfChanged();
+        service.saveDataIfChanged();
+
+        // then
+        verify(dataManager, times(2)).saveData(argThat(changed -> changed.keySet().equals(Set.of("banan"))));
     }
 
     @Test
@@ -174,6 +356,284 @@ public class ProductCategorizationServiceTest {
         verify(service, never()).saveDataIfChanged();
     }
 
+    @Test
+    void suggestCategories_shouldRankExactMatchFirstAndIncludeSimilarAlternatives() {
+        // given
+        service.applyRemoteChanges(List.of(
+                new FirestoreCategoryDataManager.CategoryChange("mleka", ProductCategoryData.builder()
+                        .productName("mleka")
+                        .categoryId("napoje")
+                        .usageCount(50)
+                        .variations(List.of())
+                        .build())), false);
+        ParsedProduct product = createParsedProduct("mleko", "mleko");
+
+        // when
+        List<CategorySuggestion> suggestions = service.suggestCategories(product, 3);
+
+        // then
+        assertEquals(2, suggestions.size());
+        assertEquals(new CategorySuggestion("nabiał", 1.0, CategorySuggestion.MatchType.EXACT), suggestions.get(0));
+        assertEquals("napoje", suggestions.get(1).categoryId());
+        assertEquals(CategorySuggestion.MatchType.SIMILAR, suggestions.get(1).matchType());
+        assertEquals(0.8 * 0.8, suggestions.get(1).confidence(), 1e-9);
+        assertEquals(service.suggestCategory(product), suggestions.getFirst().categoryId());
+    }
+
+    @Test
+    void suggestCategories_shouldListEachCategoryOnceAndRespectLimit() {
+        // given
+        service.applyRemoteChanges(List.of(
+                new FirestoreCategoryDataManager.CategoryChange("mleko krowie", ProductCategoryData.builder()
+                        .productName("mleko krowie")
+                        .categoryId("nabiał")
+                        .usageCount(1)
+                        .variations(List.of("mleko"))
+                        .build())), false);
+        ParsedProduct product = createParsedProduct("mleko", "mleko");
+
+        // when
+        List<CategorySuggestion> all = service.suggestCategories(product, 5);
+        List<CategorySuggestion> limited = service.suggestCategories(product, 1);
+
+        // then
+        assertEquals(1, all.size());
+        assertEquals(CategorySuggestion.MatchType.EXACT, all.getFirst().matchType());
+        assertEquals(all, limited);
+        assertTrue(service.suggestCategories(product, 0).isEmpty());
+    }
+
+    @Test
+    void suggestCategories_shouldAgreeWithSuggestCategoryForCorpusNames() {
+        // given
+        List<String> names = List.of("mleko", "mleko świeże", "chleb razowy", "chlebek", "mlek",
+                "chleb", "ser", "masło", "mleko 3.2%");
+
+        for (String name : names) {
+            ParsedProduct product = createParsedProduct(name, name);
+
+            // when
+            List<CategorySuggestion> suggestions = service.suggestCategories(product, 3);
+
+            // then
+            String expected = service.suggestCategory(product);
+            assertEquals(expected, suggestions.isEmpty() ? null : suggestions.getFirst().categoryId(), name);
+        }
+    }
+
+    @Test
+    void updateCategorization_shouldNotModifyPreviouslyReadEntry() {
+        // given
+        ProductCategoryData before = service.findExactMatch("mleko").orElseThrow();
+        List<String> variationsBefore = List.copyOf(before.getVariations());
+
+        // when
+        service.updateCategorization(createParsedProduct("mleko owsiane", "mleko owsiane"));
+
+        // then
+        assertEquals(10, before.getUsageCount());
+        assertEquals(variationsBefore, before.getVariations());
+        ProductCategoryData after = service.findExactMatch("mleko").orElseThrow();
+        assertEquals(11, after.getUsageCount());
+        assertTrue(after.getVariations().contains("mleko owsiane"));
+    }
+
+    @Test
+    void suggestCategory_shouldStayConsistentDuringParallelUpdates() throws Exception {
+        // given
+        int writers = 4;
+        int updatesPerWriter = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 4);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<?>> tasks = new ArrayList<>();
+
+        // when
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            tasks.add(executor.submit(() -> {
+                for (int i = 0; i < updatesPerWriter; i++) {
+                    ParsedProduct milk = createParsedProduct("mleko " + writer + "_" + i, "mleko " + writer + "_" + i);
+                    milk.setCategoryId("nabiał");
+                    service.updateCategorization(milk);
+                    service.updateCategorization(createParsedProduct("produkt" + writer + "x" + i, "produkt" + writer + "x" + i));
+                }
+            }));
+        }
+        for (int r = 0; r < 4; r++) {
+            tasks.add(executor.submit(() -> {
+                while (writing.get()) {
+                    assertEquals("nabiał", service.suggestCategory(createParsedProduct("mleko", "mleko")));
+                    service.suggestCategory(createParsedProduct("mleczko", "mleczko"));
+                    service.suggestCategory(createParsedProduct("produkt1x1", "produkt1x1"));
+                }
+            }));
+        }
+        for (int i = 0; i < writers; i++) {
+            tasks.get(i).get(30, TimeUnit.SECONDS);
+        }
+        writing.set(false);
+        for (Future<?> task : tasks) {
+            task.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // then
+        ProductCategoryData mleko = service.findExactMatch("mleko").orElseThrow();
+        assertEquals(10 + writers * updatesPerWriter, mleko.getUsageCount());
+        assertEquals(3 + writers * updatesPerWriter, mleko.getVariations().size());
+        assertTrue(service.findExactMatch("produkt3x499").isPresent());
+    }
+
+    @Test
+    void applyRemoteChanges_shouldAddUpdateAndRemoveEntries() {
+        // given
+        List<FirestoreCategoryDataManager.CategoryChange> changes = List.of(
+                new FirestoreCategoryDataManager.CategoryChange("banan", ProductCategoryData.builder()
+                        .productName("banan").categoryId("owoce").usageCount(3).variations(List.of("banany")).build()),
+                new FirestoreCategoryDataManager.CategoryChange("mleko", testData.get("mleko").toBuilder()
+                        .categoryId("napoje").build()),
+                new FirestoreCategoryDataManager.CategoryChange("chleb", null));
+        when(cacheManager.getCache(IngredientParseCache.CACHE_NAME)).thenReturn(parseCache);
+
+        // when
+        int applied = service.applyRemoteChanges(changes, false);
+
+        // then
+        assertEquals(3, applied);
+        verify(parseCache).clear();
+        assertEquals("owoce", service.suggestCategory(createParsedProduct("banany", "banany")));
+        assertEquals("napoje", service.suggestCategory(createParsedProduct("mleko", "mleko")));
+        assertTrue(service.findExactMatch("chleb").isEmpty());
+    }
+
+    @Test
+    void applyRemoteChanges_shouldSkipUnchangedAndLocallyModifiedEntries() {
+        // given
+        service.updateCategorization(createParsedProduct("banan", "banan"));
+        List<FirestoreCategoryDataManager.CategoryChange> changes = List.of(
+                new FirestoreCategoryDataManager.CategoryChange("banan", ProductCategoryData.builder()
+                        .productName("banan").categoryId("przekąski").build()),
+                new FirestoreCategoryDataManager.CategoryChange("mleko", testData.get("mleko")));
+
+        // when
+        int applied = service.applyRemoteChanges(changes, false);
+
+        // then
+        assertEquals(0, applied);
+        assertEquals(1, service.findExactMatch("banan").orElseThrow().getUsageCount());
+        verifyNoInteractions(cacheManager);
+    }
+
+    @Test
+    void applyRemoteChanges_withFullSnapshot_shouldRemoveEntriesMissingRemotely() {
+        // given
+        service.updateCategorization(createParsedProduct("banan", "banan"));
+        List<FirestoreCategoryDataManager.CategoryChange> snapshot = List.of(
+                new FirestoreCategoryDataManager.CategoryChange("mleko", testData.get("mleko")));
+
+        // when
+        int applied = service.applyRemoteChanges(snapshot, true);
+
+        // then
+        assertEquals(1, applied);
+        assertTrue(service.findExactMatch("chleb").isEmpty());
+        assertTrue(service.findExactMatch("mleko").isPresent());
+        assertTrue(service.findExactMatch("banan").isPresent());
+    }
+
+    @Test
+    void init_withSnapshotEnabled_shouldWriteSnapshotAfterLoad(@TempDir Path tempDir) throws Exception {
+        // given
+        Path snapshot = tempDir.resolve("categories.bin");
+        enableSnapshot(snapshot);
+
+        // when
+        service.init();
+
+        // then
+        Map<String, ProductCategoryData> written = CategorySnapshotFile.read(snapshot);
+        assertEquals(testData, written);
+    }
+
+    @Test
+    void init_withSnapshot_shouldServeSnapshotAndReconcileInBackground(@TempDir Path tempDir) throws Exception {
+        // given
+        Path snapshot = tempDir.resolve("categories.bin");
+        ProductCategoryData ser = ProductCategoryData.builder()
+                .productName("ser")
+                .categoryId("nabiał")
+                .usageCount(3)
+                .variations(List.of("ser żółty"))
+                .build();
+        CategorySnapshotFile.write(snapshot, Map.of("mleko", testData.get("mleko"), "ser", ser));
+        enableSnapshot(snapshot);
+        CountDownLatch firestoreReleased = new CountDownLatch(1);
+        when(dataManager.loadData()).thenAnswer(invocation -> {
+            firestoreReleased.await(5, TimeUnit.SECONDS);
+            return testData;
+        });
+
+        // when
+        service.init();
+
+        // then - słownik z migawki dostępny przed odpowiedzią Firestore
+        assertEquals("nabiał", service.suggestCategory(createParsedProduct("ser", "ser")));
+        assertTrue(service.findExactMatch("chleb").isEmpty());
+
+        firestoreReleased.countDown();
+        awaitBackgroundTasks();
+        assertTrue(service.findExactMatch("ser").isEmpty());
+        assertEquals("pieczywo", service.suggestCategory(createParsedProduct("chleb", "chleb")));
+        assertEquals(testData, CategorySnapshotFile.read(snapshot));
+    }
+
+    @Test
+    void init_withSnapshot_shouldKeepSnapshot_whenFirestoreReturnsNothing(@TempDir Path tempDir) throws Exception {
+        // given
+        Path snapshot = tempDir.resolve("categories.bin");
+        CategorySnapshotFile.write(snapshot, testData);
+        enableSnapshot(snapshot);
+        when(dataManager.loadData()).thenReturn(new ConcurrentHashMap<>());
+
+        // when
+        service.init();
+        awaitBackgroundTasks();
+
+        // then
+        assertTrue(service.findExactMatch("mleko").isPresent());
+        assertTrue(service.findExactMatch("chleb").isPresent());
+    }
+
+    @Test
+    void init_withCorruptedSnapshot_shouldLoadFromFirestore(@TempDir Path tempDir) throws Exception {
+        // given
+        Path snapshot = tempDir.resolve("categories.bin");
+        Files.write(snapshot, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20});
+        enableSnapshot(snapshot);
+
+        // when
+        service.init();
+
+        // then
+        verify(dataManager, times(2)).loadData();
+        assertTrue(service.findExactMatch("chleb").isPresent());
+        assertEquals(testData, CategorySnapshotFile.read(snapshot));
+    }
+
+    @Test
+    void saveDataIfChanged_withSnapshotEnabled_shouldRewriteSnapshot(@TempDir Path tempDir) throws Exception {
+        // given
+        Path snapshot = tempDir.resolve("categories.bin");
+        enableSnapshot(snapshot);
+        service.updateCategorization(createParsedProduct("banan", "banan"));
+
+        // when
+        service.saveDataIfChanged();
+
+        // then
+        assertTrue(CategorySnapshotFile.read(snapshot).containsKey("banan"));
+    }
+
     @Test
     void calculateSimilarity_shouldReturnZeroForShortStrings() {
         // given
@@ -201,6 +661,22 @@ public class ProductCategorizationServiceTest {
         assertTrue(similarity < 0.9);
     }
 
+    @Test
+    void findSimilarMatch_shouldAgreeWithCalculateSimilarityThreshold() {
+        // given
+        String[] queries = {"mlekoo", "mleczko", "mlek", "chlebb", "chleby razowe", "hleb", "ml", "mleko pełne"};
+
+        for (String query : queries) {
+            // when
+            Optional<ProductCategoryData> match = service.findSimilarMatch(query);
+
+            // then
+            boolean expected = testData.values().stream()
+                    .anyMatch(data -> service.calculateSimilarity(query, data.getProductName()) >= 0.75);
+            assertEquals(expected, match.isPresent(), query);
+        }
+    }
+
     @Test
     void cleanProductName_shouldNormalizeString() {
         // given
@@ -213,6 +689,18 @@ public class ProductCategorizationServiceTest {
         assertEquals("mleko 3 2 uht", cleanName);
     }
 
+    private void enableSnapshot(Path snapshot) {
+        ReflectionTestUtils.setField(service, "snapshotEnabled", true);
+        ReflectionTestUtils.setField(service, "snapshotPath", snapshot.toString());
+    }
+
+    private void awaitBackgroundTasks() throws Exception {
+        // Uzgadnianie działa na jednowątkowym executorze - pusty task kończy się po nim
+        ExecutorService executor = (ExecutorService) ReflectionTestUtils.getField(service, "flushExecutor");
+        executor.submit(() -> {
+        }).get(5, TimeUnit.SECONDS);
+    }
+
     private ParsedProduct createParsedProduct(String name, String original) {
         return ParsedProduct.builder()
                 .name(name)
@@ -8,6 +8,7 @@ import com.noisevisionsoftware.vitema.model.meal.MealTemplate;
 import com.noisevisionsoftware.vitema.model.recipe.NutritionalValues;
 import com.noisevisionsoftware.vitema.model.recipe.Recipe;
 import com.noisevisionsoftware.vitema.service.RecipeService;
+import com.noisevisionsoftware.vitema.service.search.SearchCursor;
 import com.noisevisionsoftware.vitema.utils.MealTemplateConverter;
 import com.noisevisionsoftware.vitema.utils.SimilarityCalculator;
 import org.junit.jupiter.api.BeforeEach;
@@ -117,7 +118,7 @@ class MealSuggestionServiceTest {
 
             // Then
             assertThat(result).isEmpty();
-            verify(recipeService, never()).searchRecipes(anyString());
+            verify(recipeService, never()).searchRecipeSuggestions(anyString(), anyInt());
             verify(mealTemplateService, never()).searchAccessibleTemplates(anyString(), anyString(), anyInt());
         }
 
@@ -133,7 +134,7 @@ class MealSuggestionServiceTest {
 
             // Then
             assertThat(result).isEmpty();
-            verify(recipeService, never()).searchRecipes(anyString());
+            verify(recipeService, never()).searchRecipeSuggestions(anyString(), anyInt());
             verify(mealTemplateService, never()).searchAccessibleTemplates(anyString(), anyString(), anyInt());
         }
 
@@ -142,7 +143,7 @@ class MealSuggestionServiceTest {
         void shouldUseDefaultLimit_When_LimitIsInvalid() {
             // Given
             int invalidLimit = 0;
-            when(recipeService.searchRecipes(query)).thenReturn(Collections.emptyList());
+            when(recipeService.searchRecipeSuggestions(eq(query), anyInt())).thenReturn(Collections.emptyList());
             when(mealTemplateService.searchAccessibleTemplates(eq(query), eq(userId), anyInt()))
                     .thenReturn(Collections.emptyList());
 
@@ -151,10 +152,26 @@ class MealSuggestionServiceTest {
 
             // Then
             assertThat(result).isNotNull();
-            verify(recipeService).searchRecipes(query);
+            verify(recipeService).searchRecipeSuggestions(eq(query), anyInt());
             verify(mealTemplateService).searchAccessibleTemplates(eq(query), eq(userId), anyInt());
         }
 
+        @Test
+        @DisplayName("Should clamp limit to search maximum")
+        void shouldClampLimit_When_LimitExceedsMaximum() {
+            // Given
+            when(recipeService.searchRecipeSuggestions(query, SearchCursor.MAX_LIMIT)).thenReturn(Collections.emptyList());
+            when(mealTemplateService.searchAccessibleTemplates(query, userId, SearchCursor.MAX_LIMIT))
+                    .thenReturn(Collections.emptyList());
+
+            // When
+            List<MealSuggestionResponse> result = mealSuggestionService.searchMealSuggestions(query, 1_000_000, userId);
+
+            // Then
+            assertThat(result).isEmpty();
+            verify(recipeService).searchRecipeSuggestions(query, SearchCursor.MAX_LIMIT);
+        }
+
         @Test
         @DisplayName("Should return combined results from recipes and templates")
         void shouldReturnCombinedResults_When_BothSourcesHaveData() {
@@ -162,7 +179,7 @@ class MealSuggestionServiceTest {
             List<Recipe> recipes = Collections.singletonList(recipe);
             List<MealTemplate> templates = Collections.singletonList(mealTemplate);
 
-            when(recipeService.searchRecipes(query)).thenReturn(recipes);
+            when(recipeService.searchRecipeSuggestions(eq(query), anyInt())).thenReturn(recipes);
             when(mealTemplateService.searchAccessibleTemplates(eq(query), eq(userId), anyInt()))
                     .thenReturn(templates);
             when(similarityCalculator.calculateSimilarity(anyString(), anyString())).thenReturn(0.85);
@@ -180,8 +197,8 @@ class MealSuggestionServiceTest {
                     .extracting(MealSuggestionResponse::getSource)
                     .containsExactlyInAnyOrder("RECIPE", "TEMPLATE");
 
-            verify(recipeService).searchRecipes(query);
-            verify(mealTemplateService).searchAccessibleTemplates(eq(query), eq(userId), eq(5));
+            verify(recipeService).searchRecipeSuggestions(eq(query), anyInt());
+            verify(mealTemplateService).searchAccessibleTemplates(eq(query), eq(userId), eq(10));
             verify(similarityCalculator, times(2)).calculateSimilarity(anyString(), anyString());
         }
 
@@ -209,7 +226,7 @@ class MealSuggestionServiceTest {
 
             List<Recipe> recipes = Arrays.asList(nonExactMatchRecipe, exactMatchRecipe);
 
-            when(recipeService.searchRecipes(query)).thenReturn(recipes);
+            when(recipeService.searchRecipeSuggestions(eq(query), anyInt())).thenReturn(recipes);
             when(mealTemplateService.searchAccessibleTemplates(eq(query), eq(userId), anyInt()))
                     .thenReturn(Collections.emptyList());
             when(similarityCalculator.calculateSimilarity(eq(query), eq("chicken salad"))).thenReturn(1.0);
@@ -250,7 +267,7 @@ class MealSuggestionServiceTest {
 
             List<Recipe> recipes = Arrays.asList(lowSimilarityRecipe, highSimilarityRecipe);
 
-            when(recipeService.searchRecipes(query)).thenReturn(recipes);
+            when(recipeService.searchRecipeSuggestions(eq(query), anyInt())).thenReturn(recipes);
             when(mealTemplateService.searchAccessibleTemplates(eq(query), eq(userId), anyInt()))
                     .thenReturn(Collections.emptyList());
             when(similarityCalculator.calculateSimilarity(eq(query), eq("Chicken Caesar"))).thenReturn(0.9);
@@ -283,7 +300,7 @@ class MealSuggestionServiceTest {
                     createTemplate("template-3", "Chicken Template 3")
             );
 
-            when(recipeService.searchRecipes(query)).thenReturn(recipes);
+            when(recipeService.searchRecipeSuggestions(eq(query), anyInt())).thenReturn(recipes);
             when(mealTemplateService.searchAccessibleTemplates(eq(query), eq(userId), anyInt()))
                     .thenReturn(templates);
             when(similarityCalculator.calculateSimilarity(anyString(), anyString())).thenReturn(0.8);
@@ -299,6 +316,43 @@ class MealSuggestionServiceTest {
             assertThat(result).hasSize(limit);
         }
 
+        @Test
+        @DisplayName("Should keep best candidates from both sources and build responses only for them")
+        void shouldSelectTopCandidates_When_SourcesReturnMoreThanLimit() {
+            // Given
+            int limit = 3;
+            List<Recipe> recipes = Arrays.asList(
+                    createRecipe("recipe-1", "Chicken 1"),
+                    createRecipe("recipe-2", "Chicken 2"),
+                    createRecipe("recipe-3", "Chicken 3")
+            );
+            MealTemplate weakTemplate = createTemplate("template-1", "Chicken Template 1");
+            MealTemplate strongTemplate = createTemplate("template-2", "Chicken Template 2");
+
+            when(recipeService.searchRecipeSuggestions(query, limit)).thenReturn(recipes);
+            when(mealTemplateService.searchAccessibleTemplates(query, userId, limit))
+                    .thenReturn(Arrays.asList(weakTemplate, strongTemplate));
+            when(similarityCalculator.calculateSimilarity(query, "Chicken 1")).thenReturn(0.7);
+            when(similarityCalculator.calculateSimilarity(query, "Chicken 2")).thenReturn(0.5);
+            when(similarityCalculator.calculateSimilarity(query, "Chicken 3")).thenReturn(0.6);
+            when(similarityCalculator.calculateSimilarity(query, "Chicken Template 1")).thenReturn(0.4);
+            when(similarityCalculator.calculateSimilarity(query, "Chicken Template 2")).thenReturn(0.95);
+            when(mealTemplateConverter.convertNutritionalValuesToResponse(any()))
+                    .thenReturn(nutritionalValuesResponse);
+            when(mealTemplateConverter.convertIngredientsToSuggestions(any()))
+                    .thenReturn(ingredientSuggestions);
+
+            // When
+            List<MealSuggestionResponse> result = mealSuggestionService.searchMealSuggestions(query, limit, userId);
+
+            // Then
+            assertThat(result).extracting(MealSuggestionResponse::getId)
+                    .containsExactly("template-2", "recipe-recipe-1", "recipe-recipe-3");
+            verify(similarityCalculator, times(5)).calculateSimilarity(anyString(), anyString());
+            verify(mealTemplateConverter, times(3)).convertNutritionalValuesToResponse(any());
+            verify(mealTemplateConverter, times(1)).convertIngredientsToSuggestions(any());
+        }
+
         @Test
         @DisplayName("Should handle recipe without photos")
         void shouldHandleRecipeWithoutPhotos_When_PhotosAreNull() {
@@ -312,7 +366,7 @@ class MealSuggestionServiceTest {
                     .createdAt(Timestamp.now())
                     .build();
 
-            when(recipeService.searchRecipes(query)).thenReturn(Collections.singletonList(recipeWithoutPhotos));
+            when(recipeService.searchRecipeSuggestions(eq(query), anyInt())).thenReturn(Collections.singletonList(recipeWithoutPhotos));
             when(mealTemplateService.searchAccessibleTemplates(eq(query), eq(userId), anyInt()))
                     .thenReturn(Collections.emptyList());
             when(similarityCalculator.calculateSimilarity(anyString(), anyString())).thenReturn(0.8);
@@ -342,7 +396,7 @@ class MealSuggestionServiceTest {
                     .lastUsed(Timestamp.now())
                     .build();
 
-            when(recipeService.searchRecipes(query)).thenReturn(Collections.emptyList());
+            when(recipeService.searchRecipeSuggestions(eq(query), anyInt())).thenReturn(Collections.emptyList());
             when(mealTemplateService.searchAccessibleTemplates(eq(query), eq(userId), anyInt()))
                     .thenReturn(Collections.singletonList(templateWithoutPhotos));
             when(similarityCalculator.calculateSimilarity(anyString(), anyString())).thenReturn(0.8);
@@ -363,7 +417,7 @@ class MealSuggestionServiceTest {
         @DisplayName("Should return empty list when exception occurs")
         void shouldReturnEmptyList_When_ExceptionOccurs() {
             // Given
-            when(recipeService.searchRecipes(query)).thenThrow(new RuntimeException("Database error"));
+            when(recipeService.searchRecipeSuggestions(eq(query), anyInt())).thenThrow(new RuntimeException("Database error"));
 
             // When
             List<MealSuggestionResponse> result = mealSuggestionService.searchMealSuggestions(query, 10, userId);
@@ -376,7 +430,7 @@ class MealSuggestionServiceTest {
         @DisplayName("Should correctly map recipe fields to suggestion response")
         void shouldCorrectlyMapRecipeFields_When_ConvertingToSuggestion() {
             // Given
-            when(recipeService.searchRecipes(query)).thenReturn(Collections.singletonList(recipe));
+            when(recipeService.searchRecipeSuggestions(eq(query), anyInt())).thenReturn(Collections.singletonList(recipe));
             when(mealTemplateService.searchAccessibleTemplates(eq(query), eq(userId), anyInt()))
                     .thenReturn(Collections.emptyList());
             when(similarityCalculator.calculateSimilarity(eq(query), eq(recipe.getName()))).thenReturn(0.85);
@@ -403,7 +457,7 @@ class MealSuggestionServiceTest {
         @DisplayName("Should correctly map template fields to suggestion response")
         void shouldCorrectlyMapTemplateFields_When_ConvertingToSuggestion() {
             // Given
-            when(recipeService.searchRecipes(query)).thenReturn(Collections.emptyList());
+            when(recipeService.searchRecipeSuggestions(eq(query), anyInt())).thenReturn(Collections.emptyList());
             when(mealTemplateService.searchAccessibleTemplates(eq(query), eq(userId), anyInt()))
                     .thenReturn(Collections.singletonList(mealTemplate));
             when(similarityCalculator.calculateSimilarity(eq(query), eq(mealTemplate.getName()))).thenReturn(0.9);
@@ -438,7 +492,7 @@ class MealSuggestionServiceTest {
             // Given
             String mealName = "  Chicken Pasta  ";
             int limit = 5;
-            when(recipeService.searchRecipes(anyString())).thenReturn(Collections.emptyList());
+            when(recipeService.searchRecipeSuggestions(anyString(), anyInt())).thenReturn(Collections.emptyList());
             when(mealTemplateService.searchAccessibleTemplates(anyString(), anyString(), anyInt()))
                     .thenReturn(Collections.emptyList());
 
@@ -447,7 +501,7 @@ class MealSuggestionServiceTest {
 
             // Then
             assertThat(result).isNotNull();
-            verify(recipeService).searchRecipes("Chicken Pasta");
+            verify(recipeService).searchRecipeSuggestions(eq("Chicken Pasta"), anyInt());
         }
 
         @Test
@@ -457,7 +511,7 @@ class MealSuggestionServiceTest {
             String mealName = "Pasta";
             List<Recipe> recipes = Collections.singletonList(recipe);
 
-            when(recipeService.searchRecipes(mealName)).thenReturn(recipes);
+            when(recipeService.searchRecipeSuggestions(eq(mealName), anyInt())).thenReturn(recipes);
             when(mealTemplateService.searchAccessibleTemplates(eq(mealName), eq(userId), anyInt()))
                     .thenReturn(Collections.emptyList());
             when(similarityCalculator.calculateSimilarity(anyString(), anyString())).thenReturn(0.8);
@@ -483,7 +537,7 @@ class MealSuggestionServiceTest {
             // Given
             String mealName = "Chicken Salad";
 
-            when(recipeService.searchRecipes(anyString()))
+            when(recipeService.searchRecipeSuggestions(anyString(), anyInt()))
                     .thenReturn(Collections.singletonList(recipe));
             when(mealTemplateService.searchAccessibleTemplates(anyString(), eq(userId), anyInt()))
                     .thenReturn(Collections.emptyList());
@@ -505,7 +559,7 @@ class MealSuggestionServiceTest {
             String mealName = "CHICKEN SALAD";
             recipe.setName("Chicken Salad");
 
-            when(recipeService.searchRecipes(anyString()))
+            when(recipeService.searchRecipeSuggestions(anyString(), anyInt()))
                     .thenReturn(Collections.singletonList(recipe));
             when(mealTemplateService.searchAccessibleTemplates(anyString(), eq(userId), anyInt()))
                     .thenReturn(Collections.emptyList());
@@ -527,7 +581,7 @@ class MealSuggestionServiceTest {
             String mealName = "Beef Stew";
             recipe.setName("Chicken Salad");
 
-            when(recipeService.searchRecipes(anyString()))
+            when(recipeService.searchRecipeSuggestions(anyString(), anyInt()))
                     .thenReturn(Collections.singletonList(recipe));
             when(mealTemplateService.searchAccessibleTemplates(anyString(), eq(userId), anyInt()))
                     .thenReturn(Collections.emptyList());
@@ -548,7 +602,7 @@ class MealSuggestionServiceTest {
             // Given
             String mealName = "Non-existent Meal";
 
-            when(recipeService.searchRecipes(anyString())).thenReturn(Collections.emptyList());
+            when(recipeService.searchRecipeSuggestions(anyString(), anyInt())).thenReturn(Collections.emptyList());
             when(mealTemplateService.searchAccessibleTemplates(anyString(), eq(userId), anyInt()))
                     .thenReturn(Collections.emptyList());
 
@@ -566,7 +620,7 @@ class MealSuggestionServiceTest {
             String mealName = "  Chicken Salad  ";
             recipe.setName("Chicken Salad");
 
-            when(recipeService.searchRecipes(anyString()))
+            when(recipeService.searchRecipeSuggestions(anyString(), anyInt()))
                     .thenReturn(Collections.singletonList(recipe));
             when(mealTemplateService.searchAccessibleTemplates(anyString(), eq(userId), anyInt()))
                     .thenReturn(Collections.emptyList());
@@ -579,7 +633,7 @@ class MealSuggestionServiceTest {
 
             // Then
             assertThat(result).isTrue();
-            verify(recipeService).searchRecipes("Chicken Salad");
+            verify(recipeService).searchRecipeSuggestions(eq("Chicken Salad"), anyInt());
         }
     }
 
@@ -595,7 +649,7 @@ class MealSuggestionServiceTest {
             Recipe highSimilarityRecipe = createRecipe("recipe-high", "Chicken Breast");
             Recipe lowSimilarityRecipe = createRecipe("recipe-low", "Beef Stew");
 
-            when(recipeService.searchRecipes(anyString()))
+            when(recipeService.searchRecipeSuggestions(anyString(), anyInt()))
                     .thenReturn(Arrays.asList(highSimilarityRecipe, lowSimilarityRecipe));
             when(mealTemplateService.searchAccessibleTemplates(anyString(), eq(userId), anyInt()))
                     .thenReturn(Collections.emptyList());
@@ -619,7 +673,7 @@ class MealSuggestionServiceTest {
             String mealName = "Pizza";
             Recipe lowSimilarityRecipe = createRecipe("recipe-low", "Chicken Salad");
 
-            when(recipeService.searchRecipes(anyString()))
+            when(recipeService.searchRecipeSuggestions(anyString(), anyInt()))
                     .thenReturn(Collections.singletonList(lowSimilarityRecipe));
             when(mealTemplateService.searchAccessibleTemplates(anyString(), eq(userId), anyInt()))
                     .thenReturn(Collections.emptyList());
@@ -641,7 +695,7 @@ class MealSuggestionServiceTest {
             String mealName = "Pasta";
             Recipe exactThresholdRecipe = createRecipe("recipe-threshold", "Pasta Carbonara");
 
-            when(recipeService.searchRecipes(anyString()))
+            when(recipeService.searchRecipeSuggestions(anyString(), anyInt()))
                     .thenReturn(Collections.singletonList(exactThresholdRecipe));
             when(mealTemplateService.searchAccessibleTemplates(anyString(), eq(userId), anyInt()))
                     .thenReturn(Collections.emptyList());
@@ -663,7 +717,7 @@ class MealSuggestionServiceTest {
             String mealName = "Pasta";
             Recipe justAboveThresholdRecipe = createRecipe("recipe-above", "Pasta Carbonara");
 
-            when(recipeService.searchRecipes(anyString()))
+            when(recipeService.searchRecipeSuggestions(anyString(), anyInt()))
                     .thenReturn(Collections.singletonList(justAboveThresholdRecipe));
             when(mealTemplateService.searchAccessibleTemplates(anyString(), eq(userId), anyInt()))
                     .thenReturn(Collections.emptyList());
@@ -685,7 +739,7 @@ class MealSuggestionServiceTest {
             // Given
             String mealName = "  Chicken  ";
 
-            when(recipeService.searchRecipes(anyString())).thenReturn(Collections.emptyList());
+            when(recipeService.searchRecipeSuggestions(anyString(), anyInt())).thenReturn(Collections.emptyList());
             when(mealTemplateService.searchAccessibleTemplates(anyString(), eq(userId), anyInt()))
                     .thenReturn(Collections.emptyList());
 
@@ -693,7 +747,7 @@ class MealSuggestionServiceTest {
             mealSuggestionService.findHighlySimilarMeals(mealName, userId);
 
             // Then
-            verify(recipeService).searchRecipes("Chicken");
+            verify(recipeService).searchRecipeSuggestions(eq("Chicken"), anyInt());
         }
 
         @Test
@@ -713,7 +767,7 @@ class MealSuggestionServiceTest {
                     .lastUsed(Timestamp.now())
                     .build();
 
-            when(recipeService.searchRecipes(anyString()))
+            when(recipeService.searchRecipeSuggestions(anyString(), anyInt()))
                     .thenReturn(Collections.singletonList(highSimilarityRecipe));
             when(mealTemplateService.searchAccessibleTemplates(anyString(), eq(userId), anyInt()))
                     .thenReturn(Collections.singletonList(highSimilarityTemplate));
@@ -0,0 +1,163 @@
+package com.noisevisionsoftware.vitema.service.product;
+
+import com.noisevisionsoftware.vitema.dto.product.IngredientDTO;
+import com.noisevisionsoftware.vitema.model.product.ProductType;
+import com.noisevisionsoftware.vitema.model.product.jpa.ProductEntity;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCatalogIndexTest {
+
+    @Test
+    void search_ShouldRankExactThenNamePrefixThenTokenPrefix() {
+        // given
+        ProductCatalogIndex index = ProductCatalogIndex.build(List.of(
+                product(1L, "Czekolada mleczna"),
+                product(2L, "Mleko kozie"),
+                product(3L, "Mleko"),
+                product(4L, "Mleczko kokosowe")), Map.of());
+
+        // when
+        List<String> names = names(index.search("mle", 10));
+        List<String> exact = names(index.search("mleko", 10));
+
+        // then
+        assertEquals(List.of("Mleko", "Mleko kozie", "Mleczko kokosowe", "Czekolada mleczna"), names);
+        assertEquals(List.of("Mleko", "Mleko kozie"), exact);
+    }
+
+    @Test
+    void search_ShouldPreferMorePopularProductsWithinTier() {
+        // given
+        ProductCatalogIndex index = ProductCatalogIndex.build(List.of(
+                product(1L, "Ryż basmati"),
+                product(2L, "Ryż brązowy"),
+                product(3L, "Ryż jaśminowy")), Map.of(3L, 40, 2L, 5));
+
+        // when
+        List<String> names = names(index.search("ryż", 3));
+
+        // then
+        assertEquals(List.of("Ryż jaśminowy", "Ryż brązowy", "Ryż basmati"), names);
+    }
+
+    @Test
+    void search_ShouldRequireEveryQueryWordAsPrefixOfSomeNameWord() {
+        // given
+        ProductCatalogIndex index = ProductCatalogIndex.build(List.of(
+                product(1L, "Mleko 3.2%"),
+                product(2L, "Mleko 1.5%"),
+                product(3L, "Jogurt naturalny 2%")), Map.of());
+
+        // when & then
+        assertEquals(List.of("Mleko 3.2%"), names(index.search("3 mle", 10)));
+        assertEquals(List.of("Jogurt naturalny 2%"), names(index.search("NAT jog", 10)));
+        assertTrue(index.search("mleko kozie", 10).isEmpty());
+        assertTrue(index.search("   ", 10).isEmpty());
+    }
+
+    @Test
+    void search_ShouldReturnAtMostLimitResultsWithMacros() {
+        // given
+        List<ProductEntity> products = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            products.add(product((long) i, "Produkt " + (char) ('a' + i % 26) + i));
+        }
+        ProductCatalogIndex index = ProductCatalogIndex.build(products, Map.of());
+
+        // when
+        List<IngredientDTO> results = index.search("produkt", 5);
+
+        // then
+        assertEquals(5, results.size());
+        IngredientDTO first = results.getFirst();
+        assertEquals(120.0, first.getNutritionalValues().getCalories());
+        assertEquals(7.5, first.getNutritionalValues().getProtein());
+        assertEquals("g", first.getDefaultUnit());
+        assertEquals("GLOBAL", first.getType());
+    }
+
+    @Test
+    void search_WhenLimitExceedsCandidates_ShouldReturnEachMatchOnce() {
+        // given
+        ProductCatalogIndex index = ProductCatalogIndex.build(List.of(
+                product(1L, "Mleko mleczne"),
+                product(2L, "Ser"),
+                product(3L, "Masło")), Map.of());
+
+        // when - pamięć zapytania zależy od liczby kandydatów, nie od limitu
+        List<String> names = names(index.search("ml", Integer.MAX_VALUE));
+
+        // then
+        assertEquals(List.of("Mleko mleczne"), names);
+    }
+
+    @Test
+    void search_ShouldMatchBruteForceRanking() {
+        // given
+        Random random = new Random(11);
+        String[] words = {"mleko", "mleczko", "ser", "serek", "jogurt", "ryż", "ryżowy", "kasza", "masło", "mąka"};
+        List<ProductEntity> products = new ArrayList<>();
+        Map<Long, Integer> popularity = new HashMap<>();
+        Set<String> usedNames = new HashSet<>();
+        for (long id = 1; products.size() < 2_000; id++) {
+            String name = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)]
+                    + " " + random.nextInt(50);
+            if (usedNames.add(name)) {
+                products.add(product(id, name));
+                popularity.put(id, random.nextInt(5));
+            }
+        }
+        ProductCatalogIndex index = ProductCatalogIndex.build(products, popularity);
+
+        for (String query : List.of("m", "ml", "mleko", "ser 1", "ry ka", "mąka mleko 4", "x")) {
+            // when
+            List<String> actual = names(index.search(query, 7));
+
+            // then
+            List<String> expected = bruteForce(products, popularity, query, 7);
+            assertEquals(expected, actual, query);
+        }
+    }
+
+    private List<String> bruteForce(List<ProductEntity> products, Map<Long, Integer> popularity, String query, int limit) {
+        String normalizedQuery = ProductCatalogIndex.normalize(query);
+        List<String> queryWords = List.of(normalizedQuery.split(" "));
+        return products.stream()
+                .filter(product -> {
+                    List<String> nameWords = List.of(ProductCatalogIndex.normalize(product.getName()).split(" "));
+                    return queryWords.stream().allMatch(word -> nameWords.stream().anyMatch(w -> w.startsWith(word)));
+                })
+                .sorted(Comparator.comparingInt((ProductEntity product) -> {
+                            String name = ProductCatalogIndex.normalize(product.getName());
+                            return name.equals(normalizedQuery) ? 0 : name.startsWith(normalizedQuery) ? 1 : 2;
+                        })
+                        .thenComparing(product -> -popularity.getOrDefault(product.getId(), 0))
+                        .thenComparingInt(product -> ProductCatalogIndex.normalize(product.getName()).length())
+                        .thenComparing(product -> ProductCatalogIndex.normalize(product.getName())))
+                .limit(limit)
+                .map(ProductEntity::getName)
+                .toList();
+    }
+
+    private List<String> names(List<IngredientDTO> results) {
+        return results.stream().map(IngredientDTO::getName).toList();
+    }
+
+    private ProductEntity product(Long id, String name) {
+        return ProductEntity.builder()
+                .id(id)
+                .name(name)
+                .unit("g")
+                .category("inne")
+                .kcal(120)
+                .protein(7.5)
+                .fat(3)
+                .carbs(15)
+                .type(ProductType.GLOBAL)
+                .build();
+    }
+}
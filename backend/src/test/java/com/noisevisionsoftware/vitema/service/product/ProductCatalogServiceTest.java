@@ -0,0 +1,172 @@
+package com.noisevisionsoftware.vitema.service.product;
+
+import com.noisevisionsoftware.vitema.dto.product.IngredientDTO;
+import com.noisevisionsoftware.vitema.model.product.ProductType;
+import com.noisevisionsoftware.vitema.model.product.jpa.ProductEntity;
+import com.noisevisionsoftware.vitema.repository.jpa.ProductJpaRepository;
+import com.noisevisionsoftware.vitema.service.search.SearchCursor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCatalogServiceTest {
+
+    private static final String TRAINER_ID = "trainer-1";
+
+    @Mock
+    private ProductJpaRepository productJpaRepository;
+
+    @InjectMocks
+    private ProductCatalogService catalogService;
+
+    @BeforeEach
+    void setUp() {
+        when(productJpaRepository.findByType(ProductType.GLOBAL)).thenReturn(List.of(
+                product(1L, "Mleko", ProductType.GLOBAL, null),
+                product(2L, "Mleko kozie", ProductType.GLOBAL, null)));
+        when(productJpaRepository.findUsageCounts()).thenReturn(List.of(usage(2L, 10)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalogService.shutdown();
+    }
+
+    @Test
+    void refresh_ShouldLoadGlobalProductsWithPopularity() {
+        // when
+        catalogService.refresh();
+
+        // then
+        assertTrue(catalogService.isReady());
+        assertEquals(List.of("Mleko", "Mleko kozie"), names(catalogService.search("mleko", null, 10)));
+        // W obrębie tego samego poziomu dopasowania wyżej jest produkt częściej używany w przepisach
+        assertEquals(List.of("Mleko kozie", "Mleko"), names(catalogService.search("mle", null, 10)));
+    }
+
+    @Test
+    void search_ShouldClampLimitToMaximumPageSize() {
+        // given
+        List<ProductEntity> products = IntStream.range(0, SearchCursor.MAX_LIMIT + 50)
+                .mapToObj(i -> product((long) i, "Produkt " + i, ProductType.GLOBAL, null))
+                .toList();
+        when(productJpaRepository.findByType(ProductType.GLOBAL)).thenReturn(products);
+        catalogService.refresh();
+
+        // when
+        List<IngredientDTO> results = catalogService.search("produkt", null, 1_000_000);
+
+        // then
+        assertEquals(SearchCursor.MAX_LIMIT, results.size());
+    }
+
+    @Test
+    void search_ShouldOverlayTrainerCustomProducts() {
+        // given
+        when(productJpaRepository.findByTypeAndAuthorId(ProductType.CUSTOM, TRAINER_ID)).thenReturn(List.of(
+                product(3L, "Mleko owsiane domowe", ProductType.CUSTOM, TRAINER_ID)));
+        catalogService.refresh();
+
+        // when
+        List<IngredientDTO> withCustom = catalogService.search("mleko", TRAINER_ID, 10);
+        List<IngredientDTO> limited = catalogService.search("mleko", TRAINER_ID, 2);
+        catalogService.search("mleko", TRAINER_ID, 10);
+
+        // then
+        assertEquals(List.of("Mleko", "Mleko kozie", "Mleko owsiane domowe"), names(withCustom));
+        assertEquals("CUSTOM", withCustom.get(2).getType());
+        assertEquals(2, limited.size());
+        verify(productJpaRepository, times(1)).findByTypeAndAuthorId(ProductType.CUSTOM, TRAINER_ID);
+    }
+
+    @Test
+    void onProductsChanged_ShouldReloadOnlyChangedTrainerCatalog() {
+        // given
+        when(productJpaRepository.findByTypeAndAuthorId(ProductType.CUSTOM, TRAINER_ID))
+                .thenReturn(List.of())
+                .thenReturn(List.of(product(3L, "Mleko owsiane domowe", ProductType.CUSTOM, TRAINER_ID)));
+        catalogService.refresh();
+        assertEquals(2, catalogService.search("mleko", TRAINER_ID, 10).size());
+
+        // when
+        catalogService.onProductsChanged(new ProductsChangedEvent(ProductType.CUSTOM, TRAINER_ID));
+
+        // then
+        assertEquals(3, catalogService.search("mleko", TRAINER_ID, 10).size());
+        verify(productJpaRepository, times(1)).findByType(ProductType.GLOBAL);
+    }
+
+    @Test
+    void onProductsChanged_ShouldRebuildGlobalCatalogInBackground() {
+        // given
+        catalogService.refresh();
+        when(productJpaRepository.findByType(ProductType.GLOBAL)).thenReturn(List.of(
+                product(1L, "Mleko", ProductType.GLOBAL, null),
+                product(2L, "Mleko kozie", ProductType.GLOBAL, null),
+                product(4L, "Mleko sojowe", ProductType.GLOBAL, null)));
+
+        // when
+        catalogService.onProductsChanged(new ProductsChangedEvent(ProductType.GLOBAL, null));
+
+        // then
+        verify(productJpaRepository, timeout(2_000).times(2)).findByType(ProductType.GLOBAL);
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (catalogService.search("sojowe", null, 10).isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(List.of("Mleko sojowe"), names(catalogService.search("sojowe", null, 10)));
+    }
+
+    @Test
+    void refresh_ShouldKeepPreviousCatalog_WhenLoadFails() {
+        // given
+        catalogService.refresh();
+        when(productJpaRepository.findByType(ProductType.GLOBAL)).thenThrow(new IllegalStateException("Brak połączenia"));
+
+        // when
+        catalogService.refresh();
+
+        // then
+        assertEquals(2, catalogService.search("mleko", null, 10).size());
+    }
+
+    private List<String> names(List<IngredientDTO> results) {
+        return results.stream().map(IngredientDTO::getName).toList();
+    }
+
+    private ProductJpaRepository.ProductUsage usage(Long productId, long count) {
+        return new ProductJpaRepository.ProductUsage() {
+            @Override
+            public Long getProductId() {
+                return productId;
+            }
+
+            @Override
+            public long getUsageCount() {
+                return count;
+            }
+        };
+    }
+
+    private ProductEntity product(Long id, String name, ProductType type, String authorId) {
+        return ProductEntity.builder()
+                .id(id)
+                .name(name)
+                .unit("ml")
+                .kcal(60)
+                .type(type)
+                .authorId(authorId)
+                .build();
+    }
+}
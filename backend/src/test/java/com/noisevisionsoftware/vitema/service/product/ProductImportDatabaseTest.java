@@ -0,0 +1,84 @@
+package com.noisevisionsoftware.vitema.service.product;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.noisevisionsoftware.vitema.dto.response.product.ProductImportResponse;
+import com.noisevisionsoftware.vitema.repository.PostgresTestBase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Import produktów na prawdziwej bazie po migracjach Flyway: upsert po nazwie, ochrona produktów
+ * CUSTOM i czas importu 100 tys. wierszy.
+ */
+class ProductImportDatabaseTest extends PostgresTestBase {
+
+    private static final int LARGE_IMPORT_ROWS = 100_000;
+
+    private static ProductImportService productImportService;
+
+    @BeforeAll
+    static void createService() {
+        productImportService = new ProductImportService(jdbc, new ProductImportReader(new ObjectMapper()), event -> {
+        });
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbc.update("DELETE FROM products", Map.of());
+        jdbc.update("INSERT INTO products (name, category, kcal, protein, fat, carbs, type, author_id) VALUES " +
+                        "('Mleko', 'nabial', 61, 3.2, 3.2, 4.8, 'GLOBAL', NULL), " +
+                        "('Serek trenera', 'nabial', 98, 11, 4, 3, 'CUSTOM', 'trainer-1')",
+                Map.of());
+    }
+
+    @Test
+    void importProducts_ShouldUpsertGlobalProductsByName() {
+        // given
+        String csv = "name;category;kcal;protein;fat;carbs\n" +
+                "Mleko;nabial;64;3,3;3,5;4,7\n" +
+                "Jabłko;owoce;52;0,3;0,2;14\n" +
+                "Serek trenera;nabial;100;12;4;3\n";
+
+        // when
+        ProductImportResponse result = productImportService.importProducts(stream(csv), ProductImportFormat.CSV);
+
+        // then
+        assertEquals(1, result.getInserted());
+        assertEquals(1, result.getUpdated());
+        assertEquals(1, result.getFailed());
+        assertEquals(64.0, jdbc.queryForObject("SELECT kcal FROM products WHERE name = 'Mleko'", Map.of(), Double.class));
+        assertEquals("GLOBAL", jdbc.queryForObject("SELECT type FROM products WHERE name = 'Jabłko'", Map.of(), String.class));
+        assertEquals(98.0, jdbc.queryForObject("SELECT kcal FROM products WHERE name = 'Serek trenera'", Map.of(), Double.class));
+    }
+
+    @Test
+    void importProducts_ShouldImportLargeFileWithinSeconds() {
+        // given
+        String csv = "name,category,unit,kcal,protein,fat,carbs\n" + IntStream.range(0, LARGE_IMPORT_ROWS)
+                .mapToObj(i -> "Produkt " + i + ",inne,g," + (i % 900) + ",1.5,2.5,3.5")
+                .collect(Collectors.joining("\n"));
+
+        // when
+        ProductImportResponse result = assertTimeout(Duration.ofSeconds(30),
+                () -> productImportService.importProducts(stream(csv), ProductImportFormat.CSV));
+
+        // then
+        assertEquals(LARGE_IMPORT_ROWS, result.getInserted());
+        assertEquals(0, result.getFailed());
+        assertEquals(LARGE_IMPORT_ROWS + 2L, jdbc.queryForObject("SELECT count(*) FROM products", Map.of(), Long.class));
+    }
+
+    private ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,164 @@
+package com.noisevisionsoftware.vitema.service.product;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.noisevisionsoftware.vitema.dto.request.product.ProductRequest;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductImportReaderTest {
+
+    private final ProductImportReader reader = new ProductImportReader(new ObjectMapper());
+
+    @Test
+    void read_WhenCsvWithCommas_ShouldMapColumnsByHeader() throws IOException {
+        // given
+        String csv = "kcal,name,protein,fat,carbs,unit,category\n" +
+                "52,Jabłko,0.3,0.2,14,g,owoce\n" +
+                "\n" +
+                "61,\"Jogurt naturalny, 2%\",4.3,2,4.7,g,nabial\n";
+
+        // when
+        Collected collected = read(csv, ProductImportFormat.CSV);
+
+        // then
+        assertEquals(List.of(2, 4), collected.rowNumbers);
+        ProductRequest yogurt = collected.rows.get(1);
+        assertEquals("Jogurt naturalny, 2%", yogurt.getName());
+        assertEquals("nabial", yogurt.getCategory());
+        assertEquals(61.0, yogurt.getKcal());
+        assertEquals(4.7, yogurt.getCarbs());
+        assertTrue(collected.errors.isEmpty());
+    }
+
+    @Test
+    void read_WhenCsvWithSemicolons_ShouldAcceptDecimalCommas() throws IOException {
+        // given
+        String csv = "\uFEFFName;Kcal;Protein\n" +
+                "Mleko 3,2%;60,5;3,2\n";
+
+        // when
+        Collected collected = read(csv, ProductImportFormat.CSV);
+
+        // then
+        ProductRequest milk = collected.rows.getFirst();
+        assertEquals("Mleko 3,2%", milk.getName());
+        assertEquals(60.5, milk.getKcal());
+        assertEquals(3.2, milk.getProtein());
+        assertNull(milk.getFat());
+    }
+
+    @Test
+    void read_WhenCsvValueInvalid_ShouldReportRowAndContinue() throws IOException {
+        // given
+        String csv = "name,kcal\n" +
+                "Chleb,dużo\n" +
+                "Masło,740\n";
+
+        // when
+        Collected collected = read(csv, ProductImportFormat.CSV);
+
+        // then
+        assertEquals(List.of("2 Chleb: Invalid value for kcal: dużo"), collected.errors);
+        assertEquals("Masło", collected.rows.getFirst().getName());
+    }
+
+    @Test
+    void read_WhenCsvHeaderHasNoName_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> read("kcal,fat\n1,2\n", ProductImportFormat.CSV));
+    }
+
+    @Test
+    void read_WhenJsonInSeedFormat_ShouldAssignCategoryToItems() throws IOException {
+        // given
+        String json = "[{\"category\": \"owoce\", \"items\": [" +
+                "{\"name\": \"Jabłko\", \"unit\": \"g\", \"kcal\": 52}," +
+                "{\"name\": \"Gruszka\", \"kcal\": 57}]}]";
+
+        // when
+        Collected collected = read(json, ProductImportFormat.JSON);
+
+        // then
+        assertEquals(List.of(1, 2), collected.rowNumbers);
+        assertEquals("owoce", collected.rows.get(1).getCategory());
+        assertEquals(57.0, collected.rows.get(1).getKcal());
+        assertTrue(collected.rows.get(0).isVerified());
+    }
+
+    @Test
+    void read_WhenJsonFlatProducts_ShouldReportInvalidProductsAndContinue() throws IOException {
+        // given
+        String json = "[{\"name\": \"Ryż\", \"category\": \"zboza\", \"kcal\": 344}," +
+                "{\"name\": \"Kasza\", \"kcal\": \"dużo\"}," +
+                "\"Makaron\"," +
+                "{\"name\": \"Owies\", \"kcal\": 389, \"barcode\": \"590\"}]";
+
+        // when
+        Collected collected = read(json, ProductImportFormat.JSON);
+
+        // then
+        assertEquals(List.of("Ryż", "Owies"), collected.rows.stream().map(ProductRequest::getName).toList());
+        assertEquals("zboza", collected.rows.getFirst().getCategory());
+        assertEquals(2, collected.errors.size());
+        assertTrue(collected.errors.get(0).startsWith("2 Kasza: Invalid product"));
+        assertEquals("3 null: Expected a product object", collected.errors.get(1));
+    }
+
+    @Test
+    void read_WhenJsonNotArray_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> read("{\"name\": \"Ryż\"}", ProductImportFormat.JSON));
+    }
+
+    @Test
+    void read_WhenJsonTruncated_ShouldKeepRowsReadBeforeFailure() {
+        // given
+        Collected collected = new Collected();
+        InputStream input = stream("[{\"name\": \"Ryż\"}, {\"name\": ");
+
+        // when & then
+        assertThrows(IOException.class, () -> reader.read(input, ProductImportFormat.JSON, collected));
+        assertEquals(1, collected.rows.size());
+    }
+
+    @Test
+    void fromContentType_ShouldRecognizeCsvAndJson() {
+        assertEquals(ProductImportFormat.CSV, ProductImportFormat.fromContentType("text/csv; charset=UTF-8").orElseThrow());
+        assertEquals(ProductImportFormat.JSON, ProductImportFormat.fromContentType("application/json").orElseThrow());
+        assertTrue(ProductImportFormat.fromContentType("application/xml").isEmpty());
+        assertTrue(ProductImportFormat.fromContentType("not a type").isEmpty());
+    }
+
+    private Collected read(String content, ProductImportFormat format) throws IOException {
+        Collected collected = new Collected();
+        reader.read(stream(content), format, collected);
+        return collected;
+    }
+
+    private InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class Collected implements ProductImportReader.RowHandler {
+        private final List<Integer> rowNumbers = new ArrayList<>();
+        private final List<ProductRequest> rows = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+
+        @Override
+        public void row(int rowNumber, ProductRequest request) {
+            rowNumbers.add(rowNumber);
+            rows.add(request);
+        }
+
+        @Override
+        public void error(int rowNumber, String name, String message) {
+            errors.add(rowNumber + " " + name + ": " + message);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.noisevisionsoftware.vitema.service.product;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.noisevisionsoftware.vitema.dto.response.product.ProductImportResponse;
+import com.noisevisionsoftware.vitema.model.product.ProductType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final Map<String, String> existingProducts = new HashMap<>();
+
+    private ProductImportService productImportService;
+
+    @BeforeEach
+    void setUp() {
+        productImportService = new ProductImportService(jdbcTemplate, new ProductImportReader(new ObjectMapper()), eventPublisher);
+        lenient().doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(2);
+            Map<String, ?> parameters = invocation.getArgument(1);
+            for (Object name : (Iterable<?>) parameters.get("names")) {
+                String type = existingProducts.get((String) name);
+                if (type != null) {
+                    ResultSet resultSet = mock(ResultSet.class);
+                    when(resultSet.getString("name")).thenReturn((String) name);
+                    when(resultSet.getString("type")).thenReturn(type);
+                    handler.processRow(resultSet);
+                }
+            }
+            return null;
+        }).when(jdbcTemplate).query(eq(ProductImportService.EXISTING_SQL), anyMap(), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void importProducts_ShouldUpsertValidRowsInOneBatch() {
+        // given
+        existingProducts.put("Mleko", "GLOBAL");
+        String csv = "name,category,kcal\n" +
+                "Mleko,nabial,60\n" +
+                "Jabłko,owoce,52\n" +
+                " Gruszka ,owoce,57\n";
+
+        // when
+        ProductImportResponse result = productImportService.importProducts(stream(csv), ProductImportFormat.CSV);
+
+        // then
+        assertEquals(3, result.getTotalRows());
+        assertEquals(2, result.getInserted());
+        assertEquals(1, result.getUpdated());
+        assertEquals(0, result.getFailed());
+        assertEquals(List.of("Mleko", "Jabłko", "Gruszka"), upsertedNames().getFirst());
+        verify(jdbcTemplate, never()).update(anyString(), any(SqlParameterSource.class));
+        verify(eventPublisher).publishEvent(new ProductsChangedEvent(ProductType.GLOBAL, null));
+    }
+
+    @Test
+    void importProducts_WhenRowsInvalidOrRepeated_ShouldReportAndKeepLastRow() {
+        // given
+        existingProducts.put("Serek trenera", "CUSTOM");
+        String csv = "name,kcal,fat\n" +
+                "Masło,740,82\n" +
+                ",100,1\n" +
+                "Smalec,-5,99\n" +
+                "Serek trenera,200,10\n" +
+                "Masło,735,81\n";
+
+        // when
+        ProductImportResponse result = productImportService.importProducts(stream(csv), ProductImportFormat.CSV);
+
+        // then
+        assertEquals(5, result.getTotalRows());
+        assertEquals(1, result.getInserted());
+        assertEquals(3, result.getFailed());
+        assertEquals(List.of(3, 4, 5), result.getErrors().stream().map(ProductImportResponse.RowError::row).sorted().toList());
+        assertTrue(result.getErrors().stream().anyMatch(error -> error.message().contains("custom product")));
+
+        ArgumentCaptor<SqlParameterSource[]> batch = ArgumentCaptor.forClass(SqlParameterSource[].class);
+        verify(jdbcTemplate).batchUpdate(eq(ProductImportService.UPSERT_SQL), batch.capture());
+        assertEquals(1, batch.getValue().length);
+        assertEquals(735.0, batch.getValue()[0].getValue("kcal"));
+    }
+
+    @Test
+    void importProducts_WhenMoreRowsThanChunk_ShouldUpsertInSeveralBatches() {
+        // given
+        String csv = "name\n" + IntStream.range(0, ProductImportService.CHUNK_SIZE + 1)
+                .mapToObj(i -> "Produkt " + i)
+                .collect(Collectors.joining("\n"));
+
+        // when
+        ProductImportResponse result = productImportService.importProducts(stream(csv), ProductImportFormat.CSV);
+
+        // then
+        assertEquals(ProductImportService.CHUNK_SIZE + 1, result.getInserted());
+        List<List<String>> batches = upsertedNames();
+        assertEquals(2, batches.size());
+        assertEquals(ProductImportService.CHUNK_SIZE, batches.get(0).size());
+        assertEquals(List.of("Produkt " + ProductImportService.CHUNK_SIZE), batches.get(1));
+    }
+
+    @Test
+    void importProducts_WhenBatchFails_ShouldRetryRowsOneByOne() {
+        // given
+        when(jdbcTemplate.batchUpdate(eq(ProductImportService.UPSERT_SQL), any(SqlParameterSource[].class)))
+                .thenThrow(new DataIntegrityViolationException("batch failed"));
+        when(jdbcTemplate.update(eq(ProductImportService.UPSERT_SQL), any(SqlParameterSource.class)))
+                .thenAnswer(invocation -> {
+                    SqlParameterSource row = invocation.getArgument(1);
+                    if ("Zły".equals(row.getValue("name"))) {
+                        throw new DataIntegrityViolationException("value too long");
+                    }
+                    return 1;
+                });
+        String csv = "name\nDobry\nZły\nInny\n";
+
+        // when
+        ProductImportResponse result = productImportService.importProducts(stream(csv), ProductImportFormat.CSV);
+
+        // then
+        assertEquals(2, result.getInserted());
+        assertEquals(1, result.getFailed());
+        assertEquals(new ProductImportResponse.RowError(3, "Zły", "value too long"), result.getErrors().getFirst());
+        verify(jdbcTemplate, times(3)).update(eq(ProductImportService.UPSERT_SQL), any(SqlParameterSource.class));
+    }
+
+    @Test
+    void importProducts_WhenInputBreaksOff_ShouldKeepRowsReadBefore() {
+        // given
+        String json = "[{\"name\": \"Ryż\", \"kcal\": 344}, {\"name\": ";
+
+        // when
+        ProductImportResponse result = productImportService.importProducts(stream(json), ProductImportFormat.JSON);
+
+        // then
+        assertEquals(1, result.getInserted());
+        assertEquals(1, result.getFailed());
+        assertEquals(2, result.getErrors().getFirst().row());
+        assertTrue(result.getErrors().getFirst().message().startsWith("Input could not be read"));
+    }
+
+    @Test
+    void importProducts_WhenNothingImported_ShouldNotPublishEvent() {
+        // when
+        ProductImportResponse result = productImportService.importProducts(stream("name,kcal\n,1\n"), ProductImportFormat.CSV);
+
+        // then
+        assertEquals(1, result.getFailed());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(SqlParameterSource[].class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void importProducts_WhenManyRowsFail_ShouldTruncateReportedErrors() {
+        // given
+        String csv = "name,kcal\n" + ",1\n".repeat(ProductImportService.MAX_REPORTED_ERRORS + 5);
+
+        // when
+        ProductImportResponse result = productImportService.importProducts(stream(csv), ProductImportFormat.CSV);
+
+        // then
+        assertEquals(ProductImportService.MAX_REPORTED_ERRORS + 5, result.getFailed());
+        assertEquals(ProductImportService.MAX_REPORTED_ERRORS, result.getErrors().size());
+        assertTrue(result.isErrorsTruncated());
+    }
+
+    private List<List<String>> upsertedNames() {
+        ArgumentCaptor<SqlParameterSource[]> batches = ArgumentCaptor.forClass(SqlParameterSource[].class);
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(eq(ProductImportService.UPSERT_SQL), batches.capture());
+        return batches.getAllValues().stream()
+                .map(batch -> Arrays.stream(batch).map(row -> (String) row.getValue("name")).toList())
+                .toList();
+    }
+
+    private InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,102 @@
+package com.noisevisionsoftware.vitema.service.product;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductUsageCounterTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private ProductUsageCounter productUsageCounter;
+
+    @BeforeEach
+    void setUp() {
+        productUsageCounter = new ProductUsageCounter(jdbcTemplate);
+    }
+
+    @Test
+    void recordUsage_ShouldCountEachProductOncePerSaveWithoutDatabaseCalls() {
+        // when
+        productUsageCounter.recordUsage(Arrays.asList(1L, 2L, 1L, null));
+        productUsageCounter.recordUsage(List.of(1L));
+
+        // then
+        assertEquals(2, productUsageCounter.pendingProducts());
+        verifyNoInteractions(jdbcTemplate);
+
+        productUsageCounter.flush();
+        assertEquals(Map.of(1L, 2L, 2L, 1L), flushedIncrements());
+    }
+
+    @Test
+    void flush_ShouldWriteAllPendingCountersInOneBatch() {
+        // given
+        productUsageCounter.recordUsage(List.of(3L, 4L, 5L));
+
+        // when
+        productUsageCounter.flush();
+        productUsageCounter.flush();
+
+        // then
+        verify(jdbcTemplate, times(1)).batchUpdate(eq(ProductUsageCounter.INCREMENT_SQL), any(SqlParameterSource[].class));
+        assertEquals(Map.of(3L, 1L, 4L, 1L, 5L, 1L), flushedIncrements());
+        assertEquals(0, productUsageCounter.pendingProducts());
+    }
+
+    @Test
+    void flush_WhenBatchFails_ShouldKeepCountsForNextFlush() {
+        // given
+        when(jdbcTemplate.batchUpdate(eq(ProductUsageCounter.INCREMENT_SQL), any(SqlParameterSource[].class)))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(new int[]{1});
+        productUsageCounter.recordUsage(List.of(7L));
+
+        // when
+        productUsageCounter.flush();
+        productUsageCounter.recordUsage(List.of(7L));
+        productUsageCounter.flush();
+
+        // then
+        ArgumentCaptor<SqlParameterSource[]> batches = ArgumentCaptor.forClass(SqlParameterSource[].class);
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(ProductUsageCounter.INCREMENT_SQL), batches.capture());
+        assertEquals(2L, batches.getAllValues().get(1)[0].getValue("count"));
+        assertEquals(0, productUsageCounter.pendingProducts());
+    }
+
+    @Test
+    void flush_WhenNothingRecorded_ShouldNotTouchDatabase() {
+        // when
+        productUsageCounter.recordUsage(List.of());
+        productUsageCounter.recordUsage(null);
+        productUsageCounter.flush();
+
+        // then
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private Map<Long, Long> flushedIncrements() {
+        ArgumentCaptor<SqlParameterSource[]> batch = ArgumentCaptor.forClass(SqlParameterSource[].class);
+        verify(jdbcTemplate).batchUpdate(eq(ProductUsageCounter.INCREMENT_SQL), batch.capture());
+        return Arrays.stream(batch.getValue()).collect(Collectors.toMap(
+                row -> (Long) row.getValue("productId"),
+                row -> (Long) row.getValue("count")));
+    }
+}
@@ -0,0 +1,57 @@
+package com.noisevisionsoftware.vitema.service.search;
+
+import com.noisevisionsoftware.vitema.dto.search.SearchPage;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchCursorTest {
+
+    @Test
+    void decode_ShouldReturnEncodedOffsets() {
+        // when
+        int[] offsets = SearchCursor.decode(SearchCursor.encode(20, 7), 2);
+
+        // then
+        assertArrayEquals(new int[]{20, 7}, offsets);
+    }
+
+    @Test
+    void decode_ShouldReturnZeros_WhenCursorMissing() {
+        assertArrayEquals(new int[]{0, 0}, SearchCursor.decode(null, 2));
+        assertArrayEquals(new int[]{0}, SearchCursor.decode(" ", 1));
+    }
+
+    @Test
+    void decode_ShouldRejectMalformedOrTooDeepCursors() {
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode("not base64!", 1));
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode(SearchCursor.encode(1, 2), 1));
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode(SearchCursor.encode(-1), 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> SearchCursor.decode(SearchCursor.encode(SearchCursor.MAX_OFFSET + 1), 1));
+        assertFalse(SearchCursor.isValid("abc", 1));
+        assertTrue(SearchCursor.isValid(null, 1));
+    }
+
+    @Test
+    void page_ShouldTrimExtraRowAndPointPastCurrentPage() {
+        // when
+        SearchPage<String> middle = SearchCursor.page(List.of("a", "b", "c"), 2, 4);
+        SearchPage<String> last = SearchCursor.page(List.of("a"), 2, 6);
+
+        // then
+        assertEquals(List.of("a", "b"), middle.items());
+        assertArrayEquals(new int[]{6}, SearchCursor.decode(middle.nextCursor(), 1));
+        assertEquals(List.of("a"), last.items());
+        assertNull(last.nextCursor());
+    }
+
+    @Test
+    void clampLimit_ShouldKeepLimitWithinBounds() {
+        assertEquals(1, SearchCursor.clampLimit(0));
+        assertEquals(SearchCursor.MAX_LIMIT, SearchCursor.clampLimit(10_000));
+        assertEquals(15, SearchCursor.clampLimit(15));
+    }
+}
@@ -0,0 +1,49 @@
+package com.noisevisionsoftware.vitema.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchRelevanceTest {
+
+    @Test
+    void score_ShouldOrderByMatchType() {
+        // when
+        double exact = SearchRelevance.score("Owsianka", " OWSIANKA ");
+        double prefix = SearchRelevance.score("Owsianka z jabłkiem", "owsianka");
+        double wordPrefix = SearchRelevance.score("Nocna owsianka", "owsianka");
+        double contains = SearchRelevance.score("Superowsianka", "owsianka");
+        double none = SearchRelevance.score("Jajecznica", "owsianka");
+
+        // then
+        assertEquals(1.0, exact);
+        assertTrue(exact > prefix);
+        assertTrue(prefix > wordPrefix);
+        assertTrue(wordPrefix > contains);
+        assertTrue(contains > none);
+        assertEquals(0.0, none);
+    }
+
+    @Test
+    void score_ShouldPreferShorterName_WithinMatchType() {
+        // then
+        assertTrue(SearchRelevance.score("Owsianka instant", "owsianka")
+                > SearchRelevance.score("Owsianka z jabłkiem i cynamonem", "owsianka"));
+    }
+
+    @Test
+    void score_ShouldReturnZero_WhenNameOrQueryMissing() {
+        // then
+        assertEquals(0.0, SearchRelevance.score(null, "owsianka"));
+        assertEquals(0.0, SearchRelevance.score("Owsianka", " "));
+    }
+
+    @Test
+    void tier_ShouldMatchSourceQueryRanking() {
+        // then
+        assertEquals(0, SearchRelevance.tier("Owsianka", " OWSIANKA "));
+        assertEquals(1, SearchRelevance.tier("Owsianka z jabłkiem", "owsianka"));
+        assertEquals(2, SearchRelevance.tier("Nocna owsianka", "owsianka"));
+        assertEquals(2, SearchRelevance.tier(null, "owsianka"));
+    }
+}
@@ -0,0 +1,239 @@
+package com.noisevisionsoftware.vitema.service.search;
+
+import com.noisevisionsoftware.vitema.dto.response.product.ProductResponse;
+import com.noisevisionsoftware.vitema.dto.search.SearchPage;
+import com.noisevisionsoftware.vitema.dto.search.UnifiedSearchDto;
+import com.noisevisionsoftware.vitema.model.recipe.Recipe;
+import com.noisevisionsoftware.vitema.service.RecipeService;
+import com.noisevisionsoftware.vitema.service.product.ProductDatabaseService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UnifiedSearchServiceTest {
+
+    @Mock
+    private RecipeService recipeService;
+
+    @Mock
+    private ProductDatabaseService productDatabaseService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private UnifiedSearchService unifiedSearchService;
+
+    @BeforeEach
+    void setUp() {
+        unifiedSearchService = new UnifiedSearchService(recipeService, productDatabaseService, transactionManager, jdbcTemplate,
+                1_000, 1_000, 50, 50);
+    }
+
+    @AfterEach
+    void tearDown() {
+        unifiedSearchService.shutdown();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void search_ShouldMergeSourcesByMatchTypeAndLimit() {
+        // given
+        when(productDatabaseService.searchByName(eq("owsianka"), eq("trainer-1"), eq(3), anyString()))
+                .thenReturn(new SearchPage<>(List.of(product(1L, "Owsianka instant"), product(2L, "Mleko do owsianki")),
+                        null));
+        when(recipeService.searchRecipes(eq("owsianka"), eq(3), anyString()))
+                .thenReturn(new SearchPage<>(List.of(recipe("r1", "Owsianka"), recipe("r2", "Owsianka z jabłkiem"),
+                        recipe("r3", "Nocna owsianka")), SearchCursor.encode(3)));
+
+        // when
+        SearchPage<UnifiedSearchDto> page = unifiedSearchService.search("owsianka", "trainer-1", 3, null);
+
+        // then
+        assertEquals(List.of("Owsianka", "Owsianka instant", "Owsianka z jabłkiem"),
+                page.items().stream().map(UnifiedSearchDto::getName).toList());
+        assertEquals(UnifiedSearchDto.SearchResultType.RECIPE, page.items().getFirst().getType());
+        // Produkty: wykorzystany 1 z 2, przepisy: 2 z 3
+        assertArrayEquals(new int[]{1, 2}, SearchCursor.decode(page.nextCursor(), 2));
+    }
+
+    @Test
+    void search_ShouldKeepEachSourceRanking_WithinMatchTier() {
+        // given - produkty w kolejności źródła (np. po liczbie użyć), nie po ocenie nazwy
+        when(productDatabaseService.searchByName(eq("owsianka"), any(), eq(3), anyString()))
+                .thenReturn(new SearchPage<>(List.of(product(1L, "Superowsianka"), product(2L, "Mleko do owsianki")),
+                        null));
+        when(recipeService.searchRecipes(eq("owsianka"), eq(3), anyString()))
+                .thenReturn(new SearchPage<>(List.of(recipe("r1", "Owsianka z jabłkiem")), null));
+
+        // when
+        SearchPage<UnifiedSearchDto> page = unifiedSearchService.search("owsianka", null, 3, null);
+
+        // then
+        assertEquals(List.of("Owsianka z jabłkiem", "Superowsianka", "Mleko do owsianki"),
+                page.items().stream().map(UnifiedSearchDto::getName).toList());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void search_ShouldLimitSourceStatementsToDeadline() {
+        // given
+        when(productDatabaseService.searchByName(anyString(), any(), anyInt(), anyString()))
+                .thenReturn(new SearchPage<>(List.of(), null));
+        when(recipeService.searchRecipes(anyString(), anyInt(), anyString()))
+                .thenReturn(new SearchPage<>(List.of(), null));
+
+        // when
+        unifiedSearchService.search("owsianka", null, 5, null);
+
+        // then
+        verify(jdbcTemplate, times(2)).queryForObject(contains("statement_timeout"),
+                eq(Map.of("timeout", "1000ms")), eq(String.class));
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void search_ShouldContinueEachSourceFromCursorOffsets() {
+        // given
+        when(productDatabaseService.searchByName("owsianka", null, 2, SearchCursor.encode(1)))
+                .thenReturn(new SearchPage<>(List.of(product(2L, "Mleko do owsianki")), null));
+        when(recipeService.searchRecipes("owsianka", 2, SearchCursor.encode(2)))
+                .thenReturn(new SearchPage<>(List.of(recipe("r3", "Nocna owsianka")), null));
+
+        // when
+        SearchPage<UnifiedSearchDto> page = unifiedSearchService.search("owsianka", null, 2, SearchCursor.encode(1, 2));
+
+        // then - oba to wyrazy zaczynające się od zapytania, wyżej krótsza nazwa
+        assertEquals(List.of("Nocna owsianka", "Mleko do owsianki"),
+                page.items().stream().map(UnifiedSearchDto::getName).toList());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void search_ShouldCapResultsPerSource() {
+        // given
+        unifiedSearchService = new UnifiedSearchService(recipeService, productDatabaseService, transactionManager, jdbcTemplate,
+                1_000, 1_000, 2, 50);
+        when(productDatabaseService.searchByName(eq("owsianka"), any(), eq(2), anyString()))
+                .thenReturn(new SearchPage<>(List.of(product(1L, "Owsianka instant")), null));
+        when(recipeService.searchRecipes(eq("owsianka"), eq(10), anyString()))
+                .thenReturn(new SearchPage<>(List.of(recipe("r1", "Owsianka")), null));
+
+        // when
+        SearchPage<UnifiedSearchDto> page = unifiedSearchService.search("owsianka", null, 10, null);
+
+        // then
+        assertEquals(List.of("Owsianka", "Owsianka instant"),
+                page.items().stream().map(UnifiedSearchDto::getName).toList());
+    }
+
+    @Test
+    void search_ShouldReturnOtherSourceResults_WhenSourceFails() {
+        // given
+        when(productDatabaseService.searchByName(anyString(), any(), anyInt(), anyString()))
+                .thenThrow(new IllegalStateException("Brak połączenia"));
+        when(recipeService.searchRecipes(eq("owsianka"), eq(5), anyString()))
+                .thenReturn(new SearchPage<>(List.of(recipe("r1", "Owsianka")), null));
+
+        // when
+        SearchPage<UnifiedSearchDto> page = unifiedSearchService.search("owsianka", null, 5, null);
+
+        // then
+        assertEquals(List.of("Owsianka"), page.items().stream().map(UnifiedSearchDto::getName).toList());
+        assertEquals(List.of("PRODUCT"), page.skippedSources());
+        // Produkty zostają na tym samym miejscu - kolejna strona zapyta je ponownie
+        assertArrayEquals(new int[]{0, 1}, SearchCursor.decode(page.nextCursor(), 2));
+        assertEquals(1L, unifiedSearchService.getSourceStatistics().get("PRODUCT").get("errors"));
+    }
+
+    @Test
+    void search_ShouldReturnPartialPage_WhenSourceMissesDeadline() {
+        // given
+        unifiedSearchService = new UnifiedSearchService(recipeService, productDatabaseService, transactionManager, jdbcTemplate,
+                1_000, 50, 50, 50);
+        CountDownLatch release = new CountDownLatch(1);
+        when(productDatabaseService.searchByName(eq("owsianka"), any(), eq(5), anyString()))
+                .thenReturn(new SearchPage<>(List.of(product(1L, "Owsianka instant")), null));
+        when(recipeService.searchRecipes(eq("owsianka"), eq(5), anyString())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new SearchPage<>(List.of(recipe("r1", "Owsianka")), null);
+        });
+
+        // when
+        long start = System.nanoTime();
+        SearchPage<UnifiedSearchDto> page = unifiedSearchService.search("owsianka", null, 5, null);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+
+        // then
+        assertEquals(List.of("Owsianka instant"), page.items().stream().map(UnifiedSearchDto::getName).toList());
+        assertEquals(List.of("RECIPE"), page.skippedSources());
+        assertTrue(elapsedMs < 2_000, "Wyszukiwanie nie powinno czekać na spóźnione źródło: " + elapsedMs + " ms");
+        assertEquals(1L, unifiedSearchService.getSourceStatistics().get("RECIPE").get("timeouts"));
+    }
+
+    @Test
+    void search_ShouldReturnEmptyPage_WhenAllSourcesFail() {
+        // given
+        when(productDatabaseService.searchByName(anyString(), any(), anyInt(), anyString()))
+                .thenThrow(new IllegalStateException("Brak połączenia"));
+        when(recipeService.searchRecipes(anyString(), anyInt(), anyString()))
+                .thenThrow(new IllegalStateException("Brak połączenia"));
+
+        // when
+        SearchPage<UnifiedSearchDto> page = unifiedSearchService.search("owsianka", null, 5, null);
+
+        // then
+        assertTrue(page.items().isEmpty());
+        assertNull(page.nextCursor());
+        assertEquals(List.of("PRODUCT", "RECIPE"), page.skippedSources());
+    }
+
+    @Test
+    void search_ShouldRunSourcesWithCallerSecurityContext() {
+        // given
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("trainer-1", null, List.of()));
+        AtomicReference<Object> recipePrincipal = new AtomicReference<>();
+        when(productDatabaseService.searchByName(anyString(), any(), anyInt(), anyString()))
+                .thenReturn(new SearchPage<>(List.of(), null));
+        when(recipeService.searchRecipes(anyString(), anyInt(), anyString())).thenAnswer(invocation -> {
+            recipePrincipal.set(SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+            return new SearchPage<>(List.of(), null);
+        });
+
+        // when
+        unifiedSearchService.search("owsianka", null, 5, null);
+
+        // then
+        assertEquals("trainer-1", recipePrincipal.get());
+    }
+
+    private ProductResponse product(Long id, String name) {
+        return ProductResponse.builder().id(id).name(name).kcal(100).build();
+    }
+
+    private Recipe recipe(String id, String name) {
+        return Recipe.builder().id(id).name(name).build();
+    }
+}
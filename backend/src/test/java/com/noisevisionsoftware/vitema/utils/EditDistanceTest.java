@@ -0,0 +1,93 @@
+package com.noisevisionsoftware.vitema.utils;
+
+import org.apache.commons.text.similarity.LevenshteinDistance;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EditDistanceTest {
+
+    @Test
+    void levenshtein_WithoutLimit_ShouldReturnFullDistance() {
+        assertEquals(0, EditDistance.levenshtein("mleko", "mleko"));
+        assertEquals(1, EditDistance.levenshtein("mleko", "mlekoo"));
+        assertEquals(3, EditDistance.levenshtein("kitten", "sitting"));
+        assertEquals(5, EditDistance.levenshtein("", "chleb"));
+        assertEquals(5, EditDistance.levenshtein("chleb", ""));
+    }
+
+    @Test
+    void levenshtein_WhenDistanceExceedsLimit_ShouldReturnMinusOne() {
+        assertEquals(-1, EditDistance.levenshtein("kitten", "sitting", 2));
+        assertEquals(3, EditDistance.levenshtein("kitten", "sitting", 3));
+        assertEquals(-1, EditDistance.levenshtein("ser", "serek wiejski", 4));
+        assertEquals(-1, EditDistance.levenshtein("ser", "ser", -1));
+    }
+
+    @Test
+    void levenshtein_ShouldMatchCommonsTextForRandomInputs() {
+        // given
+        Random random = new Random(42);
+        String alphabet = "abcełóż ";
+
+        for (int i = 0; i < 50_000; i++) {
+            String left = randomText(random, alphabet, 16);
+            String right = random.nextBoolean() ? mutate(random, left, alphabet) : randomText(random, alphabet, 16);
+            int limit = random.nextInt(10);
+
+            // when
+            int expected = new LevenshteinDistance(limit).apply(left, right);
+            int actual = EditDistance.levenshtein(left, right, limit);
+
+            // then
+            assertEquals(expected, actual, "'" + left + "' vs '" + right + "' limit " + limit);
+            assertEquals(LevenshteinDistance.getDefaultInstance().apply(left, right),
+                    EditDistance.levenshtein(left, right));
+        }
+    }
+
+    @Test
+    void maxDistanceFor_ShouldReturnLargestDistanceAboveThreshold() {
+        assertEquals(1, EditDistance.maxDistanceFor(0.75, 4));
+        assertEquals(2, EditDistance.maxDistanceFor(0.75, 8));
+        assertEquals(2, EditDistance.maxDistanceFor(0.75, 11));
+        assertEquals(10, EditDistance.maxDistanceFor(0.0, 10));
+    }
+
+    @Test
+    void similarityAtLeast_ShouldReturnSimilarityOrMinusOne() {
+        assertEquals(1.0 - 1.0 / 6, EditDistance.similarityAtLeast("mleko", "mlekoo", 0.75), 1e-9);
+        assertEquals(0.75, EditDistance.similarityAtLeast("abcd", "abce", 0.75), 1e-9);
+        assertEquals(-1, EditDistance.similarityAtLeast("abcd", "abxx", 0.75));
+        assertEquals(1.0, EditDistance.similarityAtLeast("", "", 0.9));
+    }
+
+    private String randomText(Random random, String alphabet, int maxLength) {
+        StringBuilder text = new StringBuilder();
+        int length = random.nextInt(maxLength + 1);
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+
+    private String mutate(Random random, String text, String alphabet) {
+        StringBuilder result = new StringBuilder(text);
+        int edits = random.nextInt(4);
+        for (int i = 0; i < edits; i++) {
+            int position = result.isEmpty() ? 0 : random.nextInt(result.length());
+            switch (random.nextInt(3)) {
+                case 0 -> result.insert(position, alphabet.charAt(random.nextInt(alphabet.length())));
+                case 1 -> {
+                    if (!result.isEmpty()) result.deleteCharAt(position);
+                }
+                default -> {
+                    if (!result.isEmpty()) result.setCharAt(position, alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,25 @@
+package com.noisevisionsoftware.vitema.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FullTextQueryTest {
+
+    @Test
+    void prefixQuery_ShouldJoinLowercasedWordsAsPrefixes() {
+        assertEquals("owsianka:* & z:* & jabłkiem:*", FullTextQuery.prefixQuery("Owsianka z Jabłkiem"));
+    }
+
+    @Test
+    void prefixQuery_ShouldDropTsquerySyntax() {
+        assertEquals("mleko:* & 3:* & 2:*", FullTextQuery.prefixQuery("mleko & (3.2%) | !:*"));
+        assertEquals("drop:* & table:*", FullTextQuery.prefixQuery("'); drop table --"));
+    }
+
+    @Test
+    void prefixQuery_ShouldReturnEmpty_WhenNoWords() {
+        assertEquals("", FullTextQuery.prefixQuery(null));
+        assertEquals("", FullTextQuery.prefixQuery("  ?! "));
+    }
+}
@@ -0,0 +1,89 @@
+package com.noisevisionsoftware.vitema.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentHashMapTest {
+
+    @Test
+    void plusAndMinus_ShouldLeavePreviousVersionUntouched() {
+        // given
+        PersistentHashMap<String, Integer> first = PersistentHashMap.<String, Integer>empty()
+                .plus("mleko", 1)
+                .plus("chleb", 2);
+
+        // when
+        PersistentHashMap<String, Integer> second = first.plus("mleko", 3).minus("chleb").plus("banan", 4);
+
+        // then
+        assertEquals(Map.of("mleko", 1, "chleb", 2), first.asMap());
+        assertEquals(Map.of("mleko", 3, "banan", 4), second.asMap());
+    }
+
+    @Test
+    void plusAndMinus_WithoutChange_ShouldReturnSameInstance() {
+        // given
+        Integer value = 1;
+        PersistentHashMap<String, Integer> map = PersistentHashMap.<String, Integer>empty().plus("mleko", value);
+
+        // then
+        assertSame(map, map.plus("mleko", value));
+        assertSame(map, map.minus("chleb"));
+    }
+
+    @Test
+    void operations_WithCollidingHashes_ShouldKeepAllKeys() {
+        // given - "Aa" i "BB" mają ten sam hashCode
+        PersistentHashMap<String, Integer> map = PersistentHashMap.<String, Integer>empty()
+                .plus("Aa", 1)
+                .plus("BB", 2)
+                .plus("C", 3);
+
+        // when
+        PersistentHashMap<String, Integer> reduced = map.minus("Aa");
+
+        // then
+        assertEquals(1, map.get("Aa"));
+        assertEquals(2, map.get("BB"));
+        assertNull(reduced.get("Aa"));
+        assertEquals(2, reduced.get("BB"));
+        assertEquals(2, reduced.size());
+    }
+
+    @Test
+    void operations_ShouldMatchHashMapForRandomInputs() {
+        Random random = new Random(7);
+        Map<Integer, Integer> expected = new HashMap<>();
+        PersistentHashMap<Integer, Integer> map = PersistentHashMap.empty();
+        List<PersistentHashMap<Integer, Integer>> versions = new ArrayList<>();
+        List<Map<Integer, Integer>> expectedVersions = new ArrayList<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            // Klucze o wspólnych młodszych bitach wymuszają głębokie drzewo
+            int key = random.nextInt(2_000) << (random.nextBoolean() ? 0 : 20);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.minus(key);
+            } else {
+                expected.put(key, i);
+                map = map.plus(key, i);
+            }
+            if (i % 2_000 == 0) {
+                versions.add(map);
+                expectedVersions.add(new HashMap<>(expected));
+            }
+        }
+
+        assertEquals(expected, map.asMap());
+        assertEquals(expected.size(), map.size());
+        for (Integer key : expected.keySet()) {
+            assertTrue(map.containsKey(key));
+        }
+        for (int v = 0; v < versions.size(); v++) {
+            assertEquals(expectedVersions.get(v), versions.get(v).asMap());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.noisevisionsoftware.vitema.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeCursorTest {
+
+    @Test
+    void decode_ShouldRestoreEncodedPosition() {
+        RecipeCursor cursor = new RecipeCursor(LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_456_000), 42L);
+
+        assertEquals(cursor, RecipeCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void decode_ShouldReturnNull_WhenCursorEmpty() {
+        assertNull(RecipeCursor.decode(null));
+        assertNull(RecipeCursor.decode(" "));
+        assertTrue(RecipeCursor.isValid(null));
+    }
+
+    @Test
+    void decode_ShouldRejectMalformedCursor() {
+        String wrongParts = Base64.getUrlEncoder().encodeToString("2024-05-01T12:00".getBytes(StandardCharsets.US_ASCII));
+        String wrongDate = Base64.getUrlEncoder().encodeToString("yesterday_42".getBytes(StandardCharsets.US_ASCII));
+
+        assertThrows(IllegalArgumentException.class, () -> RecipeCursor.decode("not a cursor!"));
+        assertThrows(IllegalArgumentException.class, () -> RecipeCursor.decode(wrongParts));
+        assertThrows(IllegalArgumentException.class, () -> RecipeCursor.decode(wrongDate));
+        assertFalse(RecipeCursor.isValid("not a cursor!"));
+    }
+}
@@ -0,0 +1,249 @@
+package com.noisevisionsoftware.vitema.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    @Test
+    void search_ShouldReturnClosestEntriesFirst() {
+        // given
+        TrigramIndex index = new TrigramIndex();
+        index.put("1", "mleko");
+        index.put("2", "mlekoo");
+        index.put("3", "mleczko");
+        index.put("4", "chleb");
+
+        // when
+        List<TrigramIndex.Match> matches = index.search("mleko", 2, 10);
+
+        // then
+        assertEquals(List.of("1", "2", "3"), matches.stream().map(TrigramIndex.Match::id).toList());
+        assertEquals(0, matches.get(0).distance());
+        assertEquals(1, matches.get(1).distance());
+        assertEquals(2, matches.get(2).distance());
+    }
+
+    @Test
+    void search_ShouldLimitNumberOfResults() {
+        // given
+        TrigramIndex index = new TrigramIndex();
+        index.put("1", "ser żółty");
+        index.put("2", "ser żółta");
+        index.put("3", "ser biały");
+
+        // when
+        List<TrigramIndex.Match> matches = index.search("ser żółty", 5, 1);
+
+        // then
+        assertEquals(1, matches.size());
+        assertEquals("1", matches.getFirst().id());
+    }
+
+    @Test
+    void searchSimilar_ShouldApplySimilarityThreshold() {
+        // given
+        TrigramIndex index = new TrigramIndex();
+        index.put("1", "mlekoo");
+        index.put("2", "mleczko");
+
+        // when
+        List<TrigramIndex.Match> matches = index.searchSimilar("mleko", 0.75, 10);
+
+        // then
+        assertEquals(1, matches.size());
+        assertEquals("mlekoo", matches.getFirst().text());
+        assertEquals(1.0 - 1.0 / 6, matches.getFirst().similarity(), 1e-9);
+    }
+
+    @Test
+    void put_WithExistingId_ShouldReplaceText() {
+        // given
+        TrigramIndex index = new TrigramIndex();
+        index.put("1", "banan");
+
+        // when
+        index.put("1", "jabłko");
+
+        // then
+        assertEquals(1, index.size());
+        assertTrue(index.search("banan", 1, 10).isEmpty());
+        assertEquals("1", index.search("jabłko", 0, 10).getFirst().id());
+    }
+
+    @Test
+    void remove_ShouldExcludeEntryFromResults() {
+        // given
+        TrigramIndex index = new TrigramIndex();
+        index.put("1", "banan");
+        index.put("2", "banany");
+
+        // when
+        boolean removed = index.remove("1");
+
+        // then
+        assertTrue(removed);
+        assertFalse(index.remove("1"));
+        assertEquals(List.of("2"), index.search("banan", 1, 10).stream().map(TrigramIndex.Match::id).toList());
+    }
+
+    @Test
+    void remove_ManyEntries_ShouldKeepRemainingEntriesSearchable() {
+        // given
+        TrigramIndex index = new TrigramIndex();
+        for (int i = 0; i < 5_000; i++) {
+            index.put("id" + i, "produkt " + i);
+        }
+
+        // when
+        for (int i = 0; i < 5_000; i += 2) {
+            index.remove("id" + i);
+        }
+        for (int i = 0; i < 2_000; i++) {
+            index.remove("id" + (i * 2 + 1));
+        }
+
+        // then
+        assertEquals(500, index.size());
+        assertEquals("id4001", index.search("produkt 4001", 0, 1).getFirst().id());
+        assertTrue(index.search("produkt 4000", 0, 1).isEmpty());
+    }
+
+    @Test
+    void search_WhenManyEntriesShareQueryGrams_ShouldCountSharedGramsPerCandidate() {
+        // given
+        TrigramIndex index = new TrigramIndex();
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < 20_000; i++) {
+            String text = "produkt " + i;
+            index.put("id" + i, text);
+            if (EditDistance.levenshtein("produkt 1234", text) <= 1) {
+                expected.add("id" + i);
+            }
+        }
+
+        // when
+        List<TrigramIndex.Match> matches = index.search("produkt 1234", 1, Integer.MAX_VALUE);
+
+        // then
+        assertEquals(expected, ids(matches));
+        assertEquals("id1234", matches.getFirst().id());
+    }
+
+    @Test
+    void copy_ShouldBeIndependentOfOriginal() {
+        // given
+        TrigramIndex original = new TrigramIndex();
+        original.put("1", "mleko");
+        original.put("2", "chleb");
+
+        // when
+        TrigramIndex copy = original.copy();
+        copy.put("3", "mlekoo");
+        copy.remove("2");
+        original.put("4", "mlekko");
+
+        // then
+        assertEquals(Set.of("1", "4"), ids(original.search("mleko", 1, 10)));
+        assertEquals(Set.of("2"), ids(original.search("chleb", 0, 10)));
+        assertEquals(Set.of("1", "3"), ids(copy.search("mleko", 1, 10)));
+        assertTrue(copy.search("chleb", 0, 10).isEmpty());
+    }
+
+    @Test
+    void update_ShouldMatchEntryByEntryChanges() {
+        // given
+        Random random = new Random(11);
+        String alphabet = "abcdeoł ";
+        TrigramIndex batched = new TrigramIndex();
+        TrigramIndex single = new TrigramIndex();
+        for (int round = 0; round < 20; round++) {
+            Map<String, String> changes = new LinkedHashMap<>();
+            for (int i = 0; i < 200; i++) {
+                String id = "id" + random.nextInt(1_000);
+                changes.put(id, random.nextInt(4) == 0 ? null : randomText(random, alphabet));
+            }
+
+            // when
+            batched.update(changes);
+            changes.forEach((id, text) -> {
+                if (text == null) {
+                    single.remove(id);
+                } else {
+                    single.put(id, text);
+                }
+            });
+        }
+
+        // then
+        assertEquals(single.size(), batched.size());
+        for (int i = 0; i < 100; i++) {
+            String query = randomText(random, alphabet);
+            assertEquals(ids(single.searchSimilar(query, 0.6, Integer.MAX_VALUE)),
+                    ids(batched.searchSimilar(query, 0.6, Integer.MAX_VALUE)), query);
+        }
+    }
+
+    @Test
+    void searchSimilar_ShouldMatchBruteForceForRandomInputs() {
+        // given
+        Random random = new Random(7);
+        String alphabet = "abcdeoł ";
+        TrigramIndex index = new TrigramIndex();
+        Map<String, String> texts = new HashMap<>();
+        for (int i = 0; i < 2_000; i++) {
+            String text = randomText(random, alphabet);
+            texts.put("id" + i, text);
+            index.put("id" + i, text);
+        }
+        for (int i = 0; i < 300; i++) {
+            String id = "id" + random.nextInt(2_000);
+            texts.remove(id);
+            index.remove(id);
+        }
+
+        for (int i = 0; i < 300; i++) {
+            String query = randomText(random, alphabet);
+            double threshold = 0.5 + random.nextInt(5) * 0.1;
+            int maxDistance = random.nextInt(4);
+
+            // when
+            Set<String> similar = ids(index.searchSimilar(query, threshold, Integer.MAX_VALUE));
+            Set<String> withinDistance = ids(index.search(query, maxDistance, Integer.MAX_VALUE));
+
+            // then
+            Set<String> expectedSimilar = new HashSet<>();
+            Set<String> expectedWithinDistance = new HashSet<>();
+            texts.forEach((id, text) -> {
+                int distance = EditDistance.levenshtein(query, text);
+                int maxLength = Math.max(query.length(), text.length());
+                if (maxLength == 0 || 1.0 - (double) distance / maxLength >= threshold) {
+                    expectedSimilar.add(id);
+                }
+                if (distance <= maxDistance) {
+                    expectedWithinDistance.add(id);
+                }
+            });
+            assertEquals(expectedSimilar, similar, query + " @ " + threshold);
+            assertEquals(expectedWithinDistance, withinDistance, query + " @ " + maxDistance);
+        }
+    }
+
+    private Set<String> ids(List<TrigramIndex.Match> matches) {
+        Set<String> ids = new HashSet<>();
+        matches.forEach(match -> ids.add(match.id()));
+        return ids;
+    }
+
+    private String randomText(Random random, String alphabet) {
+        StringBuilder text = new StringBuilder();
+        int length = random.nextInt(10);
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}
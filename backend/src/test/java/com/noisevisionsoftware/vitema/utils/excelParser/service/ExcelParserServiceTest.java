@@ -1,6 +1,8 @@
 package com.noisevisionsoftware.vitema.utils.excelParser.service;
 
 import com.noisevisionsoftware.vitema.model.recipe.NutritionalValues;
+import com.noisevisionsoftware.vitema.model.shopping.category.CategorySuggestion;
+import com.noisevisionsoftware.vitema.service.category.IngredientParseCache;
 import com.noisevisionsoftware.vitema.service.category.ProductCategorizationService;
 import com.noisevisionsoftware.vitema.utils.excelParser.config.ExcelParserConfig;
 import com.noisevisionsoftware.vitema.utils.excelParser.model.ParsedMeal;
@@ -10,23 +12,28 @@ import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class ExcelParserServiceTest {
@@ -40,9 +47,15 @@ class ExcelParserServiceTest {
     @Mock
     private ExcelParserConfig excelParserConfig;
 
-    @InjectMocks
     private ExcelParserService excelParserService;
 
+    @BeforeEach
+    void setUp() {
+        IngredientParseCache ingredientParseCache = new IngredientParseCache(
+                productParsingService, categorizationService, new CaffeineCacheManager(IngredientParseCache.CACHE_NAME));
+        excelParserService = new ExcelParserService(ingredientParseCache, categorizationService, excelParserConfig);
+    }
+
     private MultipartFile createMockExcelFile() throws IOException {
         Workbook workbook = new XSSFWorkbook();
         Sheet sheet = workbook.createSheet("DietTemplate");
@@ -243,7 +256,7 @@ class ExcelParserServiceTest {
                 .build();
 
         when(productParsingService.parseProduct(ingredient)).thenReturn(new ParsingResult(expectedProduct));
-        when(categorizationService.suggestCategory(any(ParsedProduct.class))).thenReturn("pieczywo");
+        when(categorizationService.suggestCategories(any(ParsedProduct.class), anyInt())).thenReturn(suggestions("pieczywo"));
 
         // when
         ParsedProduct result = (ParsedProduct) method.invoke(excelParserService, ingredient);
@@ -256,7 +269,8 @@ class ExcelParserServiceTest {
         assertEquals(ingredient, result.getOriginal());
         assertEquals("pieczywo", result.getCategoryId());
 
-        verify(categorizationService).updateCategorization(any(ParsedProduct.class));
+        // Uczenie odbywa się dopiero przy składaniu wyników, nie w (równoległym) parsowaniu
+        verify(categorizationService, never()).updateCategorizations(anyList());
     }
 
     @Test
@@ -304,7 +318,7 @@ class ExcelParserServiceTest {
             return new ParsingResult(product);
         });
 
-        when(categorizationService.suggestCategory(any(ParsedProduct.class))).thenReturn("testowa-kategoria");
+        when(categorizationService.suggestCategories(any(ParsedProduct.class), anyInt())).thenReturn(suggestions("testowa-kategoria"));
 
         // when
         ExcelParserService.ParsedExcelResult result = excelParserService.parseDietExcel(file, 1);
@@ -351,4 +365,119 @@ class ExcelParserServiceTest {
         assertFalse(result2.meals().isEmpty());
         assertEquals("Owsianka z owocami", result2.meals().getFirst().getName());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Powinien parsować każdy unikalny składnik tylko raz i uczyć kategoryzacji dla każdego wystąpienia")
+    @SuppressWarnings("unchecked")
+    void parseDietExcel_shouldParseDistinctIngredientsOnce() throws IOException {
+        // given
+        MultipartFile file = createExcelFileWithIngredients(List.of(
+                "50g płatki owsiane, 200ml mleko",
+                "50g płatki owsiane, 1 banan",
+                "200ml mleko"
+        ));
+        stubParsingByEcho("nabiał");
+
+        // when
+        ExcelParserService.ParsedExcelResult result = excelParserService.parseDietExcel(file, 1);
+
+        // then
+        verify(productParsingService, times(1)).parseProduct("50g płatki owsiane");
+        verify(productParsingService, times(1)).parseProduct("200ml mleko");
+        verify(productParsingService, times(1)).parseProduct("1 banan");
+        verify(categorizationService, times(3)).suggestCategories(any(ParsedProduct.class), anyInt());
+        // Wszystkie wystąpienia jedną zmianą słownika
+        ArgumentCaptor<List<ParsedProduct>> learned = ArgumentCaptor.forClass(List.class);
+        verify(categorizationService, times(1)).updateCategorizations(learned.capture());
+        assertEquals(List.of("50g płatki owsiane", "200ml mleko", "50g płatki owsiane", "1 banan", "200ml mleko"),
+                learned.getValue().stream().map(ParsedProduct::getOriginal).toList());
+        verify(categorizationService, never()).updateCategorization(any(ParsedProduct.class));
+
+        assertEquals(3, result.totalMeals());
+        assertNotSame(result.meals().get(0).getIngredients().getFirst(), result.meals().get(1).getIngredients().getFirst());
+        assertEquals(3, result.shoppingList().size());
+        assertEquals(2.0, result.shoppingList().getFirst().getValue().getQuantity());
+        assertEquals(1.0, result.meals().get(0).getIngredients().getFirst().getQuantity());
+    }
+
+    @Test
+    @DisplayName("Powinien zachować kolejność składników przy równoległym parsowaniu")
+    void parseDietExcel_shouldKeepIngredientOrderWhenParsingInParallel() throws IOException {
+        // given
+        List<String> ingredientCells = new ArrayList<>();
+        List<List<String>> expected = new ArrayList<>();
+        for (int meal = 0; meal < 40; meal++) {
+            List<String> items = new ArrayList<>();
+            for (int item = 0; item < 5; item++) {
+                items.add((meal * 5 + item) + "g produkt " + (meal * 5 + item) % 60);
+            }
+            expected.add(items);
+            ingredientCells.add(String.join(", ", items));
+        }
+        MultipartFile file = createExcelFileWithIngredients(ingredientCells);
+        stubParsingByEcho("kategoria");
+
+        // when
+        ExcelParserService.ParsedExcelResult result = excelParserService.parseDietExcel(file, 1);
+
+        // then
+        assertEquals(40, result.totalMeals());
+        for (int meal = 0; meal < 40; meal++) {
+            List<String> originals = result.meals().get(meal).getIngredients().stream()
+                    .map(ParsedProduct::getOriginal)
+                    .toList();
+            assertEquals(expected.get(meal), originals);
+        }
+    }
+
+    private void stubParsingByEcho(String categoryId) {
+        when(excelParserConfig.getMaxSkipColumnsCount()).thenReturn(3);
+        when(productParsingService.parseProduct(anyString())).thenAnswer(invocation -> {
+            String ingredient = invocation.getArgument(0);
+            return new ParsingResult(ParsedProduct.builder()
+                    .name(ingredient)
+                    .quantity(1.0)
+                    .unit("g")
+                    .original(ingredient)
+                    .hasCustomUnit(false)
+                    .build());
+        });
+        when(categorizationService.suggestCategories(any(ParsedProduct.class), anyInt())).thenReturn(suggestions(categoryId));
+    }
+
+    private MultipartFile createExcelFileWithIngredients(List<String> ingredientCells) throws IOException {
+        Workbook workbook = new XSSFWorkbook();
+        Sheet sheet = workbook.createSheet("DietTemplate");
+
+        Row headerRow = sheet.createRow(0);
+        headerRow.createCell(0).setCellValue("Lp.");
+        headerRow.createCell(1).setCellValue("Nazwa posiłku");
+        headerRow.createCell(2).setCellValue("Przygotowanie");
+        headerRow.createCell(3).setCellValue("Składniki");
+
+        for (int i = 0; i < ingredientCells.size(); i++) {
+            Row row = sheet.createRow(i + 1);
+            row.createCell(0).setCellValue(i + 1);
+            row.createCell(1).setCellValue("Posiłek " + (i + 1));
+            row.createCell(2).setCellValue("Przygotować");
+            row.createCell(3).setCellValue(ingredientCells.get(i));
+        }
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        workbook.write(bos);
+        workbook.close();
+
+        return new MockMultipartFile(
+                "diet_template.xlsx",
+                "diet_template.xlsx",
+                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
+                bos.toByteArray()
+        );
+    }
+
+    private List<CategorySuggestion> suggestions(String categoryId) {
+        return categoryId == null
+                ? List.of()
+                : List.of(new CategorySuggestion(categoryId, 1.0, CategorySuggestion.MatchType.EXACT));
+    }
+}
@@ -339,6 +339,34 @@ class ProductParsingServiceTest {
         assertEquals("olej rzepakowy", method.invoke(parsingService, "Olej Rzepakowy (nierafinowany)"));
     }
 
+    @Test
+    @DisplayName("Powinien czyścić nazwę produktu w przypadkach brzegowych tak jak wyrażenia regularne")
+    void cleanProductName_shouldHandleEdgeCases() throws Exception {
+        java.lang.reflect.Method method = ProductParsingService.class.getDeclaredMethod(
+                "cleanProductName", String.class);
+        method.setAccessible(true);
+
+        assertEquals("jogurt grecki", method.invoke(parsingService, "Jogurt (2%) \t Grecki"));
+        assertEquals("ser ()", method.invoke(parsingService, "Ser ()"));
+        assertEquals("ser (żółty", method.invoke(parsingService, "Ser (żółty"));
+        assertEquals("masło d)", method.invoke(parsingService, "Masło (extra (82%) d)"));
+        assertEquals("", method.invoke(parsingService, " (tylko nawias) "));
+    }
+
+    @Test
+    @DisplayName("Powinien usuwać jednostkę z nazwy tylko jako całe słowo")
+    void removeWholeWord_shouldRemoveOnlyWholeWords() throws Exception {
+        java.lang.reflect.Method method = ProductParsingService.class.getDeclaredMethod(
+                "removeWholeWord", String.class, String.class);
+        method.setAccessible(true);
+
+        assertEquals("mąka  pszenna", method.invoke(parsingService, "mąka g pszenna", "g"));
+        assertEquals("mąka  pszenna", method.invoke(parsingService, "mąka G pszenna", "g"));
+        assertEquals("gruszka", method.invoke(parsingService, "gruszka", "g"));
+        assertEquals(" ryżu", method.invoke(parsingService, "kg ryżu", "kg"));
+        assertEquals("ser", method.invoke(parsingService, "ser", "kg"));
+    }
+
     @Test
     @DisplayName("Powinien poprawnie sprawdzać, czy string jest numeryczny")
     void isNumeric_shouldCheckIfStringIsNumeric() throws Exception {
@@ -2,6 +2,7 @@ package com.noisevisionsoftware.vitema.utils.excelParser.service.helpers;
 
 import com.noisevisionsoftware.vitema.utils.excelParser.model.unit.ProductUnit;
 import com.noisevisionsoftware.vitema.utils.excelParser.model.unit.UnitDetectionResult;
+import com.noisevisionsoftware.vitema.utils.excelParser.model.unit.UnitSpan;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -9,6 +10,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -210,4 +212,106 @@ class UnitServiceTest {
         assertFalse(unitService.canCombineQuantities("nieznana", "g")); // nieznana jednostka
         assertFalse(unitService.canCombineQuantities("g", "nieznana")); // nieznana jednostka
     }
-}
\ No newline at end of file
+
+    @ParameterizedTest
+    @DisplayName("Powinien rozpoznawać odmienione formy jednostek")
+    @CsvSource({
+            "garść orzechów, garść, kitchen",
+            "2 garści szpinaku, garść, kitchen",
+            "łyżkę miodu, łyżka, kitchen",
+            "1/2 szklanki mleka, szklanka, kitchen",
+            "3 sztuki jajek, szt, piece",
+            "1 op. serka, opak, piece",
+            "10 dkg szynki, dag, weight",
+            "g., g, weight"
+    })
+    void detectUnitInText_shouldDetectInflectedForms(String input, String expectedUnit, String expectedType) {
+        // given, when
+        UnitDetectionResult result = unitService.detectUnitInText(input);
+
+        // then
+        assertTrue(result.isMatch());
+        assertEquals(expectedUnit, result.getUnit());
+        assertEquals(expectedType, result.getType());
+    }
+
+    @ParameterizedTest
+    @DisplayName("Nie powinien rozpoznawać jednostek wewnątrz innych słów")
+    @ValueSource(strings = {"dekoracja z owoców", "gruszka", "sól i pieprz", "mleko 2%"})
+    void detectUnitInText_shouldNotMatchInsideWords(String input) {
+        // given, when
+        UnitDetectionResult result = unitService.detectUnitInText(input);
+
+        // then
+        assertFalse(result.isMatch());
+    }
+
+    @Test
+    @DisplayName("Powinien preferować jednostkę poprzedzoną liczbą")
+    void detectUnitInText_shouldPreferUnitWithQuantity() {
+        // given, when
+        UnitDetectionResult result = unitService.detectUnitInText("opakowanie jogurtu 150 g");
+
+        // then
+        assertEquals("g", result.getUnit());
+        assertEquals("weight", result.getType());
+    }
+
+    @Test
+    @DisplayName("Powinien znaleźć wszystkie fragmenty liczba+jednostka z przelicznikami")
+    void findUnitSpans_shouldReturnSpansWithConversionFactors() {
+        // given
+        String text = "2 łyżki oliwy, 100g płatków i 1 1/2 szklanki mleka";
+
+        // when
+        List<UnitSpan> spans = unitService.findUnitSpans(text);
+
+        // then
+        assertEquals(3, spans.size());
+
+        UnitSpan spoon = spans.get(0);
+        assertEquals("2 łyżki", text.substring(spoon.getStart(), spoon.getEnd()));
+        assertEquals("łyżka", spoon.getUnit());
+        assertEquals(2.0, spoon.getQuantity());
+        assertEquals("ml", spoon.getBaseUnit());
+        assertEquals(30.0, spoon.getBaseQuantity());
+
+        UnitSpan grams = spans.get(1);
+        assertEquals("100g", text.substring(grams.getStart(), grams.getEnd()));
+        assertEquals(100.0, grams.getBaseQuantity());
+
+        UnitSpan glass = spans.get(2);
+        assertEquals("1 1/2 szklanki", text.substring(glass.getStart(), glass.getEnd()));
+        assertEquals(1.5, glass.getQuantity());
+        assertEquals(375.0, glass.getBaseQuantity());
+    }
+
+    @Test
+    @DisplayName("Powinien zwracać jednostki bez liczby oraz pusty wynik dla braku jednostek")
+    void findUnitSpans_shouldHandleUnitsWithoutQuantity() {
+        // given, when
+        List<UnitSpan> withoutQuantity = unitService.findUnitSpans("szczypta soli, garść orzechów");
+        List<UnitSpan> none = unitService.findUnitSpans("banan");
+
+        // then
+        assertEquals(1, withoutQuantity.size());
+        assertEquals("garść", withoutQuantity.getFirst().getUnit());
+        assertFalse(withoutQuantity.getFirst().hasQuantity());
+        assertNull(withoutQuantity.getFirst().getBaseQuantity());
+        assertEquals(30.0, withoutQuantity.getFirst().getConversionFactor());
+
+        assertTrue(none.isEmpty());
+        assertTrue(unitService.findUnitSpans(null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Powinien ignorować liczbę oddzieloną od jednostki innym znakiem")
+    void findUnitSpans_shouldNotAttachNumberSeparatedByPunctuation() {
+        // given, when
+        List<UnitSpan> spans = unitService.findUnitSpans("jogurt 2%, ml");
+
+        // then
+        assertEquals(1, spans.size());
+        assertNull(spans.getFirst().getQuantity());
+    }
+}